@@ -1,27 +1,19 @@
 package com.condominio.controller;
 
 import com.condominio.dto.request.AuthRequest;
-import com.condominio.dto.response.AuthResponse;
-import com.condominio.dto.response.UserResponse;
-import com.condominio.persistence.model.Persona;
-import com.condominio.persistence.model.UserEntity;
-import com.condominio.service.implementation.UserService;
-import com.condominio.util.security.JwtUtil;
+import com.condominio.dto.request.RefreshRequest;
+import com.condominio.dto.response.RefreshResponse;
+import com.condominio.service.implementation.LoginService;
+import com.condominio.service.implementation.TokenRefrescoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -29,67 +21,20 @@ import java.util.stream.Stream;
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
-    private final JwtUtil jwtUtil;
-    private final UserService userService;
+    private final LoginService loginService;
+    private final TokenRefrescoService tokenRefrescoService;
 
+    /** El hilo de la petición queda libre mientras se verifica la contraseña. */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody @Valid AuthRequest request) {
-        try {
-            var authToken = new UsernamePasswordAuthenticationToken(
-                    request.username(), request.password()
-            );
-
-            Authentication auth = authenticationManager.authenticate(authToken);
-            UserDetails userDetails = (UserDetails) auth.getPrincipal();
-
-            String token = jwtUtil.generateAccessToken(userDetails);
-            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
-            UserEntity userEntity = userService.findByEmail(userDetails.getUsername());
-
-            String nombre = null;
-            Long idCasa = null;
-            Long idPersona = null;
-            if (userEntity != null) {
-                Persona personaOpt = userService.findPersonaByUser(userEntity);
-                if (personaOpt != null) {
-
-                    nombre = buildNombreCompleto(personaOpt);
-                    idPersona = personaOpt.getId();
-
-                    idCasa = personaOpt.getCasa() != null
-                            ? personaOpt.getCasa().getId()
-                            : null;
-                }
-            }
-
-            List<String> roles = userEntity.getRoles().stream()
-                    .map(r -> r.getRoleEnum().name())
-                    .collect(Collectors.toList());
-
-
-            var userResponse = new UserResponse(
-                    userDetails.getUsername(),
-                    nombre,
-                    roles,
-                    idCasa,
-                    idPersona
-            );
-
-            return ResponseEntity.ok(new AuthResponse(token, refreshToken,userResponse));
-        } catch (Exception ex) {
-            return ResponseEntity.status(401).body("Credenciales inválidas");
-        }
-
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody @Valid AuthRequest request) {
+        return loginService.login(request.username(), request.password())
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> ResponseEntity.status(401).body("Credenciales inválidas"));
     }
 
-    private static String buildNombreCompleto(Persona p) {
-
-        return Stream.of(p.getPrimerNombre(), p.getSegundoNombre(),
-                        p.getPrimerApellido(), p.getSegundoApellido())
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.joining(" "));
+    /** Cambia un token de refresco por un token de acceso nuevo y otro de refresco; el enviado deja de servir. */
+    @PostMapping("/refresh")
+    public ResponseEntity<RefreshResponse> refresh(@RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(tokenRefrescoService.refrescar(request.refreshToken()));
     }
 }
@@ -1,16 +1,22 @@
 package com.condominio.controller;
 
 import com.condominio.dto.response.CasaCuentaDTO;
-import com.condominio.dto.response.CasaDeudoraDTO;
 import com.condominio.dto.response.CasaInfoDTO;
+import com.condominio.dto.response.ReconstruccionSaldosDTO;
 import com.condominio.dto.response.SuccessResult;
+import com.condominio.service.implementation.SaldoCasaService;
 import com.condominio.service.interfaces.ICasaService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 
 @RestController
@@ -19,6 +25,7 @@ import java.util.List;
 public class CasaController {
 
     private final ICasaService casaService;
+    private final SaldoCasaService saldoCasaService;
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -36,13 +43,23 @@ public class CasaController {
 
     @GetMapping("/por-cobrar")
     @PreAuthorize("hasRole('ADMIN')")
-    public SuccessResult<List<CasaDeudoraDTO>> obtenerCasasConObligacionesPorCobrar() {
-        return casaService.obtenerCasasConObligacionesPorCobrar();
+    public ResponseEntity<StreamingResponseBody> obtenerCasasConObligacionesPorCobrar() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(casaService.obtenerCasasConObligacionesPorCobrar());
+    }
+
+    @PostMapping("/saldos/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SuccessResult<ReconstruccionSaldosDTO> reconstruirSaldos() {
+        return saldoCasaService.reconstruir();
     }
 
     @GetMapping("/obligaciones-casa")
     @PreAuthorize("hasRole('ADMIN')")
-    public SuccessResult<List<CasaDeudoraDTO>> obtenerObligacionesPorCasa() {
-        return casaService.obtenerObligacionesPorCasa();
+    public ResponseEntity<StreamingResponseBody> obtenerObligacionesPorCasa() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(casaService.obtenerObligacionesPorCasa());
     }
 }
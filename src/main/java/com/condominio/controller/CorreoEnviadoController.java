@@ -1,7 +1,7 @@
 package com.condominio.controller;
 
+import com.condominio.dto.response.CorreoEnviadoDTO;
 import com.condominio.dto.response.SuccessResult;
-import com.condominio.persistence.model.CorreoEnviado;
 import com.condominio.service.implementation.CorreoEnviadoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,7 +18,7 @@ public class CorreoEnviadoController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public List<CorreoEnviado> findAll() {
+    public List<CorreoEnviadoDTO> findAll() {
         return correoEnviadoService.findAll();
     }
 
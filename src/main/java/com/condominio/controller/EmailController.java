@@ -1,10 +1,14 @@
 package com.condominio.controller;
 
 import com.condominio.dto.request.SendEmailsDTO;
+import com.condominio.dto.response.AvanceCampanaDTO;
 import com.condominio.dto.response.SuccessResult;
+import com.condominio.service.implementation.CorreoSalienteService;
 import com.condominio.service.implementation.EmailService;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -13,9 +17,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("email")
 public class EmailController {
     private final EmailService emailService;
+    private final CorreoSalienteService correoSalienteService;
 
-    public EmailController(EmailService emailService) {
+    public EmailController(EmailService emailService, CorreoSalienteService correoSalienteService) {
         this.emailService = emailService;
+        this.correoSalienteService = correoSalienteService;
     }
 
     @PostMapping("/send-many")
@@ -32,4 +38,10 @@ public class EmailController {
                 null
         );
     }
+
+    @GetMapping("/campanas/{campana}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SuccessResult<AvanceCampanaDTO> avanceCampana(@PathVariable String campana) {
+        return correoSalienteService.avanceCampana(campana);
+    }
 }
@@ -0,0 +1,64 @@
+package com.condominio.controller;
+
+import com.condominio.dto.response.SuccessResult;
+import com.condominio.persistence.model.GeneracionEstadosCuenta;
+import com.condominio.service.implementation.EstadoCuentaMensualService;
+import com.condominio.util.security.ResidenteActual;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("estado-cuenta")
+public class EstadoCuentaController {
+
+    private final EstadoCuentaMensualService estadoCuentaMensualService;
+    private final ResidenteActual residenteActual;
+
+    /** Responde en cuanto la ejecución queda registrada; su avance se consulta en /generaciones/{id}. */
+    @PostMapping("/generar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SuccessResult<GeneracionEstadosCuenta>> generar(@RequestParam YearMonth periodo) {
+        GeneracionEstadosCuenta ejecucion = estadoCuentaMensualService.iniciar(periodo);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new SuccessResult<>("Generación de estados de cuenta iniciada", ejecucion));
+    }
+
+    @GetMapping("/generaciones/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SuccessResult<GeneracionEstadosCuenta> consultarGeneracion(@PathVariable Long id) {
+        return new SuccessResult<>("Generación de estados de cuenta obtenida correctamente",
+                estadoCuentaMensualService.consultar(id));
+    }
+
+    @GetMapping("/{periodo}")
+    @PreAuthorize("hasAnyRole( 'PROPIETARIO', 'ARRENDATARIO')")
+    public ResponseEntity<Resource> descargarPropio(@PathVariable YearMonth periodo) {
+        return pdf(periodo, residenteActual.requerirIdCasa());
+    }
+
+    @GetMapping("/{periodo}/casa/{idCasa}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> descargar(@PathVariable YearMonth periodo, @PathVariable Long idCasa) {
+        return pdf(periodo, idCasa);
+    }
+
+    private ResponseEntity<Resource> pdf(YearMonth periodo, Long idCasa) {
+        Resource archivo = estadoCuentaMensualService.descargar(periodo, idCasa);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("estado_cuenta_" + periodo + "_casa_" + idCasa + ".pdf")
+                        .build().toString())
+                .body(archivo);
+    }
+}
@@ -6,14 +6,11 @@ import com.condominio.dto.response.MiembrosDTO;
 import com.condominio.dto.response.MiembrosDatosDTO;
 import com.condominio.dto.response.MiembrosResponseDTO;
 import com.condominio.dto.response.SuccessResult;
-import com.condominio.persistence.model.Persona;
 import com.condominio.service.implementation.MiembroService;
-import com.condominio.service.implementation.PersonaService;
+import com.condominio.util.security.ResidenteActual;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,7 +21,7 @@ import java.util.List;
 public class MiembroController {
 
     private final MiembroService miembroService;
-    private final PersonaService personaService;
+    private final ResidenteActual residenteActual;
 
     @GetMapping("/view-members/{idCasa}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -42,41 +39,34 @@ public class MiembroController {
     @PreAuthorize("hasAnyRole( 'PROPIETARIO', 'ARRENDATARIO')")
     public ResponseEntity<SuccessResult<Void>> actualizarMiembro(
             @PathVariable Long idMiembro,
-            @RequestBody MiembroActualizacionDTO dto,
-            @AuthenticationPrincipal UserDetails userDetails
+            @RequestBody MiembroActualizacionDTO dto
     ) {
-        Long casaUsuarioId = obtenerCasaId(userDetails);
+        Long casaUsuarioId = residenteActual.requerirIdCasa();
         return ResponseEntity.ok(miembroService.actualizarMiembro(idMiembro, dto,casaUsuarioId));
     }
 
     @GetMapping("/all-casa-members")
     @PreAuthorize("hasAnyRole( 'PROPIETARIO', 'ARRENDATARIO')")
-    public ResponseEntity<List<MiembrosDatosDTO>> obtenerMiembros(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<List<MiembrosDatosDTO>> obtenerMiembros() {
 
-        List<MiembrosDatosDTO> miembros = miembroService.listarMiembrosPorCasa(obtenerCasaId(userDetails));
+        List<MiembrosDatosDTO> miembros = miembroService.listarMiembrosPorCasa(residenteActual.requerirIdCasa());
         return ResponseEntity.ok(miembros);
     }
     @PatchMapping("/{idMiembro}/edit-estado")
     @PreAuthorize("hasAnyRole( 'PROPIETARIO', 'ARRENDATARIO')")
-    public ResponseEntity<SuccessResult<Void>> toggleEstado(@PathVariable Long idMiembro
-            ,@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<SuccessResult<Void>> toggleEstado(@PathVariable Long idMiembro) {
 
-        Long casaUsuarioId = obtenerCasaId(userDetails);
+        Long casaUsuarioId = residenteActual.requerirIdCasa();
         SuccessResult<Void> result = miembroService.actualizarEstadoMiembro(idMiembro,casaUsuarioId);
         return ResponseEntity.ok(result);
     }
 
 
-    private Long obtenerCasaId(UserDetails userDetails) {
-        Persona persona = personaService.getPersonaFromUserDetails(userDetails);
-        return persona.getCasa().getId();
-    }
     @GetMapping("/informacion-miembros")
     @PreAuthorize("hasRole('PROPIETARIO')")
-    public ResponseEntity<SuccessResult<MiembrosResponseDTO>> obtenerMiembrosPropietario(
-            @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<SuccessResult<MiembrosResponseDTO>> obtenerMiembrosPropietario() {
 
-        Long casaUsuarioId = obtenerCasaId(userDetails);
+        Long casaUsuarioId = residenteActual.requerirIdCasa();
         SuccessResult<MiembrosResponseDTO> result = miembroService.obtenerMiembrosPorCasaConEstado(casaUsuarioId);
         return ResponseEntity.ok(result);
     }
@@ -4,22 +4,34 @@ import com.condominio.dto.request.MultaActualizacionDTO;
 import com.condominio.dto.request.MultaRegistroDTO;
 import com.condominio.dto.request.RecursoComunDTO;
 import com.condominio.dto.response.*;
+import com.condominio.persistence.model.CausacionInteres;
 import com.condominio.persistence.model.Obligacion;
 import com.condominio.persistence.model.RecursoComun;
+import com.condominio.service.implementation.CausacionInteresService;
+import com.condominio.service.implementation.PazYSalvoMasivoService;
 import com.condominio.service.interfaces.IObligacionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import static com.condominio.util.constants.AppConstants.ZONE;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("obligacion")
 public class ObligacionController {
     private final IObligacionService obligacionService;
+    private final CausacionInteresService causacionInteresService;
+    private final PazYSalvoMasivoService pazYSalvoMasivoService;
 
     @GetMapping("/{idCasa}/estado")
     @PreAuthorize("hasRole('ADMIN')")
@@ -29,11 +41,24 @@ public class ObligacionController {
 
     @GetMapping("/paz-y-salvo/{idCasa}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> descargarPazYSalvo(@PathVariable Long idCasa) {
+    public ResponseEntity<StreamingResponseBody> descargarPazYSalvo(@PathVariable Long idCasa) {
         return obligacionService.generarPazYSalvo(idCasa);
 
     }
 
+    @GetMapping("/paz-y-salvo")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> descargarPazYSalvoMasivo(
+            @RequestParam(defaultValue = "false") boolean enviarCorreo) {
+        StreamingResponseBody zip = pazYSalvoMasivoService.generar(enviarCorreo);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("paz_y_salvo_" + LocalDate.now(ZONE) + ".zip")
+                        .build().toString())
+                .body(zip);
+    }
+
     @PostMapping("/multa/create")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<SuccessResult<Obligacion>> create(
@@ -63,6 +88,13 @@ public class ObligacionController {
         return ResponseEntity.ok("Obligaciones mensuales generadas manualmente con éxito");
     }
 
+    @PostMapping("/causar-intereses")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SuccessResult<CausacionInteres> causarIntereses() {
+        CausacionInteres corrida = causacionInteresService.causar(LocalDate.now(ZONE));
+        return new SuccessResult<>("Intereses causados correctamente", corrida);
+    }
+
     @GetMapping("/all/{idCasa}")
     public ResponseEntity<SuccessResult<EstadoCuentaDTO>> obtenerEstadoDeCuenta(
             @PathVariable Long idCasa
@@ -4,12 +4,15 @@ import com.condominio.dto.response.*;
 import com.condominio.dto.request.SolicitudReservaUpdateDTO;
 import com.condominio.dto.response.*;
 import com.condominio.persistence.model.EstadoSolicitud;
+import com.condominio.service.implementation.DisponibilidadReservaService;
 import com.condominio.service.interfaces.ISolicitudReservaRecursoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,6 +20,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SolicitudReservaRecursoController {
     private final ISolicitudReservaRecursoService solicitudReservaService;
+    private final DisponibilidadReservaService disponibilidadReservaService;
 
 
     @GetMapping("/reservas")
@@ -81,6 +85,15 @@ public class SolicitudReservaRecursoController {
     public SuccessResult<SolicitudRecursoPropiDTO> findAllByPersona(@RequestBody SolicitudReservaUpdateDTO solicitudReservaUpdateDTO){
         return solicitudReservaService.actualizarSolicitud(solicitudReservaUpdateDTO);
     }
+    @GetMapping("/disponibilidad")
+    @PreAuthorize("hasAnyRole('PROPIETARIO', 'ARRENDATARIO', 'ADMIN')")
+    public SuccessResult<List<DisponibilidadRecursoDTO>> buscarFranjasLibres(
+            @RequestParam("desde") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam("hasta") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "idRecurso", required = false) Long idRecurso) {
+        return disponibilidadReservaService.buscarFranjasLibres(desde, hasta, idRecurso);
+    }
+
     @GetMapping("/all")
     @PreAuthorize("hasAnyRole('PROPIETARIO', 'ARRENDATARIO', 'ADMIN')")
     public ResponseEntity<SuccessResult<List<SolicitudReservaRecursoDTO>>> getAllSolicitudes() {
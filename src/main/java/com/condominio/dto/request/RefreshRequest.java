@@ -0,0 +1,5 @@
+package com.condominio.dto.request;
+
+
+public record RefreshRequest(String refreshToken) {
+}
@@ -0,0 +1,19 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvanceCampanaDTO {
+    private String campana;
+    private long total;
+    private long pendientes;
+    private long enviando;
+    private long enviados;
+    private long fallidos;
+}
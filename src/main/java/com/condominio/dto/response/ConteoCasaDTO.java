@@ -0,0 +1,13 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConteoCasaDTO {
+    private Long casaId;
+    private Long cantidad;
+}
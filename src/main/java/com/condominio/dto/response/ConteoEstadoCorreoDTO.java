@@ -0,0 +1,14 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.EstadoCorreo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConteoEstadoCorreoDTO {
+    private EstadoCorreo estado;
+    private Long cantidad;
+}
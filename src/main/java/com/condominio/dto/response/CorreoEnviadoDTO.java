@@ -0,0 +1,21 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Un comunicado con sus destinatarios como lista JSON de correos, igual que se guardaban antes. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CorreoEnviadoDTO {
+    private Long id;
+    private String titulo;
+    private String cuerpo;
+    private LocalDateTime fechaEnvio;
+    private String destinatarios;
+}
@@ -1,9 +1,15 @@
 package com.condominio.dto.response;
 
+import com.condominio.persistence.model.EstadoCorreo;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,4 +17,27 @@ public class DestinatarioInfoDTO {
     private String nombreCompleto;
     private Long  idCasa;
     private String email;
+    private EstadoCorreo estado;
+    private Integer intentos;
+    private LocalDateTime fechaEstado;
+
+    public DestinatarioInfoDTO(String nombreCompleto, Long idCasa, String email) {
+        this.nombreCompleto = nombreCompleto;
+        this.idCasa = idCasa;
+        this.email = email;
+    }
+
+    public DestinatarioInfoDTO(String primerNombre, String segundoNombre, String primerApellido, String segundoApellido,
+                               Long idCasa, String email, EstadoCorreo estado, int intentos, LocalDateTime fechaEstado) {
+        String nombre = Stream.of(primerNombre, segundoNombre, primerApellido, segundoApellido)
+                .filter(Objects::nonNull)
+                .filter(s -> !s.isBlank())
+                .collect(Collectors.joining(" "));
+        this.nombreCompleto = nombre.isEmpty() ? null : nombre;
+        this.idCasa = idCasa;
+        this.email = email;
+        this.estado = estado;
+        this.intentos = intentos;
+        this.fechaEstado = fechaEstado;
+    }
 }
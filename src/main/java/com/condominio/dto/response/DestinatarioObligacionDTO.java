@@ -0,0 +1,14 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DestinatarioObligacionDTO {
+    private Long idCasa;
+    private int numeroCasa;
+    private String email;
+}
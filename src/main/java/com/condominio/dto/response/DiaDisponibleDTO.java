@@ -0,0 +1,16 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiaDisponibleDTO {
+    private LocalDate fecha;
+    private List<FranjaHorariaDTO> franjasLibres;
+}
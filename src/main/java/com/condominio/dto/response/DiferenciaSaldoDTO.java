@@ -0,0 +1,18 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DiferenciaSaldoDTO {
+    private Long casaId;
+    private Long saldoPendienteAnterior;
+    private long saldoPendienteCalculado;
+    private Long saldoVencidoAnterior;
+    private long saldoVencidoCalculado;
+}
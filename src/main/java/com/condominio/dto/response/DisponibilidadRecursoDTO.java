@@ -0,0 +1,20 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.TipoRecursoComun;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DisponibilidadRecursoDTO {
+    private Long idRecurso;
+    private String nombre;
+    private TipoRecursoComun tipoRecursoComun;
+    private List<DiaDisponibleDTO> dias;
+}
@@ -0,0 +1,13 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailComunicadoDTO {
+    private Long correoEnviadoId;
+    private String email;
+}
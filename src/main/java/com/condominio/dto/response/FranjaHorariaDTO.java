@@ -0,0 +1,15 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FranjaHorariaDTO {
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+}
@@ -0,0 +1,19 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntervaloReservaDTO {
+    private Long idSolicitud;
+    private Long idRecurso;
+    private LocalDate fechaSolicitud;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+}
@@ -0,0 +1,21 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.TipoMascota;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class MascotaCasaDTO {
+    private Long casaId;
+    private String tipo;
+    private Long cantidad;
+
+    public MascotaCasaDTO(Long casaId, TipoMascota tipo, Long cantidad) {
+        this.casaId = casaId;
+        this.tipo = tipo.toString();
+        this.cantidad = cantidad;
+    }
+}
@@ -0,0 +1,17 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoEstadoCuentaDTO {
+    private Long casaId;
+    private LocalDate fecha;
+    private String concepto;
+    private int valor;
+}
@@ -0,0 +1,30 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.EstadoPago;
+import com.condominio.persistence.model.TipoObligacion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Fila plana de obligación con su casa, para recorrer la cartera sin cargar entidades. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObligacionCasaDTO {
+    private Long casaId;
+    private int numeroCasa;
+    private Long id;
+    private LocalDate fechaGenerada;
+    private String titulo;
+    private String motivo;
+    private int monto;
+    private int valorTotal;
+    private int valorPendiente;
+    private int montoPagado;
+    private TipoObligacion tipoObligacion;
+    private EstadoPago estadoPago;
+    private int interes;
+    private int mora;
+}
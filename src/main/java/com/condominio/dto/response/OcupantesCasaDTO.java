@@ -0,0 +1,23 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.RoleEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Propietario y arrendatario vigentes de una casa; cualquiera puede faltar. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OcupantesCasaDTO {
+    private Long propietarioId;
+    private Long arrendatarioId;
+
+    public Long ocupanteId(RoleEnum rol) {
+        return switch (rol) {
+            case PROPIETARIO -> propietarioId;
+            case ARRENDATARIO -> arrendatarioId;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconstruccionSaldosDTO {
+    private int casasRecalculadas;
+    private int casasConDiferencias;
+    private List<DiferenciaSaldoDTO> diferencias;
+}
@@ -0,0 +1,6 @@
+package com.condominio.dto.response;
+
+public record RefreshResponse(
+        String token,
+        String refreshToken) {
+}
@@ -0,0 +1,27 @@
+package com.condominio.dto.response;
+
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEnum;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class ResidenteCasaDTO {
+    private Long casaId;
+    private RoleEnum rol;
+    private String nombreCompleto;
+    private Long telefono;
+    private String correo;
+
+    public ResidenteCasaDTO(Long casaId, RoleEnum rol, String primerNombre, String segundoNombre,
+                            String primerApellido, String segundoApellido, Long telefono, String correo) {
+        this.casaId = casaId;
+        this.rol = rol;
+        this.nombreCompleto = Persona.nombreCompleto(primerNombre, segundoNombre, primerApellido, segundoApellido);
+        this.telefono = telefono;
+        this.correo = correo;
+    }
+}
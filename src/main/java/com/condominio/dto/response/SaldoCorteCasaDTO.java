@@ -0,0 +1,15 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Suma por casa hasta una fecha de corte: del total y de lo que ya estaba vencido a esa fecha. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SaldoCorteCasaDTO {
+    private Long casaId;
+    private Long total;
+    private Long vencido;
+}
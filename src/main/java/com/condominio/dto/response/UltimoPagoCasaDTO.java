@@ -0,0 +1,15 @@
+package com.condominio.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UltimoPagoCasaDTO {
+    private Long casaId;
+    private LocalDate fechaUltimoPago;
+}
@@ -0,0 +1,32 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivo adjunto guardado en disco por {@code AdjuntoCorreoService}, con su SHA-256 como
+ * nombre. Un mismo archivo se guarda una vez aunque lo adjunten varios comunicados; el
+ * nombre con que lo ve cada destinatario va en {@link CorreoSaliente#getNombreAdjunto()}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_adjunto_correo_hash", columnNames = "hash"))
+public class AdjuntoCorreo {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String hash;
+
+    private long tamano;
+
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,37 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Estadísticas de una corrida de causación de intereses y mora.
+ * {@code fechaCorte} es la marca de agua: las obligaciones quedan causadas hasta ese día.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+public class CausacionInteres {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fechaCorte;
+
+    private LocalDateTime fechaInicio;
+
+    private LocalDateTime fechaFin;
+
+    private int obligacionesCausadas;
+
+    private int lotes;
+
+    private long duracionMs;
+}
@@ -0,0 +1,42 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un destinatario de un comunicado ({@link CorreoEnviado}). Cada destinatario recibe su propio
+ * {@link CorreoSaliente}, y su estado, intentos y fecha siguen los de ese correo.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "correo_destinatario", indexes = {
+        @Index(name = "idx_correo_destinatario_correo", columnList = "correo_enviado_id"),
+        @Index(name = "idx_correo_destinatario_saliente", columnList = "correo_saliente_id")
+})
+public class CorreoDestinatario {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "correo_enviado_id", nullable = false)
+    private Long correoEnviadoId;
+
+    @Column(name = "correo_saliente_id")
+    private Long correoSalienteId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoCorreo estado;
+
+    private int intentos;
+
+    private LocalDateTime fechaEstado;
+}
@@ -0,0 +1,70 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío. Se guarda en la misma transacción que lo origina y un
+ * despachador lo envía después, reintentando con espera exponencial si el servidor
+ * de correo falla.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString(exclude = "cuerpo")
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_correo_saliente_estado", columnList = "estado, proximo_intento"),
+        @Index(name = "idx_correo_saliente_campana", columnList = "campana"),
+        @Index(name = "idx_correo_saliente_adjunto", columnList = "adjunto_id")
+})
+public class CorreoSaliente {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TipoCorreo tipo;
+
+    /** Envío masivo al que pertenece, p. ej. {@code asamblea-12}; nulo en correos sueltos. */
+    @Column(length = 100)
+    private String campana;
+
+    /** Lista de destinatarios en JSON. */
+    @Lob
+    private String destinatarios;
+
+    @Column(length = 255)
+    private String asunto;
+
+    @Lob
+    private String cuerpo;
+
+    private boolean html;
+
+    private String nombreAdjunto;
+
+    /** Adjunto en disco ({@link AdjuntoCorreo}); los correos de un comunicado comparten el mismo. */
+    private Long adjuntoId;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoCorreo estado;
+
+    private int intentos;
+
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime proximoIntento;
+
+    /** Momento en que un despachador tomó el correo; sirve para recuperar envíos interrumpidos. */
+    private LocalDateTime fechaReclamo;
+
+    private LocalDateTime fechaEnvio;
+
+    @Column(length = 1000)
+    private String ultimoError;
+}
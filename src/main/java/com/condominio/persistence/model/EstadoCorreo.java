@@ -0,0 +1,5 @@
+package com.condominio.persistence.model;
+
+public enum EstadoCorreo {
+    PENDIENTE, ENVIANDO, ENVIADO, FALLIDO
+}
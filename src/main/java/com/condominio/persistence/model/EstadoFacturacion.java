@@ -0,0 +1,5 @@
+package com.condominio.persistence.model;
+
+public enum EstadoFacturacion {
+    EN_CURSO, COMPLETADA, INTERRUMPIDA
+}
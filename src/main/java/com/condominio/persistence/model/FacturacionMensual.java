@@ -0,0 +1,39 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de la facturación de administración de un periodo (yyyy-MM).
+ * {@code ultimaCasaId} se actualiza en la misma transacción que cada lote,
+ * así una ejecución interrumpida continúa desde la última casa confirmada.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+public class FacturacionMensual {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 7)
+    private String periodo;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoFacturacion estado;
+
+    @Column(nullable = false)
+    private Long ultimaCasaId;
+
+    private int casasFacturadas;
+
+    private LocalDateTime fechaInicio;
+
+    private LocalDateTime fechaFin;
+}
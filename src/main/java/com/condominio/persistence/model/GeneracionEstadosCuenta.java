@@ -0,0 +1,41 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de la generación de estados de cuenta en PDF de un periodo (yyyy-MM).
+ * {@code ultimaCasaId} avanza en la misma transacción que cada lote, así una
+ * ejecución interrumpida continúa desde la última casa archivada.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+public class GeneracionEstadosCuenta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 7)
+    private String periodo;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoFacturacion estado;
+
+    @Column(nullable = false)
+    private Long ultimaCasaId;
+
+    private int casasGeneradas;
+
+    private int casasConError;
+
+    private LocalDateTime fechaInicio;
+
+    private LocalDateTime fechaFin;
+}
@@ -0,0 +1,33 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** Cambio de estado de un {@link CorreoSaliente}, uno por cada intento y resultado. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(indexes = @Index(name = "idx_historial_correo", columnList = "correo_id"))
+public class HistorialCorreoSaliente {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long correoId;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoCorreo estado;
+
+    private int intento;
+
+    @Column(length = 1000)
+    private String detalle;
+
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,31 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Los tokens de {@code email} emitidos antes de {@code invalidadoDesde} ya no autentican.
+ * Solo interesan las filas más recientes que la vigencia del token de acceso; las demás
+ * se borran porque esos tokens ya vencieron.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(indexes = @Index(name = "idx_invalidacion_token_desde", columnList = "invalidado_desde"))
+public class InvalidacionToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String email;
+
+    @Column(nullable = false)
+    private LocalDateTime invalidadoDesde;
+}
@@ -11,6 +11,9 @@ import java.time.LocalDate;
 @Builder
 @ToString
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_obligacion_casa_periodo", columnNames = {"casa_id", "periodo"}),
+        indexes = @Index(name = "idx_obligacion_causacion", columnList = "estado_pago, fecha_limite"))
 public class Obligacion {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +25,8 @@ public class Obligacion {
     private int monto;
 
     private LocalDate fechaLimite;
+    /** Último día hasta el cual se causaron intereses y mora. */
+    private LocalDate fechaCausacion;
     private double tasaInteres;
     private int interes;
     private int mora;
@@ -30,6 +35,10 @@ public class Obligacion {
     private String motivo;
     private String titulo;
 
+    /** yyyy-MM de la administración facturada; null para multas. */
+    @Column(length = 7)
+    private String periodo;
+
     private int valorTotal;
     private int valorPendiente;
 
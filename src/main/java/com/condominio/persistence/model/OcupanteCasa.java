@@ -0,0 +1,37 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Índice de ocupantes por casa: quién es el propietario y quién el arrendatario
+ * vigentes. Se actualiza cuando se registra o reemplaza un residente, así las
+ * búsquedas por casa no recorren persona, usuario y roles.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+public class OcupanteCasa {
+    @Id
+    private Long casaId;
+
+    private Long propietarioId;
+
+    private Long arrendatarioId;
+
+    private LocalDateTime fechaActualizacion;
+
+    public Long getOcupanteId(RoleEnum rol) {
+        return switch (rol) {
+            case PROPIETARIO -> propietarioId;
+            case ARRENDATARIO -> arrendatarioId;
+            default -> null;
+        };
+    }
+}
@@ -36,7 +36,12 @@ public class Persona {
     private Casa casa;
 
     public String getNombreCompleto() {
-        return Stream.of(primerNombre, segundoNombre, primerApellido, segundoApellido)
+        return nombreCompleto(primerNombre, segundoNombre, primerApellido, segundoApellido);
+    }
+
+    /** Las partes del nombre separadas por un espacio, omitiendo las vacías. */
+    public static String nombreCompleto(String... partes) {
+        return Stream.of(partes)
                 .filter(Objects::nonNull)
                 .filter(s -> !s.isBlank())
                 .collect(Collectors.joining(" "));
@@ -0,0 +1,35 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo materializado de una casa. Se recalcula en la misma transacción que
+ * pagos, multas, facturación y causación de intereses; las consultas de saldo
+ * lo leen por llave primaria en vez de sumar las obligaciones.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+public class SaldoCasa {
+    @Id
+    private Long casaId;
+
+    private long saldoPendiente;
+
+    private long saldoVencido;
+
+    private LocalDate fechaUltimoPago;
+
+    @Enumerated(EnumType.STRING)
+    private EstadoFinancieroCasa estadoFinanciero;
+
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,6 @@
+package com.condominio.persistence.model;
+
+public enum TipoCorreo {
+    PASSWORD_TEMPORAL, PASSWORD_OLVIDADA, PAGO, INVITACION_ASAMBLEA, PAZ_Y_SALVO,
+    SOLICITUD_RESERVA, OBLIGACION_MENSUAL, MASIVO
+}
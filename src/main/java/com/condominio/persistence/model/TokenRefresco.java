@@ -0,0 +1,45 @@
+package com.condominio.persistence.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token de refresco emitido, identificado por el SHA-256 de su {@code jti}: la tabla no guarda
+ * nada que sirva para refrescar. Cada refresco marca el suyo como usado y emite otro de la
+ * misma {@code familia}; si llega uno ya usado, alguien más lo tiene y se revoca la familia.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_token_refresco_familia", columnList = "familia"),
+        @Index(name = "idx_token_refresco_email", columnList = "email"),
+        @Index(name = "idx_token_refresco_expira", columnList = "expira_en")
+})
+public class TokenRefresco {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 36)
+    private String familia;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEn;
+
+    private boolean usado;
+
+    private boolean revocado;
+}
@@ -0,0 +1,57 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.AdjuntoCorreo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AdjuntoCorreoRepository extends CrudRepository<AdjuntoCorreo, Long> {
+
+    boolean existsByHash(String hash);
+
+    /**
+     * Registra el adjunto si nadie lo ha hecho; con el mismo hash no cambia nada. Dos
+     * subidas simultáneas del mismo archivo esperan una a la otra en vez de chocar con
+     * uk_adjunto_correo_hash.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO adjunto_correo (hash, tamano, fecha_creacion)
+            VALUES (:hash, :tamano, :fechaCreacion)
+            ON DUPLICATE KEY UPDATE id = id
+            """, nativeQuery = true)
+    int registrarSiNoExiste(@Param("hash") String hash, @Param("tamano") long tamano,
+                            @Param("fechaCreacion") LocalDateTime fechaCreacion);
+
+    /** El bloqueo impide que el recolector borre el archivo mientras otro envío lo reutiliza. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AdjuntoCorreo a WHERE a.hash = :hash")
+    Optional<AdjuntoCorreo> bloquearPorHash(@Param("hash") String hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AdjuntoCorreo a WHERE a.id = :id")
+    Optional<AdjuntoCorreo> bloquearPorId(@Param("id") Long id);
+
+    @Query("""
+            SELECT a.id FROM AdjuntoCorreo a
+            WHERE NOT EXISTS (
+                SELECT c.id FROM CorreoSaliente c
+                WHERE c.adjuntoId = a.id AND c.estado IN ('PENDIENTE', 'ENVIANDO'))
+            """)
+    List<Long> findIdsSinEnviosPendientes();
+
+    @Query("""
+            SELECT COUNT(c) > 0 FROM CorreoSaliente c
+            WHERE c.adjuntoId = :id AND c.estado IN ('PENDIENTE', 'ENVIANDO')
+            """)
+    boolean tieneEnviosPendientes(@Param("id") Long id);
+}
@@ -0,0 +1,13 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.CausacionInteres;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CausacionInteresRepository extends CrudRepository<CausacionInteres, Long> {
+
+    Optional<CausacionInteres> findTopByFechaFinIsNotNullOrderByFechaCorteDesc();
+}
@@ -0,0 +1,40 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.CorreoDestinatario;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CorreoDestinatarioLoteRepositoryImpl implements CorreoDestinatarioLoteRepository {
+
+    private static final String INSERT_DESTINATARIO = """
+            INSERT INTO correo_destinatario (correo_enviado_id, correo_saliente_id, email, estado, intentos, fecha_estado)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertarEnLote(List<CorreoDestinatario> destinatarios) {
+        if (destinatarios.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_DESTINATARIO, destinatarios, destinatarios.size(), (ps, d) -> {
+            ps.setLong(1, d.getCorreoEnviadoId());
+            if (d.getCorreoSalienteId() != null) {
+                ps.setLong(2, d.getCorreoSalienteId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            ps.setString(3, d.getEmail());
+            ps.setString(4, d.getEstado().name());
+            ps.setInt(5, d.getIntentos());
+            ps.setTimestamp(6, Timestamp.valueOf(d.getFechaEstado()));
+        });
+        return destinatarios.size();
+    }
+}
@@ -0,0 +1,62 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.dto.response.DestinatarioInfoDTO;
+import com.condominio.dto.response.EmailComunicadoDTO;
+import com.condominio.persistence.model.CorreoDestinatario;
+import com.condominio.persistence.model.EstadoCorreo;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CorreoDestinatarioRepository extends CrudRepository<CorreoDestinatario, Long>, CorreoDestinatarioLoteRepository {
+
+    /** Destinatarios de un comunicado con su estado y, si tienen cuenta, nombre y casa. */
+    @Query("""
+            SELECT new com.condominio.dto.response.DestinatarioInfoDTO(p.primerNombre, p.segundoNombre,
+                   p.primerApellido, p.segundoApellido, c.id, d.email, d.estado, d.intentos, d.fechaEstado)
+            FROM CorreoDestinatario d
+            LEFT JOIN UserEntity u ON u.email = d.email
+            LEFT JOIN Persona p ON p.user = u
+            LEFT JOIN p.casa c
+            WHERE d.correoEnviadoId = :correoEnviadoId
+            ORDER BY d.id
+            """)
+    List<DestinatarioInfoDTO> findInfoByCorreoEnviadoId(@Param("correoEnviadoId") Long correoEnviadoId);
+
+    @Query("""
+            SELECT new com.condominio.dto.response.EmailComunicadoDTO(d.correoEnviadoId, d.email)
+            FROM CorreoDestinatario d
+            ORDER BY d.correoEnviadoId, d.id
+            """)
+    List<EmailComunicadoDTO> findEmailsDeComunicados();
+
+    @Modifying
+    @Query("DELETE FROM CorreoDestinatario d WHERE d.correoEnviadoId = :correoEnviadoId")
+    int eliminarPorCorreoEnviado(@Param("correoEnviadoId") Long correoEnviadoId);
+
+    @Modifying
+    @Query("""
+            UPDATE CorreoDestinatario d
+            SET d.estado = 'ENVIANDO', d.intentos = d.intentos + 1, d.fechaEstado = :fecha
+            WHERE d.correoSalienteId IN :correoSalienteIds
+            """)
+    int marcarEnviando(@Param("correoSalienteIds") Collection<Long> correoSalienteIds,
+                       @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("""
+            UPDATE CorreoDestinatario d
+            SET d.estado = :estado, d.fechaEstado = :fecha
+            WHERE d.correoSalienteId IN :correoSalienteIds
+            """)
+    int actualizarEstado(@Param("correoSalienteIds") Collection<Long> correoSalienteIds,
+                         @Param("estado") EstadoCorreo estado,
+                         @Param("fecha") LocalDateTime fecha);
+}
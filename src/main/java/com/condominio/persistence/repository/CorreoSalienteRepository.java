@@ -0,0 +1,47 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.dto.response.ConteoEstadoCorreoDTO;
+import com.condominio.persistence.model.CorreoSaliente;
+import com.condominio.persistence.model.EstadoCorreo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CorreoSalienteRepository extends CrudRepository<CorreoSaliente, Long> {
+
+    /**
+     * Correos listos para enviar: pendientes cuyo próximo intento ya llegó y envíos que
+     * quedaron a medias. Las filas bloqueadas por otro despachador se saltan (SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT c FROM CorreoSaliente c
+            WHERE (c.estado = 'PENDIENTE' AND c.proximoIntento <= :ahora)
+               OR (c.estado = 'ENVIANDO' AND c.fechaReclamo < :reclamoVencido)
+            ORDER BY c.proximoIntento, c.id
+            """)
+    List<CorreoSaliente> reclamarListos(@Param("ahora") LocalDateTime ahora,
+                                        @Param("reclamoVencido") LocalDateTime reclamoVencido,
+                                        Pageable pageable);
+
+    long countByEstado(EstadoCorreo estado);
+
+    @Query("""
+            SELECT new com.condominio.dto.response.ConteoEstadoCorreoDTO(c.estado, COUNT(c))
+            FROM CorreoSaliente c
+            WHERE c.campana = :campana
+            GROUP BY c.estado
+            """)
+    List<ConteoEstadoCorreoDTO> contarPorCampana(@Param("campana") String campana);
+}
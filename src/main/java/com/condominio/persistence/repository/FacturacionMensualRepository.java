@@ -0,0 +1,21 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.FacturacionMensual;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FacturacionMensualRepository extends CrudRepository<FacturacionMensual, Long> {
+
+    Optional<FacturacionMensual> findByPeriodo(String periodo);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM FacturacionMensual f WHERE f.id = :id")
+    Optional<FacturacionMensual> bloquearPorId(@Param("id") Long id);
+}
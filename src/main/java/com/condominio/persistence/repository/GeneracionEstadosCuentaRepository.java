@@ -0,0 +1,21 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.GeneracionEstadosCuenta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GeneracionEstadosCuentaRepository extends CrudRepository<GeneracionEstadosCuenta, Long> {
+
+    Optional<GeneracionEstadosCuenta> findByPeriodo(String periodo);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM GeneracionEstadosCuenta g WHERE g.id = :id")
+    Optional<GeneracionEstadosCuenta> bloquearPorId(@Param("id") Long id);
+}
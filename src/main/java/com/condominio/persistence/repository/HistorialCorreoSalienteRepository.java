@@ -0,0 +1,13 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.HistorialCorreoSaliente;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HistorialCorreoSalienteRepository extends CrudRepository<HistorialCorreoSaliente, Long> {
+
+    List<HistorialCorreoSaliente> findByCorreoIdOrderByIdAsc(Long correoId);
+}
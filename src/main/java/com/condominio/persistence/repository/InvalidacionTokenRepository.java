@@ -0,0 +1,26 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.InvalidacionToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InvalidacionTokenRepository extends CrudRepository<InvalidacionToken, Long> {
+
+    Optional<InvalidacionToken> findByEmail(String email);
+
+    List<InvalidacionToken> findByInvalidadoDesdeAfter(LocalDateTime limite);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InvalidacionToken i WHERE i.invalidadoDesde <= :limite")
+    int eliminarHasta(@Param("limite") LocalDateTime limite);
+}
@@ -1,5 +1,6 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.MascotaCasaDTO;
 import com.condominio.dto.response.MascotaCountDTO;
 import com.condominio.persistence.model.Casa;
 import com.condominio.persistence.model.Mascota;
@@ -26,4 +27,9 @@ public interface MascotaRepository extends CrudRepository<Mascota, Long> {
     List<Mascota> findAllByCasa_Id(Long casaId);
     @Query("SELECT COALESCE(SUM(m.cantidad), 0) FROM Mascota m WHERE m.casa.id = :idCasa")
     int sumCantidadMascotasByCasaId(@Param("idCasa") Long idCasa);
+
+    @Query("SELECT new com.condominio.dto.response.MascotaCasaDTO(m.casa.id, m.tipoMascota, SUM(m.cantidad)) " +
+            "FROM Mascota m " +
+            "GROUP BY m.casa.id, m.tipoMascota")
+    List<MascotaCasaDTO> sumarPorCasaYTipo();
 }
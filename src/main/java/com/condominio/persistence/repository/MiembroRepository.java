@@ -1,7 +1,9 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.ConteoCasaDTO;
 import com.condominio.persistence.model.Casa;
 import com.condominio.persistence.model.Miembro;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -15,4 +17,10 @@ public interface MiembroRepository extends CrudRepository<Miembro, Long> {
     boolean existsByNumeroDocumentoAndIdNot(Long numeroDocumento, Long id);
     void deleteAllByCasa(Casa casa);
     int countByEstadoAndCasa_Id(Boolean estado, Long casaId);
+
+    @Query("SELECT new com.condominio.dto.response.ConteoCasaDTO(m.casa.id, COUNT(m)) " +
+            "FROM Miembro m " +
+            "WHERE m.estado = true " +
+            "GROUP BY m.casa.id")
+    List<ConteoCasaDTO> contarActivosPorCasa();
 }
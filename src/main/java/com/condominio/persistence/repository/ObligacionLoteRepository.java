@@ -0,0 +1,14 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.Obligacion;
+
+import java.util.List;
+
+public interface ObligacionLoteRepository {
+
+    /**
+     * Inserta las obligaciones con un único batch JDBC. Con ids IDENTITY Hibernate
+     * no puede agrupar los INSERT, por eso este camino no pasa por el EntityManager.
+     */
+    int insertarEnLote(List<Obligacion> obligaciones);
+}
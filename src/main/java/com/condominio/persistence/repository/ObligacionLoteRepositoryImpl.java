@@ -0,0 +1,53 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.Obligacion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ObligacionLoteRepositoryImpl implements ObligacionLoteRepository {
+
+    private static final String INSERT_OBLIGACION = """
+            INSERT INTO obligacion (fecha_generada, fecha_limite, monto, tasa_interes, interes, mora,
+                                    monto_pagado, motivo, titulo, valor_total, valor_pendiente,
+                                    casa_id, tipo_pago, tipo_obligacion, estado_pago, periodo)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertarEnLote(List<Obligacion> obligaciones) {
+        if (obligaciones.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_OBLIGACION, obligaciones, obligaciones.size(), (ps, o) -> {
+            int valorTotal = o.getMonto() + o.getInteres() + o.getMora();
+            ps.setDate(1, Date.valueOf(o.getFechaGenerada()));
+            if (o.getFechaLimite() != null) {
+                ps.setDate(2, Date.valueOf(o.getFechaLimite()));
+            } else {
+                ps.setNull(2, Types.DATE);
+            }
+            ps.setInt(3, o.getMonto());
+            ps.setDouble(4, o.getTasaInteres());
+            ps.setInt(5, o.getInteres());
+            ps.setInt(6, o.getMora());
+            ps.setInt(7, o.getMontoPagado());
+            ps.setString(8, o.getMotivo());
+            ps.setString(9, o.getTitulo());
+            ps.setInt(10, valorTotal);
+            ps.setInt(11, valorTotal - o.getMontoPagado());
+            ps.setLong(12, o.getCasa().getId());
+            ps.setString(13, o.getTipoPago().name());
+            ps.setString(14, o.getTipoObligacion().name());
+            ps.setString(15, o.getEstadoPago().name());
+            ps.setString(16, o.getPeriodo());
+        });
+        return obligaciones.size();
+    }
+}
@@ -1,19 +1,118 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.MovimientoEstadoCuentaDTO;
+import com.condominio.dto.response.ObligacionCasaDTO;
+import com.condominio.dto.response.SaldoCorteCasaDTO;
 import com.condominio.persistence.model.EstadoPago;
 import com.condominio.persistence.model.Obligacion;
 import com.condominio.persistence.model.TipoObligacion;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ObligacionRepository extends CrudRepository<Obligacion, Long> {
+public interface ObligacionRepository extends CrudRepository<Obligacion, Long>, ObligacionLoteRepository {
 
     List<Obligacion> findByCasaId(Long casaId);
     List<Obligacion> findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(Long id, EstadoPago estadoPago);
     boolean existsByCasaIdAndEstadoPago(Long casaId, EstadoPago estadoPago);
+    boolean existsByEstadoPagoNot(EstadoPago estadoPago);
+
+    /** Con este fetch size MySQL Connector/J entrega las filas una a una en vez de cargar todo el resultado. */
+    String FETCH_SIZE_STREAMING = "" + Integer.MIN_VALUE;
+
+    /**
+     * Todas las obligaciones que no están en {@code estadoPago}, agrupadas por casa y de la más
+     * reciente a la más antigua. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = FETCH_SIZE_STREAMING))
+    @Query("""
+           SELECT new com.condominio.dto.response.ObligacionCasaDTO(
+                  c.id, c.numeroCasa, o.id, o.fechaGenerada, o.titulo, o.motivo, o.monto, o.valorTotal,
+                  o.valorPendiente, o.montoPagado, o.tipoObligacion, o.estadoPago, o.interes, o.mora)
+           FROM Obligacion o
+           JOIN o.casa c
+           WHERE o.estadoPago <> :estadoPago
+           ORDER BY c.id, o.fechaGenerada DESC
+           """)
+    Stream<ObligacionCasaDTO> streamPorCasaExcluyendoEstado(@Param("estadoPago") EstadoPago estadoPago);
     List<Obligacion> findByTipoObligacionOrderByFechaGeneradaDesc(TipoObligacion tipoObligacion);
     List<Obligacion> findByCasaIdOrderByFechaGeneradaDesc(Long casaId);
+
+    @Query("""
+           SELECT o.casa.id
+           FROM Obligacion o
+           WHERE o.periodo = :periodo AND o.casa.id IN :casaIds
+           """)
+    List<Long> findCasaIdsFacturadas(@Param("periodo") String periodo,
+                                     @Param("casaIds") Collection<Long> casaIds);
+
+    @Query("""
+           SELECT new com.condominio.dto.response.MovimientoEstadoCuentaDTO(o.casa.id, o.fechaGenerada, o.titulo, o.valorTotal)
+           FROM Obligacion o
+           WHERE o.casa.id IN :casaIds AND o.fechaGenerada BETWEEN :desde AND :hasta
+                 AND o.estadoPago <> 'CONDONADO'
+           ORDER BY o.casa.id, o.fechaGenerada, o.id
+           """)
+    List<MovimientoEstadoCuentaDTO> findCargosDelPeriodo(@Param("casaIds") Collection<Long> casaIds,
+                                                         @Param("desde") LocalDate desde,
+                                                         @Param("hasta") LocalDate hasta);
+
+    /** Lo cargado a cada casa hasta el corte; vencido es lo que a esa fecha ya pasó su fecha límite. */
+    @Query("""
+           SELECT new com.condominio.dto.response.SaldoCorteCasaDTO(o.casa.id, SUM(o.valorTotal),
+                  SUM(CASE WHEN o.fechaLimite IS NULL OR o.fechaLimite < :corte THEN o.valorTotal ELSE 0 END))
+           FROM Obligacion o
+           WHERE o.casa.id IN :casaIds AND o.fechaGenerada <= :corte
+                 AND o.estadoPago <> 'CONDONADO'
+           GROUP BY o.casa.id
+           """)
+    List<SaldoCorteCasaDTO> findCargadoAlCorte(@Param("casaIds") Collection<Long> casaIds,
+                                               @Param("corte") LocalDate corte);
+
+    String POR_CAUSAR = """
+            estado_pago <> 'CONDONADO'
+            AND fecha_limite < :hoy
+            AND (fecha_causacion IS NULL OR fecha_causacion < :hoy)
+            """;
+
+    @Query(value = "SELECT MIN(id) FROM obligacion WHERE " + POR_CAUSAR, nativeQuery = true)
+    Long findMinIdPorCausar(@Param("hoy") LocalDate hoy);
+
+    @Query(value = "SELECT MAX(id) FROM obligacion WHERE " + POR_CAUSAR, nativeQuery = true)
+    Long findMaxIdPorCausar(@Param("hoy") LocalDate hoy);
+
+    /**
+     * Causa en bloque el interés diario (tasa mensual / 30) sobre el capital pendiente desde
+     * la última causación, y la mora fija la primera vez que la obligación se vence.
+     * MySQL evalúa las asignaciones en orden, por eso los totales usan los valores ya causados.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE obligacion
+            SET interes = interes + ROUND(GREATEST(monto - monto_pagado, 0) * tasa_interes
+                        * DATEDIFF(:hoy, COALESCE(fecha_causacion, fecha_limite)) / 30),
+                mora = CASE WHEN fecha_causacion IS NULL THEN mora + :valorMora ELSE mora END,
+                valor_total = monto + interes + mora,
+                valor_pendiente = valor_total - monto_pagado,
+                fecha_causacion = :hoy
+            WHERE id BETWEEN :desdeId AND :hastaId AND
+            """ + POR_CAUSAR, nativeQuery = true)
+    int causarIntereses(@Param("desdeId") Long desdeId,
+                        @Param("hastaId") Long hastaId,
+                        @Param("hoy") LocalDate hoy,
+                        @Param("valorMora") int valorMora);
 }
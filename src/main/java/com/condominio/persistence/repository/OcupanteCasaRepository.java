@@ -0,0 +1,74 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.dto.response.OcupantesCasaDTO;
+import com.condominio.persistence.model.OcupanteCasa;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface OcupanteCasaRepository extends CrudRepository<OcupanteCasa, Long> {
+
+    /**
+     * Recalcula el propietario y el arrendatario de cada casa desde persona y roles
+     * y hace upsert en ocupante_casa.
+     */
+    String RECALCULAR = """
+            INSERT INTO ocupante_casa (casa_id, propietario_id, arrendatario_id, fecha_actualizacion)
+            SELECT c.id,
+                   MAX(CASE WHEN r.role_name = 'PROPIETARIO' THEN p.id END),
+                   MAX(CASE WHEN r.role_name = 'ARRENDATARIO' THEN p.id END),
+                   NOW()
+            FROM casa c
+            LEFT JOIN persona p ON p.casa_id = c.id
+            LEFT JOIN user_roles ur ON ur.user_id = p.user_id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            """;
+
+    String ACTUALIZAR = """
+            GROUP BY c.id
+            ON DUPLICATE KEY UPDATE propietario_id = VALUES(propietario_id),
+                                    arrendatario_id = VALUES(arrendatario_id),
+                                    fecha_actualizacion = VALUES(fecha_actualizacion)
+            """;
+
+    /** Consulta y no {@code findById}: no toma una fila que quedó en el contexto antes de recalcularse. */
+    @Query("""
+            SELECT new com.condominio.dto.response.OcupantesCasaDTO(o.propietarioId, o.arrendatarioId)
+            FROM OcupanteCasa o
+            WHERE o.casaId = :casaId
+            """)
+    Optional<OcupantesCasaDTO> findOcupantes(@Param("casaId") Long casaId);
+
+    /** Para una casa que aún no tiene fila: los mismos ocupantes, desde persona y roles. */
+    @Query("""
+            SELECT new com.condominio.dto.response.OcupantesCasaDTO(
+                   MAX(CASE WHEN r.roleEnum = 'PROPIETARIO' THEN p.id END),
+                   MAX(CASE WHEN r.roleEnum = 'ARRENDATARIO' THEN p.id END))
+            FROM Persona p
+            JOIN p.user u
+            JOIN u.roles r
+            WHERE p.casa.id = :casaId
+            """)
+    OcupantesCasaDTO calcularOcupantes(@Param("casaId") Long casaId);
+
+    /** Vacía antes el contexto para que el reemplazo de un residente hecho en la misma transacción ya esté en la base. */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query(value = RECALCULAR + "WHERE c.id IN (:casaIds) " + ACTUALIZAR, nativeQuery = true)
+    int recalcular(@Param("casaIds") Collection<Long> casaIds);
+
+    /** Solo las casas que aún no tienen fila en ocupante_casa. */
+    @Modifying
+    @Transactional
+    @Query(value = RECALCULAR + """
+            WHERE NOT EXISTS (SELECT 1 FROM ocupante_casa o WHERE o.casa_id = c.id)
+            """ + ACTUALIZAR, nativeQuery = true)
+    int recalcularFaltantes();
+}
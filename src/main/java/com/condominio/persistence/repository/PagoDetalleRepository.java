@@ -1,5 +1,8 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.MovimientoEstadoCuentaDTO;
+import com.condominio.dto.response.SaldoCorteCasaDTO;
+import com.condominio.dto.response.UltimoPagoCasaDTO;
 import com.condominio.persistence.model.PagoDetalle;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -7,6 +10,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +24,37 @@ public interface PagoDetalleRepository extends CrudRepository<PagoDetalle, Long>
     Optional<LocalDate> findFechaUltimoPagoByCasaId(@Param("idCasa") Long idCasa);
 
     Optional<PagoDetalle> findTopByObligacionCasaIdOrderByPagoFechaPagoDesc(Long id);
+
+    @Query("""
+           SELECT new com.condominio.dto.response.UltimoPagoCasaDTO(pd.obligacion.casa.id, MAX(pd.pago.fechaPago))
+           FROM PagoDetalle pd
+           GROUP BY pd.obligacion.casa.id
+           """)
+    List<UltimoPagoCasaDTO> findFechasUltimoPagoPorCasa();
+
+    @Query("""
+           SELECT new com.condominio.dto.response.MovimientoEstadoCuentaDTO(o.casa.id, p.fechaPago, o.titulo, pd.montoPagado)
+           FROM PagoDetalle pd
+           JOIN pd.pago p
+           JOIN pd.obligacion o
+           WHERE o.casa.id IN :casaIds AND p.fechaPago BETWEEN :desde AND :hasta
+           ORDER BY o.casa.id, p.fechaPago, pd.id
+           """)
+    List<MovimientoEstadoCuentaDTO> findAbonosDelPeriodo(@Param("casaIds") Collection<Long> casaIds,
+                                                         @Param("desde") LocalDate desde,
+                                                         @Param("hasta") LocalDate hasta);
+
+    /** Lo abonado hasta el corte a las obligaciones que cuenta {@link ObligacionRepository#findCargadoAlCorte}. */
+    @Query("""
+           SELECT new com.condominio.dto.response.SaldoCorteCasaDTO(o.casa.id, SUM(pd.montoPagado),
+                  SUM(CASE WHEN o.fechaLimite IS NULL OR o.fechaLimite < :corte THEN pd.montoPagado ELSE 0 END))
+           FROM PagoDetalle pd
+           JOIN pd.pago p
+           JOIN pd.obligacion o
+           WHERE o.casa.id IN :casaIds AND p.fechaPago <= :corte AND o.fechaGenerada <= :corte
+                 AND o.estadoPago <> 'CONDONADO'
+           GROUP BY o.casa.id
+           """)
+    List<SaldoCorteCasaDTO> findAbonadoAlCorte(@Param("casaIds") Collection<Long> casaIds,
+                                               @Param("corte") LocalDate corte);
 }
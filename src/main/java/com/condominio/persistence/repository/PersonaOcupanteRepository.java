@@ -0,0 +1,19 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEnum;
+
+import java.util.Optional;
+
+public interface PersonaOcupanteRepository {
+
+    /**
+     * Búsquedas de residentes por casa resueltas con el índice {@code ocupante_casa};
+     * solo la persona encontrada se carga por llave primaria.
+     */
+    boolean existsRoleInCasa(Long casaId, RoleEnum roleEnum);
+
+    Optional<Persona> findPropietarioByCasaId(Long casaId);
+
+    Optional<Persona> findArrendatarioByCasaId(Long casaId);
+}
@@ -0,0 +1,36 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.service.implementation.OcupanteCasaService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PersonaOcupanteRepositoryImpl implements PersonaOcupanteRepository {
+
+    private final OcupanteCasaService ocupanteCasaService;
+    private final EntityManager entityManager;
+
+    @Override
+    public boolean existsRoleInCasa(Long casaId, RoleEnum roleEnum) {
+        return ocupanteId(casaId, roleEnum).isPresent();
+    }
+
+    @Override
+    public Optional<Persona> findPropietarioByCasaId(Long casaId) {
+        return ocupanteId(casaId, RoleEnum.PROPIETARIO).map(id -> entityManager.find(Persona.class, id));
+    }
+
+    @Override
+    public Optional<Persona> findArrendatarioByCasaId(Long casaId) {
+        return ocupanteId(casaId, RoleEnum.ARRENDATARIO).map(id -> entityManager.find(Persona.class, id));
+    }
+
+    /** Sale del caché de {@link OcupanteCasaService}; solo un fallo de caché consulta la base. */
+    private Optional<Long> ocupanteId(Long casaId, RoleEnum rol) {
+        return Optional.ofNullable(ocupanteCasaService.obtener(casaId).ocupanteId(rol));
+    }
+}
@@ -1,41 +1,42 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.DestinatarioCorreoDTO;
+import com.condominio.dto.response.DestinatarioObligacionDTO;
+import com.condominio.dto.response.ResidenteCasaDTO;
 import com.condominio.persistence.model.Persona;
-import com.condominio.persistence.model.RoleEnum;
 import com.condominio.persistence.model.UserEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PersonaRepository extends CrudRepository<Persona, Long> {
+public interface PersonaRepository extends CrudRepository<Persona, Long>, PersonaOcupanteRepository {
 
     Optional<Persona> findByNumeroDocumento(Long numeroDocumento);
 
-    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END " +
-            "FROM Persona p JOIN p.user u JOIN u.roles r " +
-            "WHERE p.casa.id = :casaId AND r.roleEnum = :roleEnum")
-    boolean existsRoleInCasa(@Param("casaId") Long casaId, @Param("roleEnum") RoleEnum roleEnum);
-
-    @Query("SELECT p FROM Persona p " +
-            "JOIN p.user u " +
-            "JOIN u.roles r " +
-            "WHERE p.casa.id = :casaId AND r.roleEnum = 'PROPIETARIO'")
-    Optional<Persona> findPropietarioByCasaId(@Param("casaId") Long casaId);
-
-    @Query("SELECT p FROM Persona p " +
-            "JOIN p.user u " +
-            "JOIN u.roles r " +
-            "WHERE p.casa.id = :casaId AND r.roleEnum = 'ARRENDATARIO'")
-    Optional<Persona> findArrendatarioByCasaId(@Param("casaId") Long casaId);
-
     Persona findPersonaByUser(UserEntity user);
     boolean existsByNumeroDocumentoAndIdNot(Long numeroDocumento, Long id);
     Optional<Persona> findByUserEmail(String email);
 
+    /**
+     * Todo lo que necesita el inicio de sesión en una consulta: usuario, roles y casa. Los
+     * permisos no se traen: la respuesta solo usa el nombre de los roles, y unirlos
+     * multiplicaría las filas por roles × permisos.
+     */
+    @Query("""
+    SELECT DISTINCT p
+    FROM Persona p
+    JOIN FETCH p.user u
+    LEFT JOIN FETCH u.roles r
+    LEFT JOIN FETCH p.casa
+    WHERE u.email = :email
+""") Optional<Persona> findParaLogin(@Param("email") String email);
+
     @Query("""
     SELECT DISTINCT p
     FROM Persona p
@@ -45,6 +46,73 @@ public interface PersonaRepository extends CrudRepository<Persona, Long> {
     WHERE r.roleEnum = 'PROPIETARIO'
 """) List<Persona> findAllPropietariosConCasa();
 
+    @Query("""
+    SELECT new com.condominio.dto.response.DestinatarioObligacionDTO(c.id, c.numeroCasa, u.email)
+    FROM Persona p
+    JOIN p.casa c
+    JOIN p.user u
+    JOIN u.roles r
+    WHERE r.roleEnum = 'PROPIETARIO' AND c.id > :desdeCasaId
+    ORDER BY c.id
+""") List<DestinatarioObligacionDTO> findPropietariosDesdeCasa(@Param("desdeCasaId") Long desdeCasaId,
+                                                                 Pageable pageable);
+
+    @Query("""
+    SELECT new com.condominio.dto.response.ResidenteCasaDTO(c.id, r.roleEnum, p.primerNombre, p.segundoNombre,
+                                                            p.primerApellido, p.segundoApellido, p.telefono, u.email)
+    FROM Persona p
+    JOIN p.casa c
+    JOIN p.user u
+    JOIN u.roles r
+    WHERE r.roleEnum = 'PROPIETARIO' AND c.id > :desdeCasaId
+    ORDER BY c.id, p.id
+""") List<ResidenteCasaDTO> findTitularesDesdeCasa(@Param("desdeCasaId") Long desdeCasaId, Pageable pageable);
+
+    @Query("""
+    SELECT new com.condominio.dto.response.DestinatarioCorreoDTO(p.id, u.email)
+    FROM Persona p
+    JOIN p.user u
+    WHERE p.id > :desdePersonaId
+    ORDER BY p.id
+""") List<DestinatarioCorreoDTO> findDestinatariosDesde(@Param("desdePersonaId") Long desdePersonaId,
+                                                          Pageable pageable);
+
+    @Query("""
+    SELECT new com.condominio.dto.response.ResidenteCasaDTO(c.id, r.roleEnum, p.primerNombre, p.segundoNombre,
+                                                            p.primerApellido, p.segundoApellido, p.telefono, u.email)
+    FROM Persona p
+    JOIN p.casa c
+    JOIN p.user u
+    JOIN u.roles r
+    WHERE r.roleEnum IN ('PROPIETARIO', 'ARRENDATARIO')
+    ORDER BY p.id
+""") List<ResidenteCasaDTO> findPropietariosYArrendatarios();
+
+    @Query("""
+    SELECT new com.condominio.dto.response.ResidenteCasaDTO(c.id, r.roleEnum, p.primerNombre, p.segundoNombre,
+                                                            p.primerApellido, p.segundoApellido, p.telefono, u.email)
+    FROM Persona p
+    JOIN p.casa c
+    JOIN p.user u
+    JOIN u.roles r
+    WHERE r.roleEnum IN ('PROPIETARIO', 'ARRENDATARIO') AND c.id IN :casaIds
+    ORDER BY p.id
+""") List<ResidenteCasaDTO> findPropietariosYArrendatariosPorCasas(@Param("casaIds") Collection<Long> casaIds);
+
+    /** Propietarios y arrendatarios de las casas sin obligaciones pendientes, por casa. */
+    @Query("""
+    SELECT new com.condominio.dto.response.ResidenteCasaDTO(c.id, r.roleEnum, p.primerNombre, p.segundoNombre,
+                                                            p.primerApellido, p.segundoApellido, p.telefono, u.email)
+    FROM Persona p
+    JOIN p.casa c
+    JOIN p.user u
+    JOIN u.roles r
+    WHERE r.roleEnum IN ('PROPIETARIO', 'ARRENDATARIO')
+      AND NOT EXISTS (
+          SELECT o.id FROM Obligacion o WHERE o.casa = c AND o.estadoPago = 'PENDIENTE')
+    ORDER BY c.id, p.id
+""") List<ResidenteCasaDTO> findSolicitantesDeCasasAlDia();
+
     Persona findByUser_Id(Long id);
     List<Persona> findAllByCasa_Id(Long casaId);
     boolean existsByNumeroDocumento(Long numeroDocumento);
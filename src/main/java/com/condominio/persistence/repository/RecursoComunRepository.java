@@ -1,5 +1,6 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.persistence.model.DisponibilidadRecurso;
 import com.condominio.persistence.model.RecursoComun;
 import com.condominio.persistence.model.TipoRecursoComun;
 import org.springframework.data.repository.CrudRepository;
@@ -14,4 +15,5 @@ public interface RecursoComunRepository extends CrudRepository<RecursoComun, Lon
     boolean existsByNombreIgnoreCase(String nombre);
     Optional<RecursoComun> findByNombreIgnoreCase(String nombre);
     List<RecursoComun> findByTipoRecursoComun(TipoRecursoComun tipoRecursoComun);
+    List<RecursoComun> findByDisponibilidadRecursoOrderByIdAsc(DisponibilidadRecurso disponibilidadRecurso);
 }
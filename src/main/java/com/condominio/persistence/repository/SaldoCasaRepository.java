@@ -0,0 +1,92 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.SaldoCasa;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SaldoCasaRepository extends CrudRepository<SaldoCasa, Long> {
+
+    List<SaldoCasa> findAll();
+
+    /**
+     * Recalcula desde las obligaciones y pagos de cada casa y hace upsert en saldo_casa.
+     * Las multas no tienen fecha límite, por eso cuentan como vencidas desde que se registran.
+     * El estado financiero no depende de la fecha: EN_MORA con saldo pendiente o alguna
+     * obligación PENDIENTE, aunque aún no venza, igual que lo exige el paz y salvo.
+     */
+    String RECALCULAR = """
+            INSERT INTO saldo_casa (casa_id, saldo_pendiente, saldo_vencido, fecha_ultimo_pago,
+                                    estado_financiero, fecha_actualizacion)
+            SELECT c.id,
+                   COALESCE(SUM(CASE WHEN o.estado_pago <> 'CONDONADO' THEN o.valor_pendiente END), 0),
+                   COALESCE(SUM(CASE WHEN o.estado_pago <> 'CONDONADO'
+                                      AND (o.fecha_limite IS NULL OR o.fecha_limite < :hoy)
+                                     THEN o.valor_pendiente END), 0),
+                   (SELECT MAX(p.fecha_pago)
+                    FROM pago_detalle pd
+                    JOIN pago p ON p.id = pd.pago_id
+                    JOIN obligacion op ON op.id = pd.obligacion_id
+                    WHERE op.casa_id = c.id),
+                   CASE WHEN COALESCE(SUM(CASE WHEN o.estado_pago <> 'CONDONADO' THEN o.valor_pendiente END), 0) > 0
+                          OR MAX(CASE WHEN o.estado_pago = 'PENDIENTE' THEN 1 ELSE 0 END) = 1
+                        THEN 'EN_MORA' ELSE 'AL_DIA' END,
+                   NOW()
+            FROM casa c
+            LEFT JOIN obligacion o ON o.casa_id = c.id
+            """;
+
+    String ACTUALIZAR = """
+            GROUP BY c.id
+            ON DUPLICATE KEY UPDATE saldo_pendiente = VALUES(saldo_pendiente),
+                                    saldo_vencido = VALUES(saldo_vencido),
+                                    fecha_ultimo_pago = VALUES(fecha_ultimo_pago),
+                                    estado_financiero = VALUES(estado_financiero),
+                                    fecha_actualizacion = VALUES(fecha_actualizacion)
+            """;
+
+    @Modifying
+    @Transactional
+    @Query(value = RECALCULAR + "WHERE c.id IN (:casaIds) " + ACTUALIZAR, nativeQuery = true)
+    int recalcular(@Param("casaIds") Collection<Long> casaIds, @Param("hoy") LocalDate hoy);
+
+    @Modifying
+    @Transactional
+    @Query(value = RECALCULAR + """
+            WHERE c.id IN (SELECT oc.casa_id FROM obligacion oc WHERE oc.fecha_causacion = :hoy)
+            """ + ACTUALIZAR, nativeQuery = true)
+    int recalcularCausadas(@Param("hoy") LocalDate hoy);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = RECALCULAR + ACTUALIZAR, nativeQuery = true)
+    int recalcularTodas(@Param("hoy") LocalDate hoy);
+
+    /** Solo las casas que aún no tienen fila en saldo_casa. */
+    @Modifying
+    @Transactional
+    @Query(value = RECALCULAR + """
+            WHERE NOT EXISTS (SELECT 1 FROM saldo_casa s WHERE s.casa_id = c.id)
+            """ + ACTUALIZAR, nativeQuery = true)
+    int recalcularFaltantes(@Param("hoy") LocalDate hoy);
+
+    /** Aplica la regla de estado financiero de {@link #RECALCULAR} a las filas ya guardadas. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE saldo_casa s
+            SET estado_financiero = CASE WHEN s.saldo_pendiente > 0
+                                           OR EXISTS (SELECT 1 FROM obligacion o
+                                                      WHERE o.casa_id = s.casa_id AND o.estado_pago = 'PENDIENTE')
+                                         THEN 'EN_MORA' ELSE 'AL_DIA' END
+            """, nativeQuery = true)
+    int actualizarEstados();
+}
@@ -1,19 +1,50 @@
 package com.condominio.persistence.repository;
 
+import com.condominio.dto.response.IntervaloReservaDTO;
 import com.condominio.persistence.model.EstadoSolicitud;
-import com.condominio.persistence.model.RecursoComun;
 import com.condominio.persistence.model.SolicitudReservaRecurso;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SolicitudReservaRecursoRepository extends CrudRepository<SolicitudReservaRecurso, Long> {
 
     List<SolicitudReservaRecurso> findByEstadoSolicitud(EstadoSolicitud estadoSolicitud);
-    List<SolicitudReservaRecurso> findByRecursoComunAndFechaSolicitud(RecursoComun recursoComun, LocalDate fecha);
     List<SolicitudReservaRecurso> findAllByCasa_Id(Long idCasa);
 
+    @Query("""
+    SELECT new com.condominio.dto.response.IntervaloReservaDTO(s.id, s.recursoComun.id, s.fechaSolicitud,
+                                                               s.horaInicio, s.horaFin)
+    FROM SolicitudReservaRecurso s
+    WHERE s.recursoComun.id = :idRecurso AND s.fechaSolicitud = :fecha AND s.estadoSolicitud IN :estados
+""") List<IntervaloReservaDTO> findIntervalos(@Param("idRecurso") Long idRecurso,
+                                             @Param("fecha") LocalDate fecha,
+                                             @Param("estados") Collection<EstadoSolicitud> estados);
+
+    @Query("""
+    SELECT new com.condominio.dto.response.IntervaloReservaDTO(s.id, s.recursoComun.id, s.fechaSolicitud,
+                                                               s.horaInicio, s.horaFin)
+    FROM SolicitudReservaRecurso s
+    WHERE s.fechaSolicitud >= :desde AND s.estadoSolicitud IN :estados
+""") List<IntervaloReservaDTO> findIntervalosDesde(@Param("desde") LocalDate desde,
+                                                  @Param("estados") Collection<EstadoSolicitud> estados);
+
+    @Query("""
+    SELECT new com.condominio.dto.response.IntervaloReservaDTO(s.id, s.recursoComun.id, s.fechaSolicitud,
+                                                               s.horaInicio, s.horaFin)
+    FROM SolicitudReservaRecurso s
+    WHERE s.fechaSolicitud BETWEEN :desde AND :hasta AND s.estadoSolicitud IN :estados
+      AND (:idRecurso IS NULL OR s.recursoComun.id = :idRecurso)
+    ORDER BY s.recursoComun.id, s.fechaSolicitud, s.horaInicio
+""") List<IntervaloReservaDTO> findIntervalosEntre(@Param("idRecurso") Long idRecurso,
+                                                  @Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta,
+                                                  @Param("estados") Collection<EstadoSolicitud> estados);
+
 }
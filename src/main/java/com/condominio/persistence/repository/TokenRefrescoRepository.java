@@ -0,0 +1,40 @@
+package com.condominio.persistence.repository;
+
+import com.condominio.persistence.model.TokenRefresco;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TokenRefrescoRepository extends CrudRepository<TokenRefresco, Long> {
+
+    boolean existsByHash(String hash);
+
+    /** Marca el token como usado si seguía vigente; devuelve 0 si ya se había usado o revocado. */
+    @Modifying
+    @Transactional
+    @Query("""
+    UPDATE TokenRefresco t SET t.usado = true
+    WHERE t.hash = :hash AND t.usado = false AND t.revocado = false
+""") int consumir(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TokenRefresco t SET t.revocado = true WHERE t.familia = :familia")
+    int revocarFamilia(@Param("familia") String familia);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE TokenRefresco t SET t.revocado = true WHERE t.email = :email AND t.revocado = false")
+    int revocarPorEmail(@Param("email") String email);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRefresco t WHERE t.expiraEn <= :limite")
+    int eliminarHasta(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,170 @@
+package com.condominio.service.implementation;
+
+import com.condominio.persistence.model.AdjuntoCorreo;
+import com.condominio.persistence.repository.AdjuntoCorreoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Adjuntos de correo en disco, en {@code correo.adjuntos.directorio}, con el SHA-256 del
+ * contenido como nombre de archivo: subir dos veces el mismo archivo deja una sola copia.
+ * {@link #guardar} copia el archivo por partes, sin cargarlo completo en memoria, y el
+ * despachador lo lee del disco al enviar ({@link #recurso}).
+ * <p>
+ * {@link #recolectar} borra los adjuntos que ya no tienen correos pendientes ni en envío,
+ * y los archivos que quedaron sin registro porque la transacción que los subió no se
+ * confirmó. Quien reutiliza un adjunto y el recolector bloquean la misma fila, así el
+ * archivo no desaparece entre que se encuentra y se encolan sus correos.
+ */
+@Service
+public class AdjuntoCorreoService {
+
+    private static final String PREFIJO_TEMPORAL = "subida-";
+
+    private final AdjuntoCorreoRepository adjuntoCorreoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directorio;
+    private final Duration graciaHuerfanos;
+    private static final Logger log = LoggerFactory.getLogger(AdjuntoCorreoService.class);
+
+    public AdjuntoCorreoService(AdjuntoCorreoRepository adjuntoCorreoRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${correo.adjuntos.directorio:${java.io.tmpdir}/condominio/adjuntos-correo}") Path directorio,
+                                @Value("${correo.adjuntos.gracia-huerfanos-horas:24}") long graciaHuerfanosHoras) {
+        this.adjuntoCorreoRepository = adjuntoCorreoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.directorio = directorio;
+        this.graciaHuerfanos = Duration.ofHours(graciaHuerfanosHoras);
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de adjuntos " + directorio, e);
+        }
+    }
+
+    /**
+     * Guarda el contenido y devuelve el id del adjunto; si ya había uno con el mismo
+     * contenido, devuelve ese. Debe llamarse en la transacción que encola los correos.
+     */
+    @Transactional
+    public Long guardar(InputStream contenido) throws IOException {
+        Path temporal = Files.createTempFile(directorio, PREFIJO_TEMPORAL, ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long tamano;
+            try (InputStream entrada = new DigestInputStream(contenido, sha256)) {
+                tamano = Files.copy(entrada, temporal, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+
+            // Upsert y luego bloqueo: dos primeras subidas del mismo contenido terminan en la misma fila.
+            adjuntoCorreoRepository.registrarSiNoExiste(hash, tamano, LocalDateTime.now(ZONE));
+            AdjuntoCorreo adjunto = adjuntoCorreoRepository.bloquearPorHash(hash)
+                    .orElseThrow(() -> new IllegalStateException("No se registró el adjunto " + hash));
+            // Reemplazar en vez de conservar la copia existente repone el archivo si faltaba.
+            Files.move(temporal, ruta(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return adjunto.getId();
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    public AdjuntoCorreo adjunto(Long id) {
+        return adjuntoCorreoRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("No existe el adjunto " + id));
+    }
+
+    /** El archivo del adjunto; se lee cada vez que se escribe el mensaje hacia el servidor de correo. */
+    public FileSystemResource recurso(AdjuntoCorreo adjunto) {
+        Path archivo = ruta(adjunto.getHash());
+        if (!Files.isRegularFile(archivo)) {
+            throw new IllegalStateException("Falta el archivo del adjunto " + adjunto.getId() + " en " + archivo);
+        }
+        return new FileSystemResource(archivo);
+    }
+
+    @Scheduled(fixedDelayString = "${correo.adjuntos.intervalo-recoleccion-ms:3600000}")
+    public void recolectar() {
+        int eliminados = 0;
+        for (Long id : adjuntoCorreoRepository.findIdsSinEnviosPendientes()) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> eliminarSiNoSeUsa(id)))) {
+                eliminados++;
+            }
+        }
+        int huerfanos = eliminarHuerfanos();
+        if (eliminados > 0 || huerfanos > 0) {
+            log.info("Adjuntos de correo eliminados: {} sin envíos pendientes y {} archivos huérfanos", eliminados, huerfanos);
+        }
+    }
+
+    /** Se vuelve a consultar con la fila bloqueada: pudo reutilizarse desde la primera consulta. */
+    private boolean eliminarSiNoSeUsa(Long id) {
+        return adjuntoCorreoRepository.bloquearPorId(id)
+                .filter(adjunto -> !adjuntoCorreoRepository.tieneEnviosPendientes(adjunto.getId()))
+                .map(adjunto -> {
+                    try {
+                        Files.deleteIfExists(ruta(adjunto.getHash()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    adjuntoCorreoRepository.delete(adjunto);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private int eliminarHuerfanos() {
+        Instant limite = Instant.now().minus(graciaHuerfanos);
+        int eliminados = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                if (!Files.isRegularFile(archivo) || Files.getLastModifiedTime(archivo).toInstant().isAfter(limite)) {
+                    continue;
+                }
+                String nombre = archivo.getFileName().toString();
+                if (nombre.startsWith(PREFIJO_TEMPORAL) || !adjuntoCorreoRepository.existsByHash(nombre)) {
+                    Files.deleteIfExists(archivo);
+                    eliminados++;
+                }
+            }
+        } catch (IOException e) {
+            log.error("No se pudo revisar el directorio de adjuntos {}", directorio, e);
+        }
+        return eliminados;
+    }
+
+    private Path ruta(String hash) {
+        return directorio.resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.IntervaloReservaDTO;
+import com.condominio.persistence.model.EstadoSolicitud;
+import com.condominio.persistence.model.SolicitudReservaRecurso;
+import com.condominio.persistence.repository.SolicitudReservaRecursoRepository;
+import com.condominio.util.exception.ApiException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Índice en memoria de los horarios ocupados de cada recurso común por día. Cada día
+ * guarda sus intervalos en un árbol por hora de inicio; como nunca se solapan, basta
+ * mirar el último que empieza antes del fin pedido para saber si hay conflicto.
+ * Comprobar y reservar se hace bajo el candado del día, así dos solicitudes
+ * simultáneas para el mismo horario no pueden quedar aceptadas las dos.
+ */
+@Service
+@RequiredArgsConstructor
+public class AgendaRecursoService {
+
+    /** Solo las solicitudes aprobadas y pendientes ocupan horario; las rechazadas lo liberan. */
+    public static final List<EstadoSolicitud> ESTADOS_OCUPADOS = List.of(EstadoSolicitud.APROBADA, EstadoSolicitud.PENDIENTE);
+
+    private final SolicitudReservaRecursoRepository solicitudReservaRecursoRepository;
+    private final Map<ClaveAgenda, AgendaDia> agendas = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(AgendaRecursoService.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        Map<ClaveAgenda, List<IntervaloReservaDTO>> porDia = solicitudReservaRecursoRepository
+                .findIntervalosDesde(LocalDate.now(ZONE), ESTADOS_OCUPADOS).stream()
+                .collect(Collectors.groupingBy(i -> new ClaveAgenda(i.getIdRecurso(), i.getFechaSolicitud())));
+        porDia.forEach((clave, intervalos) -> agendas.putIfAbsent(clave, construir(clave, intervalos)));
+        log.info("Agenda de recursos precargada: {} días con reservas", porDia.size());
+    }
+
+    @Scheduled(cron = "0 0 1 * * *", zone = "America/Bogota")
+    public void descartarDiasPasados() {
+        LocalDate hoy = LocalDate.now(ZONE);
+        agendas.keySet().removeIf(clave -> clave.fecha().isBefore(hoy));
+    }
+
+    public boolean hayConflicto(Long idRecurso, LocalDate fecha, LocalTime inicio, LocalTime fin, Long idExcluida) {
+        validarIntervalo(inicio, fin);
+        AgendaDia agenda = agenda(idRecurso, fecha);
+        synchronized (agenda) {
+            return agenda.conflicto(inicio, fin, idExcluida);
+        }
+    }
+
+    /**
+     * Reserva el horario si está libre. Devuelve vacío cuando otra solicitud lo ocupa.
+     * Si luego no se puede guardar la solicitud, la ocupación se debe {@link #liberar(Ocupacion) liberar}.
+     */
+    public Optional<Ocupacion> reclamar(Long idRecurso, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        validarIntervalo(inicio, fin);
+        ClaveAgenda clave = new ClaveAgenda(idRecurso, fecha);
+        AgendaDia agenda = agenda(clave);
+        synchronized (agenda) {
+            if (agenda.conflicto(inicio, fin, null)) {
+                return Optional.empty();
+            }
+            Ocupacion ocupacion = new Ocupacion(clave, inicio, fin, null);
+            agenda.agregar(ocupacion);
+            return Optional.of(ocupacion);
+        }
+    }
+
+    /**
+     * Cambia el horario de una solicitud ya registrada. En el mismo día el horario
+     * anterior no cuenta como conflicto; si el nuevo está ocupado la agenda queda como estaba.
+     */
+    public Optional<Ocupacion> mover(SolicitudReservaRecurso solicitud, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        validarIntervalo(inicio, fin);
+        ClaveAgenda destino = new ClaveAgenda(solicitud.getRecursoComun().getId(), fecha);
+        ClaveAgenda origen = new ClaveAgenda(solicitud.getRecursoComun().getId(), solicitud.getFechaSolicitud());
+        AgendaDia agenda = agenda(destino);
+        Ocupacion ocupacion = new Ocupacion(destino, inicio, fin, solicitud.getId());
+        synchronized (agenda) {
+            if (agenda.conflicto(inicio, fin, solicitud.getId())) {
+                return Optional.empty();
+            }
+            if (destino.equals(origen)) {
+                agenda.quitar(solicitud.getHoraInicio(), solicitud.getId());
+            }
+            agenda.agregar(ocupacion);
+        }
+        if (!destino.equals(origen)) {
+            liberar(origen, solicitud.getHoraInicio(), solicitud.getId());
+        }
+        return Optional.of(ocupacion);
+    }
+
+    public void liberar(Ocupacion ocupacion) {
+        AgendaDia agenda = agendas.get(ocupacion.getClave());
+        if (agenda != null) {
+            synchronized (agenda) {
+                agenda.quitar(ocupacion);
+            }
+        }
+    }
+
+    public void liberar(SolicitudReservaRecurso solicitud) {
+        if (solicitud.getRecursoComun() == null || solicitud.getFechaSolicitud() == null) {
+            return;
+        }
+        liberar(new ClaveAgenda(solicitud.getRecursoComun().getId(), solicitud.getFechaSolicitud()),
+                solicitud.getHoraInicio(), solicitud.getId());
+    }
+
+    private void liberar(ClaveAgenda clave, LocalTime inicio, Long idSolicitud) {
+        AgendaDia agenda = agendas.get(clave);
+        if (agenda != null) {
+            synchronized (agenda) {
+                agenda.quitar(inicio, idSolicitud);
+            }
+        }
+    }
+
+    private AgendaDia agenda(Long idRecurso, LocalDate fecha) {
+        return agenda(new ClaveAgenda(idRecurso, fecha));
+    }
+
+    private AgendaDia agenda(ClaveAgenda clave) {
+        return agendas.computeIfAbsent(clave, c -> construir(c, solicitudReservaRecursoRepository
+                .findIntervalos(c.idRecurso(), c.fecha(), ESTADOS_OCUPADOS)));
+    }
+
+    private AgendaDia construir(ClaveAgenda clave, List<IntervaloReservaDTO> intervalos) {
+        AgendaDia agenda = new AgendaDia();
+        for (IntervaloReservaDTO intervalo : intervalos) {
+            if (!intervalo.getHoraInicio().isBefore(intervalo.getHoraFin())
+                    || agenda.conflicto(intervalo.getHoraInicio(), intervalo.getHoraFin(), null)) {
+                log.warn("Solicitud {} del recurso {} el {} se solapa con otra reserva; no se indexa",
+                        intervalo.getIdSolicitud(), clave.idRecurso(), clave.fecha());
+                continue;
+            }
+            agenda.agregar(new Ocupacion(clave, intervalo.getHoraInicio(), intervalo.getHoraFin(),
+                    intervalo.getIdSolicitud()));
+        }
+        return agenda;
+    }
+
+    private void validarIntervalo(LocalTime inicio, LocalTime fin) {
+        if (inicio == null || fin == null || !inicio.isBefore(fin)) {
+            throw new ApiException("La hora de inicio debe ser anterior a la hora de fin.", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    record ClaveAgenda(Long idRecurso, LocalDate fecha) {
+    }
+
+    @Getter
+    public static final class Ocupacion {
+        private final ClaveAgenda clave;
+        private final LocalTime inicio;
+        private final LocalTime fin;
+        private volatile Long idSolicitud;
+
+        private Ocupacion(ClaveAgenda clave, LocalTime inicio, LocalTime fin, Long idSolicitud) {
+            this.clave = clave;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.idSolicitud = idSolicitud;
+        }
+
+        /** Asocia la ocupación con la solicitud una vez guardada. */
+        public void confirmar(Long idSolicitud) {
+            this.idSolicitud = idSolicitud;
+        }
+    }
+
+    /** Intervalos de un recurso en un día, sin solapes. Se usa siempre bajo su propio candado. */
+    private static final class AgendaDia {
+        private final TreeMap<LocalTime, Ocupacion> porInicio = new TreeMap<>();
+
+        boolean conflicto(LocalTime inicio, LocalTime fin, Long idExcluida) {
+            Map.Entry<LocalTime, Ocupacion> anterior = porInicio.lowerEntry(fin);
+            if (anterior == null || !anterior.getValue().getFin().isAfter(inicio)) {
+                return false;
+            }
+            if (idExcluida == null || !idExcluida.equals(anterior.getValue().getIdSolicitud())) {
+                return true;
+            }
+            // La única que puede solaparse con la propia solicitud es la que empieza justo antes de ella.
+            Map.Entry<LocalTime, Ocupacion> previa = porInicio.lowerEntry(anterior.getKey());
+            return previa != null && previa.getValue().getFin().isAfter(inicio);
+        }
+
+        void agregar(Ocupacion ocupacion) {
+            porInicio.put(ocupacion.getInicio(), ocupacion);
+        }
+
+        void quitar(Ocupacion ocupacion) {
+            porInicio.remove(ocupacion.getInicio(), ocupacion);
+        }
+
+        void quitar(LocalTime inicio, Long idSolicitud) {
+            Ocupacion actual = inicio != null ? porInicio.get(inicio) : null;
+            if (actual != null && Objects.equals(actual.getIdSolicitud(), idSolicitud)) {
+                porInicio.remove(inicio);
+            }
+        }
+    }
+}
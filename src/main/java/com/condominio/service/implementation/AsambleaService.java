@@ -3,6 +3,7 @@ package com.condominio.service.implementation;
 import com.condominio.dto.request.AsambleaDTO;
 import com.condominio.dto.response.AsambleaConAsistenciaDTO;
 import com.condominio.dto.response.CasaSimpleDTO;
+import com.condominio.dto.response.DestinatarioCorreoDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.Asamblea;
 import com.condominio.persistence.model.Asistencia;
@@ -16,6 +17,8 @@ import com.condominio.util.constants.AppConstants;
 import com.condominio.util.exception.ApiException;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
@@ -23,8 +26,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
@@ -36,6 +37,8 @@ public class AsambleaService implements IAsambleaService {
     private final EmailService emailService;
     private final AsistenciaRepository asistenciaRepository;
 
+    @Value("${correo.masivo.tamano-lote:500}")
+    private int tamanoLoteCorreos;
 
     @Override
     public SuccessResult<AsambleaDTO> create(AsambleaDTO asamblea) {
@@ -65,14 +68,29 @@ public class AsambleaService implements IAsambleaService {
         System.out.println("Asistencias: " + asistencias);
         asistenciaRepository.saveAll(asistencias);
 
-        Iterable<Persona> iterable = personaRepository.findAll();
-        List<Persona> personas = StreamSupport.stream(iterable.spliterator(), false)
-                .collect(Collectors.toList());
-
-        emailService.enviarInvitacionesAsambleaMasivas(personas, newAsamblea);
+        invitar(newAsamblea);
         return new SuccessResult<>("Asamblea programada correctamente",asamblea);
     }
 
+    /**
+     * Encola la invitación en lotes de {@code correo.masivo.tamano-lote} personas, leídas con
+     * una consulta que solo trae el id y el correo. El despachador de la bandeja de salida las
+     * envía en paralelo; el avance se consulta como la campaña {@code asamblea-<id>}.
+     */
+    private void invitar(Asamblea asamblea) {
+        String campana = AppConstants.CAMPANA_ASAMBLEA + asamblea.getId();
+        Long desde = 0L;
+        List<DestinatarioCorreoDTO> lote;
+        do {
+            lote = personaRepository.findDestinatariosDesde(desde, PageRequest.of(0, tamanoLoteCorreos));
+            if (lote.isEmpty()) {
+                return;
+            }
+            emailService.enviarInvitacionesAsambleaMasivas(lote, asamblea, campana);
+            desde = lote.get(lote.size() - 1).getIdPersona();
+        } while (lote.size() == tamanoLoteCorreos);
+    }
+
     @Override
     public SuccessResult<List<Asamblea>> findAllAsambleas() {
         List<Asamblea> asambleas = (List<Asamblea>) asambleaRepository.findAll();
@@ -0,0 +1,77 @@
+package com.condominio.service.implementation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Certificados de paz y salvo ya generados por {@link PazYSalvoMasivoService}, por casa y
+ * fecha de emisión: repetir la emisión el mismo día no vuelve a renderizarlos. Se guardan los
+ * {@code certificados.cache.max-entradas} más recientes.
+ * <p>
+ * {@link SaldoCasaService#recalcular} descarta los de una casa cada vez que le llega una
+ * obligación o un pago. Cada casa lleva una versión que sube con cada descarte, así un
+ * certificado que se estaba generando mientras llegó el cambio no se guarda.
+ */
+@Service
+public class CacheCertificadoService {
+
+    private final Map<ClaveCertificado, Certificado> certificados;
+    private final Map<Long, Long> versiones = new ConcurrentHashMap<>();
+
+    public CacheCertificadoService(@Value("${certificados.cache.max-entradas:100}") int maxEntradas) {
+        this.certificados = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClaveCertificado, Certificado> eldest) {
+                return size() > maxEntradas;
+            }
+        });
+    }
+
+    /**
+     * El certificado guardado si se emitió para el mismo titular; si no, lo genera y lo guarda.
+     * Si el titular cambió de nombre se vuelve a generar.
+     */
+    public byte[] obtener(Long idCasa, LocalDate fecha, String titular, Generador generador) throws IOException {
+        ClaveCertificado clave = new ClaveCertificado(idCasa, fecha);
+        Certificado guardado = certificados.get(clave);
+        if (guardado != null && guardado.titular().equals(titular)) {
+            return guardado.pdf();
+        }
+        long version = versiones.getOrDefault(idCasa, 0L);
+        byte[] pdf = generador.generar();
+        synchronized (certificados) {
+            if (versiones.getOrDefault(idCasa, 0L) == version) {
+                certificados.put(clave, new Certificado(titular, pdf));
+            }
+        }
+        return pdf;
+    }
+
+    public void invalidar(Collection<Long> casaIds) {
+        synchronized (certificados) {
+            for (Long idCasa : casaIds) {
+                versiones.merge(idCasa, 1L, Long::sum);
+            }
+            certificados.keySet().removeIf(clave -> casaIds.contains(clave.idCasa()));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Generador {
+        byte[] generar() throws IOException;
+    }
+
+    record ClaveCertificado(Long idCasa, LocalDate fecha) {
+    }
+
+    record Certificado(String titular, byte[] pdf) {
+    }
+}
@@ -4,31 +4,44 @@ import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.CasaRepository;
 import com.condominio.persistence.repository.MascotaRepository;
+import com.condominio.persistence.repository.MiembroRepository;
 import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.PagoDetalleRepository;
 import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.service.interfaces.ICasaService;
-import com.condominio.service.interfaces.IMiembroService;
-import com.condominio.service.interfaces.IPagoService;
 import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CasaService implements ICasaService {
 
     private final CasaRepository casaRepository;
-    private final IMiembroService miembroService;
+    private final MiembroRepository miembroRepository;
     private final PersonaRepository personaRepository;
     private final ObligacionRepository obligacionRepository;
     private final MascotaRepository mascotaRepository;
-    private final IPagoService pagoService;
+    private final PagoDetalleRepository pagoDetalleRepository;
+    private final SaldoCasaService saldoCasaService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
 
     @Override
     public Optional<Casa> findById(Long id) {
@@ -44,75 +57,80 @@ public class CasaService implements ICasaService {
     @Override
     public SuccessResult<CasaCuentaDTO> estadoDeCuenta(Long idCasa) {
 
-        List<Obligacion> todasObligaciones = obligacionRepository.findByCasaId(idCasa);
-
-        List<Obligacion> obligacionesPendientes = todasObligaciones.stream()
+        List<Obligacion> obligacionesPendientes = obligacionRepository.findByCasaId(idCasa).stream()
                 .filter(o -> o.getEstadoPago() == EstadoPago.PENDIENTE)
                 .toList();
-
-        Long saldoPendienteTotal = obligacionesPendientes.stream()
-                .mapToLong(Obligacion::getMonto)
-                .sum();
+        SaldoCasa saldo = saldoCasaService.obtener(idCasa);
 
         CasaCuentaDTO dto = CasaCuentaDTO.builder()
-                .saldoPendienteTotal(saldoPendienteTotal)
+                .saldoPendienteTotal(saldo.getSaldoPendiente())
                 .multasActivas(obligacionesPendientes)
-                .ultimoPago(pagoService.obtenerFechaUltimoPagoPorCasa(idCasa).orElse(null))
+                .ultimoPago(saldo.getFechaUltimoPago())
                 .build();
         return new SuccessResult<>("Estado de cuenta obtenido correctamente", dto);
     }
 
+    /**
+     * Arma el directorio de casas con un número fijo de consultas agrupadas
+     * (casas, propietarios y arrendatarios, miembros, mascotas y saldos),
+     * sin importar cuántas casas haya.
+     */
     public SuccessResult<List<CasaInfoDTO>> obtenerCasas() {
         List<Casa> casas = casaRepository.findAll();
         if (casas.isEmpty()) {
             throw new ApiException("No hay casas registradas " +
                     "en el sistema", HttpStatus.BAD_REQUEST);
         }
-        List<CasaInfoDTO> dtos = casas.stream().map(casa -> {
 
-            Persona propietario = personaRepository.findPropietarioByCasaId(casa.getId()).
-                    orElse(null);
-            int cantidadMiembros = miembroService.countByCasaId(casa.getId());
-            int cantidadMascotas = mascotaRepository.sumCantidadMascotasByCasaId(casa.getId());
+        Map<Long, ResidenteCasaDTO> propietarios = new HashMap<>();
+        Set<Long> casasArrendadas = new HashSet<>();
+        for (ResidenteCasaDTO residente : personaRepository.findPropietariosYArrendatarios()) {
+            if (residente.getRol() == RoleEnum.PROPIETARIO) {
+                propietarios.putIfAbsent(residente.getCasaId(), residente);
+            } else {
+                casasArrendadas.add(residente.getCasaId());
+            }
+        }
+
+        Map<Long, Long> miembrosPorCasa = miembroRepository.contarActivosPorCasa().stream()
+                .collect(Collectors.toMap(ConteoCasaDTO::getCasaId, ConteoCasaDTO::getCantidad));
+
+        Map<Long, Map<String, Integer>> mascotasPorCasa = new HashMap<>();
+        for (MascotaCasaDTO m : mascotaRepository.sumarPorCasaYTipo()) {
+            mascotasPorCasa.computeIfAbsent(m.getCasaId(), id -> new HashMap<>())
+                    .put(m.getTipo(), m.getCantidad().intValue());
+        }
+
+        Map<Long, SaldoCasa> saldos = saldoCasaService.obtenerTodos(casas.stream().map(Casa::getId).toList());
 
+        List<CasaInfoDTO> dtos = casas.stream().map(casa -> {
+            ResidenteCasaDTO propietario = propietarios.get(casa.getId());
             PersonaSimpleDTO propietarioDTO = null;
             if (propietario != null) {
                 propietarioDTO = PersonaSimpleDTO.builder()
                         .nombreCompleto(propietario.getNombreCompleto())
                         .telefono(propietario.getTelefono())
-                        .correo(propietario.getUser().getEmail())
+                        .correo(propietario.getCorreo())
                         .build();
             }
 
+            Map<String, Integer> conteos = mascotasPorCasa.getOrDefault(casa.getId(), Map.of());
             Map<String, Integer> mascotasMap = new LinkedHashMap<>();
             for (TipoMascota tipo : TipoMascota.values()) {
-                mascotasMap.put(tipo.toString(), 0);
-            }
-            List<Mascota> conteos = mascotaRepository.findAllByCasa_Id(casa.getId());
-            for (Mascota c : conteos) {
-                mascotasMap.put(c.getTipoMascota().toString(), (int)c.getCantidad());
+                mascotasMap.put(tipo.toString(), conteos.getOrDefault(tipo.toString(), 0));
             }
+            int cantidadMascotas = mascotasMap.values().stream().mapToInt(Integer::intValue).sum();
 
-            UsoCasa usoCasa;
-            Optional<Persona> arrendatarioOpt = personaRepository.findArrendatarioByCasaId(casa.getId());
-            if (arrendatarioOpt.isPresent()) {
-                usoCasa = UsoCasa.ARRENDADA;
+            UsoCasa usoCasa = casasArrendadas.contains(casa.getId()) ? UsoCasa.ARRENDADA : UsoCasa.RESIDENCIAL;
 
-            }else{
-                usoCasa = UsoCasa.RESIDENCIAL;
-            }
-            EstadoFinancieroCasa estadoFinancieroCasa;
-            if(obligacionRepository.existsByCasaIdAndEstadoPago(casa.getId(),EstadoPago.PENDIENTE)){
-
-                estadoFinancieroCasa= EstadoFinancieroCasa.EN_MORA;
-
-            }else{
-                estadoFinancieroCasa= EstadoFinancieroCasa.AL_DIA;
-            }
+            SaldoCasa saldo = saldos.get(casa.getId());
+            EstadoFinancieroCasa estadoFinancieroCasa = saldo != null && saldo.getEstadoFinanciero() != null
+                    ? saldo.getEstadoFinanciero()
+                    : EstadoFinancieroCasa.AL_DIA;
             CasaInfoDTO dto = new CasaInfoDTO();
             dto.setNumeroCasa(casa.getNumeroCasa());
             dto.setPropietario(propietarioDTO);
-            dto.setCantidadMiembros(cantidadMiembros);
+            dto.setCantidadMiembros(miembrosPorCasa.getOrDefault(casa.getId(), 0L).intValue());
             dto.setCantidadMascotas(cantidadMascotas);
             dto.setMascotas(mascotasMap);
             dto.setUsoCasa(usoCasa);
@@ -123,117 +141,146 @@ public class CasaService implements ICasaService {
         return new SuccessResult<>("Casas obtenidas correctamente", dtos);
     }
 
-    public SuccessResult<List<CasaDeudoraDTO>> obtenerCasasConObligacionesPorCobrar() {
-        List<Casa> casas = casaRepository.findCasasConObligacionesPorCobrar();
-        if (casas.isEmpty()) {
+    public StreamingResponseBody obtenerCasasConObligacionesPorCobrar() {
+        if (!obligacionRepository.existsByEstadoPagoNot(EstadoPago.CONDONADO)) {
             throw new ApiException("No hay casas con obligaciones por cobrar", HttpStatus.BAD_REQUEST);
         }
-
-        List<CasaDeudoraDTO> dtos = casas.stream().map(casa -> {
-            Persona propietario = personaRepository.findPropietarioByCasaId(casa.getId())
-                    .orElse(null);
-
-            PersonaSimpleDTO propietarioDTO = null;
-            if (propietario != null) {
-                propietarioDTO = PersonaSimpleDTO.builder()
-                        .nombreCompleto(propietario.getNombreCompleto())
-                        .telefono(propietario.getTelefono())
-                        .correo(propietario.getUser().getEmail())
-                        .build();
-            }
-
-            List<Obligacion> pendientes = obligacionRepository
-                    .findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(casa.getId(), EstadoPago.CONDONADO);
-
-            int saldoPendiente = pendientes.stream()
-                    .mapToInt(Obligacion::getValorPendiente)
-                    .sum();
-
-            List<MostrarObligacionDTO> obligacionesDTO = pendientes.stream()
-                    .map(o -> MostrarObligacionDTO.builder()
-                            .id((o.getId()))
-                            .estado(o.getEstadoPago().name())
-                            .motivo(o.getMotivo())
-                            .casa(o.getCasa().getNumeroCasa())
-                            .monto(o.getMonto())
-                            .valorTotal(o.getValorTotal())
-                            .valorPendiente(o.getValorPendiente())
-                            .estadoPago(o.getEstadoPago())
-                            .montoPagado(o.getMontoPagado())
-                            .tipoObligacion(o.getTipoObligacion())
-                            .build())
-                    .toList();
-
-            CasaDeudoraDTO dto = new CasaDeudoraDTO();
-            dto.setNumeroCasa(casa.getNumeroCasa());
-            dto.setPropietario(propietarioDTO);
-            dto.setSaldoPendiente(saldoPendiente);
-            dto.setObligacionesPendientes(obligacionesDTO);
-            dto.setUltimoPago(pagoService.obtenerFechaUltimoPagoPorCasa(casa.getId()).orElse(null));
-            return dto;
-        }).toList();
-
-        return new SuccessResult<>("Casas con obligaciones por cobrar obtenidas correctamente", dtos);
+        return out -> escribirCasasDeudoras(out, emitir -> recorrerCasasDeudoras(null, false, emitir));
     }
 
-    public SuccessResult<List<CasaDeudoraDTO>>  obtenerObligacionesPorCasa() {
+    public StreamingResponseBody obtenerObligacionesPorCasa() {
         List<Casa> casas = casaRepository.findAll();
         if (casas.isEmpty()) {
             throw new ApiException("No hay casas con obligaciones", HttpStatus.BAD_REQUEST);
         }
+        List<Casa> casasOrdenadas = casas.stream().sorted(Comparator.comparing(Casa::getId)).toList();
+        return out -> escribirCasasDeudoras(out, emitir -> recorrerCasasDeudoras(casasOrdenadas, true, emitir));
+    }
 
-        List<CasaDeudoraDTO> dtos = casas.stream().map(casa -> {
-            Persona propietario = personaRepository.findPropietarioByCasaId(casa.getId())
-                    .orElse(null);
-
-            PersonaSimpleDTO propietarioDTO = null;
-            if (propietario != null) {
-                propietarioDTO = PersonaSimpleDTO.builder()
-                        .nombreCompleto(propietario.getNombreCompleto())
-                        .telefono(propietario.getTelefono())
-                        .correo(propietario.getUser().getEmail())
-                        .build();
+    /**
+     * Escribe {@code {"message": ..., "data": [...]}} casa por casa, sin acumular la
+     * lista completa en memoria.
+     */
+    private void escribirCasasDeudoras(OutputStream out, Consumer<Consumer<CasaDeudoraDTO>> recorrido) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CasaDeudoraDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartObject();
+        generator.writeStringField("message", "Casas con obligaciones por cobrar obtenidas correctamente");
+        generator.writeArrayFieldStart("data");
+        recorrido.accept(dto -> {
+            try {
+                writer.writeValue(generator, dto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        });
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
 
-            List<Obligacion> obligaciones = obligacionRepository
-                    .findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(casa.getId(), EstadoPago.CONDONADO);
-
-            int saldoPendiente = obligaciones.stream()
-                    .mapToInt(Obligacion::getValorPendiente)
-                    .sum();
+    /**
+     * Recorre una sola vez las obligaciones no condonadas, ordenadas por casa, y emite una
+     * {@link CasaDeudoraDTO} por cada casa. Si se pasan {@code casas} (ordenadas por id),
+     * también se emiten las que no tienen obligaciones.
+     */
+    private void recorrerCasasDeudoras(List<Casa> casas, boolean detallado, Consumer<CasaDeudoraDTO> emitir) {
+        transactionTemplate.execute(status -> {
+            Map<Long, PersonaSimpleDTO> propietarios = new HashMap<>();
+            for (ResidenteCasaDTO residente : personaRepository.findPropietariosYArrendatarios()) {
+                if (residente.getRol() == RoleEnum.PROPIETARIO) {
+                    propietarios.putIfAbsent(residente.getCasaId(), PersonaSimpleDTO.builder()
+                            .nombreCompleto(residente.getNombreCompleto())
+                            .telefono(residente.getTelefono())
+                            .correo(residente.getCorreo())
+                            .build());
+                }
+            }
+            Map<Long, LocalDate> ultimosPagos = new HashMap<>();
+            for (UltimoPagoCasaDTO pago : pagoDetalleRepository.findFechasUltimoPagoPorCasa()) {
+                ultimosPagos.put(pago.getCasaId(), pago.getFechaUltimoPago());
+            }
 
-            int interes = obligaciones.stream()
-                    .mapToInt(Obligacion::getInteres)
-                    .sum();
+            Iterator<Casa> sinRecorrer = casas != null ? casas.iterator() : Collections.emptyIterator();
+            Casa siguiente = sinRecorrer.hasNext() ? sinRecorrer.next() : null;
+            List<ObligacionCasaDTO> grupo = new ArrayList<>();
+
+            try (Stream<ObligacionCasaDTO> obligaciones =
+                         obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)) {
+                Iterator<ObligacionCasaDTO> it = obligaciones.iterator();
+                while (it.hasNext()) {
+                    ObligacionCasaDTO o = it.next();
+                    if (!grupo.isEmpty() && !grupo.getFirst().getCasaId().equals(o.getCasaId())) {
+                        emitir.accept(casaDeudora(grupo, detallado, propietarios, ultimosPagos));
+                        grupo.clear();
+                    }
+                    if (grupo.isEmpty()) {
+                        while (siguiente != null && siguiente.getId() <= o.getCasaId()) {
+                            if (siguiente.getId() < o.getCasaId()) {
+                                emitir.accept(casaSinObligaciones(siguiente, propietarios, ultimosPagos));
+                            }
+                            siguiente = sinRecorrer.hasNext() ? sinRecorrer.next() : null;
+                        }
+                    }
+                    grupo.add(o);
+                }
+            }
+            if (!grupo.isEmpty()) {
+                emitir.accept(casaDeudora(grupo, detallado, propietarios, ultimosPagos));
+            }
+            while (siguiente != null) {
+                emitir.accept(casaSinObligaciones(siguiente, propietarios, ultimosPagos));
+                siguiente = sinRecorrer.hasNext() ? sinRecorrer.next() : null;
+            }
+            return null;
+        });
+    }
 
-            List<MostrarObligacionDTO> obligacionesDTO = obligaciones.stream()
-                    .map(o -> MostrarObligacionDTO.builder()
-                            .id((o.getId()))
+    private CasaDeudoraDTO casaDeudora(List<ObligacionCasaDTO> obligaciones, boolean detallado,
+                                       Map<Long, PersonaSimpleDTO> propietarios, Map<Long, LocalDate> ultimosPagos) {
+        ObligacionCasaDTO primera = obligaciones.getFirst();
+        List<MostrarObligacionDTO> obligacionesDTO = obligaciones.stream()
+                .map(o -> {
+                    MostrarObligacionDTO.MostrarObligacionDTOBuilder builder = MostrarObligacionDTO.builder()
+                            .id(o.getId())
                             .estado(o.getEstadoPago().name())
-                            .titulo(o.getTitulo())
-                            .casa(o.getCasa().getNumeroCasa())
+                            .casa(o.getNumeroCasa())
                             .monto(o.getMonto())
                             .valorTotal(o.getValorTotal())
                             .valorPendiente(o.getValorPendiente())
                             .estadoPago(o.getEstadoPago())
                             .montoPagado(o.getMontoPagado())
-                            .tipoObligacion(o.getTipoObligacion())
-                            .interes(o.getInteres())
-                            .mora(o.getMora())
-                            .build())
-                    .toList();
+                            .tipoObligacion(o.getTipoObligacion());
+                    if (detallado) {
+                        builder.titulo(o.getTitulo()).interes(o.getInteres()).mora(o.getMora());
+                    } else {
+                        builder.motivo(o.getMotivo());
+                    }
+                    return builder.build();
+                })
+                .toList();
 
-            CasaDeudoraDTO dto = new CasaDeudoraDTO();
-            dto.setNumeroCasa(casa.getNumeroCasa());
-            dto.setPropietario(propietarioDTO);
-            dto.setSaldoPendiente(saldoPendiente);
-            dto.setObligacionesPendientes(obligacionesDTO);
-            dto.setUltimoPago(pagoService.obtenerFechaUltimoPagoPorCasa(casa.getId()).orElse(null));
-            dto.setInteres(interes);
-            return dto;
-        }).toList();
+        CasaDeudoraDTO dto = new CasaDeudoraDTO();
+        dto.setNumeroCasa(primera.getNumeroCasa());
+        dto.setPropietario(propietarios.get(primera.getCasaId()));
+        dto.setSaldoPendiente(obligaciones.stream().mapToInt(ObligacionCasaDTO::getValorPendiente).sum());
+        dto.setObligacionesPendientes(obligacionesDTO);
+        dto.setUltimoPago(ultimosPagos.get(primera.getCasaId()));
+        if (detallado) {
+            dto.setInteres(obligaciones.stream().mapToInt(ObligacionCasaDTO::getInteres).sum());
+        }
+        return dto;
+    }
 
-        return new SuccessResult<>("Casas con obligaciones por cobrar obtenidas correctamente", dtos);
+    private CasaDeudoraDTO casaSinObligaciones(Casa casa, Map<Long, PersonaSimpleDTO> propietarios,
+                                               Map<Long, LocalDate> ultimosPagos) {
+        CasaDeudoraDTO dto = new CasaDeudoraDTO();
+        dto.setNumeroCasa(casa.getNumeroCasa());
+        dto.setPropietario(propietarios.get(casa.getId()));
+        dto.setObligacionesPendientes(List.of());
+        dto.setUltimoPago(ultimosPagos.get(casa.getId()));
+        return dto;
     }
 
 }
@@ -0,0 +1,81 @@
+package com.condominio.service.implementation;
+
+import com.condominio.persistence.model.CausacionInteres;
+import com.condominio.persistence.repository.CausacionInteresRepository;
+import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.SaldoCasaRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Causación diaria de intereses y mora de las obligaciones vencidas. Trabaja con UPDATE
+ * en bloque por rangos de id, cada rango en su propia transacción para no retener
+ * bloqueos de fila, y guarda una {@link CausacionInteres} por corrida.
+ */
+@Service
+@RequiredArgsConstructor
+public class CausacionInteresService {
+
+    private final ObligacionRepository obligacionRepository;
+    private final CausacionInteresRepository causacionInteresRepository;
+    private final SaldoCasaRepository saldoCasaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private static final Logger log = LoggerFactory.getLogger(CausacionInteresService.class);
+
+    @Value("${causacion.tamano-lote:1000}")
+    private int tamanoLote;
+
+    @Value("${causacion.valor-mora:0}")
+    private int valorMora;
+
+    @Scheduled(cron = "0 30 0 * * *", zone = "America/Bogota")
+    public void causarInteresesProgramado() {
+        causar(LocalDate.now(ZONE));
+    }
+
+    public CausacionInteres causar(LocalDate hoy) {
+        Optional<CausacionInteres> ultima = causacionInteresRepository.findTopByFechaFinIsNotNullOrderByFechaCorteDesc();
+        if (ultima.isPresent() && !ultima.get().getFechaCorte().isBefore(hoy)) {
+            log.info("Los intereses ya están causados hasta {}", ultima.get().getFechaCorte());
+            return ultima.get();
+        }
+
+        long inicio = System.currentTimeMillis();
+        CausacionInteres corrida = CausacionInteres.builder()
+                .fechaCorte(hoy)
+                .fechaInicio(LocalDateTime.now(ZONE))
+                .build();
+
+        Long minId = obligacionRepository.findMinIdPorCausar(hoy);
+        Long maxId = obligacionRepository.findMaxIdPorCausar(hoy);
+
+        if (minId != null && maxId != null) {
+            for (long desde = minId; desde <= maxId; desde += tamanoLote) {
+                long desdeId = desde;
+                long hastaId = Math.min(desde + tamanoLote - 1, maxId);
+                Integer causadas = transactionTemplate.execute(status ->
+                        obligacionRepository.causarIntereses(desdeId, hastaId, hoy, valorMora));
+                corrida.setObligacionesCausadas(corrida.getObligacionesCausadas() + (causadas != null ? causadas : 0));
+                corrida.setLotes(corrida.getLotes() + 1);
+            }
+            transactionTemplate.execute(status -> saldoCasaRepository.recalcularCausadas(hoy));
+        }
+
+        corrida.setFechaFin(LocalDateTime.now(ZONE));
+        corrida.setDuracionMs(System.currentTimeMillis() - inicio);
+        log.info("Causación de intereses al {}: {} obligaciones en {} lotes ({} ms)",
+                hoy, corrida.getObligacionesCausadas(), corrida.getLotes(), corrida.getDuracionMs());
+        return causacionInteresRepository.save(corrida);
+    }
+}
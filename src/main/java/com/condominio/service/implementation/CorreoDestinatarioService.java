@@ -4,6 +4,7 @@ import com.condominio.dto.response.DestinatarioInfoDTO;
 import com.condominio.persistence.model.CorreoEnviado;
 import com.condominio.persistence.model.Persona;
 import com.condominio.persistence.model.UserEntity;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
 import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.persistence.repository.UserRepository;
@@ -24,11 +25,22 @@ import java.util.List;
 public class CorreoDestinatarioService {
 
     private final CorreoEnviadoRepository correoEnviadoRepository;
+    private final CorreoDestinatarioRepository correoDestinatarioRepository;
     private final UserRepository userRepository;
     private final PersonaRepository personaRepository;
     private final ObjectMapper objectMapper;
 
+    /**
+     * Destinatarios de un comunicado con su estado de envío, en una sola consulta sobre
+     * {@code correo_destinatario}. Los comunicados anteriores a esa tabla guardan la lista
+     * en JSON y se resuelven correo por correo.
+     */
     public List<DestinatarioInfoDTO> getDestinatariosInfo(Long correoId) {
+        List<DestinatarioInfoDTO> destinatarios = correoDestinatarioRepository.findInfoByCorreoEnviadoId(correoId);
+        if (!destinatarios.isEmpty()) {
+            return destinatarios;
+        }
+
         CorreoEnviado correoEnviado = correoEnviadoRepository.findById(correoId)
                 .orElseThrow(() -> new ApiException("Correo no encontrado", HttpStatus.NOT_FOUND));
 
@@ -1,34 +1,71 @@
 package com.condominio.service.implementation;
 
+import com.condominio.dto.response.CorreoEnviadoDTO;
+import com.condominio.dto.response.EmailComunicadoDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.CorreoEnviado;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
 import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CorreoEnviadoService {
 
     private final CorreoEnviadoRepository correoEnviadoRepository;
+    private final CorreoDestinatarioRepository correoDestinatarioRepository;
+    private final ObjectMapper objectMapper;
 
-    public List<CorreoEnviado> findAll() {
+    /**
+     * Los destinatarios salen de {@code correo_destinatario}, leídos en una sola consulta; los
+     * comunicados anteriores a esa tabla conservan su lista en {@link CorreoEnviado#getDestinatarios()}.
+     */
+    public List<CorreoEnviadoDTO> findAll() {
         List<CorreoEnviado> lista = correoEnviadoRepository.findAll();
         if (lista.isEmpty()) {
             throw new ApiException("No hay correos enviados", HttpStatus.OK);
         }
-        return lista;
+        Map<Long, List<String>> emails = correoDestinatarioRepository.findEmailsDeComunicados().stream()
+                .collect(Collectors.groupingBy(EmailComunicadoDTO::getCorreoEnviadoId,
+                        Collectors.mapping(EmailComunicadoDTO::getEmail, Collectors.toList())));
+        return lista.stream()
+                .map(correo -> CorreoEnviadoDTO.builder()
+                        .id(correo.getId())
+                        .titulo(correo.getTitulo())
+                        .cuerpo(correo.getCuerpo())
+                        .fechaEnvio(correo.getFechaEnvio())
+                        .destinatarios(emails.containsKey(correo.getId())
+                                ? aJson(emails.get(correo.getId()))
+                                : correo.getDestinatarios())
+                        .build())
+                .toList();
     }
+
+    private String aJson(List<String> emails) {
+        try {
+            return objectMapper.writeValueAsString(emails);
+        } catch (JsonProcessingException e) {
+            throw new ApiException("Error al procesar la lista de destinatarios", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    @Transactional
     public SuccessResult<Void>delete(Long id){
          correoEnviadoRepository.findById(id)
                 .orElseThrow(() -> new ApiException(
                         "No existe un comunicado con ese id",
                         HttpStatus.NOT_FOUND
                 ));
+        correoDestinatarioRepository.eliminarPorCorreoEnviado(id);
         correoEnviadoRepository.deleteById(id);
         return new SuccessResult<>("Registro de  comunicado eliminado correctamente",null);
     }
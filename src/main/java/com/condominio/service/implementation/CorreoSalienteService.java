@@ -0,0 +1,259 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.AvanceCampanaDTO;
+import com.condominio.dto.response.ConteoEstadoCorreoDTO;
+import com.condominio.dto.response.SuccessResult;
+import com.condominio.persistence.model.CorreoDestinatario;
+import com.condominio.persistence.model.CorreoSaliente;
+import com.condominio.persistence.model.EstadoCorreo;
+import com.condominio.persistence.model.HistorialCorreoSaliente;
+import com.condominio.persistence.model.TipoCorreo;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
+import com.condominio.persistence.repository.CorreoSalienteRepository;
+import com.condominio.persistence.repository.HistorialCorreoSalienteRepository;
+import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Bandeja de salida de correos. {@link #encolar} escribe en la transacción de quien envía,
+ * así el correo solo existe si lo que lo originó se confirmó. {@link DespachoCorreoService}
+ * reclama los correos listos, los envía y registra el resultado; cada cambio de estado
+ * queda en {@link HistorialCorreoSaliente}. Los correos de un comunicado llevan además un
+ * {@link CorreoDestinatario} por persona, que se actualiza con cada cambio de estado.
+ */
+@Service
+@RequiredArgsConstructor
+public class CorreoSalienteService {
+
+    private static final int LARGO_DETALLE = 1000;
+
+    private final CorreoSalienteRepository correoSalienteRepository;
+    private final HistorialCorreoSalienteRepository historialCorreoSalienteRepository;
+    private final CorreoDestinatarioRepository correoDestinatarioRepository;
+    private final ObjectMapper objectMapper;
+    private static final Logger log = LoggerFactory.getLogger(CorreoSalienteService.class);
+
+    @Value("${correo.outbox.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${correo.outbox.backoff-inicial-segundos:30}")
+    private long backoffInicialSegundos;
+
+    @Value("${correo.outbox.backoff-maximo-segundos:3600}")
+    private long backoffMaximoSegundos;
+
+    @Value("${correo.outbox.reclamo-vencido-minutos:15}")
+    private long reclamoVencidoMinutos;
+
+    /** Arma un correo listo para encolar; no lo guarda. */
+    public CorreoSaliente nuevo(TipoCorreo tipo, List<String> destinatarios, String asunto, String cuerpo, boolean html) {
+        try {
+            return CorreoSaliente.builder()
+                    .tipo(tipo)
+                    .destinatarios(objectMapper.writeValueAsString(destinatarios))
+                    .asunto(asunto)
+                    .cuerpo(cuerpo)
+                    .html(html)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Error serializando los destinatarios a JSON", e);
+            throw new ApiException("Error interno al encolar el correo", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Transactional
+    public CorreoSaliente encolar(CorreoSaliente correo) {
+        return encolar(List.of(correo)).get(0);
+    }
+
+    @Transactional
+    public List<CorreoSaliente> encolar(List<CorreoSaliente> correos) {
+        LocalDateTime ahora = LocalDateTime.now(ZONE);
+        correos.forEach(correo -> {
+            correo.setEstado(EstadoCorreo.PENDIENTE);
+            correo.setIntentos(0);
+            correo.setFechaCreacion(ahora);
+            correo.setProximoIntento(ahora);
+        });
+        List<CorreoSaliente> guardados = (List<CorreoSaliente>) correoSalienteRepository.saveAll(correos);
+        historialCorreoSalienteRepository.saveAll(guardados.stream()
+                .map(correo -> historial(correo, "Encolado", ahora))
+                .toList());
+        return guardados;
+    }
+
+    /**
+     * Encola un correo por destinatario de un comunicado y registra cada destinatario con
+     * un solo batch de INSERT, en la misma transacción.
+     */
+    @Transactional
+    public List<CorreoSaliente> encolarComunicado(Long correoEnviadoId, List<CorreoSaliente> correos) {
+        List<CorreoSaliente> encolados = encolar(correos);
+        correoDestinatarioRepository.insertarEnLote(encolados.stream()
+                .flatMap(correo -> destinatarios(correo).stream()
+                        .map(email -> CorreoDestinatario.builder()
+                                .correoEnviadoId(correoEnviadoId)
+                                .correoSalienteId(correo.getId())
+                                .email(email)
+                                .estado(EstadoCorreo.PENDIENTE)
+                                .intentos(0)
+                                .fechaEstado(correo.getFechaCreacion())
+                                .build()))
+                .toList());
+        return encolados;
+    }
+
+    /**
+     * Toma hasta {@code tamano} correos listos y los marca como ENVIANDO. Los que otro
+     * despachador tiene bloqueados se saltan, y los que quedaron ENVIANDO por más de
+     * {@code correo.outbox.reclamo-vencido-minutos} se vuelven a tomar.
+     */
+    @Transactional
+    public List<CorreoSaliente> reclamarListos(int tamano) {
+        LocalDateTime ahora = LocalDateTime.now(ZONE);
+        List<CorreoSaliente> listos = correoSalienteRepository.reclamarListos(
+                ahora, ahora.minusMinutes(reclamoVencidoMinutos), PageRequest.of(0, tamano));
+        if (listos.isEmpty()) {
+            return listos;
+        }
+        List<HistorialCorreoSaliente> historial = listos.stream().map(correo -> {
+            String detalle = correo.getEstado() == EstadoCorreo.ENVIANDO
+                    ? "Envío anterior sin confirmar, se reintenta"
+                    : "Intento " + (correo.getIntentos() + 1);
+            correo.setEstado(EstadoCorreo.ENVIANDO);
+            correo.setIntentos(correo.getIntentos() + 1);
+            correo.setFechaReclamo(ahora);
+            return historial(correo, detalle, ahora);
+        }).toList();
+        correoSalienteRepository.saveAll(listos);
+        historialCorreoSalienteRepository.saveAll(historial);
+        List<Long> comunicados = idsDeComunicados(listos);
+        if (!comunicados.isEmpty()) {
+            correoDestinatarioRepository.marcarEnviando(comunicados, ahora);
+        }
+        return listos;
+    }
+
+    /** Marca como enviados los correos de un bloque en una sola transacción. */
+    @Transactional
+    public void registrarEnvios(Collection<Long> ids) {
+        LocalDateTime ahora = LocalDateTime.now(ZONE);
+        List<CorreoSaliente> enviados = (List<CorreoSaliente>) correoSalienteRepository.findAllById(ids);
+        enviados.forEach(correo -> {
+            correo.setEstado(EstadoCorreo.ENVIADO);
+            correo.setFechaEnvio(ahora);
+            correo.setUltimoError(null);
+        });
+        correoSalienteRepository.saveAll(enviados);
+        historialCorreoSalienteRepository.saveAll(enviados.stream()
+                .map(correo -> historial(correo, "Enviado", ahora))
+                .toList());
+        List<Long> comunicados = idsDeComunicados(enviados);
+        if (!comunicados.isEmpty()) {
+            correoDestinatarioRepository.actualizarEstado(comunicados, EstadoCorreo.ENVIADO, ahora);
+        }
+    }
+
+    /**
+     * Deja el correo para un nuevo intento con espera exponencial, o como FALLIDO si ya
+     * agotó {@code correo.outbox.max-intentos}.
+     */
+    @Transactional
+    public void registrarFallo(Long id, Exception error) {
+        correoSalienteRepository.findById(id).ifPresent(correo -> {
+            LocalDateTime ahora = LocalDateTime.now(ZONE);
+            String detalle = recortar(error.getClass().getSimpleName() + ": " + error.getMessage());
+            correo.setUltimoError(detalle);
+            if (correo.getIntentos() >= maxIntentos) {
+                correo.setEstado(EstadoCorreo.FALLIDO);
+                log.error("Correo {} descartado tras {} intentos: {}", correo.getId(), correo.getIntentos(), detalle);
+            } else {
+                correo.setEstado(EstadoCorreo.PENDIENTE);
+                correo.setProximoIntento(ahora.plusSeconds(espera(correo.getIntentos())));
+                log.warn("Correo {} falló en el intento {}, se reintenta a las {}: {}",
+                        correo.getId(), correo.getIntentos(), correo.getProximoIntento(), detalle);
+            }
+            correoSalienteRepository.save(correo);
+            historialCorreoSalienteRepository.save(historial(correo, detalle, ahora));
+            if (correo.getTipo() == TipoCorreo.MASIVO) {
+                correoDestinatarioRepository.actualizarEstado(List.of(correo.getId()), correo.getEstado(), ahora);
+            }
+        });
+    }
+
+    public long contarPendientes() {
+        return correoSalienteRepository.countByEstado(EstadoCorreo.PENDIENTE);
+    }
+
+    /** Cuántos correos de un envío masivo siguen pendientes, se están enviando, salieron o fallaron. */
+    public SuccessResult<AvanceCampanaDTO> avanceCampana(String campana) {
+        List<ConteoEstadoCorreoDTO> conteos = correoSalienteRepository.contarPorCampana(campana);
+        if (conteos.isEmpty()) {
+            throw new ApiException("No hay correos para la campaña " + campana, HttpStatus.NOT_FOUND);
+        }
+        AvanceCampanaDTO avance = AvanceCampanaDTO.builder().campana(campana).build();
+        for (ConteoEstadoCorreoDTO conteo : conteos) {
+            long cantidad = conteo.getCantidad();
+            avance.setTotal(avance.getTotal() + cantidad);
+            switch (conteo.getEstado()) {
+                case PENDIENTE -> avance.setPendientes(cantidad);
+                case ENVIANDO -> avance.setEnviando(cantidad);
+                case ENVIADO -> avance.setEnviados(cantidad);
+                case FALLIDO -> avance.setFallidos(cantidad);
+            }
+        }
+        return new SuccessResult<>("Avance de la campaña obtenido correctamente", avance);
+    }
+
+    public List<String> destinatarios(CorreoSaliente correo) {
+        try {
+            return objectMapper.readValue(correo.getDestinatarios(), new TypeReference<List<String>>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Destinatarios inválidos en el correo " + correo.getId(), e);
+        }
+    }
+
+    /** Solo los comunicados ({@link TipoCorreo#MASIVO}) tienen filas en {@code correo_destinatario}. */
+    private static List<Long> idsDeComunicados(List<CorreoSaliente> correos) {
+        return correos.stream()
+                .filter(correo -> correo.getTipo() == TipoCorreo.MASIVO)
+                .map(CorreoSaliente::getId)
+                .toList();
+    }
+
+    /** Segundos de espera antes del siguiente intento: se duplica con cada fallo hasta el máximo. */
+    private long espera(int intentos) {
+        int exponente = Math.min(Math.max(intentos - 1, 0), 30);
+        return Math.min(backoffInicialSegundos << exponente, backoffMaximoSegundos);
+    }
+
+    private HistorialCorreoSaliente historial(CorreoSaliente correo, String detalle, LocalDateTime fecha) {
+        return HistorialCorreoSaliente.builder()
+                .correoId(correo.getId())
+                .estado(correo.getEstado())
+                .intento(correo.getIntentos())
+                .detalle(recortar(detalle))
+                .fecha(fecha)
+                .build();
+    }
+
+    private static String recortar(String texto) {
+        return texto != null && texto.length() > LARGO_DETALLE ? texto.substring(0, LARGO_DETALLE) : texto;
+    }
+}
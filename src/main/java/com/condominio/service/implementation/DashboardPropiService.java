@@ -5,11 +5,10 @@ import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
 import com.condominio.service.interfaces.IDashboardPropiService;
 import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.ResidenteActual;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -22,30 +21,15 @@ public class DashboardPropiService implements IDashboardPropiService {
     private final PersonaRepository personaRepository;
     private final MiembroRepository miembroRepository;
     private final MascotaRepository mascotaRepository;
-    private final ObligacionRepository obligacionRepository;
     private final PagoDetalleRepository pagoDetalleRepository;
     private final SolicitudReservaRecursoRepository solicitudRepository;
     private final ModelMapper modelMapper;
-
-    private String getEmailFromTokenOrPrincipal() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new ApiException("Usuario no autenticado", HttpStatus.UNAUTHORIZED);
-        }
-        Object principal = auth.getPrincipal();
-        if (principal instanceof org.springframework.security.core.userdetails.UserDetails) {
-            return ((org.springframework.security.core.userdetails.UserDetails) principal).getUsername();
-        } else if (principal instanceof String) {
-            return (String) principal;
-        }
-        throw new ApiException("No se pudo obtener el usuario ", HttpStatus.UNAUTHORIZED);
-    }
+    private final SaldoCasaService saldoCasaService;
+    private final ResidenteActual residenteActual;
 
     @Override
     public SuccessResult<InfoCasaPropiDTO> getPropiBasicInfo() {
-        String email = getEmailFromTokenOrPrincipal();
-        Persona propietario = personaRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ApiException("Propietario no encontrado", HttpStatus.NOT_FOUND));
+        Persona propietario = residenteActual.getPersona();
 
         Casa casa = propietario.getCasa();
         if (casa == null) {
@@ -72,26 +56,18 @@ public class DashboardPropiService implements IDashboardPropiService {
 
     @Override
     public SuccessResult<AccountStatusDTO> getAccountStatus() {
-        String email = getEmailFromTokenOrPrincipal();
-        Persona propietario = personaRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ApiException("Propietario no encontrado", HttpStatus.NOT_FOUND));
-
-        Casa casa = propietario.getCasa();
-        if (casa == null) {
+        Long casaId = residenteActual.getIdCasa();
+        if (casaId == null) {
             throw new ApiException("Propietario no tiene casa asignada", HttpStatus.NOT_FOUND);
         }
 
-        // sumar valorPendiente de obligaciones de la casa
-        List<Obligacion> obligaciones = obligacionRepository.findByCasaId(casa.getId());
-        int saldoPendiente = obligaciones.stream()
-                .mapToInt(o -> o.getValorPendiente())
-                .sum();
+        int saldoPendiente = (int) saldoCasaService.obtener(casaId).getSaldoPendiente();
 
         EstadoFinancieroCasa estadoCasa = (saldoPendiente == 0) ? EstadoFinancieroCasa.AL_DIA : EstadoFinancieroCasa.EN_MORA;
 
         // ultimo pago
         UltimoPagoDTO ultimoPagoDTO = null;
-        Optional<PagoDetalle> lastOpt = pagoDetalleRepository.findTopByObligacionCasaIdOrderByPagoFechaPagoDesc(casa.getId());
+        Optional<PagoDetalle> lastOpt = pagoDetalleRepository.findTopByObligacionCasaIdOrderByPagoFechaPagoDesc(casaId);
         if (lastOpt.isPresent()) {
             PagoDetalle pd = lastOpt.get();
             LocalDate fecha = pd.getPago() != null ? pd.getPago().getFechaPago() : null;
@@ -117,11 +93,7 @@ public class DashboardPropiService implements IDashboardPropiService {
 
     @Override
     public SuccessResult<List<SolicitudPropiDTO>> getSolicitudesPropietario() {
-        String email = getEmailFromTokenOrPrincipal();
-        Persona propietario = personaRepository.findByUserEmail(email)
-                .orElseThrow(() -> new ApiException("Propietario no encontrado", HttpStatus.NOT_FOUND));
-
-        Long casaId = propietario.getCasa().getId();
+        Long casaId = residenteActual.requerirIdCasa();
         List<SolicitudReservaRecurso> solicitudes = solicitudRepository.findAllByCasa_Id(casaId);
 
         List<SolicitudPropiDTO> dtos = solicitudes.stream()
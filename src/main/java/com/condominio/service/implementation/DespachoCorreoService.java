@@ -0,0 +1,186 @@
+package com.condominio.service.implementation;
+
+import com.condominio.persistence.model.AdjuntoCorreo;
+import com.condominio.persistence.model.CorreoSaliente;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vacía la bandeja de salida: reclama lotes de correos listos y los envía en paralelo en
+ * {@code mailTaskExecutor}, un hilo virtual por bloque y como mucho
+ * {@code correo.outbox.concurrencia} conexiones a la vez. Cada hilo envía un bloque de hasta
+ * {@code correo.outbox.mensajes-por-conexion} correos por una sola conexión SMTP, así la
+ * conexión, STARTTLS y la autenticación se pagan una vez por bloque y no por mensaje. Antes
+ * de conectar, el bloque espera su cupo en {@link LimiteEnvioCorreoService}. El envío ocurre
+ * fuera de la transacción que reclama, para no retener bloqueos mientras responde el
+ * servidor de correo.
+ * <p>
+ * Métricas: {@code correo.outbox.pendientes} (correos en la bandeja, se actualiza en cada
+ * ronda), {@code correo.despacho.en.curso} (reclamados sin resultado todavía) y
+ * {@code correo.enviados} por {@code resultado}.
+ */
+@Service
+public class DespachoCorreoService {
+
+    private final CorreoSalienteService correoSalienteService;
+    private final JavaMailSender mailSender;
+    private final TaskExecutor mailTaskExecutor;
+    private final LimiteEnvioCorreoService limiteEnvioCorreoService;
+    private final AdjuntoCorreoService adjuntoCorreoService;
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final Counter contadorEnviados;
+    private final Counter contadorFallidos;
+    private static final Logger log = LoggerFactory.getLogger(DespachoCorreoService.class);
+
+    @Value("${correo.outbox.tamano-lote:50}")
+    private int tamanoLote;
+
+    @Value("${correo.outbox.mensajes-por-conexion:20}")
+    private int mensajesPorConexion;
+
+    public DespachoCorreoService(CorreoSalienteService correoSalienteService, JavaMailSender mailSender,
+                                 @Qualifier("mailTaskExecutor") TaskExecutor mailTaskExecutor,
+                                 LimiteEnvioCorreoService limiteEnvioCorreoService,
+                                 AdjuntoCorreoService adjuntoCorreoService,
+                                 MeterRegistry meterRegistry) {
+        this.correoSalienteService = correoSalienteService;
+        this.mailSender = mailSender;
+        this.mailTaskExecutor = mailTaskExecutor;
+        this.limiteEnvioCorreoService = limiteEnvioCorreoService;
+        this.adjuntoCorreoService = adjuntoCorreoService;
+        Gauge.builder("correo.outbox.pendientes", pendientes, AtomicLong::get)
+                .description("Correos pendientes en la bandeja de salida")
+                .register(meterRegistry);
+        Gauge.builder("correo.despacho.en.curso", enCurso, AtomicInteger::get)
+                .description("Correos reclamados que aún no tienen resultado")
+                .register(meterRegistry);
+        this.contadorEnviados = Counter.builder("correo.enviados").tag("resultado", "enviado").register(meterRegistry);
+        this.contadorFallidos = Counter.builder("correo.enviados").tag("resultado", "fallido").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${correo.outbox.intervalo-ms:5000}")
+    public void despachar() {
+        int porConexion = Math.min(mensajesPorConexion, limiteEnvioCorreoService.maximoPorEnvio());
+        List<CorreoSaliente> lote;
+        do {
+            pendientes.set(correoSalienteService.contarPendientes());
+            lote = correoSalienteService.reclamarListos(tamanoLote);
+            enCurso.addAndGet(lote.size());
+            List<CompletableFuture<Void>> envios = new ArrayList<>();
+            for (int i = 0; i < lote.size(); i += porConexion) {
+                List<CorreoSaliente> bloque = lote.subList(i, Math.min(i + porConexion, lote.size()));
+                envios.add(CompletableFuture.runAsync(() -> enviar(bloque), mailTaskExecutor));
+            }
+            CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new)).join();
+        } while (lote.size() == tamanoLote);
+        pendientes.set(correoSalienteService.contarPendientes());
+    }
+
+    private void enviar(List<CorreoSaliente> bloque) {
+        try {
+            enviarBloque(bloque);
+        } catch (InterruptedException e) {
+            // Se está apagando: los correos siguen ENVIANDO y se retoman al vencer el reclamo.
+            Thread.currentThread().interrupt();
+        } finally {
+            enCurso.addAndGet(-bloque.size());
+        }
+    }
+
+    /**
+     * Envía el bloque con {@link JavaMailSender#send(MimeMessage...)}, que abre una conexión
+     * para todos los mensajes. Si alguno falla, la excepción trae cuáles; los demás se enviaron.
+     */
+    private void enviarBloque(List<CorreoSaliente> bloque) throws InterruptedException {
+        Map<MimeMessage, CorreoSaliente> porMensaje = new LinkedHashMap<>();
+        Map<Long, AdjuntoCorreo> adjuntos = new HashMap<>();
+        for (CorreoSaliente correo : bloque) {
+            try {
+                porMensaje.put(mensaje(correo, adjuntos), correo);
+            } catch (Exception e) {
+                correoSalienteService.registrarFallo(correo.getId(), e);
+                contadorFallidos.increment();
+            }
+        }
+        if (porMensaje.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> errores = new IdentityHashMap<>();
+        limiteEnvioCorreoService.ejecutar(porMensaje.size(), () -> {
+            try {
+                mailSender.send(porMensaje.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Solo fallaron los que trae la excepción. Sin ninguno, JavaMailSenderImpl ya
+                // entregó todos y falló al cerrar la conexión: reintentarlos los duplicaría.
+                errores.putAll(e.getFailedMessages());
+                if (errores.isEmpty()) {
+                    log.warn("El servidor de correo falló después de recibir el bloque; se da por enviado: {}",
+                            e.getMessage());
+                }
+            } catch (MailException e) {
+                // Error de conexión o autenticación: no salió ninguno.
+                porMensaje.keySet().forEach(mensaje -> errores.put(mensaje, e));
+            }
+        });
+
+        List<Long> enviados = new ArrayList<>(porMensaje.size());
+        porMensaje.forEach((mensaje, correo) -> {
+            Exception error = errores.get(mensaje);
+            if (error != null) {
+                correoSalienteService.registrarFallo(correo.getId(), error);
+                contadorFallidos.increment();
+            } else {
+                enviados.add(correo.getId());
+            }
+        });
+        if (!enviados.isEmpty()) {
+            correoSalienteService.registrarEnvios(enviados);
+            contadorEnviados.increment(enviados.size());
+            log.info("{} correos enviados por una conexión ({} fallidos)", enviados.size(), errores.size());
+        }
+    }
+
+    /**
+     * Los correos de un comunicado comparten el adjunto: su registro se consulta una vez por
+     * bloque y el archivo se lee del disco mientras se envía cada mensaje.
+     */
+    private MimeMessage mensaje(CorreoSaliente correo, Map<Long, AdjuntoCorreo> adjuntos) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setTo(correoSalienteService.destinatarios(correo).toArray(new String[0]));
+        helper.setSubject(correo.getAsunto());
+        helper.setText(correo.getCuerpo(), correo.isHtml());
+        if (correo.getAdjuntoId() != null) {
+            AdjuntoCorreo adjunto = adjuntos.computeIfAbsent(correo.getAdjuntoId(), adjuntoCorreoService::adjunto);
+            String nombre = correo.getNombreAdjunto() != null ? correo.getNombreAdjunto() : "archivo";
+            helper.addAttachment(nombre, adjuntoCorreoService.recurso(adjunto));
+        }
+        return mimeMessage;
+    }
+}
@@ -0,0 +1,163 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.*;
+import com.condominio.persistence.model.DisponibilidadRecurso;
+import com.condominio.persistence.model.RecursoComun;
+import com.condominio.persistence.repository.RecursoComunRepository;
+import com.condominio.persistence.repository.SolicitudReservaRecursoRepository;
+import com.condominio.util.exception.ApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Franjas libres de los recursos comunes en un rango de fechas. Se calculan con una sola
+ * consulta de las reservas ocupadas, ordenada por recurso, fecha y hora de inicio, que se
+ * recorre una vez junto con los recursos. El resultado queda en caché hasta que una
+ * solicitud o un recurso cambia, o pasan {@code reservas.cache.ttl-segundos}; se guardan
+ * las {@code reservas.cache.max-entradas} consultas usadas más recientemente.
+ */
+@Service
+public class DisponibilidadReservaService {
+
+    private final SolicitudReservaRecursoRepository solicitudReservaRecursoRepository;
+    private final RecursoComunRepository recursoComunRepository;
+    private final Map<ConsultaDisponibilidad, Disponibilidad> cache;
+    private final long ttlNanos;
+    private long version;
+
+    @Value("${reservas.hora-apertura:06:00}")
+    private String horaApertura;
+
+    @Value("${reservas.hora-cierre:22:00}")
+    private String horaCierre;
+
+    @Value("${reservas.dias-maximos-consulta:31}")
+    private int diasMaximosConsulta;
+
+    public DisponibilidadReservaService(SolicitudReservaRecursoRepository solicitudReservaRecursoRepository,
+                                        RecursoComunRepository recursoComunRepository,
+                                        @Value("${reservas.cache.max-entradas:500}") int maxEntradas,
+                                        @Value("${reservas.cache.ttl-segundos:300}") long ttlSegundos) {
+        this.solicitudReservaRecursoRepository = solicitudReservaRecursoRepository;
+        this.recursoComunRepository = recursoComunRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ConsultaDisponibilidad, Disponibilidad> eldest) {
+                return size() > maxEntradas;
+            }
+        });
+    }
+
+    public SuccessResult<List<DisponibilidadRecursoDTO>> buscarFranjasLibres(LocalDate desde, LocalDate hasta, Long idRecurso) {
+        if (desde == null || hasta == null || hasta.isBefore(desde) || desde.isBefore(LocalDate.now(ZONE))) {
+            throw new ApiException("Por favor, ingresa un rango de fechas valido", HttpStatus.BAD_REQUEST);
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= diasMaximosConsulta) {
+            throw new ApiException("El rango de fechas no puede superar " + diasMaximosConsulta + " días", HttpStatus.BAD_REQUEST);
+        }
+
+        ConsultaDisponibilidad consulta = new ConsultaDisponibilidad(idRecurso, desde, hasta);
+        Disponibilidad guardada = cache.get(consulta);
+        if (guardada != null && System.nanoTime() - guardada.calculadaEn() < ttlNanos) {
+            return new SuccessResult<>("Franjas disponibles obtenidas correctamente", guardada.recursos());
+        }
+        long versionLeida;
+        synchronized (cache) {
+            versionLeida = version;
+        }
+        long calculadaEn = System.nanoTime();
+        List<DisponibilidadRecursoDTO> disponibilidad = calcular(consulta);
+        synchronized (cache) {
+            // Si una reserva cambió mientras se calculaba, el resultado puede no incluirla.
+            if (version == versionLeida) {
+                cache.put(consulta, new Disponibilidad(disponibilidad, calculadaEn));
+            }
+        }
+        return new SuccessResult<>("Franjas disponibles obtenidas correctamente", disponibilidad);
+    }
+
+    /** Descarta las consultas en caché que incluyen ese recurso en esa fecha. */
+    public void invalidar(Long idRecurso, LocalDate fecha) {
+        synchronized (cache) {
+            version++;
+            cache.keySet().removeIf(c -> (c.idRecurso() == null || c.idRecurso().equals(idRecurso))
+                    && (fecha == null || !fecha.isBefore(c.desde()) && !fecha.isAfter(c.hasta())));
+        }
+    }
+
+    public void invalidar(Long idRecurso) {
+        invalidar(idRecurso, null);
+    }
+
+    private List<DisponibilidadRecursoDTO> calcular(ConsultaDisponibilidad consulta) {
+        LocalTime apertura = LocalTime.parse(horaApertura);
+        LocalTime cierre = LocalTime.parse(horaCierre);
+
+        List<RecursoComun> recursos = consulta.idRecurso() == null
+                ? recursoComunRepository.findByDisponibilidadRecursoOrderByIdAsc(DisponibilidadRecurso.DISPONIBLE)
+                : recursoComunRepository.findById(consulta.idRecurso())
+                        .filter(r -> r.getDisponibilidadRecurso() == DisponibilidadRecurso.DISPONIBLE)
+                        .map(List::of)
+                        .orElseThrow(() -> new ApiException("Recurso no disponible.", HttpStatus.BAD_REQUEST));
+
+        List<IntervaloReservaDTO> ocupados = solicitudReservaRecursoRepository.findIntervalosEntre(
+                consulta.idRecurso(), consulta.desde(), consulta.hasta(), AgendaRecursoService.ESTADOS_OCUPADOS);
+
+        List<DisponibilidadRecursoDTO> resultado = new ArrayList<>(recursos.size());
+        int i = 0;
+        for (RecursoComun recurso : recursos) {
+            // Reservas de recursos que ya no están disponibles quedan antes del recurso actual.
+            while (i < ocupados.size() && ocupados.get(i).getIdRecurso() < recurso.getId()) {
+                i++;
+            }
+            List<DiaDisponibleDTO> dias = new ArrayList<>();
+            for (LocalDate fecha = consulta.desde(); !fecha.isAfter(consulta.hasta()); fecha = fecha.plusDays(1)) {
+                List<FranjaHorariaDTO> franjas = new ArrayList<>();
+                LocalTime libreDesde = apertura;
+                while (i < ocupados.size()
+                        && ocupados.get(i).getIdRecurso().equals(recurso.getId())
+                        && ocupados.get(i).getFechaSolicitud().equals(fecha)) {
+                    IntervaloReservaDTO ocupado = ocupados.get(i++);
+                    if (ocupado.getHoraInicio().isAfter(libreDesde) && libreDesde.isBefore(cierre)) {
+                        franjas.add(new FranjaHorariaDTO(libreDesde,
+                                ocupado.getHoraInicio().isBefore(cierre) ? ocupado.getHoraInicio() : cierre));
+                    }
+                    if (ocupado.getHoraFin().isAfter(libreDesde)) {
+                        libreDesde = ocupado.getHoraFin();
+                    }
+                }
+                if (libreDesde.isBefore(cierre)) {
+                    franjas.add(new FranjaHorariaDTO(libreDesde, cierre));
+                }
+                dias.add(new DiaDisponibleDTO(fecha, franjas));
+            }
+            resultado.add(DisponibilidadRecursoDTO.builder()
+                    .idRecurso(recurso.getId())
+                    .nombre(recurso.getNombre())
+                    .tipoRecursoComun(recurso.getTipoRecursoComun())
+                    .dias(dias)
+                    .build());
+        }
+        return resultado;
+    }
+
+    record ConsultaDisponibilidad(Long idRecurso, LocalDate desde, LocalDate hasta) {
+    }
+
+    record Disponibilidad(List<DisponibilidadRecursoDTO> recursos, long calculadaEn) {
+    }
+}
@@ -2,34 +2,39 @@ package com.condominio.service.implementation;
 
 
 import com.condominio.persistence.model.Asamblea;
-import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.CorreoSaliente;
+import com.condominio.persistence.model.TipoCorreo;
 import com.condominio.dto.request.SendEmailsDTO;
+import com.condominio.dto.response.DestinatarioCorreoDTO;
+import com.condominio.dto.response.DestinatarioObligacionDTO;
 import com.condominio.dto.response.MostrarObligacionDTO;
 import com.condominio.dto.response.ObligacionDTO;
 import com.condominio.dto.response.SolicitudReservaRecursoDTO;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.condominio.persistence.model.CorreoEnviado;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
 import com.condominio.util.exception.ApiException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import java.time.LocalDateTime;
 import java.time.format.TextStyle;
@@ -37,33 +42,32 @@ import java.util.Locale;
 
 import static com.condominio.util.constants.AppConstants.*;
 
+/**
+ * Arma los correos del condominio y los deja en la bandeja de salida
+ * ({@link CorreoSalienteService}); el envío real lo hace {@link DespachoCorreoService}.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final CorreoSalienteService correoSalienteService;
     private final TemplateEngine templateEngine;
     private static final Logger log = LoggerFactory.getLogger(EmailService.class);
     private static final int maxFileSizeMB = 10;
     private final CorreoEnviadoRepository correoEnviadoRepository;
-    private final ObjectMapper objectMapper;
+    private final PlantillaCorreoService plantillaCorreoService;
+    private final AdjuntoCorreoService adjuntoCorreoService;
 
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine, CorreoEnviadoRepository correoEnviadoRepository, ObjectMapper objectMapper) {
-        this.mailSender = mailSender;
+    public EmailService(CorreoSalienteService correoSalienteService, TemplateEngine templateEngine, CorreoEnviadoRepository correoEnviadoRepository, PlantillaCorreoService plantillaCorreoService, AdjuntoCorreoService adjuntoCorreoService) {
+        this.correoSalienteService = correoSalienteService;
         this.templateEngine = templateEngine;
         this.correoEnviadoRepository = correoEnviadoRepository;
-        this.objectMapper = objectMapper;
+        this.plantillaCorreoService = plantillaCorreoService;
+        this.adjuntoCorreoService = adjuntoCorreoService;
     }
 
-    @Async("mailTaskExecutor")
     public void enviarPasswordTemporal(String destinatario, String passwordTemporal) throws MessagingException {
         String htmlContent = generarHtmlConThymeleaf(passwordTemporal);
-
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-        helper.setTo(destinatario);
-        helper.setSubject(EMAIL_SUBJECT);
-        helper.setText(htmlContent, true);
-        mailSender.send(mimeMessage);
+        encolarHtml(TipoCorreo.PASSWORD_TEMPORAL, destinatario, EMAIL_SUBJECT, htmlContent);
     }
 
     public String generarHtmlConThymeleaf(String passwordTemporal) {
@@ -73,16 +77,9 @@ public class EmailService {
         return templateEngine.process(PASSWORD_HTML, context);
     }
 
-    @Async("mailTaskExecutor")
     public void enviarPago(String destinatario, ObligacionDTO obligacionDTO) throws MessagingException {
         String htmlContent = generarHtmlPagoConThymeleaf(obligacionDTO);
-
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-        helper.setTo(destinatario);
-        helper.setSubject(EMAIL_PAGO_SUBJECT);
-        helper.setText(htmlContent, true);
-        mailSender.send(mimeMessage);
+        encolarHtml(TipoCorreo.PAGO, destinatario, EMAIL_PAGO_SUBJECT, htmlContent);
     }
 
     public String generarHtmlPagoConThymeleaf(ObligacionDTO obligacionDTO){
@@ -95,7 +92,6 @@ public class EmailService {
         return templateEngine.process(PAGO_HTML, context);
     }
 
-    @Async("mailTaskExecutor")
     public void enviarInvitacionAsamblea(
             String destinatario,
             String nombreAsamblea,
@@ -103,81 +99,76 @@ public class EmailService {
             LocalTime hora) throws MessagingException {
 
         String htmlContent = generarHtmlInvitacionAsamblea(nombreAsamblea, fecha, hora);
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-        helper.setTo(destinatario);
-        helper.setSubject("Invitación a la Asamblea: " + nombreAsamblea);
-        helper.setText(htmlContent, true);
-        mailSender.send(mimeMessage);
+        encolarHtml(TipoCorreo.INVITACION_ASAMBLEA, destinatario, "Invitación a la Asamblea: " + nombreAsamblea, htmlContent);
     }
 
-    @Async("mailTaskExecutor")
-    public void enviarInvitacionesAsambleaMasivas(List<Persona> personas, Asamblea asamblea) {
-        personas.forEach(persona -> {
-            try {
-                enviarInvitacionAsamblea(
-                        persona.getUser().getEmail(),
-                        asamblea.getTitulo(),
-                        asamblea.getFecha(),
-                        asamblea.getHoraInicio()
-                );
-            } catch (MessagingException e) {
-
-                System.err.println("No se pudo enviar correo a " + persona.getUser().getEmail() + ": " + e.getMessage());
-            }
-        });
+    /**
+     * Encola la invitación para un lote de destinatarios de la campaña. La invitación es
+     * igual para todos: se genera una vez y se encola un correo por persona.
+     */
+    public void enviarInvitacionesAsambleaMasivas(List<DestinatarioCorreoDTO> destinatarios, Asamblea asamblea, String campana) {
+        String htmlContent = generarHtmlInvitacionAsamblea(asamblea.getTitulo(), asamblea.getFecha(), asamblea.getHoraInicio());
+        String asunto = "Invitación a la Asamblea: " + asamblea.getTitulo();
+        correoSalienteService.encolar(destinatarios.stream()
+                .map(destinatario -> deCampana(campana, TipoCorreo.INVITACION_ASAMBLEA,
+                        destinatario.getEmail(), asunto, htmlContent))
+                .toList());
     }
     public String generarHtmlInvitacionAsamblea(String nombreAsamblea, Date fecha, LocalTime hora) {
-        Context context = new Context();
-        context.setVariable("nombreAsamblea", nombreAsamblea);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("nombreAsamblea", nombreAsamblea);
 
         SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        context.setVariable("fecha", sdf.format(fecha));
+        variables.put("fecha", sdf.format(fecha));
 
-        context.setVariable("hora", hora.format(DateTimeFormatter.ofPattern("HH:mm")));
-        return templateEngine.process("email/invitacion-asamblea", context);
+        variables.put("hora", hora.format(DateTimeFormatter.ofPattern("HH:mm")));
+        return plantillaCorreoService.renderizar(INVITACION_ASAMBLEA_HTML, variables);
     }
 
-    @Async("mailTaskExecutor")
+    /**
+     * El PDF queda en el almacén de adjuntos y el correo solo guarda su id, así la bandeja
+     * de salida no retiene el documento. El mismo certificado pedido dos veces el mismo día
+     * tiene el mismo contenido y reutiliza el archivo.
+     */
+    @Transactional
     public void enviarPazYSalvo(String destinatario, byte[] pdfBytes, String nombreArchivo) throws MessagingException {
+        encolarPazYSalvo(destinatario, () -> new ByteArrayInputStream(pdfBytes), nombreArchivo);
+    }
 
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-
-
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+    /**
+     * El certificado se copia por partes desde el archivo al almacén de adjuntos. Como en
+     * la otra variante, el adjunto y el correo se guardan en la misma transacción.
+     */
+    @Transactional
+    public void enviarPazYSalvo(String destinatario, Path pdf, String nombreArchivo) throws MessagingException {
+        encolarPazYSalvo(destinatario, () -> Files.newInputStream(pdf), nombreArchivo);
+    }
 
-        helper.setTo(destinatario);
-        helper.setSubject("Paz y Salvo - Condominio");
-        helper.setText("Los administradores del condominio flor del campo han generado " +
+    private void encolarPazYSalvo(String destinatario, ContenidoAdjunto pdf, String nombreArchivo) throws MessagingException {
+        Long adjuntoId;
+        try (InputStream contenido = pdf.abrir()) {
+            adjuntoId = adjuntoCorreoService.guardar(contenido);
+        } catch (IOException e) {
+            throw new MessagingException("No se pudo guardar el paz y salvo para adjuntarlo", e);
+        }
+        CorreoSaliente correo = correoSalienteService.nuevo(TipoCorreo.PAZ_Y_SALVO, List.of(destinatario),
+                "Paz y Salvo - Condominio",
+                "Los administradores del condominio flor del campo han generado " +
                         "tu  paz y salvo.",
                 false);
-
-
-        helper.addAttachment(nombreArchivo, new org.springframework.core.io.ByteArrayResource(pdfBytes));
-
-        try {
-            mailSender.send(mimeMessage);
-            log.info("Correo enviado a {}", destinatario);
-        } catch (Exception e) {
-            log.error("Error al enviar correo a {}: {}", destinatario, e.getMessage());
-        }
+        correo.setNombreAdjunto(nombreArchivo);
+        correo.setAdjuntoId(adjuntoId);
+        correoSalienteService.encolar(correo);
+        log.info("Correo de paz y salvo encolado para {}", destinatario);
     }
 
-    @Async("mailTaskExecutor")
     public void enviarSolicitud(String destinatario, SolicitudReservaRecursoDTO soliReservaDTO) throws MessagingException {
-        log.info("EmailService.enviarSolicitud invoked para {}", destinatario);
         try {
             String htmlContent = generarHtmlSolicitudConThymeleaf(soliReservaDTO);
-
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-            helper.setTo(destinatario);
-            helper.setSubject(EMAIL_SOLICITUD_SUBJECT);
-            helper.setText(htmlContent, true);
-            mailSender.send(mimeMessage);
-            log.info("Correo enviado a {}", destinatario);
+            encolarHtml(TipoCorreo.SOLICITUD_RESERVA, destinatario, EMAIL_SOLICITUD_SUBJECT, htmlContent);
+            log.info("Correo de solicitud encolado para {}", destinatario);
         } catch (Exception e) {
-            log.error("Error al enviar correo a {}: {}", destinatario, e.getMessage());
+            log.error("Error al encolar correo a {}: {}", destinatario, e.getMessage());
         }
     }
     public String generarHtmlSolicitudConThymeleaf(SolicitudReservaRecursoDTO soliReservaDTO){
@@ -191,70 +182,61 @@ public class EmailService {
         return templateEngine.process(SOLICITUD_HTML, context);
     }
 
-    @Async("mailTaskExecutor")
     public void enviarObligacionMensual(
             String destinatario,
             MostrarObligacionDTO obligacionDTO) throws MessagingException {
 
+        String htmlContent = generarHtmlObligacionMensual(obligacionDTO);
+        encolarHtml(TipoCorreo.OBLIGACION_MENSUAL, destinatario, asuntoObligacionMensual(obligacionDTO), htmlContent);
+    }
+
+    /**
+     * Aviso de la mensualidad a cada casa facturada. El cuerpo se renderiza una vez y solo
+     * se sustituye el número de casa de cada destinatario.
+     */
+    public void enviarObligacionesMensuales(List<DestinatarioObligacionDTO> destinatarios, MostrarObligacionDTO obligacionDTO,
+                                            String campana) {
+        PlantillaCorreoService.PlantillaCompartida cuerpo = plantillaCorreoService.compartir(
+                OBLIGACION_MENSUAL_HTML, variablesObligacionMensual(obligacionDTO), Set.of("casa"));
+        String asunto = asuntoObligacionMensual(obligacionDTO);
+        correoSalienteService.encolar(destinatarios.stream()
+                .map(destinatario -> deCampana(campana, TipoCorreo.OBLIGACION_MENSUAL, destinatario.getEmail(),
+                        asunto, cuerpo.para(Map.of("casa", destinatario.getNumeroCasa()))))
+                .toList());
+    }
+
+    private String asuntoObligacionMensual(MostrarObligacionDTO obligacionDTO) {
         String mesActual = obligacionDTO.getFecha()
                 .getMonth()
                 .getDisplayName(TextStyle.FULL, Locale.of("es", "ES"));
         mesActual = mesActual.substring(0, 1).toUpperCase() + mesActual.substring(1);
-
-        String htmlContent = generarHtmlObligacionMensual(obligacionDTO);
-        MimeMessage mimeMessage = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-        helper.setTo(destinatario);
-        helper.setSubject("Se ha generado tu mensualidad por administración de " + mesActual);
-        helper.setText(htmlContent, true);
-        mailSender.send(mimeMessage);
-    }
-
-    @Async("mailTaskExecutor")
-    public void enviarObligacionesMensualesMasivas(List<Persona> personas, MostrarObligacionDTO mostrarObligacionDTO) {
-        personas.forEach(persona -> {
-            try {
-                enviarObligacionMensual(
-                        persona.getUser().getEmail(),
-                        mostrarObligacionDTO
-                );
-            } catch (MessagingException e) {
-
-                log.error("No se pudo enviar correo a {}: {}", persona.getUser().getEmail(), e.getMessage());
-            }
-        });
+        return "Se ha generado tu mensualidad por administración de " + mesActual;
     }
 
     public String generarHtmlObligacionMensual(MostrarObligacionDTO obligacionDTO) {
-        Context context = new Context();
-
-        context.setVariable("titulo", obligacionDTO.getTitulo());
-        context.setVariable("motivo", obligacionDTO.getMotivo());
-        context.setVariable("casa", obligacionDTO.getCasa());
-        context.setVariable("monto", obligacionDTO.getMonto());
+        Map<String, Object> variables = variablesObligacionMensual(obligacionDTO);
+        variables.put("casa", obligacionDTO.getCasa());
+        return plantillaCorreoService.renderizar(OBLIGACION_MENSUAL_HTML, variables);
+    }
 
-        return templateEngine.process("email/obligacion-mensual", context);
+    private Map<String, Object> variablesObligacionMensual(MostrarObligacionDTO obligacionDTO) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("titulo", obligacionDTO.getTitulo());
+        variables.put("motivo", obligacionDTO.getMotivo());
+        variables.put("monto", obligacionDTO.getMonto());
+        return variables;
     }
 
-    @Async("mailTaskExecutor")
     public void enviarPasswordOlvidada(String destinatario,
                                        String passwordTemporal,
                                        String nombreUsuario) {
 
         try {
             String htmlContent = generarHtmlOlvidarPw(passwordTemporal, nombreUsuario);
-
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-
-            helper.setTo(destinatario);
-            helper.setSubject("Tu contraseña temporal - Condominio Flor del campo");
-            helper.setText(htmlContent, true);
-
-            mailSender.send(mimeMessage);
-
+            encolarHtml(TipoCorreo.PASSWORD_OLVIDADA, destinatario,
+                    "Tu contraseña temporal - Condominio Flor del campo", htmlContent);
         } catch (Exception e) {
-            log.error("Error enviando correo a {}", destinatario, e);
+            log.error("Error encolando correo a {}", destinatario, e);
         }
     }
 
@@ -267,10 +249,7 @@ public class EmailService {
 
         return templateEngine.process("email/password-olvidada.html", context);
     }
-    @Autowired
-    @Lazy
-    private EmailService self;
-
+    @Transactional
     public void sendToMany(SendEmailsDTO request) {
         if (request.getEmails() == null || request.getEmails().isEmpty()) {
             throw new ApiException("Debe enviar al menos un correo", HttpStatus.OK);
@@ -288,7 +267,7 @@ public class EmailService {
             throw new ApiException("Debe diligenciar el cuerpo del correo si no adjunta una imagen o archivo", HttpStatus.OK);
         }
 
-        byte[] fileBytes = null;
+        Long adjuntoId = null;
         String filename = null;
 
         if (hasFile) {
@@ -302,10 +281,10 @@ public class EmailService {
                 throw new ApiException("Tipo de archivo no permitido", HttpStatus.OK);
             }
 
-            try {
-                fileBytes = file.getBytes();
-                filename = file.getOriginalFilename();
-            } catch (java.io.IOException e) {
+            try (InputStream contenido = file.getInputStream()) {
+                adjuntoId = adjuntoCorreoService.guardar(contenido);
+                filename = (file.getOriginalFilename() != null) ? file.getOriginalFilename() : "archivo";
+            } catch (IOException e) {
                 log.error("Error al leer el archivo adjunto.", e);
                 throw new ApiException("Error al leer el archivo adjunto.", HttpStatus.INTERNAL_SERVER_ERROR);
             }
@@ -317,31 +296,38 @@ public class EmailService {
         }
         String cleanTitle = superClean(request.getSubject());
         String cleanBody = superClean(body);
-        saveEmailLog(cleanTitle, cleanBody, request.getEmails());
-        self.sendToManyAsync(request.getEmails(), request.getSubject(), body, fileBytes, filename);
+        CorreoEnviado comunicado = saveEmailLog(cleanTitle, cleanBody);
+
+        // Un correo por destinatario: nadie ve las demás direcciones y una dirección mala no
+        // tumba el envío de las otras. El adjunto queda en disco una vez y lo comparten todos.
+        String campana = CAMPANA_COMUNICADO + comunicado.getId();
+        String asunto = request.getSubject();
+        String cuerpo = body;
+        Long adjunto = adjuntoId;
+        String nombreAdjunto = filename;
+        List<CorreoSaliente> correos = request.getEmails().stream()
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .distinct()
+                .map(email -> {
+                    CorreoSaliente correo = deCampana(campana, TipoCorreo.MASIVO, email, asunto, cuerpo);
+                    correo.setAdjuntoId(adjunto);
+                    correo.setNombreAdjunto(nombreAdjunto);
+                    return correo;
+                })
+                .toList();
+        correoSalienteService.encolarComunicado(comunicado.getId(), correos);
+        log.info("Comunicado {} encolado para {} destinatarios.", comunicado.getId(), correos.size());
     }
 
-    @Async("mailTaskExecutor")
-    public void sendToManyAsync(java.util.List<String> emails, String subject, String body, byte[] fileBytes, String filename) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, fileBytes != null);
-
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            helper.setTo(emails.toArray(new String[0]));
-
-            if (fileBytes != null) {
-                String originalFilename = (filename != null) ? filename : "archivo";
-                helper.addAttachment(originalFilename, new org.springframework.core.io.ByteArrayResource(fileBytes));
-            }
-
-            mailSender.send(message);
-            log.info("Correo masivo asíncrono enviado a {} destinatarios.", emails.size());
-        } catch (Exception e) {
-            log.error("Error al enviar el correo masivo asíncrono: {}", e.getMessage(), e);
+    private void encolarHtml(TipoCorreo tipo, String destinatario, String asunto, String htmlContent) {
+        correoSalienteService.encolar(correoSalienteService.nuevo(tipo, List.of(destinatario), asunto, htmlContent, true));
+    }
 
-        }
+    private CorreoSaliente deCampana(String campana, TipoCorreo tipo, String destinatario, String asunto, String htmlContent) {
+        CorreoSaliente correo = correoSalienteService.nuevo(tipo, List.of(destinatario), asunto, htmlContent, true);
+        correo.setCampana(campana);
+        return correo;
     }
 
     private boolean isAllowed(String type) {
@@ -353,21 +339,14 @@ public class EmailService {
         );
     }
 
-    private void saveEmailLog(String subject, String body, List<String> emails) {
+    /** Los destinatarios del comunicado quedan en {@code correo_destinatario}, uno por fila. */
+    private CorreoEnviado saveEmailLog(String subject, String body) {
         CorreoEnviado correo = new CorreoEnviado();
         correo.setTitulo(subject);
         correo.setCuerpo(body);
         correo.setFechaEnvio(LocalDateTime.now());
-
-        try {
-            String destinatariosJson = objectMapper.writeValueAsString(emails);
-            correo.setDestinatarios(destinatariosJson);
-        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-            log.error("Error serializando los destinatarios a JSON", e);
-            throw new ApiException("Error interno al guardar el registro del correo", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-
         correoEnviadoRepository.save(correo);
+        return correo;
     }
 
     public String superClean(String input) {
@@ -375,4 +354,9 @@ public class EmailService {
 
         return org.jsoup.Jsoup.clean(input, org.jsoup.safety.Safelist.basic());
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface ContenidoAdjunto {
+        InputStream abrir() throws IOException;
+    }
+}
@@ -0,0 +1,371 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.MovimientoEstadoCuentaDTO;
+import com.condominio.dto.response.ResidenteCasaDTO;
+import com.condominio.dto.response.SaldoCorteCasaDTO;
+import com.condominio.persistence.model.EstadoFacturacion;
+import com.condominio.persistence.model.GeneracionEstadosCuenta;
+import com.condominio.persistence.repository.GeneracionEstadosCuentaRepository;
+import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.PagoDetalleRepository;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.service.interfaces.IPdfService;
+import com.condominio.util.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Estados de cuenta mensuales en PDF de todas las casas, archivados en
+ * {@code estados-cuenta.directorio}/yyyy-MM/casa-{id}.pdf para que el propietario los
+ * descargue sin volver a generarlos. Las casas se recorren por lotes como en
+ * {@link FacturacionMensualService}, pero cada lote usa dos transacciones cortas: una lee
+ * sus casas y movimientos, los PDF se renderizan en {@code pdfTaskExecutor} fuera de ella,
+ * sin bloqueo ni conexión tomados, y otra avanza la marca de {@link GeneracionEstadosCuenta}.
+ * Así una ejecución caída retoma desde la última casa archivada. Cada PDF se escribe en un temporal y se
+ * mueve al final, de modo que nunca se descarga un archivo a medio escribir.
+ * <p>
+ * El saldo de cada estado de cuenta es el del último día del periodo: lo cargado hasta esa
+ * fecha menos lo abonado hasta esa fecha, no el de {@code saldo_casa}, que es el de hoy.
+ */
+@Service
+public class EstadoCuentaMensualService {
+
+    private static final String PLANTILLA = "EstadoCuentaPDF/estado-cuenta";
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final GeneracionEstadosCuentaRepository generacionEstadosCuentaRepository;
+    private final PersonaRepository personaRepository;
+    private final ObligacionRepository obligacionRepository;
+    private final PagoDetalleRepository pagoDetalleRepository;
+    private final IPdfService pdfService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor pdfTaskExecutor;
+    private final ThreadPoolTaskExecutor estadosCuentaTaskExecutor;
+    private final Set<String> periodosEnCurso = ConcurrentHashMap.newKeySet();
+    private final Path directorio;
+    private final int tamanoLote;
+    private static final Logger log = LoggerFactory.getLogger(EstadoCuentaMensualService.class);
+
+    public EstadoCuentaMensualService(GeneracionEstadosCuentaRepository generacionEstadosCuentaRepository,
+                                      PersonaRepository personaRepository,
+                                      ObligacionRepository obligacionRepository,
+                                      PagoDetalleRepository pagoDetalleRepository,
+                                      IPdfService pdfService,
+                                      TransactionTemplate transactionTemplate,
+                                      @Qualifier("pdfTaskExecutor") ThreadPoolTaskExecutor pdfTaskExecutor,
+                                      @Qualifier("estadosCuentaTaskExecutor") ThreadPoolTaskExecutor estadosCuentaTaskExecutor,
+                                      @Value("${estados-cuenta.directorio:${java.io.tmpdir}/condominio/estados-cuenta}") Path directorio,
+                                      @Value("${estados-cuenta.tamano-lote:200}") int tamanoLote) {
+        this.generacionEstadosCuentaRepository = generacionEstadosCuentaRepository;
+        this.personaRepository = personaRepository;
+        this.obligacionRepository = obligacionRepository;
+        this.pagoDetalleRepository = pagoDetalleRepository;
+        this.pdfService = pdfService;
+        this.transactionTemplate = transactionTemplate;
+        this.pdfTaskExecutor = pdfTaskExecutor;
+        this.estadosCuentaTaskExecutor = estadosCuentaTaskExecutor;
+        this.directorio = directorio;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Scheduled(cron = "0 0 3 1 * *", zone = "America/Bogota")
+    public void generarMesAnterior() {
+        generar(YearMonth.now(ZONE).minusMonths(1));
+    }
+
+    public GeneracionEstadosCuenta generar(YearMonth periodo) {
+        Long idEjecucion = reservar(periodo);
+        try {
+            return recorrer(idEjecucion, periodo);
+        } catch (RuntimeException e) {
+            interrumpir(idEjecucion);
+            throw e;
+        } finally {
+            periodosEnCurso.remove(periodo.toString());
+        }
+    }
+
+    /**
+     * Registra la ejecución y recorre las casas en {@code estadosCuentaTaskExecutor}; devuelve
+     * la ejecución recién registrada para consultar su avance con {@link #consultar}.
+     */
+    public GeneracionEstadosCuenta iniciar(YearMonth periodo) {
+        Long idEjecucion = reservar(periodo);
+        try {
+            estadosCuentaTaskExecutor.execute(() -> {
+                try {
+                    recorrer(idEjecucion, periodo);
+                } catch (RuntimeException e) {
+                    log.error("Se interrumpió la generación de estados de cuenta {}", periodo, e);
+                    interrumpir(idEjecucion);
+                } finally {
+                    periodosEnCurso.remove(periodo.toString());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            periodosEnCurso.remove(periodo.toString());
+            interrumpir(idEjecucion);
+            throw new ApiException("Hay demasiadas generaciones de estados de cuenta en espera, intenta más tarde",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return consultar(idEjecucion);
+    }
+
+    public GeneracionEstadosCuenta consultar(Long idEjecucion) {
+        return generacionEstadosCuentaRepository.findById(idEjecucion)
+                .orElseThrow(() -> new ApiException(
+                        "No existe la generación de estados de cuenta " + idEjecucion, HttpStatus.NOT_FOUND));
+    }
+
+    /** Valida el periodo, lo marca en curso en esta instancia y registra su ejecución. */
+    private Long reservar(YearMonth periodo) {
+        if (periodo.isAfter(YearMonth.now(ZONE))) {
+            throw new ApiException("No se pueden generar estados de cuenta de un periodo futuro", HttpStatus.BAD_REQUEST);
+        }
+        if (!periodosEnCurso.add(periodo.toString())) {
+            throw new ApiException("Ya se están generando los estados de cuenta de " + periodo, HttpStatus.CONFLICT);
+        }
+        try {
+            try {
+                Files.createDirectories(directorio.resolve(periodo.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear el directorio de estados de cuenta " + directorio, e);
+            }
+            return iniciarEjecucion(periodo.toString());
+        } catch (RuntimeException e) {
+            periodosEnCurso.remove(periodo.toString());
+            throw e;
+        }
+    }
+
+    private GeneracionEstadosCuenta recorrer(Long idEjecucion, YearMonth periodo) {
+        String fechaEmision = LocalDate.now(ZONE).format(FORMATO_FECHA);
+
+        Lote lote;
+        while ((lote = transactionTemplate.execute(status -> reclamarLote(idEjecucion, periodo, fechaEmision))) != null) {
+            Lote renderizado = lote;
+            int errores = renderizar(periodo, renderizado);
+            transactionTemplate.execute(status -> registrarLote(idEjecucion, renderizado, errores));
+        }
+
+        return transactionTemplate.execute(status -> {
+            GeneracionEstadosCuenta ejecucion = bloquear(idEjecucion);
+            ejecucion.setEstado(EstadoFacturacion.COMPLETADA);
+            ejecucion.setFechaFin(LocalDateTime.now(ZONE));
+            log.info("Estados de cuenta {} completados: {} casas, {} con error",
+                    periodo, ejecucion.getCasasGeneradas(), ejecucion.getCasasConError());
+            return generacionEstadosCuentaRepository.save(ejecucion);
+        });
+    }
+
+    /** El estado de cuenta ya archivado de la casa; no se vuelve a generar. */
+    public FileSystemResource descargar(YearMonth periodo, Long idCasa) {
+        Path archivo = archivo(periodo, idCasa);
+        if (!Files.isRegularFile(archivo)) {
+            throw new ApiException("No hay estado de cuenta de la casa " + idCasa + " para " + periodo,
+                    HttpStatus.NOT_FOUND);
+        }
+        return new FileSystemResource(archivo);
+    }
+
+    private Long iniciarEjecucion(String periodo) {
+        return transactionTemplate.execute(status -> {
+            GeneracionEstadosCuenta ejecucion = generacionEstadosCuentaRepository.findByPeriodo(periodo)
+                    .orElseGet(() -> GeneracionEstadosCuenta.builder()
+                            .periodo(periodo)
+                            .ultimaCasaId(0L)
+                            .build());
+
+            if (ejecucion.getEstado() == EstadoFacturacion.COMPLETADA || ejecucion.getId() == null) {
+                // Volver a generar un periodo terminado reemplaza todos sus archivos.
+                ejecucion.setUltimaCasaId(0L);
+                ejecucion.setCasasGeneradas(0);
+                ejecucion.setCasasConError(0);
+                ejecucion.setFechaInicio(LocalDateTime.now(ZONE));
+                ejecucion.setFechaFin(null);
+            } else {
+                log.info("Reanudando estados de cuenta {} desde la casa {}", periodo, ejecucion.getUltimaCasaId());
+            }
+            ejecucion.setEstado(EstadoFacturacion.EN_CURSO);
+            return generacionEstadosCuentaRepository.save(ejecucion).getId();
+        });
+    }
+
+    /**
+     * Lee el siguiente lote de casas desde la marca de la ejecución con lo necesario para
+     * renderizar sus estados de cuenta. Devuelve null cuando ya no quedan casas por recorrer.
+     */
+    private Lote reclamarLote(Long idEjecucion, YearMonth periodo, String fechaEmision) {
+        GeneracionEstadosCuenta ejecucion = bloquear(idEjecucion);
+
+        List<ResidenteCasaDTO> candidatos = personaRepository.findTitularesDesdeCasa(
+                ejecucion.getUltimaCasaId(), PageRequest.of(0, tamanoLote));
+        if (candidatos.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, ResidenteCasaDTO> porCasa = new LinkedHashMap<>();
+        candidatos.forEach(titular -> porCasa.putIfAbsent(titular.getCasaId(), titular));
+        Set<Long> casaIds = porCasa.keySet();
+
+        LocalDate desde = periodo.atDay(1);
+        LocalDate hasta = periodo.atEndOfMonth();
+        Map<Long, List<MovimientoEstadoCuentaDTO>> cargos = porCasa(
+                obligacionRepository.findCargosDelPeriodo(casaIds, desde, hasta));
+        Map<Long, List<MovimientoEstadoCuentaDTO>> abonos = porCasa(
+                pagoDetalleRepository.findAbonosDelPeriodo(casaIds, desde, hasta));
+        Map<Long, SaldoCorteCasaDTO> cargado = porCasaId(obligacionRepository.findCargadoAlCorte(casaIds, hasta));
+        Map<Long, SaldoCorteCasaDTO> abonado = porCasaId(pagoDetalleRepository.findAbonadoAlCorte(casaIds, hasta));
+
+        String nombrePeriodo = periodo.getMonth().getDisplayName(TextStyle.FULL, Locale.of("es", "ES"))
+                + " " + periodo.getYear();
+        Map<Long, Map<String, Object>> documentos = new LinkedHashMap<>();
+        for (ResidenteCasaDTO titular : porCasa.values()) {
+            Long idCasa = titular.getCasaId();
+            documentos.put(idCasa, variables(titular, nombrePeriodo, fechaEmision,
+                    cargos.getOrDefault(idCasa, List.of()), abonos.getOrDefault(idCasa, List.of()),
+                    cargado.get(idCasa), abonado.get(idCasa)));
+        }
+        return new Lote(ejecucion.getUltimaCasaId(), candidatos.get(candidatos.size() - 1).getCasaId(), documentos);
+    }
+
+    /** Archiva los PDF del lote y devuelve cuántos fallaron. */
+    private int renderizar(YearMonth periodo, Lote lote) {
+        Map<Long, CompletableFuture<Void>> pdfs = new LinkedHashMap<>();
+        lote.documentos().forEach((idCasa, variables) ->
+                // Con la cola del pool llena, CallerRunsPolicy renderiza en este hilo y frena el lote.
+                pdfs.put(idCasa, CompletableFuture.runAsync(() -> archivar(periodo, idCasa, variables), pdfTaskExecutor)));
+
+        int errores = 0;
+        for (Map.Entry<Long, CompletableFuture<Void>> pdf : pdfs.entrySet()) {
+            try {
+                pdf.getValue().join();
+            } catch (CompletionException e) {
+                log.error("No se pudo generar el estado de cuenta {} de la casa {}", periodo, pdf.getKey(), e.getCause());
+                errores++;
+            }
+        }
+        return errores;
+    }
+
+    /**
+     * Avanza la marca hasta la última casa del lote. Si otra ejecución del mismo periodo ya la
+     * movió desde que se leyó el lote, no se vuelve a contar: los archivos se reemplazaron igual.
+     */
+    private GeneracionEstadosCuenta registrarLote(Long idEjecucion, Lote lote, int errores) {
+        GeneracionEstadosCuenta ejecucion = bloquear(idEjecucion);
+        if (!ejecucion.getUltimaCasaId().equals(lote.desdeCasaId())) {
+            log.warn("El lote de estados de cuenta desde la casa {} ya fue registrado", lote.desdeCasaId());
+            return ejecucion;
+        }
+        ejecucion.setUltimaCasaId(lote.hastaCasaId());
+        ejecucion.setCasasGeneradas(ejecucion.getCasasGeneradas() + lote.documentos().size() - errores);
+        ejecucion.setCasasConError(ejecucion.getCasasConError() + errores);
+        return generacionEstadosCuentaRepository.save(ejecucion);
+    }
+
+    /** Deja constancia de que la ejecución se detuvo; pedirla de nuevo la retoma desde su marca. */
+    private void interrumpir(Long idEjecucion) {
+        try {
+            transactionTemplate.execute(status -> {
+                GeneracionEstadosCuenta ejecucion = bloquear(idEjecucion);
+                ejecucion.setEstado(EstadoFacturacion.INTERRUMPIDA);
+                return generacionEstadosCuentaRepository.save(ejecucion);
+            });
+        } catch (RuntimeException e) {
+            log.error("No se pudo marcar como interrumpida la generación de estados de cuenta {}", idEjecucion, e);
+        }
+    }
+
+    private GeneracionEstadosCuenta bloquear(Long idEjecucion) {
+        return generacionEstadosCuentaRepository.bloquearPorId(idEjecucion)
+                .orElseThrow(() -> new ApiException(
+                        "No existe la generación de estados de cuenta " + idEjecucion, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    private static Map<Long, List<MovimientoEstadoCuentaDTO>> porCasa(List<MovimientoEstadoCuentaDTO> movimientos) {
+        return movimientos.stream().collect(Collectors.groupingBy(MovimientoEstadoCuentaDTO::getCasaId));
+    }
+
+    private static Map<Long, SaldoCorteCasaDTO> porCasaId(List<SaldoCorteCasaDTO> sumas) {
+        return sumas.stream().collect(Collectors.toMap(SaldoCorteCasaDTO::getCasaId, suma -> suma));
+    }
+
+    private static Map<String, Object> variables(ResidenteCasaDTO titular, String nombrePeriodo, String fechaEmision,
+                                                 List<MovimientoEstadoCuentaDTO> cargos,
+                                                 List<MovimientoEstadoCuentaDTO> abonos,
+                                                 SaldoCorteCasaDTO cargado, SaldoCorteCasaDTO abonado) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("nombre", titular.getNombreCompleto());
+        variables.put("casa", "Casa " + titular.getCasaId());
+        variables.put("periodo", nombrePeriodo);
+        variables.put("fecha", fechaEmision);
+        variables.put("cargos", cargos);
+        variables.put("abonos", abonos);
+        variables.put("totalCargos", cargos.stream().mapToLong(MovimientoEstadoCuentaDTO::getValor).sum());
+        variables.put("totalAbonos", abonos.stream().mapToLong(MovimientoEstadoCuentaDTO::getValor).sum());
+        variables.put("saldoPendiente", suma(cargado, SaldoCorteCasaDTO::getTotal) - suma(abonado, SaldoCorteCasaDTO::getTotal));
+        variables.put("saldoVencido", suma(cargado, SaldoCorteCasaDTO::getVencido) - suma(abonado, SaldoCorteCasaDTO::getVencido));
+        return variables;
+    }
+
+    private static long suma(SaldoCorteCasaDTO suma, Function<SaldoCorteCasaDTO, Long> valor) {
+        return suma != null && valor.apply(suma) != null ? valor.apply(suma) : 0L;
+    }
+
+    private void archivar(YearMonth periodo, Long idCasa, Map<String, Object> variables) {
+        Path destino = archivo(periodo, idCasa);
+        try {
+            Path temporal = Files.createTempFile(destino.getParent(), "casa-" + idCasa + "-", ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                    pdfService.renderizar(PLANTILLA, variables, out);
+                }
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path archivo(YearMonth periodo, Long idCasa) {
+        return directorio.resolve(periodo.toString()).resolve("casa-" + idCasa + ".pdf");
+    }
+
+    /** Casas de un lote, de la marca {@code desdeCasaId} (excluida) a {@code hastaCasaId}, con las variables de cada PDF. */
+    private record Lote(Long desdeCasaId, Long hastaCasaId, Map<Long, Map<String, Object>> documentos) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.DestinatarioObligacionDTO;
+import com.condominio.dto.response.MostrarObligacionDTO;
+import com.condominio.persistence.model.*;
+import com.condominio.persistence.repository.CargoAdministracionRepository;
+import com.condominio.persistence.repository.FacturacionMensualRepository;
+import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.persistence.repository.TasaDeInteresRepository;
+import com.condominio.util.exception.ApiException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.*;
+
+import static com.condominio.util.constants.AppConstants.CAMPANA_OBLIGACION_MENSUAL;
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Facturación de la administración mensual por lotes de casas. Cada lote se
+ * confirma en su propia transacción junto con el avance de {@link FacturacionMensual},
+ * de modo que una ejecución caída retoma desde la última casa confirmada y
+ * volver a dispararla nunca cobra dos veces la misma casa en el mismo periodo.
+ */
+@Service
+@RequiredArgsConstructor
+public class FacturacionMensualService {
+
+    private final FacturacionMensualRepository facturacionMensualRepository;
+    private final ObligacionRepository obligacionRepository;
+    private final PersonaRepository personaRepository;
+    private final CargoAdministracionRepository cargoAdministracionRepository;
+    private final TasaDeInteresRepository tasaDeInteresRepository;
+    private final EmailService emailService;
+    private final SaldoCasaService saldoCasaService;
+    private final TransactionTemplate transactionTemplate;
+    private static final Logger log = LoggerFactory.getLogger(FacturacionMensualService.class);
+
+    @Value("${facturacion.tamano-lote:500}")
+    private int tamanoLote;
+
+    public FacturacionMensual facturar(LocalDate hoy) {
+        String periodo = YearMonth.from(hoy).toString();
+        String mes = hoy.getMonth().getDisplayName(TextStyle.FULL, Locale.of("es", "ES"));
+        int anio = hoy.getYear();
+
+        String titulo = String.format("Administración %s %d", mes, anio);
+        String motivo = String.format("Cobro correspondiente a la administración de %s %d", mes, anio);
+
+        CargoAdministracion cargoAdmin = cargoAdministracionRepository.findAll().iterator().next();
+        TasaDeInteres tasaInteres = tasaDeInteresRepository.findAll().iterator().next();
+
+        Obligacion plantilla = Obligacion.builder()
+                .fechaGenerada(hoy)
+                .fechaLimite(hoy.plusDays(10))
+                .monto((int) cargoAdmin.getNuevoValor())
+                .tasaInteres(tasaInteres.getNuevoValor())
+                .motivo(motivo)
+                .titulo(titulo)
+                .periodo(periodo)
+                .tipoPago(TipoPago.DINERO)
+                .tipoObligacion(TipoObligacion.ADMINISTRACION)
+                .estadoPago(EstadoPago.PENDIENTE)
+                .build();
+
+        Long idEjecucion = iniciarEjecucion(periodo);
+
+        List<DestinatarioObligacionDTO> facturados;
+        do {
+            facturados = transactionTemplate.execute(status -> procesarLote(idEjecucion, plantilla));
+        } while (facturados != null);
+
+        return transactionTemplate.execute(status -> {
+            FacturacionMensual ejecucion = bloquear(idEjecucion);
+            ejecucion.setEstado(EstadoFacturacion.COMPLETADA);
+            ejecucion.setFechaFin(LocalDateTime.now(ZONE));
+            log.info("Facturación {} completada: {} casas facturadas", periodo, ejecucion.getCasasFacturadas());
+            return facturacionMensualRepository.save(ejecucion);
+        });
+    }
+
+    private Long iniciarEjecucion(String periodo) {
+        return transactionTemplate.execute(status -> {
+            FacturacionMensual ejecucion = facturacionMensualRepository.findByPeriodo(periodo)
+                    .orElseGet(() -> FacturacionMensual.builder()
+                            .periodo(periodo)
+                            .ultimaCasaId(0L)
+                            .fechaInicio(LocalDateTime.now(ZONE))
+                            .build());
+
+            if (ejecucion.getEstado() == EstadoFacturacion.COMPLETADA) {
+                // Un nuevo recorrido completo solo factura las casas registradas después.
+                ejecucion.setUltimaCasaId(0L);
+                ejecucion.setFechaFin(null);
+            } else if (ejecucion.getId() != null) {
+                log.info("Reanudando facturación {} desde la casa {}", periodo, ejecucion.getUltimaCasaId());
+            }
+            ejecucion.setEstado(EstadoFacturacion.EN_CURSO);
+            return facturacionMensualRepository.save(ejecucion).getId();
+        });
+    }
+
+    /**
+     * Factura el siguiente lote de casas y avanza la marca de la ejecución.
+     * Devuelve null cuando ya no quedan casas por recorrer.
+     */
+    private List<DestinatarioObligacionDTO> procesarLote(Long idEjecucion, Obligacion plantilla) {
+        FacturacionMensual ejecucion = bloquear(idEjecucion);
+
+        List<DestinatarioObligacionDTO> candidatos = personaRepository.findPropietariosDesdeCasa(
+                ejecucion.getUltimaCasaId(), PageRequest.of(0, tamanoLote));
+        if (candidatos.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, DestinatarioObligacionDTO> porCasa = new LinkedHashMap<>();
+        candidatos.forEach(d -> porCasa.putIfAbsent(d.getIdCasa(), d));
+
+        obligacionRepository.findCasaIdsFacturadas(plantilla.getPeriodo(), porCasa.keySet())
+                .forEach(porCasa::remove);
+
+        List<Obligacion> obligaciones = porCasa.keySet().stream()
+                .map(idCasa -> copiar(plantilla, idCasa))
+                .toList();
+        obligacionRepository.insertarEnLote(obligaciones);
+        saldoCasaService.recalcular(porCasa.keySet());
+
+        ejecucion.setUltimaCasaId(candidatos.get(candidatos.size() - 1).getIdCasa());
+        ejecucion.setCasasFacturadas(ejecucion.getCasasFacturadas() + obligaciones.size());
+        facturacionMensualRepository.save(ejecucion);
+
+        // Los correos quedan en la bandeja de salida en la misma transacción que las obligaciones.
+        List<DestinatarioObligacionDTO> facturados = new ArrayList<>(porCasa.values());
+        notificar(facturados, plantilla);
+        return facturados;
+    }
+
+    private FacturacionMensual bloquear(Long idEjecucion) {
+        return facturacionMensualRepository.bloquearPorId(idEjecucion)
+                .orElseThrow(() -> new ApiException(
+                        "No existe la ejecución de facturación " + idEjecucion, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    private Obligacion copiar(Obligacion plantilla, Long idCasa) {
+        return Obligacion.builder()
+                .fechaGenerada(plantilla.getFechaGenerada())
+                .fechaLimite(plantilla.getFechaLimite())
+                .monto(plantilla.getMonto())
+                .tasaInteres(plantilla.getTasaInteres())
+                .motivo(plantilla.getMotivo())
+                .titulo(plantilla.getTitulo())
+                .periodo(plantilla.getPeriodo())
+                .tipoPago(plantilla.getTipoPago())
+                .tipoObligacion(plantilla.getTipoObligacion())
+                .estadoPago(plantilla.getEstadoPago())
+                .casa(Casa.builder().id(idCasa).build())
+                .build();
+    }
+
+    private void notificar(List<DestinatarioObligacionDTO> facturados, Obligacion plantilla) {
+        if (facturados.isEmpty()) {
+            return;
+        }
+        MostrarObligacionDTO dto = MostrarObligacionDTO.builder()
+                .titulo(plantilla.getTitulo())
+                .motivo(plantilla.getMotivo())
+                .monto(plantilla.getMonto())
+                .fecha(plantilla.getFechaGenerada())
+                .build();
+        emailService.enviarObligacionesMensuales(facturados, dto, CAMPANA_OBLIGACION_MENSUAL + plantilla.getPeriodo());
+    }
+}
@@ -0,0 +1,86 @@
+package com.condominio.service.implementation;
+
+import com.condominio.persistence.model.InvalidacionToken;
+import com.condominio.persistence.model.TokenRefresco;
+import com.condominio.persistence.repository.InvalidacionTokenRepository;
+import com.condominio.persistence.repository.TokenRefrescoRepository;
+import com.condominio.util.security.JwtProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Usuarios cuyos tokens emitidos antes de cierto instante dejan de autenticar: cuentas
+ * deshabilitadas y cambios de contraseña. El filtro JWT lo consulta en memoria en cada
+ * petición; la tabla {@link InvalidacionToken} lo comparte entre instancias, que la leen
+ * cada {@code jwt.invalidaciones.intervalo-ms}. Solo guarda lo invalidado dentro de la
+ * vigencia del token de acceso, así que el conjunto se mantiene pequeño; los tokens de
+ * refresco, que duran más, se revocan además en {@link TokenRefresco}.
+ */
+@Service
+public class InvalidacionTokenService {
+
+    private final InvalidacionTokenRepository invalidacionTokenRepository;
+    private final TokenRefrescoRepository tokenRefrescoRepository;
+    private final Duration vigenciaAccessToken;
+    private final Map<String, Instant> invalidaciones = new ConcurrentHashMap<>();
+
+    public InvalidacionTokenService(InvalidacionTokenRepository invalidacionTokenRepository,
+                                    TokenRefrescoRepository tokenRefrescoRepository,
+                                    JwtProperties jwtProperties) {
+        this.invalidacionTokenRepository = invalidacionTokenRepository;
+        this.tokenRefrescoRepository = tokenRefrescoRepository;
+        this.vigenciaAccessToken = Duration.ofHours(jwtProperties.getExpiration());
+    }
+
+    /** Invalida todos los tokens de {@code email} emitidos hasta ahora. */
+    @Transactional
+    public void invalidar(String email) {
+        // El iat del JWT va en segundos: se rechaza también todo lo emitido en este mismo segundo,
+        // porque no se distingue si salió antes o después de invalidar.
+        Instant desde = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        InvalidacionToken invalidacion = invalidacionTokenRepository.findByEmail(email)
+                .orElseGet(() -> InvalidacionToken.builder().email(email).build());
+        invalidacion.setInvalidadoDesde(LocalDateTime.ofInstant(desde, ZONE));
+        invalidacionTokenRepository.save(invalidacion);
+        tokenRefrescoRepository.revocarPorEmail(email);
+        invalidaciones.merge(email, desde, InvalidacionTokenService::masReciente);
+    }
+
+    public boolean estaInvalidado(String email, Date emitido) {
+        Instant desde = invalidaciones.get(email);
+        return desde != null && (emitido == null || !emitido.toInstant().isAfter(desde));
+    }
+
+    @PostConstruct
+    public void cargar() {
+        sincronizar();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.invalidaciones.intervalo-ms:30000}")
+    public void sincronizar() {
+        Instant limite = Instant.now().minus(vigenciaAccessToken);
+        LocalDateTime limiteLocal = LocalDateTime.ofInstant(limite, ZONE);
+        invalidacionTokenRepository.eliminarHasta(limiteLocal);
+        for (InvalidacionToken invalidacion : invalidacionTokenRepository.findByInvalidadoDesdeAfter(limiteLocal)) {
+            invalidaciones.merge(invalidacion.getEmail(),
+                    invalidacion.getInvalidadoDesde().atZone(ZONE).toInstant(), InvalidacionTokenService::masReciente);
+        }
+        invalidaciones.values().removeIf(desde -> !desde.isAfter(limite));
+    }
+
+    private static Instant masReciente(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
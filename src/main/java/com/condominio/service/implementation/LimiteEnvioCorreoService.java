@@ -0,0 +1,143 @@
+package com.condominio.service.implementation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cupo de envío del proveedor de correo: {@code correo.limite.por-segundo} y
+ * {@code correo.limite.por-minuto} mensajes. Cada límite es una cubeta de fichas; un envío
+ * toma una ficha por mensaje antes de abrir la conexión y la devuelve un periodo completo
+ * después de terminar. Así ninguna ventana de un segundo o de un minuto ve más mensajes
+ * que el límite, aunque la cubeta llevara rato llena.
+ * <p>
+ * La espera usa {@link Condition} y no {@code synchronized}, para que un hilo virtual
+ * que espera fichas suelte su hilo de plataforma.
+ */
+@Service
+public class LimiteEnvioCorreoService {
+
+    private final Cubeta porSegundo;
+    private final Cubeta porMinuto;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition cambio = lock.newCondition();
+    private final Timer esperas;
+
+    public LimiteEnvioCorreoService(@Value("${correo.limite.por-segundo:10}") int porSegundo,
+                                    @Value("${correo.limite.por-minuto:120}") int porMinuto,
+                                    MeterRegistry meterRegistry) {
+        if (porSegundo < 1 || porMinuto < 1) {
+            throw new IllegalArgumentException("Los límites de envío de correo deben ser positivos");
+        }
+        this.porSegundo = new Cubeta(porSegundo, TimeUnit.SECONDS.toNanos(1));
+        this.porMinuto = new Cubeta(porMinuto, TimeUnit.MINUTES.toNanos(1));
+        this.esperas = Timer.builder("correo.limite.espera")
+                .description("Tiempo que un envío esperó fichas del cupo del proveedor")
+                .register(meterRegistry);
+    }
+
+    /** Mensajes que caben en un solo envío sin pasar ninguno de los dos límites. */
+    public int maximoPorEnvio() {
+        return Math.min(porSegundo.capacidad, porMinuto.capacidad);
+    }
+
+    /**
+     * Espera fichas para {@code mensajes}, ejecuta el envío y devuelve las fichas al
+     * terminar, aunque el envío falle.
+     */
+    public void ejecutar(int mensajes, Runnable envio) throws InterruptedException {
+        if (mensajes < 1 || mensajes > maximoPorEnvio()) {
+            throw new IllegalArgumentException("Un envío debe llevar entre 1 y " + maximoPorEnvio() + " mensajes");
+        }
+        adquirir(mensajes);
+        try {
+            envio.run();
+        } finally {
+            devolver(mensajes);
+        }
+    }
+
+    private void adquirir(int mensajes) throws InterruptedException {
+        long inicio = System.nanoTime();
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long ahora = System.nanoTime();
+                long espera = Math.max(porSegundo.espera(mensajes, ahora), porMinuto.espera(mensajes, ahora));
+                if (espera == 0) {
+                    porSegundo.enUso += mensajes;
+                    porMinuto.enUso += mensajes;
+                    break;
+                }
+                if (espera == Long.MAX_VALUE) {
+                    cambio.await();
+                } else {
+                    cambio.awaitNanos(espera);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        esperas.record(Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    private void devolver(int mensajes) {
+        lock.lock();
+        try {
+            long ahora = System.nanoTime();
+            porSegundo.devolver(mensajes, ahora);
+            porMinuto.devolver(mensajes, ahora);
+            cambio.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Fichas de un límite. Solo se usa con {@code lock} tomado. */
+    private static final class Cubeta {
+        private final int capacidad;
+        private final long periodoNanos;
+        private final ArrayDeque<long[]> devueltas = new ArrayDeque<>();
+        private int enUso;
+        private int enfriando;
+
+        private Cubeta(int capacidad, long periodoNanos) {
+            this.capacidad = capacidad;
+            this.periodoNanos = periodoNanos;
+        }
+
+        private void devolver(int fichas, long ahora) {
+            enUso -= fichas;
+            enfriando += fichas;
+            devueltas.addLast(new long[]{ahora + periodoNanos, fichas});
+        }
+
+        /**
+         * Nanosegundos hasta que haya {@code fichas} libres; cero si ya las hay y
+         * {@link Long#MAX_VALUE} si faltan fichas que siguen en un envío sin terminar.
+         */
+        private long espera(int fichas, long ahora) {
+            while (!devueltas.isEmpty() && devueltas.peekFirst()[0] - ahora <= 0) {
+                enfriando -= (int) devueltas.pollFirst()[1];
+            }
+            int libres = capacidad - enUso - enfriando;
+            if (libres >= fichas) {
+                return 0;
+            }
+            for (long[] devuelta : devueltas) {
+                libres += (int) devuelta[1];
+                if (libres >= fichas) {
+                    return devuelta[0] - ahora;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
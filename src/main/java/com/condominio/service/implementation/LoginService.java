@@ -0,0 +1,101 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.AuthResponse;
+import com.condominio.dto.response.UserResponse;
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.UserEntity;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.JwtUtil;
+import com.condominio.util.security.UsuarioToken;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inicio de sesión con una sola consulta: usuario, roles, persona y casa llegan juntos y con
+ * ellos se emiten los dos tokens y la respuesta. La contraseña se verifica en
+ * {@code bcryptTaskExecutor}, no en el hilo de la petición; si ya hay demasiados intentos en
+ * cola se responde 503. Cuando el correo no existe se verifica igual contra un hash de
+ * relleno, para que el tiempo de respuesta no delate qué correos están registrados.
+ */
+@Service
+public class LoginService {
+
+    private final PersonaRepository personaRepository;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+    private final TokenRefrescoService tokenRefrescoService;
+    private final ThreadPoolTaskExecutor bcryptTaskExecutor;
+    private final String hashDeRelleno;
+
+    public LoginService(PersonaRepository personaRepository, BCryptPasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                        TokenRefrescoService tokenRefrescoService, @Qualifier("bcryptTaskExecutor") ThreadPoolTaskExecutor bcryptTaskExecutor) {
+        this.personaRepository = personaRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.tokenRefrescoService = tokenRefrescoService;
+        this.bcryptTaskExecutor = bcryptTaskExecutor;
+        this.hashDeRelleno = passwordEncoder.encode("usuario-inexistente");
+    }
+
+    /** Se completa con {@link BadCredentialsException} si el correo, la contraseña o el estado de la cuenta no sirven. */
+    public CompletableFuture<AuthResponse> login(String email, String password) {
+        Persona persona = personaRepository.findParaLogin(email).orElse(null);
+        String hash = persona != null ? persona.getUser().getContrasenia() : hashDeRelleno;
+
+        CompletableFuture<Boolean> verificacion;
+        try {
+            verificacion = CompletableFuture.supplyAsync(() -> passwordEncoder.matches(password, hash), bcryptTaskExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new ApiException("Hay demasiados inicios de sesión en curso, intenta de nuevo en unos segundos",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return verificacion.thenApply(valida -> {
+            if (!valida || persona == null || !cuentaActiva(persona.getUser())) {
+                throw new BadCredentialsException("Credenciales inválidas");
+            }
+            return respuesta(persona);
+        });
+    }
+
+    private static boolean cuentaActiva(UserEntity user) {
+        return user.isEnabled() && user.isAccountNoExpired() && user.isAccountNoLocked() && user.isCredentialNoExpired();
+    }
+
+    private AuthResponse respuesta(Persona persona) {
+        UserEntity user = persona.getUser();
+        List<String> roles = user.getRoles().stream()
+                .map(r -> r.getRoleEnum().name())
+                .toList();
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(rol -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + rol))
+                .toList();
+        Long idCasa = persona.getCasa() != null ? persona.getCasa().getId() : null;
+        UsuarioToken usuario = new UsuarioToken(user.getEmail(), persona.getId(), idCasa, authorities);
+
+        var userResponse = new UserResponse(user.getEmail(), nombreCompleto(persona), roles, idCasa, persona.getId());
+        return new AuthResponse(jwtUtil.generateAccessToken(usuario), tokenRefrescoService.emitir(usuario), userResponse);
+    }
+
+    private static String nombreCompleto(Persona p) {
+        return Stream.of(p.getPrimerNombre(), p.getSegundoNombre(),
+                        p.getPrimerApellido(), p.getSegundoApellido())
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -7,7 +7,6 @@ import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
 import com.condominio.service.interfaces.IObligacionService;
-import com.condominio.service.interfaces.IPagoService;
 import com.condominio.service.interfaces.IPdfService;
 import com.condominio.service.interfaces.IPersonaService;
 import com.condominio.util.exception.ApiException;
@@ -19,14 +18,15 @@ import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.TextStyle;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 
 import static com.condominio.util.constants.AppConstants.ZONE;
@@ -40,14 +40,12 @@ public class ObligacionService implements IObligacionService {
     private final CasaRepository casaRepository;
     private final PersonaRepository personaRepository;
     private final IPersonaService personaService;
-    private final IPagoService pagoService;
     private final IPdfService pdfService;
     private final EmailService emailService;
+    private final FacturacionMensualService facturacionMensualService;
+    private final SaldoCasaService saldoCasaService;
     private static final Logger log = LoggerFactory.getLogger(ObligacionService.class);
 
-    private final CargoAdministracionRepository cargoAdministracionRepository;
-    private final TasaDeInteresRepository tasaDeInteresRepository;
-
     @Override
     public SuccessResult<EstadoCuentaDTO> estadoDeCuentaCasa(Long idCasa) {
         Casa casa = casaRepository.findById(idCasa).orElseThrow(() -> new ApiException(
@@ -70,22 +68,17 @@ public class ObligacionService implements IObligacionService {
                     .build();
         }
 
-        List<Obligacion> todasObligaciones = obligacionRepository.findByCasaId(idCasa);
-
-        List<Obligacion> obligacionesPendientes = todasObligaciones.stream()
+        List<Obligacion> obligacionesPendientes = obligacionRepository.findByCasaId(idCasa).stream()
                 .filter(o -> o.getEstadoPago() != EstadoPago.CONDONADO)
                 .toList();
-
-        Long saldoPendienteTotal = obligacionesPendientes.stream()
-                .mapToLong(Obligacion::getValorPendiente)
-                .sum();
+        SaldoCasa saldo = saldoCasaService.obtener(idCasa);
 
         EstadoCuentaDTO dto = EstadoCuentaDTO.builder()
                 .numeroCasa(casa.getNumeroCasa())
                 .propietario(propietarioDTO)
-                .saldoPendienteTotal(saldoPendienteTotal)
+                .saldoPendienteTotal(saldo.getSaldoPendiente())
                 .deudasActivas(obligacionesPendientes)
-                .ultimoPago(pagoService.obtenerFechaUltimoPagoPorCasa(idCasa).orElse(null))
+                .ultimoPago(saldo.getFechaUltimoPago())
                 .build();
         return new SuccessResult<>("Estado de cuenta obtenido correctamente", dto);
     }
@@ -111,11 +104,13 @@ public class ObligacionService implements IObligacionService {
                 .build();
 
         Obligacion guardada = obligacionRepository.save(obligacion);
+        saldoCasaService.recalcular(casa.getId());
 
         return new SuccessResult<>("Multa registrada correctamente", guardada);
     }
 
     @Override
+    @Transactional
     public SuccessResult<Obligacion> update(Long id, MultaActualizacionDTO multa) {
         Obligacion obligacion = obligacionRepository.findById(id)
                 .orElseThrow(() -> new ApiException("La multa no existe", HttpStatus.NOT_FOUND));
@@ -129,6 +124,7 @@ public class ObligacionService implements IObligacionService {
         }
         obligacion.setTipoObligacion(TipoObligacion.MULTA);
         Obligacion actualizada = obligacionRepository.save(obligacion);
+        saldoCasaService.recalcular(obligacion.getCasa().getId());
 
         return new SuccessResult<>("Multa actualizada correctamente", actualizada);
     }
@@ -139,7 +135,12 @@ public class ObligacionService implements IObligacionService {
         return !tienePendientes;
     }
 
-    public ResponseEntity<?> generarPazYSalvo(Long idCasa) {
+    /**
+     * El certificado se renderiza directo a un archivo temporal, sin armarlo en memoria: el
+     * correo lo copia de ahí a sus adjuntos y la respuesta lo envía por partes y lo borra al
+     * terminar.
+     */
+    public ResponseEntity<StreamingResponseBody> generarPazYSalvo(Long idCasa) {
         if (!estaAlDia(idCasa)) {
             throw new ApiException(
                     "El propietario/arrendatario tiene deudas pendientes, " +
@@ -153,19 +154,8 @@ public class ObligacionService implements IObligacionService {
 
         String fechaEmision = fechaActual.format(formatoMostrar);
 
+        Path certificado = renderizarPazYSalvo(solicitante.getNombreCompleto(), idCasa, fechaEmision);
 
-        byte[] pdfBytes;
-
-        try {
-            pdfBytes = pdfService.generarPdf(
-                    solicitante.getNombreCompleto(),
-                    idCasa,
-                    fechaEmision
-            );
-
-        } catch (IOException e) {
-            throw new ApiException("Error al generar el PDF: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
         String nombreArchivo = "paz_y_salvo_" + solicitante.getPrimerNombre() + solicitante.getPrimerApellido()+".pdf";
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -176,13 +166,49 @@ public class ObligacionService implements IObligacionService {
         try {
             emailService.enviarPazYSalvo(
                     solicitante.getUser().getEmail(),
-                    pdfBytes,
+                    certificado,
                     nombreArchivo
             );
         } catch (MessagingException e) {
             log.error("Error al enviar correo de paz y salvo a {}: {}", solicitante.getUser().getEmail(), e.getMessage());
         }
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        try {
+            headers.setContentLength(Files.size(certificado));
+        } catch (IOException e) {
+            eliminar(certificado);
+            throw new ApiException("Error al generar el PDF: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return new ResponseEntity<>(out -> {
+            try {
+                Files.copy(certificado, out);
+            } finally {
+                eliminar(certificado);
+            }
+        }, headers, HttpStatus.OK);
+    }
+
+    private Path renderizarPazYSalvo(String nombreCompleto, Long idCasa, String fechaEmision) {
+        Path certificado = null;
+        try {
+            certificado = Files.createTempFile("paz-y-salvo-" + idCasa + "-", ".pdf");
+            try (OutputStream destino = Files.newOutputStream(certificado)) {
+                pdfService.generarPdf(nombreCompleto, idCasa, fechaEmision, destino);
+            }
+            return certificado;
+        } catch (IOException e) {
+            if (certificado != null) {
+                eliminar(certificado);
+            }
+            throw new ApiException("Error al generar el PDF: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void eliminar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el certificado temporal {}: {}", archivo, e.getMessage());
+        }
     }
 
     public SuccessResult<List<MultasPorCasaDTO>> obtenerCasasConMultas() {
@@ -214,60 +240,7 @@ public class ObligacionService implements IObligacionService {
 
     @Scheduled(cron = "0 0 0 1 * *", zone = "America/Bogota")
     public void generarObligacionesMensuales() {
-        LocalDate hoy = LocalDate.now();
-        String mes = hoy.getMonth().getDisplayName(TextStyle.FULL, Locale.of("es", "ES"));
-        int anio = hoy.getYear();
-
-        String titulo = String.format("Administración %s %d", mes, anio);
-        String motivo = String.format("Cobro correspondiente a la administración de %s %d", mes, anio);
-
-        CargoAdministracion cargoAdmin = cargoAdministracionRepository.findAll().iterator().next();
-        TasaDeInteres tasaInteres = tasaDeInteresRepository.findAll().iterator().next();
-
-        int montoAdmin = (int) cargoAdmin.getNuevoValor();
-        double interes = tasaInteres.getNuevoValor();
-
-        List<Persona> propietarios = personaRepository.findAllPropietariosConCasa();
-        List<Obligacion> obligaciones = new ArrayList<>();
-
-        for (Persona propietario : propietarios) {
-            Casa casa = propietario.getCasa();
-
-            Obligacion obligacion = Obligacion.builder()
-                    .fechaGenerada(hoy)
-                    .fechaLimite(hoy.plusDays(10))
-                    .monto(montoAdmin)
-                    .tasaInteres(interes)
-                    .motivo(motivo)
-                    .titulo(titulo)
-                    .tipoPago(TipoPago.DINERO)
-                    .tipoObligacion(TipoObligacion.ADMINISTRACION)
-                    .estadoPago(EstadoPago.PENDIENTE)
-                    .casa(casa)
-                    .build();
-
-            obligaciones.add(obligacion);
-        }
-
-        obligacionRepository.saveAll(obligaciones);
-
-        for (Persona propietario : propietarios) {
-            Casa casa = propietario.getCasa();
-
-            MostrarObligacionDTO dto = MostrarObligacionDTO.builder()
-                    .titulo(titulo)
-                    .motivo(motivo)
-                    .casa(casa.getNumeroCasa())
-                    .monto(montoAdmin)
-                    .fecha(hoy)
-                    .build();
-
-            try {
-                emailService.enviarObligacionMensual(propietario.getUser().getEmail(), dto);
-            } catch (MessagingException e) {
-                log.error("No se pudo enviar correo a {}: {}", propietario.getUser().getEmail(), e.getMessage());
-            }
-        }
+        facturacionMensualService.facturar(LocalDate.now(ZONE));
     }
 
 
@@ -293,18 +266,14 @@ public class ObligacionService implements IObligacionService {
         }
 
         List<Obligacion> todasObligaciones = obligacionRepository.findByCasaId(idCasa);
-
-        Long saldoPendienteTotal = todasObligaciones.stream()
-                .filter(o -> o.getEstadoPago() != EstadoPago.CONDONADO)
-                .mapToLong(Obligacion::getValorPendiente)
-                .sum();
+        SaldoCasa saldo = saldoCasaService.obtener(idCasa);
 
         EstadoCuentaDTO dto = EstadoCuentaDTO.builder()
                 .numeroCasa(casa.getNumeroCasa())
                 .propietario(propietarioDTO)
-                .saldoPendienteTotal(saldoPendienteTotal)
+                .saldoPendienteTotal(saldo.getSaldoPendiente())
                 .deudasActivas(todasObligaciones)
-                .ultimoPago(pagoService.obtenerFechaUltimoPagoPorCasa(idCasa).orElse(null))
+                .ultimoPago(saldo.getFechaUltimoPago())
                 .build();
         return new SuccessResult<>("Estado de cuenta obtenido correctamente", dto);
     }
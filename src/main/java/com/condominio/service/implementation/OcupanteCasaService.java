@@ -0,0 +1,85 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.OcupantesCasaDTO;
+import com.condominio.persistence.model.OcupanteCasa;
+import com.condominio.persistence.repository.OcupanteCasaRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene {@link OcupanteCasa} desde las escrituras: registrar o reemplazar un residente
+ * recalcula la fila de su casa, y al arrancar se crean las de las casas que aún no tienen.
+ * <p>
+ * Las búsquedas por casa de {@code PersonaRepository} se resuelven con {@link #obtener},
+ * un caché en memoria por casa: la tabla solo se lee la primera vez o después de que una
+ * escritura invalida la casa. El número de casas del conjunto acota el tamaño del mapa.
+ */
+@Service
+@RequiredArgsConstructor
+public class OcupanteCasaService {
+
+    private final OcupanteCasaRepository ocupanteCasaRepository;
+    private final Map<Long, OcupantesCasaDTO> cache = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(OcupanteCasaService.class);
+
+    /**
+     * Los ocupantes de la casa. Un fallo de caché solo lee: la fila si existe y, si no,
+     * el mismo cálculo desde persona y roles. La carga va dentro de {@code computeIfAbsent}
+     * para que una invalidación concurrente de la casa espere a que termine y no deje en
+     * el mapa lo leído antes del commit.
+     */
+    public OcupantesCasaDTO obtener(Long idCasa) {
+        return cache.computeIfAbsent(idCasa, this::cargar);
+    }
+
+    /** Recalcula la fila de la casa en la transacción actual e invalida su entrada al terminarla. */
+    public void actualizar(Long idCasa) {
+        ocupanteCasaRepository.recalcular(List.of(idCasa));
+        invalidar(idCasa);
+    }
+
+    /**
+     * Sin transacción se quita ya. Con transacción se quita cuando termina: tras el commit,
+     * para que nadie vuelva a cargar los ocupantes anteriores, y también tras un rollback,
+     * por si una lectura dentro de la misma transacción guardó lo que no se confirmó.
+     */
+    private void invalidar(Long idCasa) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.remove(idCasa);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.remove(idCasa);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarFaltantes() {
+        try {
+            int creadas = ocupanteCasaRepository.recalcularFaltantes();
+            if (creadas > 0) {
+                log.info("Ocupantes calculados para {} casas que no tenían fila en ocupante_casa", creadas);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudieron completar los ocupantes faltantes", e);
+        }
+    }
+
+    private OcupantesCasaDTO cargar(Long idCasa) {
+        return ocupanteCasaRepository.findOcupantes(idCasa)
+                .orElseGet(() -> ocupanteCasaRepository.calcularOcupantes(idCasa));
+    }
+}
@@ -28,6 +28,7 @@ public class PagoService implements IPagoService {
     private final ObligacionRepository obligacionRepository;
     private final ApplicationEventPublisher applicationEventPublisher;
     private final MovimientoRepository movimientoRepository;
+    private final SaldoCasaService saldoCasaService;
 
     @Override
     @Transactional
@@ -50,7 +51,7 @@ public class PagoService implements IPagoService {
                 throw new ApiException("El valor ingresado supera la deuda actual.", HttpStatus.BAD_REQUEST);
             }else if(pagoDTO.getMontoAPagar() == montoDeuda) {
                 obligacion.setEstadoPago(EstadoPago.CONDONADO);
-                obligacion.setMontoPagado(obligacion.getMonto());
+                obligacion.setMontoPagado(obligacion.getValorTotal());
                 obligacionDTO = realizarPago(pagoDTO, obligacion, casa);
                 applicationEventPublisher.publishEvent(new CreatedPagoEvent(propietario.getUser().getEmail(), obligacionDTO));
 
@@ -60,6 +61,7 @@ public class PagoService implements IPagoService {
                 obligacionDTO = realizarPago(pagoDTO, obligacion, casa);
                 applicationEventPublisher.publishEvent(new CreatedPagoEvent(propietario.getUser().getEmail(), obligacionDTO));
             }
+            saldoCasaService.recalcular(casa.getId());
         }
         return new SuccessResult<>("Pago realizado correctamente", obligacionDTO);
     }
@@ -0,0 +1,152 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.ResidenteCasaDTO;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.service.interfaces.IPdfService;
+import com.condominio.util.exception.ApiException;
+import jakarta.mail.MessagingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Paz y salvo de todas las casas al día en un ZIP que se escribe mientras se generan. Los
+ * certificados se renderizan en {@code pdfTaskExecutor} y se escriben en el orden de las
+ * casas; como mucho hay dos por hilo en curso, así la memoria no crece con el número de
+ * casas. Con {@code enviarCorreo} cada certificado se encola además en la bandeja de salida
+ * para el solicitante, como en la descarga individual.
+ */
+@Service
+public class PazYSalvoMasivoService {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final PersonaRepository personaRepository;
+    private final IPdfService pdfService;
+    private final CacheCertificadoService cacheCertificadoService;
+    private final EmailService emailService;
+    private final ThreadPoolTaskExecutor pdfTaskExecutor;
+    private static final Logger log = LoggerFactory.getLogger(PazYSalvoMasivoService.class);
+
+    public PazYSalvoMasivoService(PersonaRepository personaRepository, IPdfService pdfService,
+                                  CacheCertificadoService cacheCertificadoService, EmailService emailService,
+                                  @Qualifier("pdfTaskExecutor") ThreadPoolTaskExecutor pdfTaskExecutor) {
+        this.personaRepository = personaRepository;
+        this.pdfService = pdfService;
+        this.cacheCertificadoService = cacheCertificadoService;
+        this.emailService = emailService;
+        this.pdfTaskExecutor = pdfTaskExecutor;
+    }
+
+    public StreamingResponseBody generar(boolean enviarCorreo) {
+        List<ResidenteCasaDTO> solicitantes = solicitantesAlDia();
+        if (solicitantes.isEmpty()) {
+            throw new ApiException("No hay casas al día para generar paz y salvo", HttpStatus.BAD_REQUEST);
+        }
+        LocalDate fecha = LocalDate.now(ZONE);
+        return out -> escribirZip(out, solicitantes, fecha, enviarCorreo);
+    }
+
+    /** Un solicitante por casa: el arrendatario si lo hay, si no el propietario. */
+    private List<ResidenteCasaDTO> solicitantesAlDia() {
+        Map<Long, ResidenteCasaDTO> porCasa = new LinkedHashMap<>();
+        for (ResidenteCasaDTO residente : personaRepository.findSolicitantesDeCasasAlDia()) {
+            porCasa.merge(residente.getCasaId(), residente, (actual, otro) ->
+                    actual.getRol() != RoleEnum.ARRENDATARIO && otro.getRol() == RoleEnum.ARRENDATARIO ? otro : actual);
+        }
+        return new ArrayList<>(porCasa.values());
+    }
+
+    private void escribirZip(OutputStream out, List<ResidenteCasaDTO> solicitantes, LocalDate fecha,
+                             boolean enviarCorreo) throws IOException {
+        String fechaEmision = fecha.format(FORMATO_FECHA);
+        int enCursoMaximo = 2 * pdfTaskExecutor.getMaxPoolSize();
+        ArrayDeque<Certificado> enCurso = new ArrayDeque<>();
+        List<String> errores = new ArrayList<>();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Los PDF ya vienen comprimidos: comprimir más cuesta CPU y casi no reduce el tamaño.
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            for (ResidenteCasaDTO solicitante : solicitantes) {
+                if (enCurso.size() >= enCursoMaximo) {
+                    escribir(zip, enCurso.poll(), enviarCorreo, errores);
+                }
+                enCurso.add(new Certificado(solicitante, CompletableFuture.supplyAsync(
+                        () -> generarPdf(solicitante, fecha, fechaEmision), pdfTaskExecutor)));
+            }
+            while (!enCurso.isEmpty()) {
+                escribir(zip, enCurso.poll(), enviarCorreo, errores);
+            }
+            if (!errores.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errores.txt"));
+                zip.write(String.join("\n", errores).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            log.info("Paz y salvo masivo: {} certificados, {} con error", solicitantes.size() - errores.size(), errores.size());
+        } finally {
+            enCurso.forEach(certificado -> certificado.pdf().cancel(true));
+        }
+    }
+
+    private byte[] generarPdf(ResidenteCasaDTO solicitante, LocalDate fecha, String fechaEmision) {
+        try {
+            return cacheCertificadoService.obtener(solicitante.getCasaId(), fecha, solicitante.getNombreCompleto(),
+                    () -> pdfService.generarPdf(solicitante.getNombreCompleto(), solicitante.getCasaId(), fechaEmision));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escribir(ZipOutputStream zip, Certificado certificado, boolean enviarCorreo,
+                          List<String> errores) throws IOException {
+        ResidenteCasaDTO solicitante = certificado.solicitante();
+        byte[] pdf;
+        try {
+            pdf = certificado.pdf().join();
+        } catch (CompletionException e) {
+            log.error("No se pudo generar el paz y salvo de la casa {}", solicitante.getCasaId(), e.getCause());
+            errores.add("Casa " + solicitante.getCasaId() + ": " + e.getCause().getMessage());
+            return;
+        }
+        String nombreArchivo = "paz_y_salvo_casa_" + solicitante.getCasaId() + ".pdf";
+        zip.putNextEntry(new ZipEntry(nombreArchivo));
+        zip.write(pdf);
+        zip.closeEntry();
+
+        if (enviarCorreo) {
+            try {
+                emailService.enviarPazYSalvo(solicitante.getCorreo(), pdf, nombreArchivo);
+            } catch (MessagingException e) {
+                log.error("Error al encolar el paz y salvo de la casa {}: {}", solicitante.getCasaId(), e.getMessage());
+            }
+        }
+    }
+
+    private record Certificado(ResidenteCasaDTO solicitante, CompletableFuture<byte[]> pdf) {
+    }
+}
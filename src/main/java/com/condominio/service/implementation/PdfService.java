@@ -1,83 +1,144 @@
 package com.condominio.service.implementation;
 
 import com.condominio.service.interfaces.IPdfService;
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Base64;
-
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PDF del condominio: paz y salvo y estados de cuenta. Lo que no cambia entre documentos se prepara una vez:
+ * el logo se lee del classpath al crear el servicio y el renderizador lo pide por
+ * {@code recurso:}, sin pasarlo a Base64 ni meterlo en el HTML; las variables fijas de la
+ * plantilla se arman una sola vez. Al arrancar se genera un certificado de prueba para que
+ * la primera solicitud no pague la carga de clases, métricas de fuentes y hoja de estilos
+ * por defecto de openhtmltopdf y PDFBox.
+ */
 @Service
 public class PdfService implements IPdfService {
 
+    private static final String PROTOCOLO_RECURSOS = "recurso";
+    private static final String LOGO = "static/images/logo.png";
+
     private final SpringTemplateEngine templateEngine;
+    private final Map<String, byte[]> recursos = new HashMap<>();
+    private final Map<String, Object> variablesComunes = new HashMap<>();
+    private final FSStreamFactory fabricaRecursos = this::abrirRecurso;
+    private static final Logger log = LoggerFactory.getLogger(PdfService.class);
 
     public PdfService(SpringTemplateEngine templateEngine) {
         this.templateEngine = templateEngine;
+
+        byte[] logo = leerRecurso(LOGO);
+        if (logo != null) {
+            recursos.put("logo.png", logo);
+            variablesComunes.put("logoPresent", true);
+            variablesComunes.put("logoSrc", PROTOCOLO_RECURSOS + ":logo.png");
+        } else {
+            variablesComunes.put("logoPresent", false);
+        }
+        variablesComunes.put("estado", "al_dia");
+        variablesComunes.put("condominioNombre", "Condominio Flor del  campo");
+        variablesComunes.put("firmaPresent", false);
+        variablesComunes.put("firmaNombre", "Administración Condominio");
     }
 
     public byte[] generarPdf(String nombreCompleto, Long idCasa, String fechaEmision) throws IOException {
-        Context context = new Context();
-
-
-        context.setVariable("nombre", nombreCompleto);
-
-
-        String casaTexto = "Casa " + idCasa;
-        context.setVariable("casa", casaTexto);
-
-
-        context.setVariable("fecha", fechaEmision);
-
-
-        context.setVariable("estado", "al_dia");
-
-
-        context.setVariable("condominioNombre", "Condominio Flor del  campo");
-
-        String logoBase64 = convertirLogoABase64("static/images/logo.png");
-
-        if (logoBase64 != null) {
-            context.setVariable("logoPresent", true);
-            context.setVariable("logoBase64", logoBase64);
-        } else {
-            context.setVariable("logoPresent", false);
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            generarPdf(nombreCompleto, idCasa, fechaEmision, os);
+            return os.toByteArray();
         }
+    }
 
-        context.setVariable("firmaPresent", false);
-        context.setVariable("firmaNombre", "Administración Condominio");
+    public void generarPdf(String nombreCompleto, Long idCasa, String fechaEmision, OutputStream destino) throws IOException {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("nombre", nombreCompleto);
+        variables.put("casa", "Casa " + idCasa);
+        variables.put("fecha", fechaEmision);
+        renderizar("UpToDatePDF/uptodate", variables, destino);
+    }
 
+    /**
+     * Renderiza cualquier plantilla de PDF con el logo ({@code logoPresent}, {@code logoSrc})
+     * y el nombre del condominio ({@code condominioNombre}) ya disponibles.
+     */
+    public void renderizar(String plantilla, Map<String, Object> variables, OutputStream destino) throws IOException {
+        Context context = new Context();
+        context.setVariables(variablesComunes);
+        context.setVariables(variables);
 
         final String html;
         try {
-            html = templateEngine.process("UpToDatePDF/uptodate", context);
+            html = templateEngine.process(plantilla, context);
         } catch (Exception e) {
 
             throw new IOException("Error procesando la plantilla Thymeleaf: " + e.getMessage(), e);
         }
 
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+        try {
             PdfRendererBuilder builder = new PdfRendererBuilder();
             builder.useFastMode();
+            builder.useProtocolsStreamImplementation(fabricaRecursos, PROTOCOLO_RECURSOS);
             builder.withHtmlContent(html, null);
-            builder.toStream(os);
+            builder.toStream(destino);
             builder.run();
-            return os.toByteArray();
         } catch (Exception ex) {
             throw new IOException("Error generando PDF: " + ex.getMessage(), ex);
         }
     }
 
-    private String convertirLogoABase64(String rutaRelativa) {
+    @EventListener(ApplicationReadyEvent.class)
+    public void precalentar() {
+        long inicio = System.nanoTime();
+        try {
+            generarPdf("Precalentamiento", 0L, "01/01/2000", OutputStream.nullOutputStream());
+            log.info("Generador de PDF listo en {} ms", (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("No se pudo precalentar el generador de PDF: {}", e.getMessage());
+        }
+    }
+
+    /** Solo se piden recursos precargados; cualquier otra dirección {@code recurso:} no existe. */
+    private FSStream abrirRecurso(String uri) {
+        byte[] datos = recursos.get(uri.substring(PROTOCOLO_RECURSOS.length() + 1));
+        if (datos == null) {
+            return null;
+        }
+        return new FSStream() {
+            @Override
+            public InputStream getStream() {
+                return new ByteArrayInputStream(datos);
+            }
+
+            @Override
+            public Reader getReader() {
+                return new InputStreamReader(getStream(), StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    private byte[] leerRecurso(String rutaRelativa) {
         try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(rutaRelativa)) {
             if (inputStream == null) return null;
 
-            byte[] bytes = inputStream.readAllBytes();
-            return Base64.getEncoder().encodeToString(bytes);
+            return inputStream.readAllBytes();
         } catch (IOException e) {
             return null;
         }
@@ -39,6 +39,8 @@ public class PersonaService implements IPersonaService {
     private final MascotaRepository mascotaRepository ;
     private final MiembroService miembroService;
     private final MiembroRepository miembroRepository;
+    private final OcupanteCasaService ocupanteCasaService;
+    private final InvalidacionTokenService invalidacionTokenService;
 
     public PersonaService(IUserService userService,
                           PersonaRepository personaRepository,
@@ -47,7 +49,9 @@ public class PersonaService implements IPersonaService {
                           ApplicationEventPublisher applicationEventPublisher,
                           UserRepository userRepository, MascotaRepository mascotaRepository, MiembroService miembroService,
 
-                          MiembroRepository miembroRepository) {
+                          MiembroRepository miembroRepository,
+                          OcupanteCasaService ocupanteCasaService,
+                          InvalidacionTokenService invalidacionTokenService) {
         this.userService = userService;
         this.personaRepository = personaRepository;
         this.casaService = casaService;
@@ -57,6 +61,8 @@ public class PersonaService implements IPersonaService {
         this.mascotaRepository = mascotaRepository;
         this.miembroService = miembroService;
         this.miembroRepository = miembroRepository;
+        this.ocupanteCasaService = ocupanteCasaService;
+        this.invalidacionTokenService = invalidacionTokenService;
     }
 
     @Override
@@ -83,6 +89,7 @@ public class PersonaService implements IPersonaService {
                     mascotaRepository.deleteAllByCasa(propietarioAntiguo.getCasa());
                     miembroRepository.deleteAllByCasa(propietarioAntiguo.getCasa());
                     propietarioAntiguo.getUser().setEnabled(false);
+                    invalidacionTokenService.invalidar(propietarioAntiguo.getUser().getEmail());
                     propietarioAntiguo.setCasa(null);
                     personaRepository.save(propietarioAntiguo);
                     Persona savedPersona = registrarPersona(persona);
@@ -200,6 +207,7 @@ public class PersonaService implements IPersonaService {
         newPersona.setJunta(false);
         newPersona.setCasa(findCasa);
         Persona savedPersona = personaRepository.save(newPersona);
+        ocupanteCasaService.actualizar(persona.getIdCasa());
         applicationEventPublisher.publishEvent(new CreatedPersonaEvent(savedPersona));
         return savedPersona;
     }
@@ -0,0 +1,131 @@
+package com.condominio.service.implementation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.*;
+
+/**
+ * Renderizado de plantillas de correo para envíos masivos. Thymeleaf ya guarda en caché las
+ * plantillas parseadas; aquí se evita además volver a recorrerlas:
+ * <ul>
+ *     <li>{@link #renderizar} recuerda el HTML de las últimas combinaciones de variables.</li>
+ *     <li>{@link #compartir} renderiza una vez con marcadores en lugar de los campos que cambian
+ *     por destinatario, y {@link PlantillaCompartida#para} solo los sustituye.</li>
+ * </ul>
+ * No se debe usar con plantillas que llevan contraseñas u otros datos que no deban quedar en memoria.
+ */
+@Service
+public class PlantillaCorreoService {
+
+    private final TemplateEngine templateEngine;
+    private final Map<ClaveRenderizado, String> renderizadas;
+
+    public PlantillaCorreoService(TemplateEngine templateEngine,
+                                  @Value("${correo.plantillas.max-renderizadas:256}") int maxRenderizadas) {
+        this.templateEngine = templateEngine;
+        this.renderizadas = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClaveRenderizado, String> eldest) {
+                return size() > maxRenderizadas;
+            }
+        });
+    }
+
+    public String renderizar(String plantilla, Map<String, Object> variables) {
+        ClaveRenderizado clave = new ClaveRenderizado(plantilla, Collections.unmodifiableMap(new HashMap<>(variables)));
+        String html = renderizadas.get(clave);
+        if (html == null) {
+            html = procesar(plantilla, variables);
+            renderizadas.put(clave, html);
+        }
+        return html;
+    }
+
+    /**
+     * Prepara un cuerpo compartido. Las variables de {@code porDestinatario} solo pueden
+     * aparecer como texto ({@code th:text}); si la plantilla las formatea o las compara, el
+     * marcador no sirve y hay que usar {@link #renderizar}.
+     */
+    public PlantillaCompartida compartir(String plantilla, Map<String, Object> comunes, Set<String> porDestinatario) {
+        Map<String, String> marcadores = new HashMap<>();
+        porDestinatario.forEach(variable -> marcadores.put("#" + UUID.randomUUID() + "#", variable));
+
+        Map<String, Object> variables = new HashMap<>(comunes);
+        marcadores.forEach((marcador, variable) -> variables.put(variable, marcador));
+        String html = procesar(plantilla, variables);
+
+        List<String> literales = new ArrayList<>();
+        List<String> huecos = new ArrayList<>();
+        int desde = 0;
+        while (true) {
+            int siguiente = -1;
+            String marcador = null;
+            for (String candidato : marcadores.keySet()) {
+                int posicion = html.indexOf(candidato, desde);
+                if (posicion >= 0 && (siguiente < 0 || posicion < siguiente)) {
+                    siguiente = posicion;
+                    marcador = candidato;
+                }
+            }
+            if (marcador == null) {
+                break;
+            }
+            literales.add(html.substring(desde, siguiente));
+            huecos.add(marcadores.get(marcador));
+            desde = siguiente + marcador.length();
+        }
+        literales.add(html.substring(desde));
+        return new PlantillaCompartida(literales, huecos);
+    }
+
+    private String procesar(String plantilla, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        return templateEngine.process(plantilla, context);
+    }
+
+    record ClaveRenderizado(String plantilla, Map<String, Object> variables) {
+    }
+
+    /** Cuerpo ya renderizado con huecos para los campos de cada destinatario. */
+    public static final class PlantillaCompartida {
+        private final List<String> literales;
+        private final List<String> huecos;
+        private final int largoBase;
+
+        private PlantillaCompartida(List<String> literales, List<String> huecos) {
+            this.literales = List.copyOf(literales);
+            this.huecos = List.copyOf(huecos);
+            this.largoBase = literales.stream().mapToInt(String::length).sum();
+        }
+
+        /** El mismo HTML que daría Thymeleaf con esos valores: se escapan como lo hace {@code th:text}. */
+        public String para(Map<String, ?> valores) {
+            StringBuilder html = new StringBuilder(largoBase + 32 * huecos.size());
+            for (int i = 0; i < huecos.size(); i++) {
+                html.append(literales.get(i));
+                Object valor = valores.get(huecos.get(i));
+                if (valor != null) {
+                    escapar(String.valueOf(valor), html);
+                }
+            }
+            return html.append(literales.get(huecos.size())).toString();
+        }
+
+        private static void escapar(String texto, StringBuilder destino) {
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '&' -> destino.append("&amp;");
+                    case '<' -> destino.append("&lt;");
+                    case '>' -> destino.append("&gt;");
+                    case '"' -> destino.append("&quot;");
+                    default -> destino.append(c);
+                }
+            }
+        }
+    }
+}
@@ -1,24 +1,26 @@
 package com.condominio.service.implementation;
 
 import com.condominio.dto.request.PqrsUpdateDTO;
+import com.condominio.dto.response.PersonaSimpleDTO;
 import com.condominio.dto.response.PqrsDTO;
 import com.condominio.dto.response.PqrsPropiDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.model.PqrsEntity;
 import com.condominio.persistence.repository.PqrsRepository;
-import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.service.interfaces.IPqrsService;
 import com.condominio.util.exception.ApiException;
 import com.condominio.util.helper.PersonaHelper;
+import com.condominio.util.security.ResidenteActual;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +29,7 @@ public class PqrsService implements IPqrsService {
     private final PqrsRepository pqrsRepository;
     private final ModelMapper modelMapper;
     private final PersonaHelper personaHelper;
-    private final PersonaRepository personaRepository;
+    private final ResidenteActual residenteActual;
 
 
     @Override
@@ -39,13 +41,12 @@ public class PqrsService implements IPqrsService {
             throw new ApiException("No hay PQRS con estado: " + estado, HttpStatus.OK);
         }
 
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(
+                listaPqrs.stream().map(pqrsEntity -> pqrsEntity.getCasa().getId()).collect(Collectors.toSet()));
+
         List<PqrsDTO> dtos = listaPqrs.stream().map(pqrsEntity -> {
             PqrsDTO dto = modelMapper.map(pqrsEntity, PqrsDTO.class);
-
-            Long casaId = pqrsEntity.getCasa().getId();
-            Persona solicitante = personaHelper.obtenerSolicitantePorCasa(casaId);
-            dto.setSolicitante(personaHelper.toPersonaSimpleDTO(solicitante));
-
+            dto.setSolicitante(solicitantes.get(pqrsEntity.getCasa().getId()));
             return dto;
         }).toList();
 
@@ -112,9 +113,7 @@ public class PqrsService implements IPqrsService {
     @Override
     public SuccessResult<PqrsPropiDTO> crearPqrs(PqrsPropiDTO pqrs) {
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        Persona solicitante = personaRepository.findByUserEmail(username)
-                .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        Long casaId = residenteActual.getIdCasa();
 
         PqrsEntity pqrsEntity = PqrsEntity.builder()
                 .estadoPqrs(EstadoPqrs.PENDIENTE)
@@ -122,7 +121,7 @@ public class PqrsService implements IPqrsService {
                 .tipoPqrs(pqrs.getTipoPqrs())
                 .titulo(pqrs.getTitulo())
                 .descripcion(pqrs.getDescripcion())
-                .casa(solicitante.getCasa())
+                .casa(casaId != null ? Casa.builder().id(casaId).build() : null)
                 .build();
         pqrsRepository.save(pqrsEntity);
 
@@ -147,15 +146,12 @@ public class PqrsService implements IPqrsService {
     }
 
     public PqrsEntity verificarUsuarioAndPqrs(Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        Persona persona = personaRepository.findByUserEmail(username)
-                .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        Long casaUsuarioId = residenteActual.getIdCasa();
 
         PqrsEntity pqrsEntity = pqrsRepository.findById(id)
                 .orElseThrow(() -> new ApiException("No se ha encontrado la PQRS", HttpStatus.NOT_FOUND));
 
         Long casaPqrsId = pqrsEntity.getCasa() != null ? pqrsEntity.getCasa().getId() : null;
-        Long casaUsuarioId = persona.getCasa() != null ? persona.getCasa().getId() : null;
 
         if (casaUsuarioId == null || !casaUsuarioId.equals(casaPqrsId)) {
             throw new ApiException("No autorizado para modificar esta PQRS", HttpStatus.FORBIDDEN);
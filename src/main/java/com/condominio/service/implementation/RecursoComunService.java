@@ -23,6 +23,7 @@ public class RecursoComunService implements IRecursoComunService {
 
     private final RecursoComunRepository recursoComunRepository;
     private final ModelMapper modelMapper;
+    private final DisponibilidadReservaService disponibilidadReservaService;
 
 
     @Override
@@ -50,6 +51,7 @@ public class RecursoComunService implements IRecursoComunService {
 
         RecursoComun newRecurso = modelMapper.map(recurso, RecursoComun.class);
         recursoComunRepository.save(newRecurso);
+        disponibilidadReservaService.invalidar(newRecurso.getId());
 
         return new SuccessResult<>("Recurso registrado correctamente", newRecurso);
     }
@@ -81,6 +83,7 @@ public class RecursoComunService implements IRecursoComunService {
         oldRecurso.setDisponibilidadRecurso(recurso.getDisponibilidadRecurso());
 
         RecursoComun actualizado = recursoComunRepository.save(oldRecurso);
+        disponibilidadReservaService.invalidar(id);
 
         return new SuccessResult<>("Recurso modificado exitosamente", actualizado);
     }
@@ -101,6 +104,7 @@ public class RecursoComunService implements IRecursoComunService {
 
         recurso.setDisponibilidadRecurso(nuevoEstado);
         RecursoComun actualizado = recursoComunRepository.save(recurso);
+        disponibilidadReservaService.invalidar(id);
 
         String mensajeExito = switch (nuevoEstado) {
             case DISPONIBLE -> "Recurso habilitado exitosamente";
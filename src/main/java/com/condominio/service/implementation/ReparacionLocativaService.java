@@ -1,7 +1,7 @@
 package com.condominio.service.implementation;
 
+import com.condominio.dto.response.PersonaSimpleDTO;
 import com.condominio.dto.response.ReparacionLocativaDTO;
-import com.condominio.persistence.model.Persona;
 import com.condominio.persistence.model.ReparacionLocativa;
 import com.condominio.persistence.repository.ReparacionLocativaRepository;
 import com.condominio.service.interfaces.IReparacionLocativaService;
@@ -13,6 +13,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,20 +29,23 @@ public class ReparacionLocativaService implements IReparacionLocativaService {
     @Override
     public List<ReparacionLocativaDTO> findAll() {
         List<ReparacionLocativa> reparaciones = reparacionLocativaRepository.findAll();
+        if (reparaciones.isEmpty()) {
+            throw new ApiException("No hay reparaciones registradas", HttpStatus.NOT_FOUND);
+        }
+
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(reparaciones.stream()
+                .map(reparacion -> reparacion.getSolicitudReparacionLocativa().getCasa().getId())
+                .collect(Collectors.toSet()));
+
         List<ReparacionLocativaDTO> dtos = reparaciones.stream().map(reparacion -> {
             ReparacionLocativaDTO dto = modelMapper.map(reparacion, ReparacionLocativaDTO.class);
 
             Long casaId = reparacion.getSolicitudReparacionLocativa().getCasa().getId();
-            Persona solicitante = personaHelper.obtenerSolicitantePorCasa(casaId);
-
-            dto.getSolicitudReparacionLocativa().setSolicitante(personaHelper.toPersonaSimpleDTO(solicitante));
+            dto.getSolicitudReparacionLocativa().setSolicitante(solicitantes.get(casaId));
 
             return dto;
         }).toList();
 
-        if (reparaciones.isEmpty()) {
-            throw new ApiException("No hay reparaciones registradas", HttpStatus.NOT_FOUND);
-        }
         return dtos;
     }
 }
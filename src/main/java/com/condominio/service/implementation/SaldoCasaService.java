@@ -0,0 +1,123 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.DiferenciaSaldoDTO;
+import com.condominio.dto.response.ReconstruccionSaldosDTO;
+import com.condominio.dto.response.SuccessResult;
+import com.condominio.persistence.model.SaldoCasa;
+import com.condominio.persistence.repository.SaldoCasaRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+@Service
+@RequiredArgsConstructor
+public class SaldoCasaService {
+
+    private final SaldoCasaRepository saldoCasaRepository;
+    private final CacheCertificadoService cacheCertificadoService;
+    private static final Logger log = LoggerFactory.getLogger(SaldoCasaService.class);
+
+    /** Lectura por llave primaria; si la casa aún no tiene fila se calcula en ese momento. */
+    @Transactional
+    public SaldoCasa obtener(Long idCasa) {
+        return saldoCasaRepository.findById(idCasa).orElseGet(() -> {
+            recalcular(List.of(idCasa));
+            return saldoCasaRepository.findById(idCasa)
+                    .orElseGet(() -> SaldoCasa.builder().casaId(idCasa).build());
+        });
+    }
+
+    /** Los saldos de esas casas; las que aún no tienen fila se calculan en ese momento, como en {@link #obtener}. */
+    @Transactional
+    public Map<Long, SaldoCasa> obtenerTodos(Collection<Long> casaIds) {
+        Map<Long, SaldoCasa> saldos = saldoCasaRepository.findAll().stream()
+                .collect(Collectors.toMap(SaldoCasa::getCasaId, Function.identity()));
+        List<Long> faltantes = casaIds.stream().filter(id -> !saldos.containsKey(id)).toList();
+        if (!faltantes.isEmpty()) {
+            recalcular(faltantes);
+            saldoCasaRepository.findAllById(faltantes).forEach(saldo -> saldos.put(saldo.getCasaId(), saldo));
+        }
+        return saldos;
+    }
+
+    /**
+     * Al arrancar crea la fila de las casas que no tienen saldo, p. ej. la primera vez que se
+     * despliega con la tabla saldo_casa vacía. De las demás solo se revisa el estado
+     * financiero, por si se guardó con una regla anterior.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarFaltantes() {
+        try {
+            int creadas = saldoCasaRepository.recalcularFaltantes(LocalDate.now(ZONE));
+            if (creadas > 0) {
+                log.info("Saldos calculados para {} casas que no tenían fila en saldo_casa", creadas);
+            }
+            saldoCasaRepository.actualizarEstados();
+        } catch (RuntimeException e) {
+            log.error("No se pudieron completar los saldos faltantes", e);
+        }
+    }
+
+    public void recalcular(Long idCasa) {
+        recalcular(List.of(idCasa));
+    }
+
+    /** Se llama con cada obligación o pago que cambia lo que debe la casa. */
+    public void recalcular(Collection<Long> casaIds) {
+        if (!casaIds.isEmpty()) {
+            saldoCasaRepository.recalcular(casaIds, LocalDate.now(ZONE));
+            cacheCertificadoService.invalidar(casaIds);
+        }
+    }
+
+    @Transactional
+    public SuccessResult<ReconstruccionSaldosDTO> reconstruir() {
+        Map<Long, SaldoCasa> anteriores = saldoCasaRepository.findAll().stream()
+                .map(s -> SaldoCasa.builder()
+                        .casaId(s.getCasaId())
+                        .saldoPendiente(s.getSaldoPendiente())
+                        .saldoVencido(s.getSaldoVencido())
+                        .build())
+                .collect(Collectors.toMap(SaldoCasa::getCasaId, Function.identity()));
+
+        saldoCasaRepository.recalcularTodas(LocalDate.now(ZONE));
+        List<SaldoCasa> nuevos = saldoCasaRepository.findAll();
+
+        List<DiferenciaSaldoDTO> diferencias = new ArrayList<>();
+        for (SaldoCasa nuevo : nuevos) {
+            SaldoCasa anterior = anteriores.get(nuevo.getCasaId());
+            if (anterior == null
+                    || anterior.getSaldoPendiente() != nuevo.getSaldoPendiente()
+                    || anterior.getSaldoVencido() != nuevo.getSaldoVencido()) {
+                diferencias.add(DiferenciaSaldoDTO.builder()
+                        .casaId(nuevo.getCasaId())
+                        .saldoPendienteAnterior(anterior != null ? anterior.getSaldoPendiente() : null)
+                        .saldoPendienteCalculado(nuevo.getSaldoPendiente())
+                        .saldoVencidoAnterior(anterior != null ? anterior.getSaldoVencido() : null)
+                        .saldoVencidoCalculado(nuevo.getSaldoVencido())
+                        .build());
+            }
+        }
+        if (!diferencias.isEmpty()) {
+            log.warn("Reconstrucción de saldos: {} casas tenían un saldo distinto al calculado", diferencias.size());
+        }
+
+        ReconstruccionSaldosDTO dto = ReconstruccionSaldosDTO.builder()
+                .casasRecalculadas(nuevos.size())
+                .casasConDiferencias(diferencias.size())
+                .diferencias(diferencias)
+                .build();
+        return new SuccessResult<>("Saldos reconstruidos correctamente", dto);
+    }
+}
@@ -1,9 +1,9 @@
 package com.condominio.service.implementation;
 
 import com.condominio.dto.request.SolicitudReparacionUpdateDTO;
+import com.condominio.dto.response.PersonaSimpleDTO;
 import com.condominio.dto.response.SolicitudReparacionPropiDTO;
 import com.condominio.persistence.model.*;
-import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.persistence.repository.ReparacionLocativaRepository;
 import com.condominio.util.helper.PersonaHelper;
 import com.condominio.dto.response.SolicitudReparacionLocativaDTO;
@@ -11,14 +11,16 @@ import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.repository.SolicitudReparacionLocativaRepository;
 import com.condominio.service.interfaces.ISolicitudReparacionLocativaService;
 import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.ResidenteActual;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,7 +31,7 @@ public class SolicitudReparacionLocativaService implements ISolicitudReparacionL
     private final ModelMapper modelMapper;
     private final PersonaHelper personaHelper;
     private final ReparacionLocativaRepository reparacionLocativaRepository;
-    private final PersonaRepository personaRepository;
+    private final ResidenteActual residenteActual;
 
     @Override
     public SuccessResult<List<SolicitudReparacionLocativaDTO>> findByEstado(EstadoSolicitud estado) {
@@ -40,13 +42,12 @@ public class SolicitudReparacionLocativaService implements ISolicitudReparacionL
             throw new ApiException("No hay solicitudes con estado: " + estado, HttpStatus.OK);
         }
 
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(
+                solicitudes.stream().map(solicitud -> solicitud.getCasa().getId()).collect(Collectors.toSet()));
+
         List<SolicitudReparacionLocativaDTO> dtos = solicitudes.stream().map(solicitud -> {
             SolicitudReparacionLocativaDTO dto = modelMapper.map(solicitud, SolicitudReparacionLocativaDTO.class);
-
-            Long casaId = solicitud.getCasa().getId();
-            Persona solicitante = personaHelper.obtenerSolicitantePorCasa(casaId);
-            dto.setSolicitante(personaHelper.toPersonaSimpleDTO(solicitante));
-
+            dto.setSolicitante(solicitantes.get(solicitud.getCasa().getId()));
             return dto;
         }).toList();
 
@@ -133,10 +134,7 @@ public class SolicitudReparacionLocativaService implements ISolicitudReparacionL
     @Override
     public SuccessResult<SolicitudReparacionPropiDTO> crearSolicitud(SolicitudReparacionPropiDTO soliDTO) {
 
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-
-        Persona solicitante = personaRepository.findByUserEmail(username)
-                .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        Long casaId = residenteActual.getIdCasa();
 
         if(soliDTO.getInicioObra().isBefore(LocalDate.now())) {
             throw new ApiException("La fecha de inicio de la obra debe ser posterior a la fecha actual", HttpStatus.BAD_REQUEST);
@@ -155,7 +153,7 @@ public class SolicitudReparacionLocativaService implements ISolicitudReparacionL
                 .finObra(soliDTO.getFinObra())
                 .tipoObra(soliDTO.getTipoObra())
                 .tipoObraDetalle(soliDTO.getTipoObraDetalle())
-                .casa(solicitante.getCasa())
+                .casa(casaId != null ? Casa.builder().id(casaId).build() : null)
                 .build();
         solicitudReparacionLocativaRepository.save(soliReparacion);
 
@@ -205,15 +203,12 @@ public class SolicitudReparacionLocativaService implements ISolicitudReparacionL
     }
 
     public SolicitudReparacionLocativa verificarUsuarioAndSoli(Long id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        Persona persona = personaRepository.findByUserEmail(username)
-                .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        Long casaUsuarioId = residenteActual.getIdCasa();
 
         SolicitudReparacionLocativa solicitud = solicitudReparacionLocativaRepository.findById(id)
                 .orElseThrow(() -> new ApiException(SOLICITUD_NOT_FOUND, HttpStatus.NOT_FOUND));
 
         Long casaSolicitudId = solicitud.getCasa() != null ? solicitud.getCasa().getId() : null;
-        Long casaUsuarioId = persona.getCasa() != null ? persona.getCasa().getId() : null;
 
         if (casaUsuarioId == null || !casaUsuarioId.equals(casaSolicitudId)) {
             throw new ApiException("No autorizado para modificar esta solicitud", HttpStatus.FORBIDDEN);
@@ -15,10 +15,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 @Service
@@ -33,6 +34,8 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
     private final ReservaRepository reservaRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final PersonaHelper personaHelper;
+    private final AgendaRecursoService agendaRecursoService;
+    private final DisponibilidadReservaService disponibilidadReservaService;
 
 
     public  SuccessResult<List<SolicitudReservaRecursoDTO>> findByEstado(EstadoSolicitud estado){
@@ -44,23 +47,12 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
             throw new ApiException("No hay solicitudes con estado: " + estado, HttpStatus.OK);
         }
 
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(
+                solicitudes.stream().map(solicitud -> solicitud.getCasa().getId()).collect(Collectors.toSet()));
+
         List<SolicitudReservaRecursoDTO> dtos = solicitudes.stream().map(solicitud -> {
             SolicitudReservaRecursoDTO dto = modelMapper.map(solicitud, SolicitudReservaRecursoDTO.class);
-
-            Long casaId = solicitud.getCasa().getId();
-            Persona solicitante = personaRepository.findArrendatarioByCasaId(casaId)
-                    .orElseGet(() -> personaRepository.findPropietarioByCasaId(casaId)
-                            .orElseThrow(() -> new ApiException(
-                                    "No se encontro un solicitante (arrendatario o propietario) para la casa con ID " + casaId,
-                                    HttpStatus.BAD_REQUEST
-                            )));
-
-            dto.setSolicitante(PersonaSimpleDTO.builder()
-                    .nombreCompleto(solicitante.getNombreCompleto())
-                    .telefono(solicitante.getTelefono())
-                    .correo(solicitante.getUser().getEmail())
-                    .build());
-
+            dto.setSolicitante(solicitantes.get(solicitud.getCasa().getId()));
             return dto;
         }).toList();
 
@@ -75,6 +67,7 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
 
         solicitud.setEstadoSolicitud(EstadoSolicitud.APROBADA);
         SolicitudReservaRecurso aprobada = solicitudReservaRecursoRepository.save(solicitud);
+        invalidarDisponibilidad(solicitud);
         SolicitudReservaRecursoDTO soliDTO = modelMapper.map(aprobada, SolicitudReservaRecursoDTO.class);
         soliDTO.setSolicitante(personaHelper.toPersonaSimpleDTO(solicitante));
         Reserva reserva = Reserva.builder()
@@ -95,6 +88,8 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
 
         solicitud.setEstadoSolicitud(EstadoSolicitud.RECHAZADA);
         SolicitudReservaRecurso rechazada = solicitudReservaRecursoRepository.save(solicitud);
+        agendaRecursoService.liberar(solicitud);
+        invalidarDisponibilidad(solicitud);
         SolicitudReservaRecursoDTO soliDTO = modelMapper.map(rechazada, SolicitudReservaRecursoDTO.class);
         soliDTO.setSolicitante(personaHelper.toPersonaSimpleDTO(solicitante));
 
@@ -108,6 +103,8 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
                 .orElseThrow(() -> new ApiException(SOLICITUD_NOT_FOUND, HttpStatus.NOT_FOUND));
 
         solicitudReservaRecursoRepository.delete(solicitud);
+        agendaRecursoService.liberar(solicitud);
+        invalidarDisponibilidad(solicitud);
         return new SuccessResult<>("Reserva cancelada exitosamente", modelMapper.map(solicitud, SolicitudReservaRecursoDTO.class));
     }
 
@@ -116,27 +113,21 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
         SolicitudReservaRecurso oldSolicitud = solicitudReservaRecursoRepository.findById(id)
                 .orElseThrow(() -> new ApiException(SOLICITUD_NOT_FOUND, HttpStatus.NOT_FOUND));
 
-        RecursoComun recursoComun = oldSolicitud.getRecursoComun();
-
         if(solicitud.getFechaSolicitud().isBefore(LocalDate.now())) {
             throw new ApiException("Por favor, ingresa una fecha y hora validas", HttpStatus.BAD_REQUEST);
         }
 
-        LocalTime nuevaHoraInicio = solicitud.getHoraInicio();
-        LocalTime nuevaHoraFin = solicitud.getHoraFin();
-
-        boolean hayConflicto = validarFechaSolicitud(recursoComun, solicitud.getFechaSolicitud(), nuevaHoraInicio, nuevaHoraFin, id);
-
-        if (hayConflicto) {
-            throw new ApiException("El recurso ya tiene una solicitud en el horario solicitado.", HttpStatus.BAD_REQUEST);
-        }
+        SolicitudReservaRecurso anterior = copiarHorario(oldSolicitud);
+        AgendaRecursoService.Ocupacion ocupacion = agendaRecursoService
+                .mover(oldSolicitud, solicitud.getFechaSolicitud(), solicitud.getHoraInicio(), solicitud.getHoraFin())
+                .orElseThrow(() -> new ApiException("El recurso ya tiene una solicitud en el horario solicitado.", HttpStatus.BAD_REQUEST));
 
         oldSolicitud.setFechaSolicitud(solicitud.getFechaSolicitud());
         oldSolicitud.setHoraInicio(solicitud.getHoraInicio());
         oldSolicitud.setHoraFin(solicitud.getHoraFin());
         oldSolicitud.setNumeroInvitados(solicitud.getNumeroInvitados());
 
-        SolicitudReservaRecurso actualizada = solicitudReservaRecursoRepository.save(oldSolicitud);
+        SolicitudReservaRecurso actualizada = guardarMovida(oldSolicitud, anterior, ocupacion);
 
         return new SuccessResult<>("Reserva modificada exitosamente", modelMapper.map(actualizada, SolicitudReservaUpdateDTO.class));
     }
@@ -153,6 +144,8 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
             if(recursoComun.getDisponibilidadRecurso() != DisponibilidadRecurso.DISPONIBLE) {
                 throw new ApiException("Recurso no disponible.", HttpStatus.BAD_REQUEST);
             }
+        }else {
+            throw new ApiException("Recurso no encontrado.", HttpStatus.BAD_REQUEST);
         }
         if(optionalPersona.isPresent()) {
             persona = optionalPersona.get();
@@ -160,11 +153,10 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
             throw new ApiException("Solicitante no encontrado.", HttpStatus.BAD_REQUEST);
         }
 
-        boolean hayConflicto = validarFechaSolicitud(recursoComun, solicitudDTO.getFechaSolicitud(),solicitudDTO.getHoraInicio(), solicitudDTO.getHoraFin(), null);
+        AgendaRecursoService.Ocupacion ocupacion = agendaRecursoService
+                .reclamar(recursoComun.getId(), solicitudDTO.getFechaSolicitud(), solicitudDTO.getHoraInicio(), solicitudDTO.getHoraFin())
+                .orElseThrow(() -> new ApiException("El recurso ya tiene una solicitud en el horario solicitado.", HttpStatus.BAD_REQUEST));
 
-        if (hayConflicto) {
-            throw new ApiException("El recurso ya tiene una solicitud en el horario solicitado.", HttpStatus.BAD_REQUEST);
-        }
         SolicitudReservaRecurso reservaRecurso = SolicitudReservaRecurso.builder()
                 .fechaSolicitud(solicitudDTO.getFechaSolicitud())
                 .recursoComun(recursoComun)
@@ -175,7 +167,14 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
                 .numeroInvitados(solicitudDTO.getNumeroInvitados())
                 .fechaCreacion(LocalDate.now())
                 .build();
-        solicitudReservaRecursoRepository.save(reservaRecurso);
+        try {
+            solicitudReservaRecursoRepository.save(reservaRecurso);
+        } catch (RuntimeException e) {
+            agendaRecursoService.liberar(ocupacion);
+            throw e;
+        }
+        ocupacion.confirmar(reservaRecurso.getId());
+        invalidarDisponibilidad(reservaRecurso);
 
         return new SuccessResult<>("Reserva creada exitosamente, Pendiente de aprobación por el administrador.", solicitudDTO);
     }
@@ -240,6 +239,8 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
             throw new ApiException("Solo se permiten eliminar reservas porteriores a hoy", HttpStatus.BAD_REQUEST);
         }
         solicitudReservaRecursoRepository.deleteById(id);
+        agendaRecursoService.liberar(solicitud);
+        invalidarDisponibilidad(solicitud);
 
         return new SuccessResult<>("Solicitud eliminada correctamente", null);
     }
@@ -248,12 +249,14 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
     public SuccessResult<SolicitudRecursoPropiDTO> actualizarSolicitud(SolicitudReservaUpdateDTO solicitudReservaUpdateDTO) {
         SolicitudReservaRecurso solicitud = solicitudReservaRecursoRepository.findById(solicitudReservaUpdateDTO.getIdSolicitud()).get();
 
-        boolean hayConflicto = validarFechaSolicitud(solicitud.getRecursoComun(), solicitudReservaUpdateDTO.getFechaSolicitud(), solicitudReservaUpdateDTO.getHoraInicio(), solicitudReservaUpdateDTO.getHoraFin(), solicitudReservaUpdateDTO.getIdSolicitud());
-
         if (!solicitud.getEstadoSolicitud().equals(EstadoSolicitud.PENDIENTE)){
             throw new ApiException("Solo se pueden modificar solicitudes en estado Pendiente.", HttpStatus.NOT_FOUND);
         }
-        if (!hayConflicto) {
+        SolicitudReservaRecurso anterior = copiarHorario(solicitud);
+        Optional<AgendaRecursoService.Ocupacion> ocupacion = agendaRecursoService.mover(solicitud,
+                solicitudReservaUpdateDTO.getFechaSolicitud(), solicitudReservaUpdateDTO.getHoraInicio(), solicitudReservaUpdateDTO.getHoraFin());
+
+        if (ocupacion.isPresent()) {
             solicitud.setFechaSolicitud(solicitudReservaUpdateDTO.getFechaSolicitud());
             solicitud.setHoraFin(solicitudReservaUpdateDTO.getHoraFin());
             solicitud.setHoraInicio(solicitudReservaUpdateDTO.getHoraInicio());
@@ -267,7 +270,7 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
                     .numeroInvitados(solicitudReservaUpdateDTO.getNumeroInvitados())
                     .build();
 
-            solicitudReservaRecursoRepository.save(solicitud);
+            guardarMovida(solicitud, anterior, ocupacion.get());
 
             return new SuccessResult<>("Reserva modificada exitosamente, Pendiente de aprobación por el administrador.", solicitudDTO);
         }
@@ -288,30 +291,40 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
         return solicitud;
     }
 
-    public Boolean validarFechaSolicitud(RecursoComun recursoComun, LocalDate fechaSolicitud, LocalTime horaInicio, LocalTime horaFin, Long idSolicitud) {
-        List<SolicitudReservaRecurso> solicitudesReservas =
-                solicitudReservaRecursoRepository.findByRecursoComunAndFechaSolicitud(recursoComun, fechaSolicitud);
-
-        LocalTime nuevaHoraInicio = horaInicio;
-        LocalTime nuevaHoraFin = horaFin;
-
-        if (solicitudesReservas.isEmpty()) {
-            return false;
+    /**
+     * Guarda una solicitud cuyo horario ya se movió en la agenda; si falla, devuelve
+     * la agenda al horario anterior.
+     */
+    private SolicitudReservaRecurso guardarMovida(SolicitudReservaRecurso solicitud, SolicitudReservaRecurso anterior,
+                                                  AgendaRecursoService.Ocupacion ocupacion) {
+        SolicitudReservaRecurso guardada;
+        try {
+            guardada = solicitudReservaRecursoRepository.save(solicitud);
+        } catch (RuntimeException e) {
+            agendaRecursoService.liberar(ocupacion);
+            agendaRecursoService.reclamar(anterior.getRecursoComun().getId(), anterior.getFechaSolicitud(),
+                    anterior.getHoraInicio(), anterior.getHoraFin()).ifPresent(o -> o.confirmar(anterior.getId()));
+            throw e;
         }
+        invalidarDisponibilidad(anterior);
+        invalidarDisponibilidad(solicitud);
+        return guardada;
+    }
 
-        boolean hayConflicto = solicitudesReservas.stream().anyMatch(reserva -> {
-            if (idSolicitud != null && reserva.getId().equals(idSolicitud)) {
-                return false;
-            }
-
-            LocalTime horaInicioExistente = reserva.getHoraInicio();
-            LocalTime horaFinExistente = reserva.getHoraFin();
-
-            return nuevaHoraInicio.isBefore(horaFinExistente)
-                    && nuevaHoraFin.isAfter(horaInicioExistente);
-        });
+    private void invalidarDisponibilidad(SolicitudReservaRecurso solicitud) {
+        if (solicitud.getRecursoComun() != null) {
+            disponibilidadReservaService.invalidar(solicitud.getRecursoComun().getId(), solicitud.getFechaSolicitud());
+        }
+    }
 
-        return hayConflicto;
+    private SolicitudReservaRecurso copiarHorario(SolicitudReservaRecurso solicitud) {
+        return SolicitudReservaRecurso.builder()
+                .id(solicitud.getId())
+                .recursoComun(solicitud.getRecursoComun())
+                .fechaSolicitud(solicitud.getFechaSolicitud())
+                .horaInicio(solicitud.getHoraInicio())
+                .horaFin(solicitud.getHoraFin())
+                .build();
     }
 
     public SuccessResult<List<SolicitudReservaRecursoDTO>> findAll() {
@@ -327,26 +340,12 @@ public class SolicitudReservaRecursoService implements ISolicitudReservaRecursoS
         }
 
 
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(
+                solicitudes.stream().map(solicitud -> solicitud.getCasa().getId()).collect(Collectors.toSet()));
+
         List<SolicitudReservaRecursoDTO> dtos = solicitudes.stream().map(solicitud -> {
             SolicitudReservaRecursoDTO dto = modelMapper.map(solicitud, SolicitudReservaRecursoDTO.class);
-
-            Long casaId = solicitud.getCasa().getId();
-
-
-            Persona solicitante = personaRepository.findArrendatarioByCasaId(casaId)
-                    .orElseGet(() -> personaRepository.findPropietarioByCasaId(casaId)
-                            .orElseThrow(() -> new ApiException(
-                                    "No se encontró un solicitante (arrendatario o propietario) para la casa con ID " + casaId,
-                                    HttpStatus.BAD_REQUEST
-                            )));
-
-
-            dto.setSolicitante(PersonaSimpleDTO.builder()
-                    .nombreCompleto(solicitante.getNombreCompleto())
-                    .telefono(solicitante.getTelefono())
-                    .correo(solicitante.getUser().getEmail())
-                    .build());
-
+            dto.setSolicitante(solicitantes.get(solicitud.getCasa().getId()));
             return dto;
         }).toList();
 
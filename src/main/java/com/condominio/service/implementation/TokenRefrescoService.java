@@ -0,0 +1,99 @@
+package com.condominio.service.implementation;
+
+import com.condominio.dto.response.RefreshResponse;
+import com.condominio.persistence.model.TokenRefresco;
+import com.condominio.persistence.repository.TokenRefrescoRepository;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.JwtUtil;
+import com.condominio.util.security.UsuarioToken;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+
+/**
+ * Tokens de refresco con rotación. Cada token se registra por el hash de su {@code jti} y
+ * sirve una sola vez: al refrescar se marca como usado y se emite otro de la misma familia.
+ * Si vuelve a llegar uno ya usado, el token se filtró: se revoca la familia entera y quien lo
+ * tenga debe iniciar sesión de nuevo. El refresco no verifica contraseña ni carga al usuario:
+ * los datos del token de acceso salen de los claims firmados del de refresco.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRefrescoService {
+
+    private final TokenRefrescoRepository tokenRefrescoRepository;
+    private final JwtUtil jwtUtil;
+    private final InvalidacionTokenService invalidacionTokenService;
+    private static final Logger log = LoggerFactory.getLogger(TokenRefrescoService.class);
+
+    /** Emite el primer token de refresco de una sesión nueva. */
+    public String emitir(UsuarioToken usuario) {
+        return emitir(usuario, UUID.randomUUID().toString());
+    }
+
+    @Transactional(noRollbackFor = ApiException.class)
+    public RefreshResponse refrescar(String refreshToken) {
+        Claims claims = refreshToken == null ? null : jwtUtil.leerRefreshToken(refreshToken);
+        if (claims == null || claims.getId() == null || claims.get("familia") == null
+                || invalidacionTokenService.estaInvalidado(claims.getSubject(), claims.getIssuedAt())) {
+            throw tokenInvalido();
+        }
+        String familia = claims.get("familia", String.class);
+        String hash = hash(claims.getId());
+        if (tokenRefrescoRepository.consumir(hash) == 0) {
+            if (tokenRefrescoRepository.existsByHash(hash)) {
+                tokenRefrescoRepository.revocarFamilia(familia);
+                log.warn("Token de refresco reutilizado para {}; se revoca su familia", claims.getSubject());
+            }
+            throw tokenInvalido();
+        }
+
+        UsuarioToken usuario = UsuarioToken.desdeClaims(claims);
+        return new RefreshResponse(jwtUtil.generateAccessToken(usuario), emitir(usuario, familia));
+    }
+
+    @Scheduled(cron = "0 15 4 * * *", zone = "America/Bogota")
+    public void eliminarVencidos() {
+        int eliminados = tokenRefrescoRepository.eliminarHasta(LocalDateTime.now(ZONE));
+        log.info("Tokens de refresco vencidos eliminados: {}", eliminados);
+    }
+
+    private String emitir(UsuarioToken usuario, String familia) {
+        String jti = UUID.randomUUID().toString();
+        String token = jwtUtil.generateRefreshToken(usuario, familia, jti);
+        tokenRefrescoRepository.save(TokenRefresco.builder()
+                .hash(hash(jti))
+                .familia(familia)
+                .email(usuario.getUsername())
+                .expiraEn(LocalDateTime.now(ZONE).plus(jwtUtil.getRefreshTokenValidityMillis(), ChronoUnit.MILLIS))
+                .build());
+        return token;
+    }
+
+    private static ApiException tokenInvalido() {
+        return new ApiException("Token de refresco inválido o vencido", HttpStatus.UNAUTHORIZED);
+    }
+
+    private static String hash(String jti) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jti.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class UserService implements IUserService, UserDetailsService {
     private final RoleRepository roleRepository;
     private final PersonaRepository personaRepository;
     private final EmailService emailService;
+    private final InvalidacionTokenService invalidacionTokenService;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -110,6 +111,7 @@ public class UserService implements IUserService, UserDetailsService {
         userEntity.setContrasenia(passwordEncoder.encode(dto.getNewPassword()));
 
         userRepository.save(userEntity);
+        invalidacionTokenService.invalidar(userEntity.getEmail());
         return new SuccessResult<>("Password actualizada correctamente",null);
     }
 
@@ -123,6 +125,7 @@ public class UserService implements IUserService, UserDetailsService {
         String nuevaPassword = String.valueOf(numero);
         usuario.setContrasenia(passwordEncoder.encode(nuevaPassword));
         userRepository.save(usuario);
+        invalidacionTokenService.invalidar(usuario.getEmail());
 
         Persona persona = personaRepository.findByUser_Id(usuario.getId());
         String nombreUsuario = persona.getNombreCompleto();
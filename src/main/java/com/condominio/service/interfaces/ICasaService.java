@@ -3,10 +3,11 @@ package com.condominio.service.interfaces;
 
 
 import com.condominio.dto.response.CasaCuentaDTO;
-import com.condominio.dto.response.CasaDeudoraDTO;
 import com.condominio.dto.response.CasaInfoDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.Casa;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +17,7 @@ public interface ICasaService {
     void save(Casa casa);
     SuccessResult<CasaCuentaDTO> estadoDeCuenta(Long idCasa);
     SuccessResult<List<CasaInfoDTO>> obtenerCasas();
-    SuccessResult<List<CasaDeudoraDTO>> obtenerCasasConObligacionesPorCobrar();
-    SuccessResult<List<CasaDeudoraDTO>>  obtenerObligacionesPorCasa();
+    StreamingResponseBody obtenerCasasConObligacionesPorCobrar();
+    StreamingResponseBody obtenerObligacionesPorCasa();
 
 }
@@ -8,6 +8,7 @@ import com.condominio.dto.response.MultasPorCasaDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.Obligacion;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,7 +17,7 @@ public interface IObligacionService {
     SuccessResult<EstadoCuentaDTO> estadoDeCuentaCasa(Long idCasa);
     SuccessResult<Obligacion> save(MultaRegistroDTO multa);
     SuccessResult<Obligacion> update(Long id, MultaActualizacionDTO multa);
-    ResponseEntity<?> generarPazYSalvo(Long idCasa);
+    ResponseEntity<StreamingResponseBody> generarPazYSalvo(Long idCasa);
     SuccessResult<List<MultasPorCasaDTO>> obtenerCasasConMultas();
     void generarObligacionesMensuales();
     SuccessResult<EstadoCuentaDTO> estadoDeCuentaCasaSinFiltro(Long idCasa);
@@ -1,7 +1,13 @@
 package com.condominio.service.interfaces;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
 
 public interface IPdfService {
     byte[] generarPdf(String nombre, Long idCasa, String fechaEmision) throws IOException;
+
+    void generarPdf(String nombre, Long idCasa, String fechaEmision, OutputStream destino) throws IOException;
+
+    void renderizar(String plantilla, Map<String, Object> variables, OutputStream destino) throws IOException;
 }
@@ -1,22 +1,85 @@
 package com.condominio.util.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Hilos de envío de la bandeja de salida: uno virtual por bloque, para que la espera
+     * del servidor SMTP no ocupe hilos de plataforma. El límite de concurrencia acota las
+     * conexiones abiertas a la vez; con más bloques, el despachador espera a que termine uno.
+     * En Java 21 JavaMail lee el socket dentro de métodos {@code synchronized} y fija el
+     * hilo virtual a su portador, así que la concurrencia no debería pasar de los núcleos.
+     */
     @Bean(name = "mailTaskExecutor")
-    public ThreadPoolTaskExecutor mailTaskExecutor() {
+    public SimpleAsyncTaskExecutor mailTaskExecutor(@Value("${correo.outbox.concurrencia:4}") int concurrencia) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mail-sender-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencia);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    /**
+     * Hilos para generar PDF, que ocupan CPU todo el tiempo: tantos como núcleos, salvo que
+     * {@code pdf.concurrencia} diga otra cosa. Quien encola acota cuántos PDF tiene en curso;
+     * si aun así la cola se llena, el PDF se genera en el hilo que lo pidió.
+     */
+    @Bean(name = "pdfTaskExecutor")
+    public ThreadPoolTaskExecutor pdfTaskExecutor(@Value("${pdf.concurrencia:0}") int concurrencia) {
+        int hilos = concurrencia > 0 ? concurrencia : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pdf-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(2 * hilos);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Un hilo para las generaciones de estados de cuenta pedidas por la API: la petición
+     * responde en cuanto la ejecución queda registrada y el recorrido de las casas sigue
+     * aquí, con los PDF repartidos en {@code pdfTaskExecutor}. Otros periodos esperan en la
+     * cola; con la cola llena se rechaza la petición.
+     */
+    @Bean(name = "estadosCuentaTaskExecutor")
+    public ThreadPoolTaskExecutor estadosCuentaTaskExecutor(@Value("${estados-cuenta.cola:12}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("estados-cuenta-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Hilos para verificar contraseñas con BCrypt en el inicio de sesión. Por defecto la mitad
+     * de los núcleos, para que una ráfaga de inicios de sesión no deje sin CPU al resto de la
+     * API. Con la cola llena se rechaza el intento en vez de ponerlo a esperar.
+     */
+    @Bean(name = "bcryptTaskExecutor")
+    public ThreadPoolTaskExecutor bcryptTaskExecutor(@Value("${login.bcrypt.concurrencia:0}") int concurrencia,
+                                                     @Value("${login.bcrypt.cola:64}") int cola) {
+        int hilos = concurrencia > 0 ? concurrencia : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(3);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("mail-sender-");
-        executor.initialize();
+        executor.setThreadNamePrefix("bcrypt-");
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         return executor;
     }
 }
@@ -20,6 +20,11 @@ public class AppConstants {
     public static final String EMAIL_SOLICITUD_SUBJECT="Solicitud de Reserva de Recurso Comun - Condominio Flor del Campo";
     public static final String PAGO_HTML="email/pago";
     public static final String SOLICITUD_HTML="email/solicitud";
+    public static final String INVITACION_ASAMBLEA_HTML="email/invitacion-asamblea";
+    public static final String OBLIGACION_MENSUAL_HTML="email/obligacion-mensual";
+    public static final String CAMPANA_ASAMBLEA="asamblea-";
+    public static final String CAMPANA_OBLIGACION_MENSUAL="obligacion-mensual-";
+    public static final String CAMPANA_COMUNICADO="comunicado-";
     public static final ZoneId ZONE = ZoneId.of("America/Bogota");
     public static final DateTimeFormatter READABLE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss z");
@@ -1,13 +1,19 @@
 package com.condominio.util.helper;
 
 import com.condominio.dto.response.PersonaSimpleDTO;
+import com.condominio.dto.response.ResidenteCasaDTO;
 import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEnum;
 import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.util.exception.ApiException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class PersonaHelper {
@@ -23,6 +29,46 @@ public class PersonaHelper {
                         )));
     }
 
+    /**
+     * Versión por lotes de {@link #obtenerSolicitantePorCasa(Long)} para los listados:
+     * resuelve el arrendatario (o en su defecto el propietario) de todas las casas con una sola consulta.
+     */
+    public Map<Long, PersonaSimpleDTO> obtenerSolicitantesPorCasa(Collection<Long> casaIds) {
+        Map<Long, PersonaSimpleDTO> solicitantes = new HashMap<>();
+        if (casaIds.isEmpty()) {
+            return solicitantes;
+        }
+
+        Map<Long, ResidenteCasaDTO> propietarios = new HashMap<>();
+        for (ResidenteCasaDTO residente : personaRepository.findPropietariosYArrendatariosPorCasas(casaIds)) {
+            if (residente.getRol() == RoleEnum.ARRENDATARIO) {
+                solicitantes.putIfAbsent(residente.getCasaId(), residenteSimpleDTO(residente));
+            } else {
+                propietarios.putIfAbsent(residente.getCasaId(), residente);
+            }
+        }
+        propietarios.forEach((casaId, propietario) ->
+                solicitantes.putIfAbsent(casaId, residenteSimpleDTO(propietario)));
+
+        for (Long casaId : casaIds) {
+            if (!solicitantes.containsKey(casaId)) {
+                throw new ApiException(
+                        "No se encontró un solicitante (arrendatario o propietario) para la casa con ID " + casaId,
+                        HttpStatus.BAD_REQUEST
+                );
+            }
+        }
+        return solicitantes;
+    }
+
+    private PersonaSimpleDTO residenteSimpleDTO(ResidenteCasaDTO residente) {
+        return PersonaSimpleDTO.builder()
+                .nombreCompleto(residente.getNombreCompleto())
+                .telefono(residente.getTelefono())
+                .correo(residente.getCorreo())
+                .build();
+    }
+
     public PersonaSimpleDTO toPersonaSimpleDTO(Persona persona) {
         return PersonaSimpleDTO.builder()
                 .nombreCompleto(persona.getNombreCompleto())
@@ -15,7 +15,7 @@ public class PagoListener {
     public PagoListener(EmailService emailService) {
         this.emailService = emailService;
     }
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
     public void handlePagoCreado(CreatedPagoEvent event) throws MessagingException {
         ObligacionDTO obligacionDTO = event.getObligacion();
         String emailPropietario = event.getEmailPropietario();
@@ -18,7 +18,7 @@ public class PersonaListener {
         this.emailService = emailService;
     }
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
     public void handlePersonaCreada(CreatedPersonaEvent event) throws MessagingException {
         Persona persona = event.getPersona();
         emailService.enviarPasswordTemporal(persona.getUser().getEmail(), String.valueOf(persona.getNumeroDocumento()));
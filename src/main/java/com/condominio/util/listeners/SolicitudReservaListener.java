@@ -6,8 +6,9 @@ import com.condominio.util.events.RepliedSolicitudEvent;
 import jakarta.mail.MessagingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 public class SolicitudReservaListener {
@@ -19,12 +20,12 @@ public class SolicitudReservaListener {
     public SolicitudReservaListener(EmailService emailService) {
         this.emailService = emailService;
     }
-    @EventListener
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
     public void handleSolicitudContestada(RepliedSolicitudEvent event) throws MessagingException {
         log.info("SolicitudReservaListener - evento recibido para: {}", event.getEmailPropietario());
         SolicitudReservaRecursoDTO solicitudReservaRecursoDTO = event.getSolicitudReservaRecursoDTO();
         String emailPropietario = event.getEmailPropietario();
         emailService.enviarSolicitud(emailPropietario, solicitudReservaRecursoDTO);
-        log.info("SolicitudReservaListener - llamada a EmailService realizada");
+        log.info("SolicitudReservaListener - correo encolado");
     }
 }
@@ -1,11 +1,14 @@
 package com.condominio.util.security;
 
+import com.condominio.service.implementation.InvalidacionTokenService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.io.IOException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,15 +17,28 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Autentica con el token de acceso del encabezado {@code Authorization}. El token se verifica
+ * una sola vez; con {@code jwt.autenticacion.desde-claims} (por defecto) el usuario se arma
+ * con sus claims firmados ({@link UsuarioToken}) sin ir a la base de datos, y las cuentas
+ * deshabilitadas o con la contraseña cambiada se rechazan con {@link InvalidacionTokenService}.
+ * Con la propiedad en false se carga el usuario en cada petición, como antes.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final InvalidacionTokenService invalidacionTokenService;
+    private final boolean desdeClaims;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   InvalidacionTokenService invalidacionTokenService,
+                                   @Value("${jwt.autenticacion.desde-claims:true}") boolean desdeClaims) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.invalidacionTokenService = invalidacionTokenService;
+        this.desdeClaims = desdeClaims;
     }
 
     @Override
@@ -33,25 +49,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String token = null;
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Claims claims = jwtUtil.leerAccessToken(authHeader.substring(7));
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                username = jwtUtil.extractUsername(token);
-            }
-        }
+            if (claims != null && !invalidacionTokenService.estaInvalidado(claims.getSubject(), claims.getIssuedAt())) {
+                UserDetails userDetails = desdeClaims
+                        ? UsuarioToken.desdeClaims(claims)
+                        : userDetailsService.loadUserByUsername(claims.getSubject());
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
 
-            UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-
-            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authToken);
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
         }
 
         filterChain.doFilter(request, response);
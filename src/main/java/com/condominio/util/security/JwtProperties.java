@@ -14,5 +14,8 @@ public class JwtProperties {
     private long expiration;
     @Value("${JWT_REFRESH_EXPIRATION}")
     private long refreshExpiration;
+    /** Tokens verificados que se recuerdan; 0 verifica la firma en cada petición. */
+    @Value("${jwt.cache-claims.max-entradas:10000}")
+    private int maxClaimsEnCache;
 
 }
@@ -4,99 +4,103 @@ import com.condominio.persistence.model.Persona;
 import com.condominio.service.implementation.PersonaService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import static com.condominio.util.constants.AppConstants.*;
 
+/**
+ * Emite y verifica los JWT. Hay un solo {@link JwtParser}, inmutable y seguro entre hilos,
+ * y los claims ya verificados se recuerdan por el SHA-256 del token hasta que este vence:
+ * las peticiones siguientes con el mismo token no vuelven a decodificarlo ni a verificar la
+ * firma. Se guardan hasta {@code jwt.cache-claims.max-entradas}; al llenarse se descartan
+ * primero los vencidos y, si no alcanza, una parte cualquiera.
+ */
 @Component
 public class JwtUtil {
     private final Key key;
+    private final JwtParser parser;
     private final long accessTokenValidityMillis;
     private final long refreshTokenValidityMillis;
     private final PersonaService personaService;
+    private final int maxClaimsEnCache;
+    private final Map<ByteBuffer, ClaimsVerificados> claimsVerificados = new ConcurrentHashMap<>();
 
 
     public JwtUtil(JwtProperties jwtProperties, PersonaService personaService) {
         this.key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.accessTokenValidityMillis = Duration.ofHours(jwtProperties.getExpiration()).toMillis();
         this.refreshTokenValidityMillis = Duration.ofHours(jwtProperties.getRefreshExpiration()).toMillis();
         this.personaService = personaService;
+        this.maxClaimsEnCache = jwtProperties.getMaxClaimsEnCache();
     }
 
     public String generateAccessToken(UserDetails user) {
-        Date now = new Date();
-        Date expiry = new Date(now.getTime() + accessTokenValidityMillis);
-
-
-        List<String> rol = user.getAuthorities().stream()
-                .map(a -> a.getAuthority())
-                .toList();
-        Persona persona = personaService.getPersonaFromUserDetails(user);
-
-        Long idCasa = persona.getCasa() != null
-                ? persona.getCasa().getId()
-                : null;
+        return generateAccessToken(principal(user));
+    }
 
-        Long idPersona = persona.getId();
+    /** Emite el token de acceso con los datos que ya trae el principal, sin consultar la base de datos. */
+    public String generateAccessToken(UsuarioToken usuario) {
+        return generar(usuario, "access", accessTokenValidityMillis, Map.of());
+    }
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("rol", rol);
-        claims.put("idCasa", idCasa);
-        claims.put("idPersona", idPersona);
-        claims.put("type", "access");
-        claims.put("iatReadable", formatDate(now));
-        claims.put("expReadable", formatDate(expiry));
+    /**
+     * Emite el token de refresco de la familia {@code familia} con identificador {@code jti}. Quien lo
+     * emite debe registrarlo en {@code TokenRefrescoService}: sin registro no sirve para refrescar.
+     */
+    public String generateRefreshToken(UsuarioToken usuario, String familia, String jti) {
+        return generar(usuario, "refresh", refreshTokenValidityMillis, Map.of("familia", familia, "jti", jti));
+    }
 
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(user.getUsername())
-                .setIssuer("condominioAPI")
-                .setIssuedAt(now)
-                .setExpiration(expiry)
-                .signWith(key, SignatureAlgorithm.HS256)
-                .setHeaderParam("typ", "JWT")
-                .compact();
+    private UsuarioToken principal(UserDetails user) {
+        if (user instanceof UsuarioToken usuario) {
+            return usuario;
+        }
+        Persona persona = personaService.getPersonaFromUserDetails(user);
+        return new UsuarioToken(user.getUsername(), persona.getId(),
+                persona.getCasa() != null ? persona.getCasa().getId() : null,
+                List.copyOf(user.getAuthorities()));
     }
 
-    public String generateRefreshToken(UserDetails user) {
+    private String generar(UsuarioToken usuario, String tipo, long validezMillis, Map<String, Object> adicionales) {
         Date now = new Date();
-        Date expiry = new Date(now.getTime() + refreshTokenValidityMillis);
+        Date expiry = new Date(now.getTime() + validezMillis);
 
-        List<String> rol = user.getAuthorities().stream()
+        List<String> rol = usuario.getAuthorities().stream()
                 .map(a -> a.getAuthority())
                 .toList();
-        Persona persona = personaService.getPersonaFromUserDetails(user);
-
-        Long idCasa = persona.getCasa() != null
-                ? persona.getCasa().getId()
-                : null;
-
-        Long idPersona = persona.getId();
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("rol", rol);
-        claims.put("idCasa", idCasa);
-        claims.put("idPersona", idPersona);
-        claims.put("type", "refresh");
+        claims.put("idCasa", usuario.getIdCasa());
+        claims.put("idPersona", usuario.getIdPersona());
+        claims.put("type", tipo);
         claims.put("iatReadable", formatDate(now));
         claims.put("expReadable", formatDate(expiry));
-
+        claims.putAll(adicionales);
 
         return Jwts.builder()
                 .setClaims(claims)
-                .setSubject(user.getUsername())
+                .setSubject(usuario.getUsername())
                 .setIssuer("condominioAPI")
                 .setIssuedAt(now)
                 .setExpiration(expiry)
@@ -107,7 +111,7 @@ public class JwtUtil {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            extractAllClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
 
@@ -115,6 +119,36 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * Verifica firma y vencimiento una sola vez y devuelve los claims si es un token de acceso;
+     * null si no es válido o es un token de refresco.
+     */
+    public Claims leerAccessToken(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return "access".equals(claims.get("type")) ? claims : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Claims del token de refresco si es válido, o {@code null}. No pasa por el cache de claims:
+     * cada token de refresco se usa una sola vez.
+     */
+    public Claims leerRefreshToken(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return "refresh".equals(claims.get("type")) ? claims : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public long getRefreshTokenValidityMillis() {
+        return refreshTokenValidityMillis;
+    }
+
     public boolean isRefreshToken(String token) {
         try {
             Claims claims = extractAllClaims(token);
@@ -135,12 +169,46 @@ public class JwtUtil {
         return extractAllClaims(token).getExpiration();
     }
 
+    /** Los claims devueltos pueden venir del cache y compartirse entre peticiones: no deben modificarse. */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (maxClaimsEnCache <= 0) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+        ByteBuffer clave = ByteBuffer.wrap(sha256(token));
+        long ahora = System.currentTimeMillis();
+        ClaimsVerificados guardados = claimsVerificados.get(clave);
+        if (guardados != null) {
+            if (ahora < guardados.expiraEn()) {
+                return guardados.claims();
+            }
+            claimsVerificados.remove(clave, guardados);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            if (claimsVerificados.size() >= maxClaimsEnCache) {
+                liberarEspacio(ahora);
+            }
+            claimsVerificados.put(clave, new ClaimsVerificados(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private void liberarEspacio(long ahora) {
+        claimsVerificados.values().removeIf(guardados -> guardados.expiraEn() <= ahora);
+        Iterator<ByteBuffer> claves = claimsVerificados.keySet().iterator();
+        while (claimsVerificados.size() >= maxClaimsEnCache * 9 / 10 && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
     }
 
     public boolean isTokenExpired(String token) {
@@ -192,6 +260,9 @@ public class JwtUtil {
         return formatDate(expiry);
     }
 
+    private record ClaimsVerificados(Claims claims, long expiraEn) {
+    }
+
     public String getRefreshTokenExpiryFromNowReadable() {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + refreshTokenValidityMillis);
@@ -0,0 +1,86 @@
+package com.condominio.util.security;
+
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.util.exception.ApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Quien hace la petición, resuelto una sola vez por petición. Los ids de persona y casa salen
+ * de los claims firmados del token ({@link UsuarioToken}) sin consultar la base de datos, así
+ * que comprobar que algo es de su casa es comparar ids. La {@link Persona} completa solo se
+ * carga si se pide, por su id. Si el principal no trae los ids
+ * ({@code jwt.autenticacion.desde-claims=false}) se busca la persona por el correo, también
+ * una sola vez.
+ */
+@Component
+@RequestScope
+public class ResidenteActual {
+
+    private final PersonaRepository personaRepository;
+    private UsuarioToken usuario;
+    private Persona persona;
+
+    public ResidenteActual(PersonaRepository personaRepository) {
+        this.personaRepository = personaRepository;
+    }
+
+    public String getEmail() {
+        return usuario().getUsername();
+    }
+
+    public Long getIdPersona() {
+        return usuario().getIdPersona();
+    }
+
+    /** Id de la casa del residente, o {@code null} si no tiene una asignada. */
+    public Long getIdCasa() {
+        return usuario().getIdCasa();
+    }
+
+    /** Id de la casa del residente; si no tiene una asignada responde 404. */
+    public Long requerirIdCasa() {
+        Long idCasa = getIdCasa();
+        if (idCasa == null) {
+            throw new ApiException("El usuario no tiene casa asignada", HttpStatus.NOT_FOUND);
+        }
+        return idCasa;
+    }
+
+    public Persona getPersona() {
+        Long idPersona = getIdPersona();
+        if (persona == null) {
+            persona = (idPersona != null ? personaRepository.findById(idPersona) : Optional.<Persona>empty())
+                    .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        }
+        return persona;
+    }
+
+    private UsuarioToken usuario() {
+        if (usuario == null) {
+            usuario = resolver();
+        }
+        return usuario;
+    }
+
+    private UsuarioToken resolver() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new ApiException("Usuario no autenticado", HttpStatus.UNAUTHORIZED);
+        }
+        if (auth.getPrincipal() instanceof UsuarioToken usuarioToken) {
+            return usuarioToken;
+        }
+        persona = personaRepository.findByUserEmail(auth.getName())
+                .orElseThrow(() -> new ApiException("Usuario no encontrado", HttpStatus.NOT_FOUND));
+        return new UsuarioToken(auth.getName(), persona.getId(),
+                persona.getCasa() != null ? persona.getCasa().getId() : null, List.copyOf(auth.getAuthorities()));
+    }
+}
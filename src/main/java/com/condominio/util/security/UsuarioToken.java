@@ -0,0 +1,61 @@
+package com.condominio.util.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado armado con los claims firmados del token de acceso, sin consultar
+ * la base de datos. Los controladores lo reciben como cualquier {@link UserDetails}.
+ */
+public class UsuarioToken implements UserDetails {
+
+    private final String username;
+    private final Long idPersona;
+    private final Long idCasa;
+    private final List<GrantedAuthority> authorities;
+
+    public UsuarioToken(String username, Long idPersona, Long idCasa, List<GrantedAuthority> authorities) {
+        this.username = username;
+        this.idPersona = idPersona;
+        this.idCasa = idCasa;
+        this.authorities = authorities;
+    }
+
+    public static UsuarioToken desdeClaims(Claims claims) {
+        List<?> roles = claims.get("rol", List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(rol -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(rol)))
+                .toList();
+        return new UsuarioToken(claims.getSubject(), claims.get("idPersona", Long.class),
+                claims.get("idCasa", Long.class), authorities);
+    }
+
+    public Long getIdPersona() {
+        return idPersona;
+    }
+
+    public Long getIdCasa() {
+        return idCasa;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /** El token no lleva la contraseña. */
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
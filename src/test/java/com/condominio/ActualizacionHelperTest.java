@@ -3,49 +3,48 @@ package com.condominio;
 import com.condominio.persistence.model.ActualizacionHelper;
 import com.condominio.persistence.model.Cargo;
 import com.condominio.persistence.model.Persona;
-import com.condominio.persistence.model.UserEntity;
 import com.condominio.persistence.repository.PersonaRepository;
-import com.condominio.persistence.repository.UserRepository;
+import com.condominio.util.security.ResidenteActual;
+import com.condominio.util.security.UsuarioToken;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ActualizacionHelperTest {
 
-    @Mock
-    private UserRepository userRepository;
     @Mock
     private PersonaRepository personaRepository;
 
-    @InjectMocks
     private ActualizacionHelper actualizacionHelper;
 
     @BeforeEach
     void setUp() {
-        SecurityContext context = mock(SecurityContext.class);
-        Authentication auth = mock(Authentication.class);
-        when(auth.getName()).thenReturn("test@user.com");
-        when(context.getAuthentication()).thenReturn(auth);
-        SecurityContextHolder.setContext(context);
-
-        UserEntity userEntity = new UserEntity();
-        userEntity.setEmail("test@user.com");
-        when(userRepository.findUserEntityByEmail("test@user.com")).thenReturn(userEntity);
+        UsuarioToken usuario = new UsuarioToken("test@user.com", 5L, 9L, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
 
         Persona persona = mock(Persona.class);
         when(persona.getNombreCompleto()).thenReturn("John Tester");
-        when(personaRepository.findPersonaByUser(userEntity)).thenReturn(persona);
+        when(personaRepository.findById(5L)).thenReturn(Optional.of(persona));
+        actualizacionHelper = new ActualizacionHelper(new ResidenteActual(personaRepository));
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
 
     @Test
     void aplicarDatosComunes_sinDividirPorCien() {
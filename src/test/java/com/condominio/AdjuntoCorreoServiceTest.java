@@ -0,0 +1,159 @@
+package com.condominio;
+
+import com.condominio.persistence.model.AdjuntoCorreo;
+import com.condominio.persistence.repository.AdjuntoCorreoRepository;
+import com.condominio.service.implementation.AdjuntoCorreoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdjuntoCorreoServiceTest {
+
+    private static final String HASH_ACTA = "a0b3b1e9a9f1d6b8e16b0b0f6f8a1e0f1d9d0b3f5f7c5c8c1a4c3e8f6c0e1b5b";
+
+    @Mock
+    private AdjuntoCorreoRepository adjuntoCorreoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path directorio;
+
+    private AdjuntoCorreoService adjuntoCorreoService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        adjuntoCorreoService = new AdjuntoCorreoService(adjuntoCorreoRepository, transactionTemplate, directorio, 24);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void guardar_deberiaNombrarElArchivoConElSha256DelContenido() throws Exception {
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        when(adjuntoCorreoRepository.bloquearPorHash(hash))
+                .thenReturn(Optional.of(AdjuntoCorreo.builder().id(1L).hash(hash).tamano(3).build()));
+
+        Long id = adjuntoCorreoService.guardar(contenido("abc"));
+
+        verify(adjuntoCorreoRepository).registrarSiNoExiste(eq(hash), eq(3L), any());
+        assertThat(id).isEqualTo(1L);
+        assertThat(Files.readString(directorio.resolve(hash))).isEqualTo("abc");
+        assertThat(archivos()).containsExactly(directorio.resolve(hash));
+    }
+
+    @Test
+    void guardar_conContenidoRepetido_deberiaReutilizarElAdjuntoSinDuplicarElArchivo() throws Exception {
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        when(adjuntoCorreoRepository.bloquearPorHash(hash))
+                .thenReturn(Optional.of(AdjuntoCorreo.builder().id(7L).hash(hash).tamano(3).build()));
+
+        Long primero = adjuntoCorreoService.guardar(contenido("abc"));
+        Long segundo = adjuntoCorreoService.guardar(contenido("abc"));
+
+        assertThat(primero).isEqualTo(7L);
+        assertThat(segundo).isEqualTo(7L);
+        verify(adjuntoCorreoRepository, never()).save(any());
+        assertThat(archivos()).containsExactly(directorio.resolve(hash));
+    }
+
+    @Test
+    void recurso_siFaltaElArchivo_deberiaLanzarExcepcion() {
+        AdjuntoCorreo adjunto = AdjuntoCorreo.builder().id(3L).hash(HASH_ACTA).build();
+
+        assertThatThrownBy(() -> adjuntoCorreoService.recurso(adjunto))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Falta el archivo del adjunto 3");
+    }
+
+    @Test
+    void recolectar_deberiaBorrarLosAdjuntosSinEnviosPendientes() throws Exception {
+        Files.writeString(directorio.resolve(HASH_ACTA), "acta");
+        AdjuntoCorreo adjunto = AdjuntoCorreo.builder().id(3L).hash(HASH_ACTA).build();
+        when(adjuntoCorreoRepository.findIdsSinEnviosPendientes()).thenReturn(List.of(3L));
+        when(adjuntoCorreoRepository.bloquearPorId(3L)).thenReturn(Optional.of(adjunto));
+        when(adjuntoCorreoRepository.tieneEnviosPendientes(3L)).thenReturn(false);
+
+        adjuntoCorreoService.recolectar();
+
+        verify(adjuntoCorreoRepository).delete(adjunto);
+        assertThat(archivos()).isEmpty();
+    }
+
+    @Test
+    void recolectar_siElAdjuntoSeReutilizoAntesDeBloquearlo_deberiaConservarlo() throws Exception {
+        Files.writeString(directorio.resolve(HASH_ACTA), "acta");
+        AdjuntoCorreo adjunto = AdjuntoCorreo.builder().id(3L).hash(HASH_ACTA).build();
+        when(adjuntoCorreoRepository.findIdsSinEnviosPendientes()).thenReturn(List.of(3L));
+        when(adjuntoCorreoRepository.bloquearPorId(3L)).thenReturn(Optional.of(adjunto));
+        when(adjuntoCorreoRepository.tieneEnviosPendientes(3L)).thenReturn(true);
+        when(adjuntoCorreoRepository.existsByHash(HASH_ACTA)).thenReturn(true);
+
+        adjuntoCorreoService.recolectar();
+
+        verify(adjuntoCorreoRepository, never()).delete(any());
+        assertThat(archivos()).containsExactly(directorio.resolve(HASH_ACTA));
+    }
+
+    @Test
+    void recolectar_deberiaBorrarSoloLosArchivosHuerfanosViejos() throws Exception {
+        Path huerfanoViejo = envejecer(Files.writeString(directorio.resolve("c".repeat(64)), "sin registro"));
+        Path temporalViejo = envejecer(Files.writeString(directorio.resolve("subida-1.tmp"), "subida interrumpida"));
+        Path huerfanoReciente = Files.writeString(directorio.resolve("d".repeat(64)), "transacción en curso");
+        Path registrado = envejecer(Files.writeString(directorio.resolve(HASH_ACTA), "acta"));
+        when(adjuntoCorreoRepository.findIdsSinEnviosPendientes()).thenReturn(List.of());
+        when(adjuntoCorreoRepository.existsByHash(HASH_ACTA)).thenReturn(true);
+
+        adjuntoCorreoService.recolectar();
+
+        assertThat(huerfanoViejo).doesNotExist();
+        assertThat(temporalViejo).doesNotExist();
+        assertThat(huerfanoReciente).exists();
+        assertThat(registrado).exists();
+    }
+
+    private static ByteArrayInputStream contenido(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Path envejecer(Path archivo) throws Exception {
+        Files.setLastModifiedTime(archivo, FileTime.from(Instant.now().minus(Duration.ofHours(25))));
+        return archivo;
+    }
+
+    private List<Path> archivos() throws Exception {
+        try (var archivos = Files.list(directorio)) {
+            return archivos.toList();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.condominio;
+
+import com.condominio.dto.response.IntervaloReservaDTO;
+import com.condominio.dto.response.SolicitudRecursoPropiDTO;
+import com.condominio.persistence.model.*;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.persistence.repository.RecursoComunRepository;
+import com.condominio.persistence.repository.SolicitudReservaRecursoRepository;
+import com.condominio.service.implementation.AgendaRecursoService;
+import com.condominio.service.implementation.DisponibilidadReservaService;
+import com.condominio.service.implementation.SolicitudReservaRecursoService;
+import com.condominio.util.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AgendaRecursoServiceTest {
+
+    private static final Long RECURSO = 1L;
+    private static final LocalDate FECHA = LocalDate.of(2030, 5, 20);
+
+    @Mock
+    private SolicitudReservaRecursoRepository solicitudReservaRecursoRepository;
+
+    @InjectMocks
+    private AgendaRecursoService agendaRecursoService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(solicitudReservaRecursoRepository.findIntervalos(anyLong(), any(), anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void hayConflicto_deberiaDetectarSolapesYPermitirHorariosContiguos() {
+        when(solicitudReservaRecursoRepository.findIntervalos(RECURSO, FECHA, AgendaRecursoService.ESTADOS_OCUPADOS))
+                .thenReturn(List.of(intervalo(1L, 10, 12), intervalo(2L, 14, 16)));
+
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(11), hora(13), null)).isTrue();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(9), hora(17), null)).isTrue();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(15), hora(15, 30), null)).isTrue();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(12), hora(14), null)).isFalse();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(8), hora(10), null)).isFalse();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(11), hora(13), 1L)).isFalse();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(11), hora(15), 2L)).isTrue();
+        verify(solicitudReservaRecursoRepository, times(1)).findIntervalos(RECURSO, FECHA, AgendaRecursoService.ESTADOS_OCUPADOS);
+    }
+
+    @Test
+    void precargar_soloDeberiaConsultarSolicitudesAprobadasYPendientes() {
+        when(solicitudReservaRecursoRepository.findIntervalosDesde(any(), anyCollection()))
+                .thenReturn(List.of(intervalo(1L, 10, 12)));
+
+        agendaRecursoService.precargar();
+
+        assertThat(agendaRecursoService.reclamar(RECURSO, FECHA, hora(11), hora(12))).isEmpty();
+        verify(solicitudReservaRecursoRepository).findIntervalosDesde(any(),
+                eq(List.of(EstadoSolicitud.APROBADA, EstadoSolicitud.PENDIENTE)));
+        verify(solicitudReservaRecursoRepository, never()).findIntervalos(anyLong(), any(), anyCollection());
+    }
+
+    @Test
+    void liberar_deberiaDejarElHorarioDisponible() {
+        AgendaRecursoService.Ocupacion ocupacion = agendaRecursoService.reclamar(RECURSO, FECHA, hora(10), hora(11)).orElseThrow();
+        ocupacion.confirmar(7L);
+        assertThat(agendaRecursoService.reclamar(RECURSO, FECHA, hora(10), hora(11))).isEmpty();
+
+        agendaRecursoService.liberar(solicitud(7L, 10, 11));
+
+        assertThat(agendaRecursoService.reclamar(RECURSO, FECHA, hora(10), hora(11))).isPresent();
+    }
+
+    @Test
+    void mover_enElMismoDia_noDeberiaChocarConsigoMisma() {
+        when(solicitudReservaRecursoRepository.findIntervalos(RECURSO, FECHA, AgendaRecursoService.ESTADOS_OCUPADOS))
+                .thenReturn(List.of(intervalo(1L, 10, 12), intervalo(2L, 13, 14)));
+
+        assertThat(agendaRecursoService.mover(solicitud(1L, 10, 12), FECHA, hora(11), hora(13))).isPresent();
+        assertThat(agendaRecursoService.mover(solicitud(1L, 11, 13), FECHA, hora(12), hora(14))).isEmpty();
+
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(10), hora(11), null)).isFalse();
+        assertThat(agendaRecursoService.hayConflicto(RECURSO, FECHA, hora(12), hora(12, 30), null)).isTrue();
+    }
+
+    @Test
+    void reclamar_conHoraFinNoPosterior_deberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> agendaRecursoService.reclamar(RECURSO, FECHA, hora(12), hora(12)))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("La hora de inicio debe ser anterior a la hora de fin.");
+    }
+
+    @Test
+    void reclamar_concurrenteDelMismoHorario_soloUnaDeberiaGanar() throws Exception {
+        int hilos = 64;
+        List<Optional<AgendaRecursoService.Ocupacion>> resultados = enParalelo(hilos,
+                i -> agendaRecursoService.reclamar(RECURSO, FECHA, hora(18), hora(20)));
+
+        assertThat(resultados.stream().filter(Optional::isPresent).count()).isEqualTo(1);
+    }
+
+    @Test
+    void reclamar_concurrenteConHorariosAleatorios_nuncaDeberiaAceptarSolapes() throws Exception {
+        int hilos = 32;
+        int intentosPorHilo = 500;
+        List<List<AgendaRecursoService.Ocupacion>> aceptadas = enParalelo(hilos, i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<AgendaRecursoService.Ocupacion> propias = new ArrayList<>();
+            for (int intento = 0; intento < intentosPorHilo; intento++) {
+                int inicio = random.nextInt(0, 23 * 60);
+                int duracion = random.nextInt(15, 120);
+                LocalTime horaInicio = LocalTime.ofSecondOfDay(inicio * 60L);
+                LocalTime horaFin = LocalTime.ofSecondOfDay(Math.min(inicio + duracion, 24 * 60 - 1) * 60L);
+                agendaRecursoService.reclamar(RECURSO, FECHA, horaInicio, horaFin).ifPresent(propias::add);
+                if (!propias.isEmpty() && random.nextInt(4) == 0) {
+                    agendaRecursoService.liberar(propias.remove(random.nextInt(propias.size())));
+                }
+            }
+            return propias;
+        });
+
+        List<AgendaRecursoService.Ocupacion> vigentes = new ArrayList<>();
+        aceptadas.forEach(vigentes::addAll);
+        vigentes.sort((a, b) -> a.getInicio().compareTo(b.getInicio()));
+        assertThat(vigentes).isNotEmpty();
+        for (int i = 1; i < vigentes.size(); i++) {
+            assertThat(vigentes.get(i).getInicio()).isAfterOrEqualTo(vigentes.get(i - 1).getFin());
+        }
+    }
+
+    @Test
+    void crearSolicitud_concurrenteDelMismoHorario_soloDeberiaGuardarUna() throws Exception {
+        RecursoComunRepository recursoComunRepository = mock(RecursoComunRepository.class);
+        PersonaRepository personaRepository = mock(PersonaRepository.class);
+        RecursoComun recurso = RecursoComun.builder().id(RECURSO).disponibilidadRecurso(DisponibilidadRecurso.DISPONIBLE).build();
+        Persona persona = new Persona();
+        persona.setCasa(new Casa(1L, 101));
+        when(recursoComunRepository.findById(RECURSO)).thenReturn(Optional.of(recurso));
+        when(personaRepository.findById(anyLong())).thenReturn(Optional.of(persona));
+
+        AtomicLong guardadas = new AtomicLong();
+        when(solicitudReservaRecursoRepository.save(any(SolicitudReservaRecurso.class))).thenAnswer(inv -> {
+            SolicitudReservaRecurso solicitud = inv.getArgument(0);
+            solicitud.setId(guardadas.incrementAndGet());
+            return solicitud;
+        });
+        SolicitudReservaRecursoService service = new SolicitudReservaRecursoService(solicitudReservaRecursoRepository,
+                null, personaRepository, recursoComunRepository, null, null, null, agendaRecursoService,
+                mock(DisponibilidadReservaService.class));
+
+        List<Boolean> creadas = enParalelo(48, i -> {
+            SolicitudRecursoPropiDTO dto = SolicitudRecursoPropiDTO.builder()
+                    .idRecurso(RECURSO)
+                    .idSolicitante((long) i)
+                    .fechaSolicitud(FECHA)
+                    .horaInicio(hora(19))
+                    .horaFin(hora(21))
+                    .build();
+            try {
+                service.crearSolicitud(dto);
+                return true;
+            } catch (ApiException e) {
+                return false;
+            }
+        });
+
+        assertThat(creadas.stream().filter(Boolean::booleanValue).count()).isEqualTo(1);
+        assertThat(guardadas.get()).isEqualTo(1);
+    }
+
+    private <T> List<T> enParalelo(int hilos, Tarea<T> tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch listos = new CountDownLatch(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                int indice = i;
+                futuros.add(executor.submit(() -> {
+                    listos.countDown();
+                    salida.await();
+                    return tarea.ejecutar(indice);
+                }));
+            }
+            listos.await();
+            salida.countDown();
+            List<T> resultados = Collections.synchronizedList(new ArrayList<>());
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get(30, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Tarea<T> {
+        T ejecutar(int indice) throws Exception;
+    }
+
+    private static SolicitudReservaRecurso solicitud(Long id, int inicio, int fin) {
+        return SolicitudReservaRecurso.builder()
+                .id(id)
+                .recursoComun(RecursoComun.builder().id(RECURSO).build())
+                .fechaSolicitud(FECHA)
+                .horaInicio(hora(inicio))
+                .horaFin(hora(fin))
+                .build();
+    }
+
+    private static IntervaloReservaDTO intervalo(Long id, int inicio, int fin) {
+        return new IntervaloReservaDTO(id, RECURSO, FECHA, hora(inicio), hora(fin));
+    }
+
+    private static LocalTime hora(int hora) {
+        return LocalTime.of(hora, 0);
+    }
+
+    private static LocalTime hora(int hora, int minuto) {
+        return LocalTime.of(hora, minuto);
+    }
+}
@@ -3,6 +3,7 @@ package com.condominio;
 import com.condominio.dto.request.AsambleaDTO;
 import com.condominio.dto.response.AsambleaConAsistenciaDTO;
 import com.condominio.dto.response.CasaSimpleDTO;
+import com.condominio.dto.response.DestinatarioCorreoDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.AsambleaRepository;
@@ -18,10 +19,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +58,7 @@ class AsambleaServiceTest {
     @BeforeEach
     void setUp() {
         asambleaService = new AsambleaService(asambleaRepository, modelMapper, personaRepository, emailService, asistenciaRepository);
+        ReflectionTestUtils.setField(asambleaService, "tamanoLoteCorreos", 2);
     }
 
     @Test
@@ -78,6 +81,7 @@ class AsambleaServiceTest {
         dto.setHoraInicio(LocalTime.of(10, 0));
 
         Asamblea entidad = new Asamblea();
+        entidad.setId(7L);
         entidad.setTitulo(dto.getTitulo());
         entidad.setFecha(dto.getFecha());
         entidad.setHoraInicio(dto.getHoraInicio());
@@ -87,18 +91,20 @@ class AsambleaServiceTest {
         // Mock del repo
         when(asambleaRepository.save(entidad)).thenReturn(entidad);
 
-        // Mock personas
-        Persona persona = new Persona();
-        UserEntity user = new UserEntity ();
-        user.setEmail("user@correo.com");
-        persona.setUser(user);
-        when(personaRepository.findAll()).thenReturn(Collections.singletonList(persona));
+        // Destinatarios en dos lotes
+        List<DestinatarioCorreoDTO> primerLote = List.of(
+                new DestinatarioCorreoDTO(1L, "uno@correo.com"), new DestinatarioCorreoDTO(4L, "dos@correo.com"));
+        List<DestinatarioCorreoDTO> segundoLote = List.of(new DestinatarioCorreoDTO(9L, "tres@correo.com"));
+        when(personaRepository.findDestinatariosDesde(0L, PageRequest.of(0, 2))).thenReturn(primerLote);
+        when(personaRepository.findDestinatariosDesde(4L, PageRequest.of(0, 2))).thenReturn(segundoLote);
 
         SuccessResult<AsambleaDTO> result = asambleaService.create(dto);
 
 
         verify(asambleaRepository).save(entidad);
-        verify(emailService).enviarInvitacionesAsambleaMasivas(Collections.singletonList(persona), entidad);
+        verify(emailService).enviarInvitacionesAsambleaMasivas(primerLote, entidad, "asamblea-7");
+        verify(emailService).enviarInvitacionesAsambleaMasivas(segundoLote, entidad, "asamblea-7");
+        verify(personaRepository, never()).findAll();
         assertEquals("Asamblea programada correctamente", result.message());
         assertEquals(dto, result.data());
     }
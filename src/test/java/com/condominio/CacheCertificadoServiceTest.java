@@ -0,0 +1,76 @@
+package com.condominio;
+
+import com.condominio.service.implementation.CacheCertificadoService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheCertificadoServiceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 10, 20);
+
+    private final CacheCertificadoService cache = new CacheCertificadoService(2);
+    private final AtomicInteger generados = new AtomicInteger();
+
+    @Test
+    void obtener_mismaCasaYFecha_deberiaGenerarUnaVez() throws Exception {
+        byte[] primero = cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        byte[] segundo = cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+
+        assertThat(segundo).isSameAs(primero);
+        assertThat(generados).hasValue(1);
+    }
+
+    @Test
+    void obtener_otraFechaOTitular_deberiaVolverAGenerar() throws Exception {
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        cache.obtener(1L, HOY.plusDays(1), "Ana Gómez", this::generar);
+        cache.obtener(1L, HOY, "Ana María Gómez", this::generar);
+
+        assertThat(generados).hasValue(3);
+    }
+
+    @Test
+    void invalidar_deberiaDescartarSoloLosDeEsaCasa() throws Exception {
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        cache.obtener(2L, HOY, "Luis Pérez", this::generar);
+
+        cache.invalidar(List.of(1L));
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        cache.obtener(2L, HOY, "Luis Pérez", this::generar);
+
+        assertThat(generados).hasValue(3);
+    }
+
+    @Test
+    void obtener_siSeInvalidaMientrasGenera_noDeberiaGuardarlo() throws Exception {
+        cache.obtener(1L, HOY, "Ana Gómez", () -> {
+            cache.invalidar(List.of(1L));
+            return generar();
+        });
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+
+        assertThat(generados).hasValue(2);
+    }
+
+    @Test
+    void obtener_conCacheLleno_deberiaDescartarElMenosReciente() throws Exception {
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        cache.obtener(2L, HOY, "Luis Pérez", this::generar);
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        cache.obtener(3L, HOY, "Eva Ruiz", this::generar);
+
+        cache.obtener(1L, HOY, "Ana Gómez", this::generar);
+        assertThat(generados).hasValue(3);
+        cache.obtener(2L, HOY, "Luis Pérez", this::generar);
+        assertThat(generados).hasValue(4);
+    }
+
+    private byte[] generar() {
+        return new byte[]{(byte) generados.incrementAndGet()};
+    }
+}
@@ -6,25 +6,37 @@ import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.CasaRepository;
 import com.condominio.persistence.repository.MascotaRepository;
+import com.condominio.persistence.repository.MiembroRepository;
 import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.PagoDetalleRepository;
 import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.service.implementation.CasaService;
-import com.condominio.service.implementation.MascotaService;
-import com.condominio.service.implementation.MiembroService;
-import com.condominio.service.interfaces.IPagoService;
+import com.condominio.service.implementation.SaldoCasaService;
 import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 
@@ -40,16 +52,22 @@ class CasaServiceTest {
     private PersonaRepository personaRepository;
 
     @Mock
-    private MiembroService miembroService;
+    private MascotaRepository mascotaRepository;
 
     @Mock
-    private MascotaService mascotaService;
+    private MiembroRepository miembroRepository;
 
     @Mock
-    private MascotaRepository mascotaRepository;
+    private PagoDetalleRepository pagoDetalleRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
     @Mock
-    private IPagoService pagoService;
+    private SaldoCasaService saldoCasaService;
 
     @InjectMocks
     private CasaService casaService;
@@ -60,6 +78,8 @@ class CasaServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
         casa = new Casa();
         casa.setId(1L);
         casa.setNumeroCasa(101);
@@ -117,6 +137,8 @@ class CasaServiceTest {
 
         when(obligacionRepository.findByCasaId(1L))
                 .thenReturn(List.of(obligacion1, obligacion2));
+        when(saldoCasaService.obtener(1L))
+                .thenReturn(SaldoCasa.builder().casaId(1L).saldoPendiente(500).build());
 
 
         SuccessResult<CasaCuentaDTO> result = casaService.estadoDeCuenta(1L);
@@ -132,85 +154,48 @@ class CasaServiceTest {
 
     @Test
     void testObtenerCasas_WhenCasasExist() {
-
-
         Casa newCasa = new Casa();
         newCasa.setId(1L);
         newCasa.setNumeroCasa(101);
-
         when(casaRepository.findAll()).thenReturn(List.of(newCasa));
 
-
-        Persona propietario = new Persona();
-        propietario.setPrimerNombre("Juan");
-        propietario.setPrimerApellido("Pérez");
-
-        UserEntity user = new UserEntity();
-        user.setEmail("juan@example.com");
-        propietario.setUser(user);
-        propietario.setTelefono(123456789L);
-
-        when(personaRepository.findPropietarioByCasaId(1L))
-                .thenReturn(Optional.of(propietario));
-
-
-        when(personaRepository.findArrendatarioByCasaId(1L))
-                .thenReturn(Optional.of(new Persona()));
-
-
-        when(miembroService.countByCasaId(1L)).thenReturn(2);
-
-
-        when(mascotaRepository.contarPorTipo(1L))
-                .thenReturn(List.of(
-                        new MascotaCountDTO(TipoMascota.PERRO, 1L),
-                        new MascotaCountDTO(TipoMascota.GATO, 2L)
-                ));
-
-
-        when(obligacionRepository.existsByCasaIdAndEstadoPago(1L, EstadoPago.PENDIENTE))
-                .thenReturn(false);
-
+        when(personaRepository.findPropietariosYArrendatarios()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Juan", "Pérez", 123456789L, "juan@example.com"),
+                residente(1L, RoleEnum.ARRENDATARIO, "Luis", "Gómez", 987L, "luis@example.com")
+        ));
+        when(miembroRepository.contarActivosPorCasa()).thenReturn(List.of(new ConteoCasaDTO(1L, 2L)));
+        when(mascotaRepository.sumarPorCasaYTipo()).thenReturn(List.of(
+                new MascotaCasaDTO(1L, TipoMascota.PERRO, 1L),
+                new MascotaCasaDTO(1L, TipoMascota.GATO, 2L)
+        ));
 
         SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
 
-
         assertThat(result).isNotNull();
         assertThat(result.data()).hasSize(1);
+        assertThat(result.message()).isEqualTo("Casas obtenidas correctamente");
 
         CasaInfoDTO dto = result.data().getFirst();
-        assertThat(dto).isNotNull();
-
-
         PersonaSimpleDTO propietarioDTO = dto.getPropietario();
         assertThat(propietarioDTO).isNotNull();
         assertThat(propietarioDTO.getNombreCompleto()).isEqualTo("Juan Pérez");
         assertThat(propietarioDTO.getTelefono()).isEqualTo(123456789L);
         assertThat(propietarioDTO.getCorreo()).isEqualTo("juan@example.com");
 
-
         assertThat(dto.getNumeroCasa()).isEqualTo(101);
         assertThat(dto.getCantidadMiembros()).isEqualTo(2);
-
-
-        assertThat(dto.getMascotas()).containsEntry("TipoMascota.PERRO", 0);
-        assertThat(dto.getMascotas()).containsEntry("TipoMascota.GATO", 0);
-        assertThat(dto.getMascotas().getOrDefault("TipoMascota.OTRO", 0)).isEqualTo(0L);
-
-
+        assertThat(dto.getCantidadMascotas()).isEqualTo(3);
+        assertThat(dto.getMascotas()).containsEntry("TipoMascota.PERRO", 1);
+        assertThat(dto.getMascotas()).containsEntry("TipoMascota.GATO", 2);
+        assertThat(dto.getMascotas()).containsEntry("TipoMascota.OTRO", 0);
         assertThat(dto.getUsoCasa()).isEqualTo(UsoCasa.ARRENDADA);
         assertThat(dto.getEstadoFinancieroCasa()).isEqualTo(EstadoFinancieroCasa.AL_DIA);
 
-
-        assertThat(result.message()).isEqualTo("Casas obtenidas correctamente");
-
-
         verify(casaRepository).findAll();
-        verify(personaRepository).findPropietarioByCasaId(1L);
-        verify(personaRepository).findArrendatarioByCasaId(1L);
-        verify(miembroService).countByCasaId(1L);
-        verify(mascotaRepository).findAllByCasa_Id(1L);
-        verify(obligacionRepository).existsByCasaIdAndEstadoPago(1L, EstadoPago.PENDIENTE);
+        verify(personaRepository).findPropietariosYArrendatarios();
+        verify(miembroRepository).contarActivosPorCasa();
+        verify(mascotaRepository).sumarPorCasaYTipo();
+        verify(saldoCasaService).obtenerTodos(List.of(1L));
     }
 
     @Test
@@ -218,134 +203,24 @@ class CasaServiceTest {
         when(casaRepository.findAll()).thenReturn(List.of());
         assertThrows(ApiException.class, () -> casaService.obtenerCasas());
         verify(casaRepository).findAll();
-    }
-
-    @Test
-    void testObtenerCasas_ShouldBuildPersonaSimpleDTO_WhenPropietarioExists() {
-
-        Casa newCasa = new Casa();
-        newCasa.setId(1L);
-        newCasa.setNumeroCasa(101);
-
-        when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-
-
-        Persona propietario = new Persona();
-        propietario.setPrimerNombre("Juan");
-        propietario.setPrimerApellido("Pérez");
-        propietario.setTelefono(123456789L);
-
-        UserEntity user = new UserEntity();
-        user.setEmail("juan@example.com");
-        propietario.setUser(user);
-
-        when(personaRepository.findPropietarioByCasaId(1L))
-                .thenReturn(Optional.of(propietario));
-        when(miembroService.countByCasaId(1L)).thenReturn(2);
-        when(mascotaService.countByCasaId(1L)).thenReturn(1);
-
-        SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
-
-
-        assertThat(result).isNotNull();
-        assertThat(result.data()).hasSize(1);
-
-        CasaInfoDTO dto = result.data().getFirst();
-
-
-        PersonaSimpleDTO propietarioDTO = dto.getPropietario();
-        assertThat(propietarioDTO).isNotNull();
-        assertThat(propietarioDTO.getNombreCompleto()).isEqualTo("Juan Pérez");
-        assertThat(propietarioDTO.getTelefono()).isEqualTo(123456789L);
-        assertThat(propietarioDTO.getCorreo()).isEqualTo("juan@example.com");
-
-
-        assertThat(dto.getNumeroCasa()).isEqualTo(101);
-        assertThat(dto.getCantidadMiembros()).isEqualTo(2);
-        assertThat(dto.getCantidadMascotas()).isEqualTo(0);
-        assertThat(result.message()).isEqualTo("Casas obtenidas correctamente");
-
-
-        verify(casaRepository).findAll();
-        verify(personaRepository).findPropietarioByCasaId(1L);
-        verify(miembroService).countByCasaId(1L);
-        verify(mascotaRepository).sumCantidadMascotasByCasaId(1L);
+        verifyNoInteractions(personaRepository, miembroRepository, mascotaRepository, saldoCasaService);
     }
 
     @Test
     void testObtenerCasas_ShouldReturnNullPropietario_WhenNoPropietarioExists() {
-
         Casa newCasa = new Casa();
         newCasa.setId(2L);
         newCasa.setNumeroCasa(202);
-
         when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-
-
-        when(personaRepository.findPropietarioByCasaId(2L))
-                .thenReturn(Optional.empty());
-        when(miembroService.countByCasaId(2L)).thenReturn(3);
-        when(mascotaService.countByCasaId(2L)).thenReturn(0);
+        when(miembroRepository.contarActivosPorCasa()).thenReturn(List.of(new ConteoCasaDTO(2L, 3L)));
 
         SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
 
-        assertThat(result).isNotNull();
-        assertThat(result.data()).hasSize(1);
-
         CasaInfoDTO dto = result.data().getFirst();
-
-
         assertThat(dto.getPropietario()).isNull();
-
-
         assertThat(dto.getNumeroCasa()).isEqualTo(202);
         assertThat(dto.getCantidadMiembros()).isEqualTo(3);
         assertThat(dto.getCantidadMascotas()).isEqualTo(0);
-        assertThat(result.message()).isEqualTo("Casas obtenidas correctamente");
-
-
-        verify(casaRepository).findAll();
-        verify(personaRepository).findPropietarioByCasaId(2L);
-        verify(miembroService).countByCasaId(2L);
-        verify(mascotaRepository).sumCantidadMascotasByCasaId(2L);
-    }
-
-    @Test
-    void testObtenerCasas_CasaCompleta() {
-        Casa newCasa = new Casa();
-        newCasa.setId(1L);
-        newCasa.setNumeroCasa(101);
-        when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-
-        Persona propietario = new Persona();
-        propietario.setPrimerNombre("Juan");
-        propietario.setPrimerApellido("Pérez");
-        propietario.setTelefono(123L);
-        UserEntity user = new UserEntity();
-        user.setEmail("juan@example.com");
-        propietario.setUser(user);
-        when(personaRepository.findPropietarioByCasaId(1L)).thenReturn(Optional.of(propietario));
-
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.of(new Persona()));
-        when(miembroService.countByCasaId(1L)).thenReturn(2);
-
-        when(mascotaRepository.contarPorTipo(1L)).thenReturn(List.of(
-                new MascotaCountDTO(TipoMascota.PERRO, 1L),
-                new MascotaCountDTO(TipoMascota.GATO, 2L)
-        ));
-
-        when(obligacionRepository.existsByCasaIdAndEstadoPago(1L, EstadoPago.PENDIENTE))
-                .thenReturn(false);
-
-        SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
-        CasaInfoDTO dto = result.data().getFirst();
-
-        assertThat(dto.getPropietario()).isNotNull();
-        assertThat(dto.getUsoCasa()).isEqualTo(UsoCasa.ARRENDADA);
-        assertThat(dto.getEstadoFinancieroCasa()).isEqualTo(EstadoFinancieroCasa.AL_DIA);
-        assertThat(dto.getMascotas().get("TipoMascota.PERRO")).isEqualTo(0);
-        assertThat(dto.getMascotas().get("TipoMascota.GATO")).isEqualTo(0);
-        assertThat(dto.getMascotas().get("TipoMascota.OTRO")).isEqualTo(0);
     }
 
     @Test
@@ -354,14 +229,11 @@ class CasaServiceTest {
         newCasa.setId(2L);
         newCasa.setNumeroCasa(202);
         when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-
-        when(personaRepository.findPropietarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(personaRepository.findArrendatarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(miembroService.countByCasaId(2L)).thenReturn(0);
-
-        when(mascotaRepository.contarPorTipo(2L)).thenReturn(List.of());
-        when(obligacionRepository.existsByCasaIdAndEstadoPago(2L, EstadoPago.PENDIENTE))
-                .thenReturn(true);
+        when(saldoCasaService.obtenerTodos(List.of(2L))).thenReturn(Map.of(2L, SaldoCasa.builder()
+                .casaId(2L)
+                .saldoVencido(50000)
+                .estadoFinanciero(EstadoFinancieroCasa.EN_MORA)
+                .build()));
 
         SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
         CasaInfoDTO dto = result.data().getFirst();
@@ -375,71 +247,94 @@ class CasaServiceTest {
     }
 
     @Test
-    void testObtenerCasas_PropietarioSinArrendatario_MascotasParciales() {
-        Casa newCasa = new Casa();
-        newCasa.setId(3L);
-        newCasa.setNumeroCasa(303);
-        when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-
-        Persona propietario = new Persona();
-        propietario.setPrimerNombre("Ana");
-        propietario.setPrimerApellido("Lopez");
-        propietario.setTelefono(555L);
-        UserEntity user = new UserEntity();
-        user.setEmail("ana@example.com");
-        propietario.setUser(user);
-        when(personaRepository.findPropietarioByCasaId(3L)).thenReturn(Optional.of(propietario));
-
-        when(personaRepository.findArrendatarioByCasaId(3L)).thenReturn(Optional.empty());
-        when(miembroService.countByCasaId(3L)).thenReturn(1);
-
-        when(mascotaRepository.contarPorTipo(3L)).thenReturn(List.of(
-                new MascotaCountDTO(TipoMascota.GATO, 3L)
+    void testObtenerCasas_PropietarioSinArrendatario_MascotasDeOtraCasaNoSeMezclan() {
+        Casa casa3 = new Casa();
+        casa3.setId(3L);
+        casa3.setNumeroCasa(303);
+        Casa casa4 = new Casa();
+        casa4.setId(4L);
+        casa4.setNumeroCasa(404);
+        when(casaRepository.findAll()).thenReturn(List.of(casa3, casa4));
+
+        when(personaRepository.findPropietariosYArrendatarios()).thenReturn(List.of(
+                residente(3L, RoleEnum.PROPIETARIO, "Ana", "Lopez", 555L, "ana@example.com"),
+                residente(4L, RoleEnum.ARRENDATARIO, "Pedro", "Ruiz", 777L, "pedro@example.com")
+        ));
+        when(mascotaRepository.sumarPorCasaYTipo()).thenReturn(List.of(
+                new MascotaCasaDTO(3L, TipoMascota.GATO, 3L),
+                new MascotaCasaDTO(4L, TipoMascota.PERRO, 1L)
         ));
-        when(obligacionRepository.existsByCasaIdAndEstadoPago(3L, EstadoPago.PENDIENTE))
-                .thenReturn(false);
 
-        SuccessResult<List<CasaInfoDTO>> result = casaService.obtenerCasas();
-        CasaInfoDTO dto = result.data().getFirst();
+        List<CasaInfoDTO> dtos = casaService.obtenerCasas().data();
 
-        assertThat(dto.getPropietario()).isNotNull();
-        assertThat(dto.getUsoCasa()).isEqualTo(UsoCasa.RESIDENCIAL);
-        assertThat(dto.getEstadoFinancieroCasa()).isEqualTo(EstadoFinancieroCasa.AL_DIA);
-        assertThat(dto.getMascotas().get("TipoMascota.PERRO")).isEqualTo(0);
-        assertThat(dto.getMascotas().get("TipoMascota.GATO")).isEqualTo(0);
-        assertThat(dto.getMascotas().get("TipoMascota.OTRO")).isEqualTo(0);
+        CasaInfoDTO dto3 = dtos.get(0);
+        assertThat(dto3.getPropietario().getCorreo()).isEqualTo("ana@example.com");
+        assertThat(dto3.getUsoCasa()).isEqualTo(UsoCasa.RESIDENCIAL);
+        assertThat(dto3.getCantidadMascotas()).isEqualTo(3);
+        assertThat(dto3.getMascotas().get("TipoMascota.GATO")).isEqualTo(3);
+        assertThat(dto3.getMascotas().get("TipoMascota.PERRO")).isEqualTo(0);
+
+        CasaInfoDTO dto4 = dtos.get(1);
+        assertThat(dto4.getPropietario()).isNull();
+        assertThat(dto4.getUsoCasa()).isEqualTo(UsoCasa.ARRENDADA);
+        assertThat(dto4.getCantidadMascotas()).isEqualTo(1);
+        assertThat(dto4.getMascotas().get("TipoMascota.GATO")).isEqualTo(0);
     }
 
     @Test
-    void testObtenerCasasConObligacionesPorCobrar_WhenCasasExist() {
-        Casa newCasa = new Casa();
-        newCasa.setId(1L);
-        newCasa.setNumeroCasa(101);
+    void testObtenerCasas_NumeroDeConsultasNoCreceConLasCasas() {
+        int consultasConUnaCasa = consultasParaObtenerCasas(1);
+        int consultasConQuinientasCasas = consultasParaObtenerCasas(500);
 
-        UserEntity user = new UserEntity();
-        user.setEmail("propietario@mail.com");
+        assertThat(consultasConUnaCasa).isEqualTo(5);
+        assertThat(consultasConQuinientasCasas).isEqualTo(consultasConUnaCasa);
+    }
 
-        Persona propietario = new Persona();
-        propietario.setId(1L);
-        propietario.setPrimerNombre("Juan");
-        propietario.setPrimerApellido("Pérez");
-        propietario.setTelefono(3123456789L);
-        propietario.setUser(user);
+    /** Cada llamada a un repositorio (o al servicio de saldos) es una sentencia SQL. */
+    private int consultasParaObtenerCasas(int numeroCasas) {
+        clearInvocations(casaRepository, personaRepository, miembroRepository, mascotaRepository,
+                obligacionRepository, saldoCasaService);
+
+        List<Casa> casas = new ArrayList<>();
+        List<ResidenteCasaDTO> residentes = new ArrayList<>();
+        List<ConteoCasaDTO> miembros = new ArrayList<>();
+        List<MascotaCasaDTO> mascotas = new ArrayList<>();
+        for (long id = 1; id <= numeroCasas; id++) {
+            Casa c = new Casa();
+            c.setId(id);
+            c.setNumeroCasa((int) id);
+            casas.add(c);
+            residentes.add(residente(id, RoleEnum.PROPIETARIO, "Propietario", String.valueOf(id), id, id + "@example.com"));
+            miembros.add(new ConteoCasaDTO(id, 2L));
+            mascotas.add(new MascotaCasaDTO(id, TipoMascota.PERRO, 1L));
+        }
+        when(casaRepository.findAll()).thenReturn(casas);
+        when(personaRepository.findPropietariosYArrendatarios()).thenReturn(residentes);
+        when(miembroRepository.contarActivosPorCasa()).thenReturn(miembros);
+        when(mascotaRepository.sumarPorCasaYTipo()).thenReturn(mascotas);
+
+        assertThat(casaService.obtenerCasas().data()).hasSize(numeroCasas);
+
+        return Stream.of(casaRepository, personaRepository, miembroRepository, mascotaRepository,
+                        obligacionRepository, saldoCasaService)
+                .mapToInt(mock -> mockingDetails(mock).getInvocations().size())
+                .sum();
+    }
 
-        Obligacion obligacion = new Obligacion();
-        obligacion.setId(10L);
-        obligacion.setEstadoPago(EstadoPago.PENDIENTE);
-        obligacion.setMotivo("Cuota de administración");
-        obligacion.setMonto(50000);
-        obligacion.setValorPendiente(50000);
-        obligacion.setCasa(newCasa);
+    private ResidenteCasaDTO residente(Long casaId, RoleEnum rol, String nombre, String apellido,
+                                       Long telefono, String correo) {
+        return new ResidenteCasaDTO(casaId, rol, nombre, null, apellido, null, telefono, correo);
+    }
 
-        when(casaRepository.findCasasConObligacionesPorCobrar()).thenReturn(List.of(newCasa));
-        when(personaRepository.findPropietarioByCasaId(1L)).thenReturn(Optional.of(propietario));
-        when(obligacionRepository.findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(1L, EstadoPago.CONDONADO))
-                .thenReturn(List.of(obligacion));
+    @Test
+    void testObtenerCasasConObligacionesPorCobrar_WhenCasasExist() throws IOException {
+        when(obligacionRepository.existsByEstadoPagoNot(EstadoPago.CONDONADO)).thenReturn(true);
+        when(personaRepository.findPropietariosYArrendatarios()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Juan", "Pérez", 3123456789L, "propietario@mail.com")));
+        when(obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)).thenReturn(Stream.of(
+                obligacionCasa(1L, 101, 10L, "Cuota de administración", 50000, 0)));
 
-        SuccessResult<List<CasaDeudoraDTO>> result = casaService.obtenerCasasConObligacionesPorCobrar();
+        SuccessResult<List<CasaDeudoraDTO>> result = leer(casaService.obtenerCasasConObligacionesPorCobrar());
 
         assertThat(result).isNotNull();
         assertThat(result.data()).hasSize(1);
@@ -453,31 +348,19 @@ class CasaServiceTest {
         assertThat(dto.getObligacionesPendientes()).hasSize(1);
         assertThat(dto.getObligacionesPendientes().getFirst().getMotivo()).isEqualTo("Cuota de administración");
 
-        verify(casaRepository).findCasasConObligacionesPorCobrar();
-        verify(personaRepository).findPropietarioByCasaId(1L);
-        verify(obligacionRepository).findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(1L, EstadoPago.CONDONADO);
+        verify(personaRepository).findPropietariosYArrendatarios();
+        verify(pagoDetalleRepository).findFechasUltimoPagoPorCasa();
+        verify(obligacionRepository).streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO);
+        verify(personaRepository, never()).findPropietarioByCasaId(any());
     }
 
     @Test
-    void testObtenerCasasConObligacionesPorCobrar_WhenNoPropietario_ShouldReturnNullPropietario() {
-        Casa newCasa = new Casa();
-        newCasa.setId(2L);
-        newCasa.setNumeroCasa(202);
-
-        Obligacion obligacion = new Obligacion();
-        obligacion.setId(20L);
-        obligacion.setEstadoPago(EstadoPago.PENDIENTE);
-        obligacion.setMotivo("Mantenimiento");
-        obligacion.setMonto(30000);
-        obligacion.setValorPendiente(30000);
-        obligacion.setCasa(newCasa);
-
-        when(casaRepository.findCasasConObligacionesPorCobrar()).thenReturn(List.of(newCasa));
-        when(personaRepository.findPropietarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(obligacionRepository.findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(2L, EstadoPago.CONDONADO))
-                .thenReturn(List.of(obligacion));
+    void testObtenerCasasConObligacionesPorCobrar_WhenNoPropietario_ShouldReturnNullPropietario() throws IOException {
+        when(obligacionRepository.existsByEstadoPagoNot(EstadoPago.CONDONADO)).thenReturn(true);
+        when(obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)).thenReturn(Stream.of(
+                obligacionCasa(2L, 202, 20L, "Mantenimiento", 30000, 0)));
 
-        SuccessResult<List<CasaDeudoraDTO>> result = casaService.obtenerCasasConObligacionesPorCobrar();
+        SuccessResult<List<CasaDeudoraDTO>> result = leer(casaService.obtenerCasasConObligacionesPorCobrar());
 
         assertThat(result).isNotNull();
         CasaDeudoraDTO dto = result.data().getFirst();
@@ -488,65 +371,46 @@ class CasaServiceTest {
 
     @Test
     void testObtenerCasasConObligacionesPorCobrar_WhenNoCasasExist_ShouldThrowApiException() {
-        when(casaRepository.findCasasConObligacionesPorCobrar()).thenReturn(List.of());
+        when(obligacionRepository.existsByEstadoPagoNot(EstadoPago.CONDONADO)).thenReturn(false);
 
         assertThrows(ApiException.class, () -> casaService.obtenerCasasConObligacionesPorCobrar());
 
-        verify(casaRepository).findCasasConObligacionesPorCobrar();
+        verify(obligacionRepository, never()).streamPorCasaExcluyendoEstado(any());
     }
 
     @Test
-    void testObtenerObligacionesPorCasa_WhenCasasExist() {
-        // Arrange
-        Casa newCasa = new Casa();
-        newCasa.setId(1L);
-        newCasa.setNumeroCasa(101);
-
-        UserEntity user = new UserEntity();
-        user.setEmail("propietario@mail.com");
-
-        Persona propietario = new Persona();
-        propietario.setId(1L);
-        propietario.setPrimerNombre("Juan");
-        propietario.setPrimerApellido("Pérez");
-        propietario.setTelefono(3123456789L);
-        propietario.setUser(user);
-
-        Obligacion obligacion1 = new Obligacion();
-        obligacion1.setId(10L);
-        obligacion1.setTitulo("Cuota de administración");
-        obligacion1.setMonto(50000);
-        obligacion1.setValorTotal(60000);
-        obligacion1.setValorPendiente(50000);
-        obligacion1.setMontoPagado(10000);
-        obligacion1.setEstadoPago(EstadoPago.PENDIENTE);
-        obligacion1.setTipoObligacion(TipoObligacion.ADMINISTRACION);
-        obligacion1.setCasa(newCasa);
-        obligacion1.setFechaGenerada(LocalDate.of(2025, 1, 1));
-
-        Obligacion obligacion2 = new Obligacion();
-        obligacion2.setId(11L);
-        obligacion2.setTitulo("Fondo de reserva");
-        obligacion2.setMonto(40000);
-        obligacion2.setValorTotal(40000);
-        obligacion2.setValorPendiente(40000);
-        obligacion2.setMontoPagado(0);
-        obligacion2.setEstadoPago(EstadoPago.PENDIENTE);
-        obligacion2.setTipoObligacion(TipoObligacion.MULTA);
-        obligacion2.setCasa(newCasa);
-        obligacion2.setFechaGenerada(LocalDate.of(2025, 2, 1));
-
-        when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-        when(personaRepository.findPropietarioByCasaId(1L)).thenReturn(Optional.of(propietario));
-        when(obligacionRepository.findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(1L, EstadoPago.CONDONADO))
-                .thenReturn(List.of(obligacion1, obligacion2));
-        when(pagoService.obtenerFechaUltimoPagoPorCasa(1L))
-                .thenReturn(Optional.of(LocalDate.of(2025, 3, 15)));
+    void testObtenerCasasConObligacionesPorCobrar_AgrupaEnUnaSolaPasada() throws IOException {
+        when(obligacionRepository.existsByEstadoPagoNot(EstadoPago.CONDONADO)).thenReturn(true);
+        when(pagoDetalleRepository.findFechasUltimoPagoPorCasa()).thenReturn(List.of(
+                new UltimoPagoCasaDTO(3L, LocalDate.of(2025, 3, 15))));
+        when(obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)).thenReturn(Stream.of(
+                obligacionCasa(1L, 101, 10L, "Administración marzo", 50000, 0),
+                obligacionCasa(1L, 101, 11L, "Administración febrero", 20000, 0),
+                obligacionCasa(3L, 303, 30L, "Multa", 15000, 0)));
+
+        List<CasaDeudoraDTO> dtos = leer(casaService.obtenerCasasConObligacionesPorCobrar()).data();
+
+        assertThat(dtos).extracting(CasaDeudoraDTO::getNumeroCasa).containsExactly(101, 303);
+        assertThat(dtos.get(0).getSaldoPendiente()).isEqualTo(70000);
+        assertThat(dtos.get(0).getObligacionesPendientes()).hasSize(2);
+        assertThat(dtos.get(0).getUltimoPago()).isNull();
+        assertThat(dtos.get(1).getSaldoPendiente()).isEqualTo(15000);
+        assertThat(dtos.get(1).getUltimoPago()).isEqualTo(LocalDate.of(2025, 3, 15));
+    }
 
-        // Act
-        SuccessResult<List<CasaDeudoraDTO>> result = casaService.obtenerObligacionesPorCasa();
+    @Test
+    void testObtenerObligacionesPorCasa_WhenCasasExist() throws IOException {
+        when(casaRepository.findAll()).thenReturn(List.of(casa));
+        when(personaRepository.findPropietariosYArrendatarios()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Juan", "Pérez", 3123456789L, "propietario@mail.com")));
+        when(pagoDetalleRepository.findFechasUltimoPagoPorCasa()).thenReturn(List.of(
+                new UltimoPagoCasaDTO(1L, LocalDate.of(2025, 3, 15))));
+        when(obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)).thenReturn(Stream.of(
+                obligacionCasa(1L, 101, 10L, "Cuota de administración", 50000, 2000),
+                obligacionCasa(1L, 101, 11L, "Fondo de reserva", 40000, 0)));
+
+        SuccessResult<List<CasaDeudoraDTO>> result = leer(casaService.obtenerObligacionesPorCasa());
 
-        // Assert
         assertThat(result).isNotNull();
         assertThat(result.data()).hasSize(1);
         assertThat(result.message()).isEqualTo("Casas con obligaciones por cobrar obtenidas correctamente");
@@ -557,6 +421,7 @@ class CasaServiceTest {
         assertThat(dto.getPropietario().getNombreCompleto()).isEqualTo("Juan Pérez");
         assertThat(dto.getPropietario().getCorreo()).isEqualTo("propietario@mail.com");
         assertThat(dto.getSaldoPendiente()).isEqualTo(90000);
+        assertThat(dto.getInteres()).isEqualTo(2000);
         assertThat(dto.getUltimoPago()).isEqualTo(LocalDate.of(2025, 3, 15));
 
         assertThat(dto.getObligacionesPendientes()).hasSize(2);
@@ -564,10 +429,8 @@ class CasaServiceTest {
         assertThat(dto.getObligacionesPendientes().get(1).getTitulo()).isEqualTo("Fondo de reserva");
 
         verify(casaRepository).findAll();
-        verify(personaRepository).findPropietarioByCasaId(1L);
-        verify(obligacionRepository).findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(1L, EstadoPago.CONDONADO);
-        verify(pagoService).obtenerFechaUltimoPagoPorCasa(1L);
-
+        verify(obligacionRepository).streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO);
+        verify(pagoDetalleRepository).findFechasUltimoPagoPorCasa();
     }
 
     @Test
@@ -580,31 +443,38 @@ class CasaServiceTest {
     }
 
     @Test
-    void testObtenerObligacionesPorCasa_WhenNoPropietario() {
-        Casa newCasa = new Casa();
-        newCasa.setId(2L);
-        newCasa.setNumeroCasa(202);
-
-        Obligacion obligacion = new Obligacion();
-        obligacion.setId(20L);
-        obligacion.setTitulo("Mantenimiento");
-        obligacion.setEstadoPago(EstadoPago.PENDIENTE);
-        obligacion.setMonto(30000);
-        obligacion.setValorPendiente(30000);
-        obligacion.setCasa(newCasa);
-
-        when(casaRepository.findAll()).thenReturn(List.of(newCasa));
-        when(personaRepository.findPropietarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(obligacionRepository.findByCasaIdAndEstadoPagoIsNotOrderByFechaGeneradaDesc(2L, EstadoPago.CONDONADO))
-                .thenReturn(List.of(obligacion));
-        when(pagoService.obtenerFechaUltimoPagoPorCasa(2L)).thenReturn(Optional.empty());
+    void testObtenerObligacionesPorCasa_IncluyeCasasSinObligaciones() throws IOException {
+        Casa casa2 = new Casa();
+        casa2.setId(2L);
+        casa2.setNumeroCasa(202);
+        Casa casa3 = new Casa();
+        casa3.setId(3L);
+        casa3.setNumeroCasa(303);
+        when(casaRepository.findAll()).thenReturn(List.of(casa3, casa2, casa));
+        when(obligacionRepository.streamPorCasaExcluyendoEstado(EstadoPago.CONDONADO)).thenReturn(Stream.of(
+                obligacionCasa(2L, 202, 20L, "Mantenimiento", 30000, 0)));
+
+        List<CasaDeudoraDTO> dtos = leer(casaService.obtenerObligacionesPorCasa()).data();
+
+        assertThat(dtos).extracting(CasaDeudoraDTO::getNumeroCasa).containsExactly(101, 202, 303);
+        assertThat(dtos.get(0).getObligacionesPendientes()).isEmpty();
+        assertThat(dtos.get(0).getPropietario()).isNull();
+        assertThat(dtos.get(1).getSaldoPendiente()).isEqualTo(30000);
+        assertThat(dtos.get(1).getUltimoPago()).isNull();
+        assertThat(dtos.get(2).getSaldoPendiente()).isZero();
+    }
 
-        SuccessResult<List<CasaDeudoraDTO>> result = casaService.obtenerObligacionesPorCasa();
+    private SuccessResult<List<CasaDeudoraDTO>> leer(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return objectMapper.readValue(out.toByteArray(), new TypeReference<>() {});
+    }
 
-        CasaDeudoraDTO dto = result.data().getFirst();
-        assertThat(dto.getPropietario()).isNull();
-        assertThat(dto.getSaldoPendiente()).isEqualTo(30000);
-        assertThat(dto.getUltimoPago()).isNull();
+    private ObligacionCasaDTO obligacionCasa(Long casaId, int numeroCasa, Long id, String titulo,
+                                             int valorPendiente, int interes) {
+        return new ObligacionCasaDTO(casaId, numeroCasa, id, LocalDate.of(2025, 1, 1), titulo, titulo,
+                valorPendiente, valorPendiente, valorPendiente, 0, TipoObligacion.ADMINISTRACION,
+                EstadoPago.PENDIENTE, interes, 0);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.condominio;
+
+import com.condominio.persistence.model.CausacionInteres;
+import com.condominio.persistence.repository.CausacionInteresRepository;
+import com.condominio.persistence.repository.ObligacionRepository;
+import com.condominio.persistence.repository.SaldoCasaRepository;
+import com.condominio.service.implementation.CausacionInteresService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CausacionInteresServiceTest {
+
+    @Mock
+    private ObligacionRepository obligacionRepository;
+    @Mock
+    private CausacionInteresRepository causacionInteresRepository;
+    @Mock
+    private SaldoCasaRepository saldoCasaRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CausacionInteresService causacionInteresService;
+
+    private final LocalDate hoy = LocalDate.of(2025, 11, 15);
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(causacionInteresService, "tamanoLote", 100);
+        ReflectionTestUtils.setField(causacionInteresService, "valorMora", 5000);
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(causacionInteresRepository.save(any(CausacionInteres.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void causar_deberiaActualizarPorRangosDeIdYRegistrarEstadisticas() {
+        when(causacionInteresRepository.findTopByFechaFinIsNotNullOrderByFechaCorteDesc()).thenReturn(Optional.empty());
+        when(obligacionRepository.findMinIdPorCausar(hoy)).thenReturn(1L);
+        when(obligacionRepository.findMaxIdPorCausar(hoy)).thenReturn(250L);
+        when(obligacionRepository.causarIntereses(anyLong(), anyLong(), eq(hoy), eq(5000))).thenReturn(40);
+
+        CausacionInteres corrida = causacionInteresService.causar(hoy);
+
+        verify(obligacionRepository).causarIntereses(1L, 100L, hoy, 5000);
+        verify(obligacionRepository).causarIntereses(101L, 200L, hoy, 5000);
+        verify(obligacionRepository).causarIntereses(201L, 250L, hoy, 5000);
+        verify(saldoCasaRepository).recalcularCausadas(hoy);
+        verify(transactionTemplate, times(4)).execute(any());
+        assertThat(corrida.getLotes()).isEqualTo(3);
+        assertThat(corrida.getObligacionesCausadas()).isEqualTo(120);
+        assertThat(corrida.getFechaCorte()).isEqualTo(hoy);
+        assertThat(corrida.getFechaFin()).isNotNull();
+    }
+
+    @Test
+    void causar_sinObligacionesVencidas_deberiaRegistrarCorridaVacia() {
+        when(causacionInteresRepository.findTopByFechaFinIsNotNullOrderByFechaCorteDesc()).thenReturn(Optional.empty());
+        when(obligacionRepository.findMinIdPorCausar(hoy)).thenReturn(null);
+        when(obligacionRepository.findMaxIdPorCausar(hoy)).thenReturn(null);
+
+        CausacionInteres corrida = causacionInteresService.causar(hoy);
+
+        verify(obligacionRepository, never()).causarIntereses(anyLong(), anyLong(), any(), anyInt());
+        assertThat(corrida.getLotes()).isZero();
+        verifyNoInteractions(saldoCasaRepository);
+        verify(causacionInteresRepository).save(corrida);
+    }
+
+    @Test
+    void causar_conMarcaDeAguaAlDia_noDeberiaTocarObligaciones() {
+        CausacionInteres anterior = CausacionInteres.builder().fechaCorte(hoy).build();
+        when(causacionInteresRepository.findTopByFechaFinIsNotNullOrderByFechaCorteDesc()).thenReturn(Optional.of(anterior));
+
+        CausacionInteres corrida = causacionInteresService.causar(hoy);
+
+        assertThat(corrida).isSameAs(anterior);
+        verifyNoInteractions(obligacionRepository, saldoCasaRepository, transactionTemplate);
+        verify(causacionInteresRepository, never()).save(any());
+    }
+}
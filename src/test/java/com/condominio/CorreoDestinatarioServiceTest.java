@@ -3,8 +3,10 @@ package com.condominio;
 import com.condominio.dto.response.DestinatarioInfoDTO;
 import com.condominio.persistence.model.Casa;
 import com.condominio.persistence.model.CorreoEnviado;
+import com.condominio.persistence.model.EstadoCorreo;
 import com.condominio.persistence.model.Persona;
 import com.condominio.persistence.model.UserEntity;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
 import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.persistence.repository.UserRepository;
@@ -20,6 +22,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +39,8 @@ class CorreoDestinatarioServiceTest {
     @Mock
     private CorreoEnviadoRepository correoEnviadoRepository;
     @Mock
+    private CorreoDestinatarioRepository correoDestinatarioRepository;
+    @Mock
     private UserRepository userRepository;
     @Mock
     private PersonaRepository personaRepository;
@@ -45,7 +51,7 @@ class CorreoDestinatarioServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new CorreoDestinatarioService(correoEnviadoRepository, userRepository, personaRepository, objectMapper);
+        service = new CorreoDestinatarioService(correoEnviadoRepository, correoDestinatarioRepository, userRepository, personaRepository, objectMapper);
     }
 
     @Test
@@ -87,6 +93,22 @@ class CorreoDestinatarioServiceTest {
         assertEquals("test@correo.com", dto.getEmail());
     }
 
+    @Test
+    void getDestinatariosInfo_conDestinatariosRegistrados_noDeberiaLeerElJson() {
+        DestinatarioInfoDTO enviado = new DestinatarioInfoDTO("Juan", null, "Pérez", null, 5L, "a@correo.com",
+                EstadoCorreo.ENVIADO, 1, LocalDateTime.of(2025, 10, 1, 8, 0));
+        DestinatarioInfoDTO externo = new DestinatarioInfoDTO(null, null, null, null, null, "b@correo.com",
+                EstadoCorreo.FALLIDO, 6, LocalDateTime.of(2025, 10, 1, 9, 0));
+        when(correoDestinatarioRepository.findInfoByCorreoEnviadoId(1L)).thenReturn(List.of(enviado, externo));
+
+        List<DestinatarioInfoDTO> result = service.getDestinatariosInfo(1L);
+
+        assertEquals(List.of(enviado, externo), result);
+        assertEquals("Juan Pérez", result.get(0).getNombreCompleto());
+        assertNull(result.get(1).getNombreCompleto());
+        verifyNoInteractions(correoEnviadoRepository, userRepository, personaRepository, objectMapper);
+    }
+
     @Test
     void getDestinatariosInfo_correoNotFound_throwsException() {
         when(correoEnviadoRepository.findById(anyLong())).thenReturn(Optional.empty());
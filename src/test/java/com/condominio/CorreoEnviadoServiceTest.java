@@ -1,10 +1,14 @@
 package com.condominio;
 
+import com.condominio.dto.response.CorreoEnviadoDTO;
+import com.condominio.dto.response.EmailComunicadoDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.CorreoEnviado;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
 import com.condominio.service.implementation.CorreoEnviadoService;
 import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,12 +25,14 @@ import static org.mockito.Mockito.*;
 class CorreoEnviadoServiceTest {
 
     private CorreoEnviadoRepository correoEnviadoRepository;
+    private CorreoDestinatarioRepository correoDestinatarioRepository;
     private CorreoEnviadoService service;
 
     @BeforeEach
     void setUp() {
         correoEnviadoRepository = mock(CorreoEnviadoRepository.class);
-        service = new CorreoEnviadoService(correoEnviadoRepository);
+        correoDestinatarioRepository = mock(CorreoDestinatarioRepository.class);
+        service = new CorreoEnviadoService(correoEnviadoRepository, correoDestinatarioRepository, new ObjectMapper());
     }
 
     @Test
@@ -41,7 +47,7 @@ class CorreoEnviadoServiceTest {
         when(correoEnviadoRepository.findAll()).thenReturn(lista);
 
         // Ejecutar
-        List<CorreoEnviado> result = service.findAll();
+        List<CorreoEnviadoDTO> result = service.findAll();
 
         // Verificar
         assertEquals(1, result.size());
@@ -49,6 +55,24 @@ class CorreoEnviadoServiceTest {
         assertEquals("Cuerpo del correo", result.get(0).getCuerpo());
     }
 
+    @Test
+    void findAll_destinatariosDesdeCorreoDestinatarioYListaAnterior() {
+        CorreoEnviado nuevo = new CorreoEnviado();
+        nuevo.setId(2L);
+        CorreoEnviado anterior = new CorreoEnviado();
+        anterior.setId(1L);
+        anterior.setDestinatarios("[\"viejo@mail.com\"]");
+        when(correoEnviadoRepository.findAll()).thenReturn(List.of(anterior, nuevo));
+        when(correoDestinatarioRepository.findEmailsDeComunicados()).thenReturn(List.of(
+                new EmailComunicadoDTO(2L, "ana@mail.com"),
+                new EmailComunicadoDTO(2L, "eva@mail.com")));
+
+        List<CorreoEnviadoDTO> result = service.findAll();
+
+        assertEquals("[\"viejo@mail.com\"]", result.get(0).getDestinatarios());
+        assertEquals("[\"ana@mail.com\",\"eva@mail.com\"]", result.get(1).getDestinatarios());
+    }
+
     @Test
     void findAll_emptyList_throwsApiException() {
         when(correoEnviadoRepository.findAll()).thenReturn(List.of());
@@ -73,6 +97,7 @@ class CorreoEnviadoServiceTest {
 
         // Check deleteById was called
         Mockito.verify(correoEnviadoRepository).deleteById(id);
+        Mockito.verify(correoDestinatarioRepository).eliminarPorCorreoEnviado(id);
 
         Assertions.assertEquals(
                 "Registro de  comunicado eliminado correctamente",
@@ -0,0 +1,222 @@
+package com.condominio;
+
+import com.condominio.dto.response.AvanceCampanaDTO;
+import com.condominio.dto.response.ConteoEstadoCorreoDTO;
+import com.condominio.persistence.model.CorreoDestinatario;
+import com.condominio.persistence.model.CorreoSaliente;
+import com.condominio.persistence.model.EstadoCorreo;
+import com.condominio.persistence.model.HistorialCorreoSaliente;
+import com.condominio.persistence.model.TipoCorreo;
+import com.condominio.persistence.repository.CorreoDestinatarioRepository;
+import com.condominio.persistence.repository.CorreoSalienteRepository;
+import com.condominio.persistence.repository.HistorialCorreoSalienteRepository;
+import com.condominio.service.implementation.CorreoSalienteService;
+import com.condominio.util.exception.ApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CorreoSalienteServiceTest {
+
+    @Mock
+    private CorreoSalienteRepository correoSalienteRepository;
+
+    @Mock
+    private HistorialCorreoSalienteRepository historialCorreoSalienteRepository;
+
+    @Mock
+    private CorreoDestinatarioRepository correoDestinatarioRepository;
+
+    private CorreoSalienteService correoSalienteService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        correoSalienteService = new CorreoSalienteService(correoSalienteRepository, historialCorreoSalienteRepository,
+                correoDestinatarioRepository, new ObjectMapper());
+        ReflectionTestUtils.setField(correoSalienteService, "maxIntentos", 3);
+        ReflectionTestUtils.setField(correoSalienteService, "backoffInicialSegundos", 30L);
+        ReflectionTestUtils.setField(correoSalienteService, "backoffMaximoSegundos", 100L);
+        ReflectionTestUtils.setField(correoSalienteService, "reclamoVencidoMinutos", 15L);
+        when(correoSalienteRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void encolar_deberiaDejarPendienteYRegistrarHistorial() {
+        CorreoSaliente correo = correoSalienteService.nuevo(TipoCorreo.PAGO, List.of("a@mail.com", "b@mail.com"),
+                "Pago", "<html/>", true);
+        correo.setId(1L);
+
+        CorreoSaliente encolado = correoSalienteService.encolar(correo);
+
+        assertThat(encolado.getEstado()).isEqualTo(EstadoCorreo.PENDIENTE);
+        assertThat(encolado.getIntentos()).isZero();
+        assertThat(encolado.getProximoIntento()).isNotNull();
+        assertThat(correoSalienteService.destinatarios(encolado)).containsExactly("a@mail.com", "b@mail.com");
+        List<HistorialCorreoSaliente> historial = historialGuardado();
+        assertThat(historial).singleElement().satisfies(h -> {
+            assertThat(h.getCorreoId()).isEqualTo(1L);
+            assertThat(h.getEstado()).isEqualTo(EstadoCorreo.PENDIENTE);
+        });
+    }
+
+    @Test
+    void reclamarListos_deberiaMarcarEnviandoYContarElIntento() {
+        CorreoSaliente pendiente = CorreoSaliente.builder().id(1L).estado(EstadoCorreo.PENDIENTE).intentos(0).build();
+        CorreoSaliente interrumpido = CorreoSaliente.builder().id(2L).estado(EstadoCorreo.ENVIANDO).intentos(1).build();
+        when(correoSalienteRepository.reclamarListos(any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(pendiente, interrumpido));
+
+        List<CorreoSaliente> reclamados = correoSalienteService.reclamarListos(10);
+
+        assertThat(reclamados).extracting(CorreoSaliente::getEstado).containsOnly(EstadoCorreo.ENVIANDO);
+        assertThat(reclamados).extracting(CorreoSaliente::getIntentos).containsExactly(1, 2);
+        assertThat(pendiente.getFechaReclamo()).isNotNull();
+        ArgumentCaptor<LocalDateTime> ahora = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> vencido = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(correoSalienteRepository).reclamarListos(ahora.capture(), vencido.capture(), argThat(p -> p.getPageSize() == 10));
+        assertThat(Duration.between(vencido.getValue(), ahora.getValue())).isEqualTo(Duration.ofMinutes(15));
+        assertThat(historialGuardado()).extracting(HistorialCorreoSaliente::getDetalle)
+                .containsExactly("Intento 1", "Envío anterior sin confirmar, se reintenta");
+    }
+
+    @Test
+    void registrarFallo_deberiaReprogramarConEsperaExponencialHastaElMaximo() {
+        CorreoSaliente correo = CorreoSaliente.builder().id(1L).estado(EstadoCorreo.ENVIANDO).intentos(1).build();
+        when(correoSalienteRepository.findById(1L)).thenReturn(Optional.of(correo));
+
+        correoSalienteService.registrarFallo(1L, new MailSendException("SMTP caído"));
+
+        assertThat(correo.getEstado()).isEqualTo(EstadoCorreo.PENDIENTE);
+        assertThat(correo.getUltimoError()).isEqualTo("MailSendException: SMTP caído");
+        assertThat(Duration.between(LocalDateTime.now(ZONE), correo.getProximoIntento()))
+                .isBetween(Duration.ofSeconds(25), Duration.ofSeconds(30));
+
+        correo.setIntentos(2);
+        correoSalienteService.registrarFallo(1L, new MailSendException("SMTP caído"));
+
+        assertThat(Duration.between(LocalDateTime.now(ZONE), correo.getProximoIntento()))
+                .isBetween(Duration.ofSeconds(55), Duration.ofSeconds(60));
+    }
+
+    @Test
+    void registrarFallo_alAgotarIntentos_deberiaQuedarFallido() {
+        CorreoSaliente correo = CorreoSaliente.builder().id(1L).estado(EstadoCorreo.ENVIANDO).intentos(3).build();
+        when(correoSalienteRepository.findById(1L)).thenReturn(Optional.of(correo));
+
+        correoSalienteService.registrarFallo(1L, new MailSendException("Buzón inexistente"));
+
+        assertThat(correo.getEstado()).isEqualTo(EstadoCorreo.FALLIDO);
+        verify(historialCorreoSalienteRepository).save(argThat(h ->
+                h.getEstado() == EstadoCorreo.FALLIDO && h.getIntento() == 3));
+    }
+
+    @Test
+    void registrarEnvios_deberiaMarcarEnviadoElBloqueCompleto() {
+        CorreoSaliente primero = CorreoSaliente.builder().id(1L).estado(EstadoCorreo.ENVIANDO).intentos(2)
+                .ultimoError("timeout").build();
+        CorreoSaliente segundo = CorreoSaliente.builder().id(2L).estado(EstadoCorreo.ENVIANDO).intentos(1).build();
+        when(correoSalienteRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(primero, segundo));
+
+        correoSalienteService.registrarEnvios(List.of(1L, 2L));
+
+        assertThat(List.of(primero, segundo)).allSatisfy(correo -> {
+            assertThat(correo.getEstado()).isEqualTo(EstadoCorreo.ENVIADO);
+            assertThat(correo.getFechaEnvio()).isNotNull();
+            assertThat(correo.getUltimoError()).isNull();
+        });
+        assertThat(historialGuardado()).extracting(HistorialCorreoSaliente::getCorreoId).containsExactly(1L, 2L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HistorialCorreoSaliente> historialGuardado() {
+        ArgumentCaptor<List<HistorialCorreoSaliente>> captor = ArgumentCaptor.forClass(List.class);
+        verify(historialCorreoSalienteRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void encolarComunicado_deberiaRegistrarUnDestinatarioPorCorreoEnUnLote() {
+        List<CorreoSaliente> correos = List.of(
+                correoSalienteService.nuevo(TipoCorreo.MASIVO, List.of("a@mail.com"), "Aviso", "<p/>", true),
+                correoSalienteService.nuevo(TipoCorreo.MASIVO, List.of("b@mail.com"), "Aviso", "<p/>", true));
+        correos.get(0).setId(10L);
+        correos.get(1).setId(11L);
+
+        correoSalienteService.encolarComunicado(3L, correos);
+
+        ArgumentCaptor<List<CorreoDestinatario>> lote = ArgumentCaptor.forClass(List.class);
+        verify(correoDestinatarioRepository, times(1)).insertarEnLote(lote.capture());
+        assertThat(lote.getValue()).extracting(CorreoDestinatario::getCorreoEnviadoId,
+                        CorreoDestinatario::getCorreoSalienteId, CorreoDestinatario::getEmail, CorreoDestinatario::getEstado)
+                .containsExactly(tuple(3L, 10L, "a@mail.com", EstadoCorreo.PENDIENTE),
+                        tuple(3L, 11L, "b@mail.com", EstadoCorreo.PENDIENTE));
+    }
+
+    @Test
+    void cambiosDeEstado_soloDeberianActualizarDestinatariosDeComunicados() {
+        CorreoSaliente comunicado = CorreoSaliente.builder().id(1L).tipo(TipoCorreo.MASIVO)
+                .estado(EstadoCorreo.PENDIENTE).intentos(0).build();
+        CorreoSaliente pago = CorreoSaliente.builder().id(2L).tipo(TipoCorreo.PAGO)
+                .estado(EstadoCorreo.PENDIENTE).intentos(0).build();
+        when(correoSalienteRepository.reclamarListos(any(), any(), any(Pageable.class))).thenReturn(List.of(comunicado, pago));
+        when(correoSalienteRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(comunicado, pago));
+        when(correoSalienteRepository.findById(1L)).thenReturn(Optional.of(comunicado));
+
+        correoSalienteService.reclamarListos(10);
+        correoSalienteService.registrarEnvios(List.of(1L, 2L));
+        correoSalienteService.registrarFallo(1L, new MailSendException("Buzón inexistente"));
+
+        verify(correoDestinatarioRepository).marcarEnviando(eq(List.of(1L)), any());
+        verify(correoDestinatarioRepository).actualizarEstado(eq(List.of(1L)), eq(EstadoCorreo.ENVIADO), any());
+        verify(correoDestinatarioRepository).actualizarEstado(eq(List.of(1L)), eq(EstadoCorreo.PENDIENTE), any());
+        verifyNoMoreInteractions(correoDestinatarioRepository);
+    }
+
+    @Test
+    void avanceCampana_deberiaSumarLosConteosPorEstado() {
+        when(correoSalienteRepository.contarPorCampana("asamblea-7")).thenReturn(List.of(
+                new ConteoEstadoCorreoDTO(EstadoCorreo.ENVIADO, 40L),
+                new ConteoEstadoCorreoDTO(EstadoCorreo.PENDIENTE, 8L),
+                new ConteoEstadoCorreoDTO(EstadoCorreo.FALLIDO, 2L)));
+
+        AvanceCampanaDTO avance = correoSalienteService.avanceCampana("asamblea-7").data();
+
+        assertThat(avance).isEqualTo(new AvanceCampanaDTO("asamblea-7", 50, 8, 0, 40, 2));
+    }
+
+    @Test
+    void avanceCampana_sinCorreos_deberiaLanzarExcepcion() {
+        when(correoSalienteRepository.contarPorCampana("asamblea-99")).thenReturn(List.of());
+
+        assertThatThrownBy(() -> correoSalienteService.avanceCampana("asamblea-99"))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("No hay correos para la campaña asamblea-99");
+    }
+}
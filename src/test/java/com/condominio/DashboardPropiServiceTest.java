@@ -4,13 +4,14 @@ import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
 import com.condominio.service.implementation.DashboardPropiService;
+import com.condominio.service.implementation.SaldoCasaService;
 import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.ResidenteActual;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
@@ -36,7 +37,7 @@ public class DashboardPropiServiceTest {
     @Mock
     private MascotaRepository mascotaRepository;
     @Mock
-    private ObligacionRepository obligacionRepository;
+    private SaldoCasaService saldoCasaService;
     @Mock
     private PagoDetalleRepository pagoDetalleRepository;
     @Mock
@@ -44,7 +45,6 @@ public class DashboardPropiServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
-    @InjectMocks
     private DashboardPropiService service;
 
     private Persona persona;
@@ -58,6 +58,9 @@ public class DashboardPropiServiceTest {
 
     @BeforeEach
     void setup() {
+        service = new DashboardPropiService(personaRepository, miembroRepository, mascotaRepository,
+                pagoDetalleRepository, solicitudRepository, modelMapper, saldoCasaService,
+                new ResidenteActual(personaRepository));
         // datos base
         casa = Casa.builder()
                 .id(11L)
@@ -83,7 +86,7 @@ public class DashboardPropiServiceTest {
         // limpiar contexto para no contaminar otros tests
         TestSecurityUtil.clearAuth();
         // resetear mocks (opcional, MockitoExtension normalmente lo maneja)
-        clearInvocations(personaRepository, miembroRepository, mascotaRepository, obligacionRepository, pagoDetalleRepository, solicitudRepository, modelMapper);
+        clearInvocations(personaRepository, miembroRepository, mascotaRepository, saldoCasaService, pagoDetalleRepository, solicitudRepository, modelMapper);
     }
 
     // ---------- getPropiBasicInfo tests ----------
@@ -165,7 +168,8 @@ public class DashboardPropiServiceTest {
                 .valorPendiente(200_000)
                 .motivo("Administración Enero")
                 .build();
-        when(obligacionRepository.findByCasaId(casa.getId())).thenReturn(List.of(o1));
+        when(saldoCasaService.obtener(casa.getId()))
+                .thenReturn(SaldoCasa.builder().casaId(casa.getId()).saldoPendiente(200_000).build());
 
         // pago detalle and pago (pago parcial: 200k < 300k)
         Pago pago = Pago.builder()
@@ -203,7 +207,7 @@ public class DashboardPropiServiceTest {
         // Pago parcial -> no fue pago completo
         assertFalse(ultimo.isFueAbonoCompleto());
 
-        verify(obligacionRepository).findByCasaId(casa.getId());
+        verify(saldoCasaService).obtener(casa.getId());
         verify(pagoDetalleRepository).findTopByObligacionCasaIdOrderByPagoFechaPagoDesc(casa.getId());
     }
 
@@ -211,7 +215,8 @@ public class DashboardPropiServiceTest {
     void getAccountStatus_withoutLastPayment() {
         // arrange
         when(personaRepository.findByUserEmail("propietario@example.com")).thenReturn(Optional.of(persona));
-        when(obligacionRepository.findByCasaId(casa.getId())).thenReturn(List.of()); // sin obligaciones
+        when(saldoCasaService.obtener(casa.getId()))
+                .thenReturn(SaldoCasa.builder().casaId(casa.getId()).build()); // sin obligaciones
         when(pagoDetalleRepository.findTopByObligacionCasaIdOrderByPagoFechaPagoDesc(casa.getId()))
                 .thenReturn(Optional.empty());
 
@@ -225,7 +230,7 @@ public class DashboardPropiServiceTest {
         assertEquals(EstadoFinancieroCasa.AL_DIA, dto.getEstadoCasa());
         assertNull(dto.getUltimoPago());
 
-        verify(obligacionRepository).findByCasaId(casa.getId());
+        verify(saldoCasaService).obtener(casa.getId());
     }
 
     // ---------- getSolicitudesPropietario tests ----------
@@ -0,0 +1,244 @@
+package com.condominio;
+
+import com.condominio.persistence.model.AdjuntoCorreo;
+import com.condominio.persistence.model.CorreoSaliente;
+import com.condominio.persistence.model.TipoCorreo;
+import com.condominio.persistence.repository.AdjuntoCorreoRepository;
+import com.condominio.service.implementation.AdjuntoCorreoService;
+import com.condominio.service.implementation.CorreoSalienteService;
+import com.condominio.service.implementation.DespachoCorreoService;
+import com.condominio.service.implementation.LimiteEnvioCorreoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DespachoCorreoServiceTest {
+
+    @Mock
+    private CorreoSalienteService correoSalienteService;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private AdjuntoCorreoRepository adjuntoCorreoRepository;
+
+    @TempDir
+    private Path directorioAdjuntos;
+
+    private AdjuntoCorreoService adjuntoCorreoService;
+
+    private DespachoCorreoService despachoCorreoService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        adjuntoCorreoService = new AdjuntoCorreoService(adjuntoCorreoRepository, mock(TransactionTemplate.class),
+                directorioAdjuntos, 24);
+        despachoCorreoService = despachador(new LimiteEnvioCorreoService(100, 1000, meterRegistry));
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage(Session.getInstance(new Properties())));
+        when(correoSalienteService.destinatarios(any())).thenReturn(List.of("a@mail.com"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void despachar_deberiaEnviarCadaBloquePorUnaConexionHastaVaciarLaBandeja() {
+        when(correoSalienteService.reclamarListos(4))
+                .thenReturn(correos(1, 4), correos(5, 5));
+        List<Integer> mensajesPorLlamada = new ArrayList<>();
+        doAnswer(inv -> mensajesPorLlamada.add(inv.getArguments().length))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService, times(2)).reclamarListos(4);
+        assertThat(mensajesPorLlamada).containsExactly(3, 1, 1);
+        verify(correoSalienteService).registrarEnvios(List.of(1L, 2L, 3L));
+        verify(correoSalienteService).registrarEnvios(List.of(4L));
+        verify(correoSalienteService).registrarEnvios(List.of(5L));
+        verify(correoSalienteService, never()).registrarFallo(anyLong(), any());
+    }
+
+    @Test
+    void despachar_siFallaUnMensajeDelBloque_deberiaRegistrarSoloEseFallo() {
+        when(correoSalienteService.reclamarListos(4)).thenReturn(correos(1, 3));
+        MessagingException rechazo = new MessagingException("550 buzón inexistente");
+        doAnswer(inv -> {
+            throw new MailSendException(Map.of(inv.getArgument(1), rechazo));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService).registrarFallo(2L, rechazo);
+        verify(correoSalienteService).registrarEnvios(List.of(1L, 3L));
+    }
+
+    @Test
+    void despachar_siFallaSinIndicarMensajes_noDeberiaReintentarNinguno() {
+        when(correoSalienteService.reclamarListos(4)).thenReturn(correos(1, 2));
+        doThrow(new MailSendException("Failed to close server connection after message sending"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService, never()).registrarFallo(any(), any());
+        verify(correoSalienteService).registrarEnvios(List.of(1L, 2L));
+    }
+
+    @Test
+    void despachar_siNoConecta_deberiaRegistrarFalloDeTodoElBloque() {
+        when(correoSalienteService.reclamarListos(4)).thenReturn(correos(1, 2));
+        doThrow(new MailAuthenticationException("credenciales inválidas"))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService).registrarFallo(eq(1L), any(MailAuthenticationException.class));
+        verify(correoSalienteService).registrarFallo(eq(2L), any(MailAuthenticationException.class));
+        verify(correoSalienteService, never()).registrarEnvios(any());
+    }
+
+    @Test
+    void despachar_deberiaPartirLosBloquesSegunElCupoPorSegundoYPublicarMetricas() {
+        meterRegistry = new SimpleMeterRegistry();
+        adjuntoCorreoService = new AdjuntoCorreoService(adjuntoCorreoRepository, mock(TransactionTemplate.class),
+                directorioAdjuntos, 24);
+        despachoCorreoService = despachador(new LimiteEnvioCorreoService(2, 1000, meterRegistry));
+        when(correoSalienteService.reclamarListos(4)).thenReturn(correos(1, 4), List.of());
+        when(correoSalienteService.contarPendientes()).thenReturn(4L, 0L, 0L);
+        List<Long> inicios = new ArrayList<>();
+        doAnswer(inv -> inicios.add(System.nanoTime())).when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService).registrarEnvios(List.of(1L, 2L));
+        verify(correoSalienteService).registrarEnvios(List.of(3L, 4L));
+        assertThat(inicios.get(1) - inicios.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(950));
+        assertThat(meterRegistry.get("correo.enviados").tag("resultado", "enviado").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("correo.despacho.en.curso").gauge().value()).isZero();
+        assertThat(meterRegistry.get("correo.outbox.pendientes").gauge().value()).isZero();
+        assertThat(meterRegistry.get("correo.limite.espera").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void despachar_conAdjuntoCompartido_deberiaConsultarloUnaVezYLeerloDelDisco() throws Exception {
+        List<CorreoSaliente> lote = correos(1, 3);
+        lote.forEach(correo -> {
+            correo.setAdjuntoId(9L);
+            correo.setNombreAdjunto("acta.pdf");
+        });
+        when(correoSalienteService.reclamarListos(4)).thenReturn(lote);
+        guardarAdjunto(9L, "contenido del acta");
+        List<MimeMessage> enviados = new ArrayList<>();
+        doAnswer(inv -> {
+            for (Object mensaje : inv.getArguments()) {
+                enviados.add((MimeMessage) mensaje);
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        despachoCorreoService.despachar();
+
+        verify(adjuntoCorreoRepository, times(1)).findById(9L);
+        assertThat(enviados).hasSize(3);
+        for (MimeMessage mensaje : enviados) {
+            mensaje.saveChanges();
+            MimeMultipart contenido = (MimeMultipart) mensaje.getContent();
+            assertThat(contenido.getCount()).isEqualTo(2);
+            assertThat(contenido.getBodyPart(1).getFileName()).isEqualTo("acta.pdf");
+            assertThat(contenido.getBodyPart(1).getContentType()).startsWith("application/pdf");
+            assertThat(new String(contenido.getBodyPart(1).getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("contenido del acta");
+        }
+    }
+
+    @Test
+    void despachar_siFaltaElArchivoDelAdjunto_deberiaRegistrarFalloSinEnviar() throws Exception {
+        List<CorreoSaliente> lote = correos(1, 2);
+        lote.forEach(correo -> correo.setAdjuntoId(9L));
+        when(correoSalienteService.reclamarListos(4)).thenReturn(lote);
+        guardarAdjunto(9L, "contenido del acta");
+        try (var archivos = Files.list(directorioAdjuntos)) {
+            for (Path archivo : archivos.toList()) {
+                Files.delete(archivo);
+            }
+        }
+
+        despachoCorreoService.despachar();
+
+        verify(correoSalienteService).registrarFallo(eq(1L), any(IllegalStateException.class));
+        verify(correoSalienteService).registrarFallo(eq(2L), any(IllegalStateException.class));
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+
+    private void guardarAdjunto(Long id, String contenido) throws Exception {
+        when(adjuntoCorreoRepository.bloquearPorHash(any())).thenAnswer(inv -> Optional.of(
+                AdjuntoCorreo.builder().id(id).hash(inv.getArgument(0)).tamano(contenido.length()).build()));
+        adjuntoCorreoService.guardar(new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)));
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(adjuntoCorreoRepository).bloquearPorHash(hash.capture());
+        when(adjuntoCorreoRepository.findById(id)).thenReturn(Optional.of(
+                AdjuntoCorreo.builder().id(id).hash(hash.getValue()).tamano(contenido.length()).build()));
+        clearInvocations(adjuntoCorreoRepository);
+    }
+
+    private DespachoCorreoService despachador(LimiteEnvioCorreoService limite) {
+        DespachoCorreoService despachador = new DespachoCorreoService(correoSalienteService, mailSender,
+                new SyncTaskExecutor(), limite, adjuntoCorreoService, meterRegistry);
+        ReflectionTestUtils.setField(despachador, "tamanoLote", 4);
+        ReflectionTestUtils.setField(despachador, "mensajesPorConexion", 3);
+        return despachador;
+    }
+
+    private static List<CorreoSaliente> correos(long desde, long hasta) {
+        return LongStream.rangeClosed(desde, hasta)
+                .mapToObj(id -> CorreoSaliente.builder()
+                        .id(id)
+                        .tipo(TipoCorreo.PAGO)
+                        .asunto("Pago")
+                        .cuerpo("<html/>")
+                        .html(true)
+                        .build())
+                .toList();
+    }
+}
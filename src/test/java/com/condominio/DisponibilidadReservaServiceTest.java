@@ -0,0 +1,156 @@
+package com.condominio;
+
+import com.condominio.dto.response.DisponibilidadRecursoDTO;
+import com.condominio.dto.response.FranjaHorariaDTO;
+import com.condominio.dto.response.IntervaloReservaDTO;
+import com.condominio.dto.response.SuccessResult;
+import com.condominio.persistence.model.DisponibilidadRecurso;
+import com.condominio.persistence.model.RecursoComun;
+import com.condominio.persistence.repository.RecursoComunRepository;
+import com.condominio.persistence.repository.SolicitudReservaRecursoRepository;
+import com.condominio.service.implementation.DisponibilidadReservaService;
+import com.condominio.util.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DisponibilidadReservaServiceTest {
+
+    private static final LocalDate DIA_1 = LocalDate.now().plusDays(1);
+    private static final LocalDate DIA_2 = DIA_1.plusDays(1);
+
+    @Mock
+    private SolicitudReservaRecursoRepository solicitudReservaRecursoRepository;
+
+    @Mock
+    private RecursoComunRepository recursoComunRepository;
+
+    private DisponibilidadReservaService disponibilidadReservaService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        disponibilidadReservaService = nuevoServicio(2, 300);
+    }
+
+    private DisponibilidadReservaService nuevoServicio(int maxEntradas, long ttlSegundos) {
+        DisponibilidadReservaService servicio = new DisponibilidadReservaService(
+                solicitudReservaRecursoRepository, recursoComunRepository, maxEntradas, ttlSegundos);
+        ReflectionTestUtils.setField(servicio, "horaApertura", "08:00");
+        ReflectionTestUtils.setField(servicio, "horaCierre", "20:00");
+        ReflectionTestUtils.setField(servicio, "diasMaximosConsulta", 31);
+        when(recursoComunRepository.findByDisponibilidadRecursoOrderByIdAsc(DisponibilidadRecurso.DISPONIBLE))
+                .thenReturn(List.of(recurso(1L, "Salón"), recurso(3L, "BBQ")));
+        return servicio;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void buscarFranjasLibres_deberiaUnirReservasYDevolverLosHuecos() {
+        when(solicitudReservaRecursoRepository.findIntervalosEntre(isNull(), eq(DIA_1), eq(DIA_2), anyCollection()))
+                .thenReturn(List.of(
+                        intervalo(1L, DIA_1, 7, 9),
+                        intervalo(1L, DIA_1, 10, 12),
+                        intervalo(1L, DIA_1, 11, 13),
+                        intervalo(1L, DIA_1, 19, 21),
+                        intervalo(2L, DIA_1, 9, 10),
+                        intervalo(3L, DIA_2, 8, 20)));
+
+        SuccessResult<List<DisponibilidadRecursoDTO>> result =
+                disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+
+        List<DisponibilidadRecursoDTO> recursos = result.data();
+        assertThat(recursos).extracting(DisponibilidadRecursoDTO::getIdRecurso).containsExactly(1L, 3L);
+        assertThat(recursos.get(0).getDias().get(0).getFranjasLibres()).containsExactly(
+                franja(9, 10), franja(13, 19));
+        assertThat(recursos.get(0).getDias().get(1).getFranjasLibres()).containsExactly(franja(8, 20));
+        assertThat(recursos.get(1).getDias().get(0).getFranjasLibres()).containsExactly(franja(8, 20));
+        assertThat(recursos.get(1).getDias().get(1).getFranjasLibres()).isEmpty();
+    }
+
+    @Test
+    void buscarFranjasLibres_deberiaUsarLaCacheHastaQueCambieUnaReserva() {
+        when(solicitudReservaRecursoRepository.findIntervalosEntre(any(), any(), any(), anyCollection()))
+                .thenReturn(List.of());
+
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+        verify(solicitudReservaRecursoRepository, times(1)).findIntervalosEntre(any(), any(), any(), anyCollection());
+
+        disponibilidadReservaService.invalidar(1L, DIA_2.plusDays(5));
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+        verify(solicitudReservaRecursoRepository, times(1)).findIntervalosEntre(any(), any(), any(), anyCollection());
+
+        disponibilidadReservaService.invalidar(1L, DIA_2);
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+        verify(solicitudReservaRecursoRepository, times(2)).findIntervalosEntre(any(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void buscarFranjasLibres_deberiaGuardarSoloLasConsultasMasRecientes() {
+        when(solicitudReservaRecursoRepository.findIntervalosEntre(any(), any(), any(), anyCollection()))
+                .thenReturn(List.of());
+
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_1, null);
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_2, null);
+        disponibilidadReservaService.buscarFranjasLibres(DIA_2, DIA_2, null);
+        disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_1, null);
+
+        verify(solicitudReservaRecursoRepository, times(2))
+                .findIntervalosEntre(isNull(), eq(DIA_1), eq(DIA_1), anyCollection());
+        verify(solicitudReservaRecursoRepository, times(4)).findIntervalosEntre(any(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void buscarFranjasLibres_deberiaVolverACalcularCuandoVenceLaCache() {
+        DisponibilidadReservaService sinVigencia = nuevoServicio(10, 0);
+        when(solicitudReservaRecursoRepository.findIntervalosEntre(any(), any(), any(), anyCollection()))
+                .thenReturn(List.of());
+
+        sinVigencia.buscarFranjasLibres(DIA_1, DIA_2, null);
+        sinVigencia.buscarFranjasLibres(DIA_1, DIA_2, null);
+
+        verify(solicitudReservaRecursoRepository, times(2)).findIntervalosEntre(any(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void buscarFranjasLibres_conRangoInvalido_deberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> disponibilidadReservaService.buscarFranjasLibres(DIA_2, DIA_1, null))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Por favor, ingresa un rango de fechas valido");
+        assertThatThrownBy(() -> disponibilidadReservaService.buscarFranjasLibres(DIA_1, DIA_1.plusDays(31), null))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("El rango de fechas no puede superar 31 días");
+        verifyNoInteractions(solicitudReservaRecursoRepository);
+    }
+
+    private static RecursoComun recurso(Long id, String nombre) {
+        return RecursoComun.builder().id(id).nombre(nombre).disponibilidadRecurso(DisponibilidadRecurso.DISPONIBLE).build();
+    }
+
+    private static IntervaloReservaDTO intervalo(Long idRecurso, LocalDate fecha, int inicio, int fin) {
+        return new IntervaloReservaDTO(null, idRecurso, fecha, LocalTime.of(inicio, 0), LocalTime.of(fin, 0));
+    }
+
+    private static FranjaHorariaDTO franja(int inicio, int fin) {
+        return new FranjaHorariaDTO(LocalTime.of(inicio, 0), LocalTime.of(fin, 0));
+    }
+}
@@ -1,44 +1,60 @@
 package com.condominio;
 
 import com.condominio.persistence.model.Asamblea;
-import com.condominio.persistence.model.Persona;
-import com.condominio.persistence.model.UserEntity;
 import com.condominio.dto.request.SendEmailsDTO;
+import com.condominio.dto.response.DestinatarioCorreoDTO;
+import com.condominio.dto.response.DestinatarioObligacionDTO;
 import com.condominio.dto.response.MostrarObligacionDTO;
 import com.condominio.dto.response.ObligacionDTO;
 import com.condominio.dto.response.SolicitudReservaRecursoDTO;
 import com.condominio.persistence.model.CorreoEnviado;
+import com.condominio.persistence.model.CorreoSaliente;
 import com.condominio.persistence.model.EstadoSolicitud;
 import com.condominio.persistence.model.RecursoComun;
+import com.condominio.persistence.model.TipoCorreo;
 import com.condominio.persistence.repository.CorreoEnviadoRepository;
+import com.condominio.service.implementation.AdjuntoCorreoService;
+import com.condominio.service.implementation.CorreoSalienteService;
 import com.condominio.service.implementation.EmailService;
+import com.condominio.service.implementation.PlantillaCorreoService;
 import com.condominio.util.exception.ApiException;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 import org.springframework.web.multipart.MultipartFile;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import java.time.LocalTime;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 
@@ -47,25 +63,45 @@ import static org.mockito.Mockito.*;
 class EmailServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
+    private CorreoSalienteService correoSalienteService;
 
     @Mock
     private TemplateEngine templateEngine;
 
     private EmailService emailService;
-    private MimeMessage mimeMessage;
     @Mock
     private CorreoEnviadoRepository correoEnviadoRepository;
+
     @Mock
-    private ObjectMapper objectMapper;
+    private AdjuntoCorreoService adjuntoCorreoService;
 
 
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        emailService = new EmailService(mailSender, templateEngine, correoEnviadoRepository, objectMapper);
-        mimeMessage = mock(MimeMessage.class);
+        emailService = new EmailService(correoSalienteService, templateEngine, correoEnviadoRepository,
+                new PlantillaCorreoService(templateEngine, 16), adjuntoCorreoService);
+        lenient().when(correoSalienteService.nuevo(any(), anyList(), any(), any(), anyBoolean())).thenAnswer(inv ->
+                CorreoSaliente.builder()
+                        .tipo(inv.getArgument(0))
+                        .destinatarios(String.join(",", inv.<List<String>>getArgument(1)))
+                        .asunto(inv.getArgument(2))
+                        .cuerpo(inv.getArgument(3))
+                        .html(inv.getArgument(4))
+                        .build());
+    }
+
+    private List<CorreoSaliente> comunicadoEncolado() {
+        ArgumentCaptor<List<CorreoSaliente>> captor = ArgumentCaptor.forClass(List.class);
+        verify(correoSalienteService).encolarComunicado(any(), captor.capture());
+        return captor.getValue();
+    }
+
+    private CorreoSaliente correoEncolado() {
+        ArgumentCaptor<CorreoSaliente> captor = ArgumentCaptor.forClass(CorreoSaliente.class);
+        verify(correoSalienteService).encolar(captor.capture());
+        return captor.getValue();
     }
 
     @Test
@@ -78,14 +114,14 @@ class EmailServiceTest {
                 .when(spyEmailService)
                 .generarHtmlConThymeleaf("abc123");
 
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
-
         spyEmailService.enviarPasswordTemporal("user@correo.com", "abc123");
 
 
-        verify(mailSender).send(mensaje);
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.PASSWORD_TEMPORAL);
+        assertThat(correo.getDestinatarios()).isEqualTo("user@correo.com");
+        assertThat(correo.getCuerpo()).isEqualTo("<html>Mock HTML</html>");
+        assertThat(correo.isHtml()).isTrue();
     }
 
     @Test
@@ -130,12 +166,11 @@ class EmailServiceTest {
                 .when(spyService)
                 .generarHtmlInvitacionAsamblea("Reunión", fecha, hora);
 
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
         spyService.enviarInvitacionAsamblea("user@correo.com", "Reunión", fecha, hora);
 
-        verify(mailSender).send(mensaje);
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.INVITACION_ASAMBLEA);
+        assertThat(correo.getAsunto()).isEqualTo("Invitación a la Asamblea: Reunión");
     }
 
     @Test
@@ -154,14 +189,13 @@ class EmailServiceTest {
                 .when(spyEmailService)
                 .generarHtmlPagoConThymeleaf(obligacionDTO);
 
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
         // Act
         spyEmailService.enviarPago("usuario@correo.com", obligacionDTO);
 
         // Assert
-        verify(mailSender).send(mensaje);
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.PAGO);
+        assertThat(correo.getCuerpo()).isEqualTo("<html>Mock HTML Pago</html>");
         verify(spyEmailService).generarHtmlPagoConThymeleaf(obligacionDTO);
     }
 
@@ -172,29 +206,25 @@ class EmailServiceTest {
         Date fecha = new GregorianCalendar(2025, Calendar.OCTOBER, 14).getTime();
         LocalTime hora = LocalTime.of(15, 30);
 
-        doNothing().when(spyService).enviarInvitacionAsamblea(anyString(), anyString(), any(Date.class), any(LocalTime.class));
-
-        // Creamos personas de prueba
-        UserEntity user1 = new UserEntity();
-        user1.setEmail("a@correo.com");
-        Persona p1 = new Persona();
-        p1.setUser(user1);
-
-        UserEntity user2 = new UserEntity();
-        user2.setEmail("b@correo.com");
-        Persona p2 = new Persona();
-        p2.setUser(user2);
+        doReturn("<html>Invitación</html>").when(spyService).generarHtmlInvitacionAsamblea("Reunión", fecha, hora);
 
         Asamblea asamblea = new Asamblea();
         asamblea.setTitulo("Reunión");
         asamblea.setFecha(fecha);
         asamblea.setHoraInicio(hora);
 
-        spyService.enviarInvitacionesAsambleaMasivas(Arrays.asList(p1, p2), asamblea);
+        spyService.enviarInvitacionesAsambleaMasivas(List.of(
+                new DestinatarioCorreoDTO(1L, "a@correo.com"),
+                new DestinatarioCorreoDTO(2L, "b@correo.com")), asamblea, "asamblea-3");
 
 
-        verify(spyService, times(2))
-                .enviarInvitacionAsamblea(anyString(), anyString(), any(Date.class), any(LocalTime.class));
+        verify(spyService, times(1)).generarHtmlInvitacionAsamblea("Reunión", fecha, hora);
+        verify(correoSalienteService).nuevo(TipoCorreo.INVITACION_ASAMBLEA, List.of("a@correo.com"),
+                "Invitación a la Asamblea: Reunión", "<html>Invitación</html>", true);
+        verify(correoSalienteService).nuevo(TipoCorreo.INVITACION_ASAMBLEA, List.of("b@correo.com"),
+                "Invitación a la Asamblea: Reunión", "<html>Invitación</html>", true);
+        verify(correoSalienteService).encolar(argThat((List<CorreoSaliente> correos) -> correos.size() == 2
+                && correos.stream().allMatch(c -> "asamblea-3".equals(c.getCampana()))));
     }
 
     @Test
@@ -222,51 +252,70 @@ class EmailServiceTest {
     }
 
     @Test
-    void testEnviarPazYSalvo_mockeado() throws InterruptedException, MessagingException {
-
-        EmailService spyEmailService = spy(emailService);
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
+    void testEnviarPazYSalvo_mockeado() throws Exception {
 
         byte[] pdfBytes = "dummy pdf bytes".getBytes();
         String destinatario = "usuario@correo.com";
         String nombreArchivo = "paz_y_salvo.pdf";
+        ArgumentCaptor<InputStream> contenido = ArgumentCaptor.forClass(InputStream.class);
+        when(adjuntoCorreoService.guardar(contenido.capture())).thenReturn(5L);
 
-        spyEmailService.enviarPazYSalvo(destinatario, pdfBytes, nombreArchivo);
-
-
+        emailService.enviarPazYSalvo(destinatario, pdfBytes, nombreArchivo);
 
-        verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mensaje);
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.PAZ_Y_SALVO);
+        assertThat(correo.getDestinatarios()).isEqualTo(destinatario);
+        assertThat(correo.getNombreAdjunto()).isEqualTo(nombreArchivo);
+        assertThat(correo.getAdjuntoId()).isEqualTo(5L);
+        assertThat(contenido.getValue().readAllBytes()).isEqualTo(pdfBytes);
+        assertThat(correo.isHtml()).isFalse();
     }
-    @Test
-    void enviarPazYSalvo_EnvioExitoso_NoLanzaExcepcion() throws Exception {
-        byte[] pdf = {1, 2, 3};
-        String destinatario = "test@example.com";
-        String nombreArchivo = "paz_y_salvo.pdf";
-
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-        emailService.enviarPazYSalvo(destinatario, pdf, nombreArchivo);
 
-
-
-        verify(mailSender).send(mimeMessage);
-    }
     @Test
-    void enviarPazYSalvo_FallaEnvio_EjecutaLogError() throws Exception {
-        byte[] pdf = {1, 2, 3};
-        String destinatario = "fail@example.com";
-        String nombreArchivo = "paz_y_salvo.pdf";
+    void enviarPazYSalvo_desdeArchivo_guardaSuContenidoComoAdjunto(@TempDir Path directorio) throws Exception {
+        Path pdf = Files.write(directorio.resolve("paz_y_salvo.pdf"), "dummy pdf bytes".getBytes());
+        List<byte[]> leidos = new ArrayList<>();
+        when(adjuntoCorreoService.guardar(any())).thenAnswer(inv -> {
+            leidos.add(inv.<InputStream>getArgument(0).readAllBytes());
+            return 7L;
+        });
 
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Fallo al enviar")).when(mailSender).send(any(MimeMessage.class));
+        emailService.enviarPazYSalvo("usuario@correo.com", pdf, "paz_y_salvo.pdf");
 
-        emailService.enviarPazYSalvo(destinatario, pdf, nombreArchivo);
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getAdjuntoId()).isEqualTo(7L);
+        assertThat(leidos).containsExactly("dummy pdf bytes".getBytes());
+    }
 
+    @Test
+    void enviarPazYSalvo_desdeArchivo_guardaAdjuntoYCorreoEnLaMismaTransaccion(@TempDir Path directorio) throws Exception {
+        Path pdf = Files.write(directorio.resolve("paz_y_salvo.pdf"), "dummy pdf bytes".getBytes());
+        when(adjuntoCorreoService.guardar(any())).thenReturn(7L);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ProxyFactory proxy = new ProxyFactory(emailService);
+        proxy.setProxyTargetClass(true);
+        proxy.addAdvice(new TransactionInterceptor((TransactionManager) transactionManager,
+                new AnnotationTransactionAttributeSource()));
+
+        ((EmailService) proxy.getProxy()).enviarPazYSalvo("usuario@correo.com", pdf, "paz_y_salvo.pdf");
+
+        InOrder orden = inOrder(transactionManager, adjuntoCorreoService, correoSalienteService);
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(adjuntoCorreoService).guardar(any());
+        orden.verify(correoSalienteService).encolar(any(CorreoSaliente.class));
+        orden.verify(transactionManager).commit(any());
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
 
+    @Test
+    void enviarPazYSalvo_siNoSePuedeGuardarElPdf_noEncolaElCorreo() throws Exception {
+        when(adjuntoCorreoService.guardar(any())).thenThrow(new IOException("disco lleno"));
 
-        verify(mailSender).send(mimeMessage);
+        assertThatThrownBy(() -> emailService.enviarPazYSalvo("usuario@correo.com", new byte[]{1}, "paz_y_salvo.pdf"))
+                .isInstanceOf(MessagingException.class)
+                .hasCauseInstanceOf(IOException.class);
+        verify(correoSalienteService, never()).encolar(any(CorreoSaliente.class));
     }
 
     @Test
@@ -286,9 +335,6 @@ class EmailServiceTest {
         String expectedHtml = "<html>OK</html>";
         when(templateEngine.process(anyString(), any(Context.class))).thenReturn(expectedHtml);
 
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
         emailService.enviarSolicitud(destinatario, dto);
 
         ArgumentCaptor<Context> ctxCaptor = ArgumentCaptor.forClass(Context.class);
@@ -302,13 +348,14 @@ class EmailServiceTest {
         assertThat(captured.getVariable("fechaSolicitud")).isEqualTo(dto.getFechaSolicitud());
         assertThat(captured.getVariable("estado")).isEqualTo(dto.getEstadoSolicitud());
 
-        // Verificamos que se creó y envió el MimeMessage
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mailSender, times(1)).send(mensaje);
+        // Verificamos que el correo quedó en la bandeja de salida
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.SOLICITUD_RESERVA);
+        assertThat(correo.getCuerpo()).isEqualTo(expectedHtml);
     }
 
     @Test
-    void enviarSolicitud_siTemplateLanzaExcepcion_noLlamaMailSenderSend() throws Exception {
+    void enviarSolicitud_siTemplateLanzaExcepcion_noEncolaCorreo() throws Exception {
 
         String destinatario = "fallo@correo.com";
         SolicitudReservaRecursoDTO dto = new SolicitudReservaRecursoDTO();
@@ -327,7 +374,7 @@ class EmailServiceTest {
         emailService.enviarSolicitud(destinatario, dto);
 
         verify(templateEngine, times(1)).process(anyString(), any(Context.class));
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(correoSalienteService, never()).encolar(any(CorreoSaliente.class));
     }
     @Test
     void testSendToMany_emailsNull_throwsApiException() {
@@ -394,59 +441,31 @@ class EmailServiceTest {
     }
 
     @Test
-    void testSendToMany_validRequest_sendsEmail() throws Exception {
-
+    void testSendToMany_conAdjunto_encolaElArchivo() throws Exception {
         SendEmailsDTO request = new SendEmailsDTO();
         request.setEmails(List.of("test@correo.com"));
         request.setSubject("Asunto");
         request.setMessage("Mensaje");
 
-
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-
-        EmailService spyService = spy(emailService);
-
-
-        spyService.sendToManyAsync(
-                request.getEmails(),
-                request.getSubject(),
-                request.getMessage(),
-                null,
-                null
-        );
-
-
-        verify(spyService).sendToManyAsync(eq(request.getEmails()), eq("Asunto"), eq("Mensaje"), eq(null), eq(null));
-    }
-
-    @Test
-    void testSendToManyAsync_sendsEmailWithAttachment() throws Exception {
-        // Simular async
-        List<String> emails = List.of("test@correo.com");
-        String subject = "Asunto";
-        String body = "Mensaje";
         byte[] fileBytes = "archivo".getBytes();
-        String filename = "archivo.txt";
-
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-        emailService.sendToManyAsync(emails, subject, body, fileBytes, filename);
-
-        verify(mailSender).send(mimeMessage);
-    }
-
-    @Test
-    void testSendToManyAsync_sendsEmailWithoutAttachment() throws Exception {
-        List<String> emails = List.of("test@correo.com");
-        String subject = "Asunto";
-        String body = "Mensaje";
-
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.isEmpty()).thenReturn(false);
+        when(file.getSize()).thenReturn((long) fileBytes.length);
+        when(file.getContentType()).thenReturn("application/pdf");
+        ByteArrayInputStream contenido = new ByteArrayInputStream(fileBytes);
+        when(file.getInputStream()).thenReturn(contenido);
+        when(file.getOriginalFilename()).thenReturn("archivo.pdf");
+        request.setFile(file);
+        when(adjuntoCorreoService.guardar(contenido)).thenReturn(9L);
 
-        emailService.sendToManyAsync(emails, subject, body, null, null);
+        emailService.sendToMany(request);
 
-        verify(mailSender).send(mimeMessage);
+        CorreoSaliente correo = comunicadoEncolado().get(0);
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.MASIVO);
+        assertThat(correo.getAdjuntoId()).isEqualTo(9L);
+        assertThat(correo.getNombreAdjunto()).isEqualTo("archivo.pdf");
+        verify(adjuntoCorreoService, times(1)).guardar(any());
+        verify(file, never()).getBytes();
     }
 
     @Test
@@ -472,105 +491,72 @@ class EmailServiceTest {
     }
 
     @Test
-    void testEnviarObligacionMensual_mockeado() throws Exception {
-        // Arrange
-        EmailService spyEmailService = spy(emailService);
-
+    void testGenerarHtmlObligacionMensual_mismasVariables_renderizaUnaVez() {
         MostrarObligacionDTO dto = new MostrarObligacionDTO();
         dto.setTitulo("Administración Octubre 2025");
-        dto.setMotivo("Cobro correspondiente a la administración de octubre 2025");
+        dto.setMotivo("Cobro de octubre");
         dto.setCasa(1);
         dto.setMonto(120000);
-        dto.setFecha(LocalDate.of(2025, 10, 1));
 
-        String destinatario = "propietario@correo.com";
-
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
-        doReturn("<html>mock html</html>")
-                .when(spyEmailService)
-                .generarHtmlObligacionMensual(dto);
+        when(templateEngine.process(anyString(), any(Context.class))).thenReturn("<html>Casa 1</html>");
 
-        // Act
-        spyEmailService.enviarObligacionMensual(destinatario, dto);
+        emailService.generarHtmlObligacionMensual(dto);
+        String html = emailService.generarHtmlObligacionMensual(dto);
 
-        // Assert
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mailSender, times(1)).send(mensaje);
-        verify(spyEmailService, times(1)).generarHtmlObligacionMensual(dto);
+        assertEquals("<html>Casa 1</html>", html);
+        verify(templateEngine, times(1)).process(eq("email/obligacion-mensual"), any(Context.class));
     }
 
     @Test
-    void testEnviarObligacionesMensualesMasivas_mockeado() throws Exception {
-        // Arrange
-        EmailService spyEmailService = spy(emailService);
-
+    void testEnviarObligacionesMensuales_renderizaUnaVezYSustituyeLaCasa() {
         MostrarObligacionDTO dto = new MostrarObligacionDTO();
-        dto.setTitulo("Administración Noviembre 2025");
-        dto.setMotivo("Cobro correspondiente a la administración de noviembre 2025");
-        dto.setCasa(2);
-        dto.setMonto(90000);
-        dto.setFecha(LocalDate.of(2025, 11, 1));
-
-        Persona persona1 = new Persona();
-        UserEntity user1 = new UserEntity();
-        user1.setEmail("uno@correo.com");
-        persona1.setUser(user1);
-
-        Persona persona2 = new Persona();
-        UserEntity user2 = new UserEntity();
-        user2.setEmail("dos@correo.com");
-        persona2.setUser(user2);
-
-        List<Persona> personas = List.of(persona1, persona2);
+        dto.setTitulo("Administración Octubre 2025");
+        dto.setMotivo("Cobro de octubre");
+        dto.setMonto(120000);
+        dto.setFecha(LocalDate.of(2025, 10, 1));
 
-        // Simula que la función individual funciona
-        doNothing().when(spyEmailService).enviarObligacionMensual(anyString(), any(MostrarObligacionDTO.class));
+        when(templateEngine.process(eq("email/obligacion-mensual"), any(Context.class))).thenAnswer(inv ->
+                "<td>" + inv.<Context>getArgument(1).getVariable("casa") + "</td>");
 
-        // Act
-        spyEmailService.enviarObligacionesMensualesMasivas(personas, dto);
+        emailService.enviarObligacionesMensuales(List.of(
+                new DestinatarioObligacionDTO(1L, 101, "a@correo.com"),
+                new DestinatarioObligacionDTO(2L, 102, "b@correo.com")), dto, "obligacion-mensual-2025-10");
 
-        // Assert
-        verify(spyEmailService, times(2)).enviarObligacionMensual(anyString(), eq(dto));
+        verify(templateEngine, times(1)).process(anyString(), any(Context.class));
+        verify(correoSalienteService).nuevo(TipoCorreo.OBLIGACION_MENSUAL, List.of("a@correo.com"),
+                "Se ha generado tu mensualidad por administración de Octubre", "<td>101</td>", true);
+        verify(correoSalienteService).nuevo(TipoCorreo.OBLIGACION_MENSUAL, List.of("b@correo.com"),
+                "Se ha generado tu mensualidad por administración de Octubre", "<td>102</td>", true);
+        verify(correoSalienteService).encolar(argThat((List<CorreoSaliente> correos) -> correos.size() == 2
+                && correos.stream().allMatch(c -> "obligacion-mensual-2025-10".equals(c.getCampana()))));
     }
 
     @Test
-    void testEnviarObligacionesMensualesMasivas_conErrorEnUnaPersona() throws Exception {
+    void testEnviarObligacionMensual_mockeado() throws Exception {
         // Arrange
         EmailService spyEmailService = spy(emailService);
 
         MostrarObligacionDTO dto = new MostrarObligacionDTO();
-        dto.setTitulo("Administración Diciembre 2025");
-        dto.setMotivo("Cobro de diciembre 2025");
-        dto.setCasa(3);
-        dto.setMonto(95000);
-        dto.setFecha(LocalDate.of(2025, 12, 1));
-
-        Persona persona1 = new Persona();
-        UserEntity user1 = new UserEntity();
-        user1.setEmail("ok@correo.com");
-        persona1.setUser(user1);
-
-        Persona persona2 = new Persona();
-        UserEntity user2 = new UserEntity();
-        user2.setEmail("falla@correo.com");
-        persona2.setUser(user2);
+        dto.setTitulo("Administración Octubre 2025");
+        dto.setMotivo("Cobro correspondiente a la administración de octubre 2025");
+        dto.setCasa(1);
+        dto.setMonto(120000);
+        dto.setFecha(LocalDate.of(2025, 10, 1));
 
-        List<Persona> personas = List.of(persona1, persona2);
+        String destinatario = "propietario@correo.com";
 
-        doNothing()
-                .when(spyEmailService)
-                .enviarObligacionMensual(eq("ok@correo.com"), any(MostrarObligacionDTO.class));
-        doThrow(new MessagingException("Error SMTP"))
+        doReturn("<html>mock html</html>")
                 .when(spyEmailService)
-                .enviarObligacionMensual(eq("falla@correo.com"), any(MostrarObligacionDTO.class));
+                .generarHtmlObligacionMensual(dto);
 
         // Act
-        spyEmailService.enviarObligacionesMensualesMasivas(personas, dto);
+        spyEmailService.enviarObligacionMensual(destinatario, dto);
 
         // Assert
-        verify(spyEmailService, times(2)).enviarObligacionMensual(anyString(), eq(dto));
+        CorreoSaliente correo = correoEncolado();
+        assertThat(correo.getTipo()).isEqualTo(TipoCorreo.OBLIGACION_MENSUAL);
+        assertThat(correo.getAsunto()).isEqualTo("Se ha generado tu mensualidad por administración de Octubre");
+        verify(spyEmailService, times(1)).generarHtmlObligacionMensual(dto);
     }
 
     @Test
@@ -582,14 +568,10 @@ class EmailServiceTest {
                 .when(spyEmailService)
                 .generarHtmlOlvidarPw("123456", "Juan Pérez");
 
-        MimeMessage mensaje = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mensaje);
-
-
         spyEmailService.enviarPasswordOlvidada("user@correo.com", "123456", "Juan Pérez");
 
 
-        verify(mailSender).send(mensaje);
+        assertThat(correoEncolado().getTipo()).isEqualTo(TipoCorreo.PASSWORD_OLVIDADA);
         verify(spyEmailService).generarHtmlOlvidarPw("123456", "Juan Pérez");
     }
 
@@ -620,57 +602,36 @@ class EmailServiceTest {
         when(file.isEmpty()).thenReturn(false);
         when(file.getSize()).thenReturn(1024L);
         when(file.getContentType()).thenReturn("application/pdf");
-        when(file.getBytes()).thenThrow(new IOException("Error de lectura"));
+        when(file.getInputStream()).thenThrow(new IOException("Error de lectura"));
         request.setFile(file);
 
         // When & Then
         ApiException ex = assertThrows(ApiException.class, () -> emailService.sendToMany(request));
         assertEquals("Error al leer el archivo adjunto.", ex.getMessage());
-        verify(file).getBytes();
+        verify(file).getInputStream();
     }
 
     @Test
-    void testSendToMany_validRequest_invokesAsyncMethod() throws Exception {
+    void testSendToMany_validRequest_encolaUnCorreoPorDestinatario() throws Exception {
         // Given
-        EmailService spyService = spy(emailService);
-        // Inyectar el spy en sí mismo para que la llamada a `self` funcione
-        java.lang.reflect.Field selfField = EmailService.class.getDeclaredField("self");
-        selfField.setAccessible(true);
-        selfField.set(spyService, spyService);
-
         SendEmailsDTO request = new SendEmailsDTO();
-        request.setEmails(List.of("test@correo.com"));
+        request.setEmails(List.of("test@correo.com", " otro@correo.com", "test@correo.com"));
         request.setSubject("Asunto");
         request.setMessage("Mensaje");
 
-        doNothing().when(spyService).sendToManyAsync(anyList(), anyString(), anyString(), any(), any());
-
         // When
-        spyService.sendToMany(request);
+        emailService.sendToMany(request);
 
         // Then
-        verify(spyService).sendToManyAsync(eq(request.getEmails()), eq("Asunto"), eq("Mensaje"), isNull(), isNull());
-    }
-
-    @Test
-    void testSendToManyAsync_whenMailSenderFails_logsError() throws Exception {
-        // Given
-        List<String> emails = List.of("test@correo.com");
-        String subject = "Asunto de Falla";
-        String body = "Este mensaje fallará";
-
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("SMTP server down")).when(mailSender).send(any(MimeMessage.class));
-
-        // When & Then
-
-        // La ausencia de una excepción aquí es la prueba de que el bloque catch funciona.
-        assertDoesNotThrow(() -> {
-            emailService.sendToManyAsync(emails, subject, body, null, null);
+        verify(correoSalienteService).nuevo(TipoCorreo.MASIVO, List.of("test@correo.com"), "Asunto", "Mensaje", true);
+        verify(correoSalienteService).nuevo(TipoCorreo.MASIVO, List.of("otro@correo.com"), "Asunto", "Mensaje", true);
+        List<CorreoSaliente> correos = comunicadoEncolado();
+        assertThat(correos).hasSize(2);
+        assertThat(correos).allSatisfy(correo -> {
+            assertThat(correo.getAdjuntoId()).isNull();
+            assertThat(correo.getCampana()).startsWith("comunicado-");
         });
-
-        // Verify que se intentó enviar el mensaje
-        verify(mailSender).send(mimeMessage);
+        verifyNoInteractions(adjuntoCorreoService);
     }
 
 
@@ -686,27 +647,20 @@ class EmailServiceTest {
     }
 
     @Test
-    void testSendToMany_savesCorrectJsonInDatabase() throws Exception {
+    void testSendToMany_guardaElComunicadoSinListaJson() throws Exception {
         // Given
-        EmailService spyService = spy(emailService);
-        java.lang.reflect.Field selfField = EmailService.class.getDeclaredField("self");
-        selfField.setAccessible(true);
-        selfField.set(spyService, spyService);
-
         List<String> emails = List.of("test1@correo.com", "test2@correo.com");
         SendEmailsDTO request = new SendEmailsDTO();
         request.setEmails(emails);
         request.setSubject("Asunto de prueba");
         request.setMessage("Mensaje de prueba");
-
-        // Mock the objectMapper behavior
-        String expectedJson = "[\"test1@correo.com\",\"test2@correo.com\"]";
-        when(objectMapper.writeValueAsString(emails)).thenReturn(expectedJson);
-
-        doNothing().when(spyService).sendToManyAsync(anyList(), anyString(), anyString(), any(), any());
+        doAnswer(inv -> {
+            inv.<CorreoEnviado>getArgument(0).setId(12L);
+            return inv.getArgument(0);
+        }).when(correoEnviadoRepository).save(any(CorreoEnviado.class));
 
         // When
-        spyService.sendToMany(request);
+        emailService.sendToMany(request);
 
         // Then
         ArgumentCaptor<CorreoEnviado> correoCaptor = ArgumentCaptor.forClass(CorreoEnviado.class);
@@ -716,8 +670,10 @@ class EmailServiceTest {
         assertThat(savedCorreo.getTitulo()).isEqualTo("Asunto de prueba");
         assertThat(savedCorreo.getCuerpo()).isEqualTo("Mensaje de prueba");
 
-        // Verify the JSON content
-        assertThat(savedCorreo.getDestinatarios()).isEqualTo(expectedJson);
+        // Los destinatarios van a correo_destinatario, uno por fila
+        assertThat(savedCorreo.getDestinatarios()).isNull();
+        verify(correoSalienteService).encolarComunicado(eq(12L), argThat(correos -> correos.size() == 2
+                && correos.stream().allMatch(c -> "comunicado-12".equals(c.getCampana()))));
     }
 
 }
\ No newline at end of file
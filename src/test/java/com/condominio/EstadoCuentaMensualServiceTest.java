@@ -0,0 +1,323 @@
+package com.condominio;
+
+import com.condominio.dto.response.MovimientoEstadoCuentaDTO;
+import com.condominio.dto.response.ResidenteCasaDTO;
+import com.condominio.dto.response.SaldoCorteCasaDTO;
+import com.condominio.persistence.model.EstadoFacturacion;
+import com.condominio.persistence.model.GeneracionEstadosCuenta;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.repository.*;
+import com.condominio.service.implementation.EstadoCuentaMensualService;
+import com.condominio.service.interfaces.IPdfService;
+import com.condominio.util.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EstadoCuentaMensualServiceTest {
+
+    private static final YearMonth SEPTIEMBRE = YearMonth.of(2025, 9);
+
+    @Mock
+    private GeneracionEstadosCuentaRepository generacionEstadosCuentaRepository;
+    @Mock
+    private PersonaRepository personaRepository;
+    @Mock
+    private ObligacionRepository obligacionRepository;
+    @Mock
+    private PagoDetalleRepository pagoDetalleRepository;
+    @Mock
+    private IPdfService pdfService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path directorio;
+
+    private ThreadPoolTaskExecutor pdfTaskExecutor;
+    private ThreadPoolTaskExecutor estadosCuentaTaskExecutor;
+    private EstadoCuentaMensualService estadoCuentaMensualService;
+    private GeneracionEstadosCuenta ejecucion;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        closeable = MockitoAnnotations.openMocks(this);
+        pdfTaskExecutor = new ThreadPoolTaskExecutor();
+        pdfTaskExecutor.setCorePoolSize(2);
+        pdfTaskExecutor.setMaxPoolSize(2);
+        pdfTaskExecutor.initialize();
+        estadosCuentaTaskExecutor = new ThreadPoolTaskExecutor();
+        estadosCuentaTaskExecutor.setCorePoolSize(1);
+        estadosCuentaTaskExecutor.setMaxPoolSize(1);
+        estadosCuentaTaskExecutor.initialize();
+        estadoCuentaMensualService = new EstadoCuentaMensualService(generacionEstadosCuentaRepository,
+                personaRepository, obligacionRepository, pagoDetalleRepository, pdfService,
+                transactionTemplate, pdfTaskExecutor, estadosCuentaTaskExecutor, directorio, 2);
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(generacionEstadosCuentaRepository.findByPeriodo("2025-09")).thenReturn(Optional.empty());
+        when(generacionEstadosCuentaRepository.save(any(GeneracionEstadosCuenta.class))).thenAnswer(inv -> {
+            GeneracionEstadosCuenta g = inv.getArgument(0);
+            if (g.getId() == null) {
+                g.setId(1L);
+                ejecucion = g;
+            }
+            return g;
+        });
+        when(generacionEstadosCuentaRepository.bloquearPorId(1L)).thenAnswer(inv -> Optional.of(ejecucion));
+        when(generacionEstadosCuentaRepository.findById(1L)).thenAnswer(inv -> Optional.of(ejecucion));
+        doAnswer(inv -> {
+            Map<String, Object> variables = inv.getArgument(1);
+            inv.<OutputStream>getArgument(2).write(("pdf " + variables.get("nombre")).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdfService).renderizar(anyString(), anyMap(), any(OutputStream.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        estadosCuentaTaskExecutor.shutdown();
+        pdfTaskExecutor.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void generar_deberiaArchivarUnPdfPorCasaPorLotesYAvanzarLaMarca() throws Exception {
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                titular(1L, "Ana"), titular(2L, "Eva")));
+        when(personaRepository.findTitularesDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                titular(3L, "Luis")));
+        when(personaRepository.findTitularesDesdeCasa(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        GeneracionEstadosCuenta resultado = estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        assertThat(resultado.getEstado()).isEqualTo(EstadoFacturacion.COMPLETADA);
+        assertThat(resultado.getUltimaCasaId()).isEqualTo(3L);
+        assertThat(resultado.getCasasGeneradas()).isEqualTo(3);
+        assertThat(resultado.getCasasConError()).isZero();
+        assertThat(Files.readString(directorio.resolve("2025-09/casa-1.pdf"))).isEqualTo("pdf Ana");
+        assertThat(Files.readString(directorio.resolve("2025-09/casa-3.pdf"))).isEqualTo("pdf Luis");
+        try (var archivos = Files.list(directorio.resolve("2025-09"))) {
+            assertThat(archivos).hasSize(3);
+        }
+        verify(obligacionRepository, times(2)).findCargosDelPeriodo(
+                anyCollection(), eq(LocalDate.of(2025, 9, 1)), eq(LocalDate.of(2025, 9, 30)));
+    }
+
+    @Test
+    void generar_deberiaPasarCargosPagosYSaldoDeCadaCasa() throws Exception {
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                titular(1L, "Ana"), titular(1L, "Otro propietario")));
+        when(obligacionRepository.findCargosDelPeriodo(anyCollection(), any(), any())).thenReturn(List.of(
+                new MovimientoEstadoCuentaDTO(1L, LocalDate.of(2025, 9, 1), "Administración", 50000),
+                new MovimientoEstadoCuentaDTO(1L, LocalDate.of(2025, 9, 12), "Multa", 20000)));
+        when(pagoDetalleRepository.findAbonosDelPeriodo(anyCollection(), any(), any())).thenReturn(List.of(
+                new MovimientoEstadoCuentaDTO(1L, LocalDate.of(2025, 9, 5), "Administración", 50000)));
+        when(obligacionRepository.findCargadoAlCorte(anyCollection(), eq(LocalDate.of(2025, 9, 30)))).thenReturn(List.of(
+                new SaldoCorteCasaDTO(1L, 70000L, 20000L)));
+        when(pagoDetalleRepository.findAbonadoAlCorte(anyCollection(), eq(LocalDate.of(2025, 9, 30)))).thenReturn(List.of(
+                new SaldoCorteCasaDTO(1L, 50000L, 0L)));
+
+        estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        ArgumentCaptor<Map<String, Object>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(pdfService).renderizar(eq("EstadoCuentaPDF/estado-cuenta"), variables.capture(), any());
+        assertThat(variables.getValue())
+                .containsEntry("nombre", "Ana")
+                .containsEntry("casa", "Casa 1")
+                .containsEntry("periodo", "septiembre 2025")
+                .containsEntry("totalCargos", 70000L)
+                .containsEntry("totalAbonos", 50000L)
+                .containsEntry("saldoPendiente", 20000L)
+                .containsEntry("saldoVencido", 20000L);
+        assertThat((List<?>) variables.getValue().get("cargos")).hasSize(2);
+    }
+
+    @Test
+    void generar_conEjecucionInterrumpida_deberiaContinuarDesdeLaUltimaCasa() {
+        ejecucion = GeneracionEstadosCuenta.builder().id(1L).periodo("2025-09").estado(EstadoFacturacion.EN_CURSO)
+                .ultimaCasaId(2L).casasGeneradas(2).build();
+        when(generacionEstadosCuentaRepository.findByPeriodo("2025-09")).thenReturn(Optional.of(ejecucion));
+        when(personaRepository.findTitularesDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                titular(3L, "Luis")));
+        when(personaRepository.findTitularesDesdeCasa(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        GeneracionEstadosCuenta resultado = estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        assertThat(resultado.getCasasGeneradas()).isEqualTo(3);
+        verify(personaRepository, never()).findTitularesDesdeCasa(eq(0L), any(Pageable.class));
+        assertThat(directorio.resolve("2025-09/casa-3.pdf")).exists();
+    }
+
+    @Test
+    void generar_siFallaUnaCasa_deberiaContarlaYNoDejarArchivoAMedias() throws Exception {
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                titular(1L, "Ana"), titular(2L, "Eva")));
+        when(personaRepository.findTitularesDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(2).write(1);
+            throw new IOException("plantilla rota");
+        }).when(pdfService).renderizar(anyString(), argThat(v -> "Ana".equals(v.get("nombre"))), any());
+
+        GeneracionEstadosCuenta resultado = estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        assertThat(resultado.getCasasGeneradas()).isEqualTo(1);
+        assertThat(resultado.getCasasConError()).isEqualTo(1);
+        try (var archivos = Files.list(directorio.resolve("2025-09"))) {
+            assertThat(archivos).containsExactly(directorio.resolve("2025-09/casa-2.pdf"));
+        }
+    }
+
+    @Test
+    void generar_deberiaRenderizarFueraDeLasTransaccionesDelLote() throws Exception {
+        AtomicBoolean enTransaccion = new AtomicBoolean();
+        List<Boolean> renderizadosEnTransaccion = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            enTransaccion.set(true);
+            try {
+                return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                enTransaccion.set(false);
+            }
+        }).when(transactionTemplate).execute(any());
+        doAnswer(inv -> {
+            renderizadosEnTransaccion.add(enTransaccion.get());
+            return null;
+        }).when(pdfService).renderizar(anyString(), anyMap(), any(OutputStream.class));
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                titular(1L, "Ana"), titular(2L, "Eva")));
+        when(personaRepository.findTitularesDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        GeneracionEstadosCuenta resultado = estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        assertThat(resultado.getCasasGeneradas()).isEqualTo(2);
+        assertThat(renderizadosEnTransaccion).containsExactly(false, false);
+    }
+
+    @Test
+    void generar_siOtraEjecucionYaRegistroElLote_noLoVuelveAContar() {
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenAnswer(inv -> {
+            List<ResidenteCasaDTO> lote = List.of(titular(1L, "Ana"), titular(2L, "Eva"));
+            // Otra ejecución del mismo periodo registra este lote mientras se renderiza.
+            doAnswer(render -> {
+                ejecucion.setUltimaCasaId(2L);
+                ejecucion.setCasasGeneradas(2);
+                return null;
+            }).when(pdfService).renderizar(anyString(), anyMap(), any(OutputStream.class));
+            return lote;
+        });
+        when(personaRepository.findTitularesDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of());
+
+        GeneracionEstadosCuenta resultado = estadoCuentaMensualService.generar(SEPTIEMBRE);
+
+        assertThat(resultado.getUltimaCasaId()).isEqualTo(2L);
+        assertThat(resultado.getCasasGeneradas()).isEqualTo(2);
+    }
+
+    @Test
+    void iniciar_deberiaDevolverLaEjecucionYGenerarEnSegundoPlano() throws Exception {
+        CountDownLatch continuar = new CountDownLatch(1);
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class))).thenAnswer(inv -> {
+            continuar.await(5, TimeUnit.SECONDS);
+            return List.of(titular(1L, "Ana"));
+        });
+        when(personaRepository.findTitularesDesdeCasa(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        GeneracionEstadosCuenta iniciada = estadoCuentaMensualService.iniciar(SEPTIEMBRE);
+
+        assertThat(iniciada.getId()).isEqualTo(1L);
+        assertThat(iniciada.getEstado()).isEqualTo(EstadoFacturacion.EN_CURSO);
+        assertThatThrownBy(() -> estadoCuentaMensualService.iniciar(SEPTIEMBRE))
+                .isInstanceOf(ApiException.class)
+                .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.CONFLICT));
+
+        continuar.countDown();
+        estadosCuentaTaskExecutor.getThreadPoolExecutor().shutdown();
+        assertThat(estadosCuentaTaskExecutor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(estadoCuentaMensualService.consultar(1L).getEstado()).isEqualTo(EstadoFacturacion.COMPLETADA);
+        assertThat(directorio.resolve("2025-09/casa-1.pdf")).exists();
+    }
+
+    @Test
+    void iniciar_siElRecorridoFalla_deberiaMarcarLaEjecucionInterrumpida() throws Exception {
+        when(personaRepository.findTitularesDesdeCasa(eq(0L), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("sin conexión"));
+
+        estadoCuentaMensualService.iniciar(SEPTIEMBRE);
+
+        estadosCuentaTaskExecutor.getThreadPoolExecutor().shutdown();
+        assertThat(estadosCuentaTaskExecutor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ejecucion.getEstado()).isEqualTo(EstadoFacturacion.INTERRUMPIDA);
+    }
+
+    @Test
+    void consultar_sinEjecucion_deberiaLanzarNoEncontrado() {
+        when(generacionEstadosCuentaRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> estadoCuentaMensualService.consultar(9L))
+                .isInstanceOf(ApiException.class)
+                .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void generar_periodoFuturo_deberiaLanzarExcepcion() {
+        assertThatThrownBy(() -> estadoCuentaMensualService.generar(YearMonth.now().plusMonths(2)))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("periodo futuro");
+        verifyNoInteractions(generacionEstadosCuentaRepository, pdfService);
+    }
+
+    @Test
+    void descargar_deberiaDevolverElArchivoSinVolverAGenerarlo() throws Exception {
+        Files.createDirectories(directorio.resolve("2025-09"));
+        Files.writeString(directorio.resolve("2025-09/casa-4.pdf"), "pdf archivado");
+
+        FileSystemResource archivo = estadoCuentaMensualService.descargar(SEPTIEMBRE, 4L);
+
+        assertThat(archivo.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("pdf archivado");
+        verifyNoInteractions(pdfService);
+    }
+
+    @Test
+    void descargar_sinArchivo_deberiaLanzarNoEncontrado() {
+        assertThatThrownBy(() -> estadoCuentaMensualService.descargar(SEPTIEMBRE, 4L))
+                .isInstanceOf(ApiException.class)
+                .satisfies(e -> assertThat(((ApiException) e).getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    private static ResidenteCasaDTO titular(Long casaId, String nombre) {
+        return new ResidenteCasaDTO(casaId, RoleEnum.PROPIETARIO, nombre, null, null, null, 3000000000L,
+                nombre.toLowerCase() + "@mail.com");
+    }
+}
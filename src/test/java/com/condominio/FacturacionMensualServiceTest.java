@@ -0,0 +1,159 @@
+package com.condominio;
+
+import com.condominio.dto.response.DestinatarioObligacionDTO;
+import com.condominio.dto.response.MostrarObligacionDTO;
+import com.condominio.persistence.model.*;
+import com.condominio.persistence.repository.*;
+import com.condominio.service.implementation.EmailService;
+import com.condominio.service.implementation.FacturacionMensualService;
+import com.condominio.service.implementation.SaldoCasaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FacturacionMensualServiceTest {
+
+    @Mock
+    private FacturacionMensualRepository facturacionMensualRepository;
+    @Mock
+    private ObligacionRepository obligacionRepository;
+    @Mock
+    private PersonaRepository personaRepository;
+    @Mock
+    private CargoAdministracionRepository cargoAdministracionRepository;
+    @Mock
+    private TasaDeInteresRepository tasaDeInteresRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private SaldoCasaService saldoCasaService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FacturacionMensualService facturacionMensualService;
+
+    private FacturacionMensual ejecucion;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(facturacionMensualService, "tamanoLote", 2);
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        CargoAdministracion cargoAdmin = new CargoAdministracion();
+        cargoAdmin.setNuevoValor(50000);
+        TasaDeInteres tasaInteres = new TasaDeInteres();
+        tasaInteres.setNuevoValor(0.02);
+        when(cargoAdministracionRepository.findAll()).thenReturn(List.of(cargoAdmin));
+        when(tasaDeInteresRepository.findAll()).thenReturn(List.of(tasaInteres));
+
+        ejecucion = FacturacionMensual.builder().id(1L).periodo("2025-10").ultimaCasaId(0L).build();
+        when(facturacionMensualRepository.findByPeriodo("2025-10")).thenReturn(Optional.empty());
+        when(facturacionMensualRepository.save(any(FacturacionMensual.class))).thenAnswer(inv -> {
+            FacturacionMensual f = inv.getArgument(0);
+            if (f.getId() == null) {
+                f.setId(1L);
+                ejecucion = f;
+            }
+            return f;
+        });
+        when(facturacionMensualRepository.bloquearPorId(1L)).thenAnswer(inv -> Optional.of(ejecucion));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void facturar_deberiaRecorrerCasasPorLotesYAvanzarLaMarca() {
+        when(personaRepository.findPropietariosDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new DestinatarioObligacionDTO(1L, 101, "a@mail.com"),
+                new DestinatarioObligacionDTO(2L, 102, "b@mail.com")));
+        when(personaRepository.findPropietariosDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                new DestinatarioObligacionDTO(3L, 103, "c@mail.com")));
+        when(personaRepository.findPropietariosDesdeCasa(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        FacturacionMensual resultado = facturacionMensualService.facturar(LocalDate.of(2025, 10, 1));
+
+        assertThat(resultado.getEstado()).isEqualTo(EstadoFacturacion.COMPLETADA);
+        assertThat(resultado.getUltimaCasaId()).isEqualTo(3L);
+        assertThat(resultado.getCasasFacturadas()).isEqualTo(3);
+
+        ArgumentCaptor<List<Obligacion>> lotes = ArgumentCaptor.forClass(List.class);
+        verify(obligacionRepository, times(2)).insertarEnLote(lotes.capture());
+        verify(saldoCasaService, times(2)).recalcular(anyCollection());
+        assertThat(lotes.getAllValues().get(0)).hasSize(2);
+        Obligacion primera = lotes.getAllValues().get(0).get(0);
+        assertThat(primera.getMonto()).isEqualTo(50000);
+        assertThat(primera.getTasaInteres()).isEqualTo(0.02);
+        assertThat(primera.getPeriodo()).isEqualTo("2025-10");
+        assertThat(primera.getTipoObligacion()).isEqualTo(TipoObligacion.ADMINISTRACION);
+        assertThat(primera.getEstadoPago()).isEqualTo(EstadoPago.PENDIENTE);
+        assertThat(primera.getCasa().getId()).isEqualTo(1L);
+
+        verify(emailService).enviarObligacionesMensuales(eq(List.of(
+                new DestinatarioObligacionDTO(1L, 101, "a@mail.com"),
+                new DestinatarioObligacionDTO(2L, 102, "b@mail.com"))),
+                any(MostrarObligacionDTO.class), eq("obligacion-mensual-2025-10"));
+        verify(emailService).enviarObligacionesMensuales(eq(List.of(
+                new DestinatarioObligacionDTO(3L, 103, "c@mail.com"))),
+                any(MostrarObligacionDTO.class), eq("obligacion-mensual-2025-10"));
+    }
+
+    @Test
+    void facturar_noDeberiaCobrarDosVecesCasasYaFacturadasEnElPeriodo() {
+        when(personaRepository.findPropietariosDesdeCasa(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new DestinatarioObligacionDTO(1L, 101, "a@mail.com"),
+                new DestinatarioObligacionDTO(2L, 102, "b@mail.com")));
+        when(personaRepository.findPropietariosDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(obligacionRepository.findCasaIdsFacturadas(eq("2025-10"), anyCollection())).thenReturn(List.of(1L));
+
+        FacturacionMensual resultado = facturacionMensualService.facturar(LocalDate.of(2025, 10, 1));
+
+        assertThat(resultado.getCasasFacturadas()).isEqualTo(1);
+        verify(obligacionRepository).insertarEnLote(argThat(lote ->
+                lote.size() == 1 && lote.get(0).getCasa().getId().equals(2L)));
+        verify(emailService, times(1)).enviarObligacionesMensuales(
+                eq(List.of(new DestinatarioObligacionDTO(2L, 102, "b@mail.com"))),
+                any(MostrarObligacionDTO.class), eq("obligacion-mensual-2025-10"));
+    }
+
+    @Test
+    void facturar_deberiaReanudarDesdeLaUltimaCasaConfirmada() {
+        ejecucion = FacturacionMensual.builder()
+                .id(1L)
+                .periodo("2025-10")
+                .estado(EstadoFacturacion.EN_CURSO)
+                .ultimaCasaId(2L)
+                .casasFacturadas(2)
+                .build();
+        when(facturacionMensualRepository.findByPeriodo("2025-10")).thenReturn(Optional.of(ejecucion));
+        when(personaRepository.findPropietariosDesdeCasa(eq(2L), any(Pageable.class))).thenReturn(List.of(
+                new DestinatarioObligacionDTO(3L, 103, "c@mail.com")));
+        when(personaRepository.findPropietariosDesdeCasa(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        FacturacionMensual resultado = facturacionMensualService.facturar(LocalDate.of(2025, 10, 1));
+
+        verify(personaRepository, never()).findPropietariosDesdeCasa(eq(0L), any(Pageable.class));
+        assertThat(resultado.getCasasFacturadas()).isEqualTo(3);
+        assertThat(resultado.getEstado()).isEqualTo(EstadoFacturacion.COMPLETADA);
+    }
+}
@@ -0,0 +1,102 @@
+package com.condominio;
+
+import com.condominio.persistence.model.InvalidacionToken;
+import com.condominio.persistence.repository.InvalidacionTokenRepository;
+import com.condominio.persistence.repository.TokenRefrescoRepository;
+import com.condominio.service.implementation.InvalidacionTokenService;
+import com.condominio.util.security.JwtProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static com.condominio.util.constants.AppConstants.ZONE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvalidacionTokenServiceTest {
+
+    @Mock
+    private InvalidacionTokenRepository invalidacionTokenRepository;
+
+    @Mock
+    private TokenRefrescoRepository tokenRefrescoRepository;
+
+    @Mock
+    private JwtProperties jwtProperties;
+
+    private InvalidacionTokenService invalidacionTokenService;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(jwtProperties.getExpiration()).thenReturn(2L);
+        when(invalidacionTokenRepository.findByEmail(any())).thenReturn(Optional.empty());
+        invalidacionTokenService = new InvalidacionTokenService(invalidacionTokenRepository, tokenRefrescoRepository, jwtProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void invalidar_deberiaRechazarLosTokensEmitidosEnElMismoSegundo() {
+        // El iat viaja truncado a segundos, como lo emite JwtUtil.
+        Date emitido = Date.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        invalidacionTokenService.invalidar("ana@mail.com");
+
+        assertThat(invalidacionTokenService.estaInvalidado("ana@mail.com", emitido)).isTrue();
+    }
+
+    @Test
+    void invalidar_deberiaRechazarLosTokensEmitidosAntesYNoLosPosteriores() {
+        Date antes = Date.from(Instant.now().minusSeconds(60));
+
+        invalidacionTokenService.invalidar("ana@mail.com");
+
+        assertThat(invalidacionTokenService.estaInvalidado("ana@mail.com", antes)).isTrue();
+        assertThat(invalidacionTokenService.estaInvalidado("ana@mail.com", Date.from(Instant.now().plusSeconds(1)))).isFalse();
+        assertThat(invalidacionTokenService.estaInvalidado("eva@mail.com", antes)).isFalse();
+
+        ArgumentCaptor<InvalidacionToken> guardada = ArgumentCaptor.forClass(InvalidacionToken.class);
+        verify(invalidacionTokenRepository).save(guardada.capture());
+        assertThat(guardada.getValue().getEmail()).isEqualTo("ana@mail.com");
+        verify(tokenRefrescoRepository).revocarPorEmail("ana@mail.com");
+    }
+
+    @Test
+    void sincronizar_deberiaTomarLasInvalidacionesDeOtrasInstancias() {
+        when(invalidacionTokenRepository.findByInvalidadoDesdeAfter(any())).thenReturn(List.of(
+                InvalidacionToken.builder().email("eva@mail.com").invalidadoDesde(LocalDateTime.now(ZONE)).build()));
+
+        invalidacionTokenService.sincronizar();
+
+        assertThat(invalidacionTokenService.estaInvalidado("eva@mail.com", Date.from(Instant.now().minusSeconds(60)))).isTrue();
+        verify(invalidacionTokenRepository).eliminarHasta(any());
+    }
+
+    @Test
+    void sincronizar_deberiaOlvidarLasInvalidacionesMasViejasQueElTokenDeAcceso() {
+        InvalidacionToken vieja = InvalidacionToken.builder().email("eva@mail.com")
+                .invalidadoDesde(LocalDateTime.now(ZONE).minus(Duration.ofHours(3))).build();
+        when(invalidacionTokenRepository.findByInvalidadoDesdeAfter(any())).thenReturn(List.of(vieja));
+
+        invalidacionTokenService.sincronizar();
+
+        assertThat(invalidacionTokenService.estaInvalidado("eva@mail.com", Date.from(Instant.now().minus(Duration.ofHours(4))))).isFalse();
+    }
+}
@@ -0,0 +1,128 @@
+package com.condominio;
+
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.service.implementation.InvalidacionTokenService;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.util.security.JwtAuthenticationFilter;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import com.condominio.util.security.UsuarioToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtProperties jwtProperties;
+    @Mock
+    private PersonaService personaService;
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private InvalidacionTokenService invalidacionTokenService;
+
+    private JwtUtil jwtUtil;
+    private UserDetails usuario;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(jwtProperties.getSecret()).thenReturn("clave-de-prueba-de-al-menos-treinta-y-dos-bytes");
+        when(jwtProperties.getExpiration()).thenReturn(1L);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(24L);
+        jwtUtil = new JwtUtil(jwtProperties, personaService);
+
+        usuario = User.withUsername("ana@mail.com").password("x").roles("PROPIETARIO").build();
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setCasa(Casa.builder().id(7L).build());
+        when(personaService.getPersonaFromUserDetails(any())).thenReturn(persona);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        closeable.close();
+    }
+
+    @Test
+    void desdeClaims_deberiaAutenticarConLosClaimsSinCargarElUsuario() throws Exception {
+        filtrar(filtro(true), jwtUtil.generateAccessToken(usuario));
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth).isNotNull();
+        UsuarioToken principal = (UsuarioToken) auth.getPrincipal();
+        assertThat(principal.getUsername()).isEqualTo("ana@mail.com");
+        assertThat(principal.getIdCasa()).isEqualTo(7L);
+        assertThat(principal.getIdPersona()).isEqualTo(12L);
+        assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_PROPIETARIO");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void tokenInvalidado_noDeberiaAutenticar() throws Exception {
+        when(invalidacionTokenService.estaInvalidado(eq("ana@mail.com"), any())).thenReturn(true);
+
+        filtrar(filtro(true), jwtUtil.generateAccessToken(usuario));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tokenDeRefresco_noDeberiaAutenticar() throws Exception {
+        filtrar(filtro(true), jwtUtil.generateRefreshToken(
+                new UsuarioToken("ana@mail.com", 12L, 7L, List.of()), "familia", "jti"));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tokenAlterado_noDeberiaAutenticar() throws Exception {
+        String token = jwtUtil.generateAccessToken(usuario);
+
+        filtrar(filtro(true), token.substring(0, token.length() - 2) + "xx");
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void sinClaims_deberiaCargarElUsuario() throws Exception {
+        when(userDetailsService.loadUserByUsername("ana@mail.com")).thenReturn(usuario);
+
+        filtrar(filtro(false), jwtUtil.generateAccessToken(usuario));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(usuario);
+        verify(userDetailsService).loadUserByUsername("ana@mail.com");
+    }
+
+    private JwtAuthenticationFilter filtro(boolean desdeClaims) {
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, invalidacionTokenService, desdeClaims);
+    }
+
+    private static void filtrar(JwtAuthenticationFilter filtro, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/obligacion/multas");
+        request.addHeader("Authorization", "Bearer " + token);
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
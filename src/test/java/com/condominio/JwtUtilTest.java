@@ -0,0 +1,117 @@
+package com.condominio;
+
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class JwtUtilTest {
+
+    private static final String SECRETO = "clave-de-prueba-de-al-menos-treinta-y-dos-bytes";
+
+    @Mock
+    private JwtProperties jwtProperties;
+    @Mock
+    private PersonaService personaService;
+
+    private UserDetails usuario;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(jwtProperties.getSecret()).thenReturn(SECRETO);
+        when(jwtProperties.getExpiration()).thenReturn(1L);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(24L);
+        when(jwtProperties.getMaxClaimsEnCache()).thenReturn(2);
+
+        usuario = User.withUsername("ana@mail.com").password("x").roles("PROPIETARIO").build();
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setCasa(Casa.builder().id(7L).build());
+        when(personaService.getPersonaFromUserDetails(any())).thenReturn(persona);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void leerAccessToken_mismoToken_deberiaReutilizarLosClaimsVerificados() {
+        JwtUtil jwtUtil = new JwtUtil(jwtProperties, personaService);
+        String token = jwtUtil.generateAccessToken(usuario);
+
+        assertThat(jwtUtil.leerAccessToken(token)).isSameAs(jwtUtil.leerAccessToken(token));
+        assertThat(jwtUtil.extractUsername(token)).isEqualTo("ana@mail.com");
+    }
+
+    @Test
+    void leerAccessToken_sinCache_deberiaVerificarCadaVez() {
+        when(jwtProperties.getMaxClaimsEnCache()).thenReturn(0);
+        JwtUtil jwtUtil = new JwtUtil(jwtProperties, personaService);
+        String token = jwtUtil.generateAccessToken(usuario);
+
+        assertThat(jwtUtil.leerAccessToken(token)).isNotSameAs(jwtUtil.leerAccessToken(token));
+    }
+
+    @Test
+    void leerAccessToken_tokenAlterado_noDeberiaServirseDelCache() {
+        JwtUtil jwtUtil = new JwtUtil(jwtProperties, personaService);
+        String token = jwtUtil.generateAccessToken(usuario);
+        assertThat(jwtUtil.leerAccessToken(token)).isNotNull();
+
+        String alterado = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtil.leerAccessToken(alterado)).isNull();
+        assertThat(jwtUtil.validateToken(alterado)).isFalse();
+    }
+
+    @Test
+    void validateToken_tokenVencido_deberiaRechazarse() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(jwtProperties, personaService);
+        long ahora = System.currentTimeMillis();
+        String token = Jwts.builder()
+                .setSubject("ana@mail.com")
+                .claim("type", "access")
+                .setIssuedAt(new Date(ahora))
+                .setExpiration(new Date(ahora + 1000))
+                .signWith(Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+
+        Thread.sleep(1100);
+
+        assertThat(jwtUtil.validateToken(token)).isFalse();
+        assertThat(jwtUtil.leerAccessToken(token)).isNull();
+    }
+
+    @Test
+    void leerAccessToken_conCacheLleno_deberiaSeguirVerificandoTokensNuevos() {
+        JwtUtil jwtUtil = new JwtUtil(jwtProperties, personaService);
+        for (String correo : new String[]{"a@mail.com", "b@mail.com", "c@mail.com", "d@mail.com"}) {
+            String token = jwtUtil.generateAccessToken(User.withUsername(correo).password("x").roles("PROPIETARIO").build());
+
+            assertThat(jwtUtil.leerAccessToken(token).getSubject()).isEqualTo(correo);
+        }
+    }
+}
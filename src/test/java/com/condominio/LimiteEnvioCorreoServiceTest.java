@@ -0,0 +1,100 @@
+package com.condominio;
+
+import com.condominio.service.implementation.LimiteEnvioCorreoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimiteEnvioCorreoServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void ejecutar_concurrente_nuncaDeberiaPasarElLimitePorSegundo() throws Exception {
+        LimiteEnvioCorreoService limite = new LimiteEnvioCorreoService(3, 1000, meterRegistry);
+        List<Long> envios = Collections.synchronizedList(new ArrayList<>());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futuros.add(executor.submit(() -> {
+                    limite.ejecutar(1, () -> {
+                        envios.add(System.nanoTime());
+                        dormir(20);
+                    });
+                    return null;
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        List<Long> ordenados = new ArrayList<>(envios);
+        Collections.sort(ordenados);
+        long segundo = TimeUnit.SECONDS.toNanos(1);
+        for (long inicio : ordenados) {
+            assertThat(ordenados.stream().filter(t -> t >= inicio && t < inicio + segundo).count()).isLessThanOrEqualTo(3);
+        }
+        assertThat(meterRegistry.get("correo.limite.espera").timer().count()).isEqualTo(8);
+    }
+
+    @Test
+    void ejecutar_sinCupoEnElMinuto_deberiaEsperarHastaQueLoInterrumpan() throws Exception {
+        LimiteEnvioCorreoService limite = new LimiteEnvioCorreoService(10, 3, meterRegistry);
+        limite.ejecutar(3, () -> {
+        });
+
+        CompletableFuture<Throwable> resultado = new CompletableFuture<>();
+        Thread hilo = Thread.ofVirtual().start(() -> {
+            try {
+                limite.ejecutar(1, () -> resultado.complete(null));
+            } catch (InterruptedException e) {
+                resultado.complete(e);
+            }
+        });
+
+        Thread.sleep(300);
+        assertThat(resultado).isNotDone();
+        hilo.interrupt();
+        assertThat(resultado.get(5, TimeUnit.SECONDS)).isInstanceOf(InterruptedException.class);
+    }
+
+    @Test
+    void ejecutar_siElEnvioFalla_deberiaDevolverLasFichas() throws Exception {
+        LimiteEnvioCorreoService limite = new LimiteEnvioCorreoService(2, 1000, meterRegistry);
+
+        assertThatThrownBy(() -> limite.ejecutar(2, () -> {
+            throw new IllegalStateException("sin conexión");
+        })).isInstanceOf(IllegalStateException.class);
+
+        long inicio = System.nanoTime();
+        limite.ejecutar(2, () -> {
+        });
+        assertThat(System.nanoTime() - inicio).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(950));
+    }
+
+    @Test
+    void ejecutar_conMasMensajesQueElCupo_deberiaLanzarExcepcion() {
+        LimiteEnvioCorreoService limite = new LimiteEnvioCorreoService(5, 3, meterRegistry);
+
+        assertThat(limite.maximoPorEnvio()).isEqualTo(3);
+        assertThatThrownBy(() -> limite.ejecutar(4, () -> {
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.condominio;
+
+import com.condominio.dto.response.AuthResponse;
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEntity;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.model.UserEntity;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.service.implementation.LoginService;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.service.implementation.TokenRefrescoService;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginServiceTest {
+
+    @Mock
+    private PersonaRepository personaRepository;
+    @Mock
+    private BCryptPasswordEncoder passwordEncoder;
+    @Mock
+    private JwtProperties jwtProperties;
+    @Mock
+    private PersonaService personaService;
+    @Mock
+    private TokenRefrescoService tokenRefrescoService;
+
+    private ThreadPoolTaskExecutor bcryptTaskExecutor;
+    private JwtUtil jwtUtil;
+    private LoginService loginService;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(jwtProperties.getSecret()).thenReturn("clave-de-prueba-de-al-menos-treinta-y-dos-bytes");
+        when(jwtProperties.getExpiration()).thenReturn(1L);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(24L);
+        jwtUtil = new JwtUtil(jwtProperties, personaService);
+        when(passwordEncoder.encode(anyString())).thenReturn("hash-relleno");
+
+        bcryptTaskExecutor = new ThreadPoolTaskExecutor();
+        bcryptTaskExecutor.setCorePoolSize(1);
+        bcryptTaskExecutor.setMaxPoolSize(1);
+        bcryptTaskExecutor.setQueueCapacity(0);
+        bcryptTaskExecutor.initialize();
+        loginService = new LoginService(personaRepository, passwordEncoder, jwtUtil, tokenRefrescoService,
+                bcryptTaskExecutor);
+        when(tokenRefrescoService.emitir(any())).thenReturn("token-refresco");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        bcryptTaskExecutor.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void login_credencialesValidas_deberiaEmitirAmbosTokensConUnaConsulta() throws Exception {
+        when(personaRepository.findParaLogin("ana@mail.com")).thenReturn(Optional.of(persona(true)));
+        when(passwordEncoder.matches("secreta", "hash-ana")).thenReturn(true);
+
+        AuthResponse respuesta = loginService.login("ana@mail.com", "secreta").get(5, TimeUnit.SECONDS);
+
+        assertThat(respuesta.user().email()).isEqualTo("ana@mail.com");
+        assertThat(respuesta.user().nombre()).isEqualTo("Ana Gómez");
+        assertThat(respuesta.user().roles()).containsExactly("PROPIETARIO");
+        assertThat(respuesta.user().idCasa()).isEqualTo(7L);
+        assertThat(respuesta.user().idPersona()).isEqualTo(12L);
+
+        Claims claims = jwtUtil.leerAccessToken(respuesta.token());
+        assertThat(claims.getSubject()).isEqualTo("ana@mail.com");
+        assertThat(claims.get("idCasa", Long.class)).isEqualTo(7L);
+        assertThat(claims.get("rol", List.class)).containsExactly("ROLE_PROPIETARIO");
+        assertThat(respuesta.refreshToken()).isEqualTo("token-refresco");
+        verify(tokenRefrescoService).emitir(argThat(u -> u.getIdPersona() == 12L && u.getIdCasa() == 7L));
+        verify(personaRepository, times(1)).findParaLogin("ana@mail.com");
+        verifyNoInteractions(personaService);
+    }
+
+    @Test
+    void login_contraseniaIncorrecta_deberiaFallar() {
+        when(personaRepository.findParaLogin("ana@mail.com")).thenReturn(Optional.of(persona(true)));
+        when(passwordEncoder.matches("otra", "hash-ana")).thenReturn(false);
+
+        assertThatThrownBy(() -> loginService.login("ana@mail.com", "otra").join())
+                .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void login_correoInexistente_deberiaVerificarContraElHashDeRelleno() {
+        when(personaRepository.findParaLogin("nadie@mail.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> loginService.login("nadie@mail.com", "secreta").join())
+                .hasCauseInstanceOf(BadCredentialsException.class);
+        verify(passwordEncoder).matches("secreta", "hash-relleno");
+    }
+
+    @Test
+    void login_cuentaDeshabilitada_deberiaFallarAunqueLaContraseniaSeaCorrecta() {
+        when(personaRepository.findParaLogin("ana@mail.com")).thenReturn(Optional.of(persona(false)));
+        when(passwordEncoder.matches("secreta", "hash-ana")).thenReturn(true);
+
+        assertThatThrownBy(() -> loginService.login("ana@mail.com", "secreta").join())
+                .hasCauseInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void login_conElPoolOcupado_deberiaRechazarConServicioNoDisponible() throws Exception {
+        when(personaRepository.findParaLogin("ana@mail.com")).thenReturn(Optional.of(persona(true)));
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(passwordEncoder.matches(eq("secreta"), anyString())).thenAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        CompletableFuture<AuthResponse> primero = loginService.login("ana@mail.com", "secreta");
+
+        assertThatThrownBy(() -> loginService.login("ana@mail.com", "secreta"))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        liberar.countDown();
+        assertThat(primero.get(5, TimeUnit.SECONDS).token()).isNotBlank();
+    }
+
+    private static Persona persona(boolean habilitada) {
+        RoleEntity rol = RoleEntity.builder().roleEnum(RoleEnum.PROPIETARIO).build();
+        UserEntity user = UserEntity.builder()
+                .email("ana@mail.com")
+                .contrasenia("hash-ana")
+                .isEnabled(habilitada)
+                .accountNoExpired(true)
+                .accountNoLocked(true)
+                .credentialNoExpired(true)
+                .roles(Set.of(rol))
+                .build();
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setPrimerNombre("Ana ");
+        persona.setPrimerApellido("Gómez");
+        persona.setUser(user);
+        persona.setCasa(Casa.builder().id(7L).build());
+        return persona;
+    }
+}
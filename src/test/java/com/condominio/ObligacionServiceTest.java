@@ -6,10 +6,11 @@ import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
 import com.condominio.service.implementation.EmailService;
+import com.condominio.service.implementation.FacturacionMensualService;
 import com.condominio.service.implementation.ObligacionService;
 import com.condominio.service.implementation.PdfService;
 import com.condominio.service.implementation.PersonaService;
-import com.condominio.service.interfaces.IPagoService;
+import com.condominio.service.implementation.SaldoCasaService;
 import com.condominio.util.exception.ApiException;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.*;
@@ -17,8 +18,12 @@ import org.mockito.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,16 +54,14 @@ class ObligacionServiceTest {
     @Mock
     private EmailService emailService;
 
-    @Mock
-    private IPagoService pagoService;
-
     @Mock
     private PersonaService personaService;
 
     @Mock
-    private CargoAdministracionRepository cargoAdministracionRepository;
+    private FacturacionMensualService facturacionMensualService;
+
     @Mock
-    private TasaDeInteresRepository tasaDeInteresRepository;
+    private SaldoCasaService saldoCasaService;
 
     private Casa casa;
     private Persona propietario;
@@ -132,6 +135,8 @@ class ObligacionServiceTest {
 
         when(obligacionRepository.findByCasaId(1L))
                 .thenReturn(List.of(obligacion1, obligacion2));
+        when(saldoCasaService.obtener(1L))
+                .thenReturn(SaldoCasa.builder().casaId(1L).saldoPendiente(500).build());
 
         // when
         SuccessResult<EstadoCuentaDTO> result = obligacionService.estadoDeCuentaCasa(1L);
@@ -182,18 +187,43 @@ class ObligacionServiceTest {
         ObligacionService spyService = Mockito.spy(obligacionService);
         doReturn(true).when(spyService).estaAlDia(idCasa);
         when(personaService.obtenerSolicitantePorCasa(idCasa)).thenReturn(persona);
-        when(pdfService.generarPdf(anyString(), eq(idCasa), anyString())).thenReturn(fakePdf);
+        escribirPdf(idCasa, fakePdf);
 
 
-        ResponseEntity<?> response = spyService.generarPazYSalvo(idCasa);
+        ResponseEntity<StreamingResponseBody> response = spyService.generarPazYSalvo(idCasa);
 
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PDF);
-        assertThat((byte[]) response.getBody()).isEqualTo(fakePdf);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(fakePdf.length);
+        assertThat(cuerpo(response)).isEqualTo(fakePdf);
 
-        verify(pdfService).generarPdf(anyString(), eq(idCasa), anyString());
-        verify(emailService).enviarPazYSalvo(eq("test@mail.com"), eq(fakePdf), anyString());
+        verify(pdfService).generarPdf(anyString(), eq(idCasa), anyString(), any(OutputStream.class));
+        verify(emailService).enviarPazYSalvo(eq("test@mail.com"), any(Path.class), anyString());
+    }
+    @Test
+    void generarPazYSalvo_AlTerminarDeEnviarLaRespuestaBorraElArchivoTemporal() throws Exception {
+        Long idCasa = 1L;
+        Persona persona = new Persona();
+        UserEntity newUser = new UserEntity();
+        newUser.setEmail("test@mail.com");
+        persona.setUser(newUser);
+        persona.setPrimerNombre("Ana");
+        persona.setPrimerApellido("Gómez");
+        byte[] fakePdf = new byte[]{1, 2, 3};
+
+        ObligacionService spyService = Mockito.spy(obligacionService);
+        doReturn(true).when(spyService).estaAlDia(idCasa);
+        when(personaService.obtenerSolicitantePorCasa(idCasa)).thenReturn(persona);
+        escribirPdf(idCasa, fakePdf);
+        ArgumentCaptor<Path> certificado = ArgumentCaptor.forClass(Path.class);
+
+        ResponseEntity<StreamingResponseBody> response = spyService.generarPazYSalvo(idCasa);
+
+        verify(emailService).enviarPazYSalvo(eq("test@mail.com"), certificado.capture(), anyString());
+        assertThat(certificado.getValue()).exists();
+        assertThat(cuerpo(response)).isEqualTo(fakePdf);
+        assertThat(certificado.getValue()).doesNotExist();
     }
     @Test
     void generarPazYSalvo_CuandoTieneDeudasDebeLanzarExcepcion() {
@@ -223,13 +253,14 @@ class ObligacionServiceTest {
         ObligacionService spyService = Mockito.spy(obligacionService);
         doReturn(true).when(spyService).estaAlDia(idCasa);
         when(personaService.obtenerSolicitantePorCasa(idCasa)).thenReturn(persona);
-        when(pdfService.generarPdf(anyString(), eq(idCasa), anyString())).thenThrow(new IOException("Error generando PDF"));
+        doThrow(new IOException("Error generando PDF")).when(pdfService)
+                .generarPdf(anyString(), eq(idCasa), anyString(), any(OutputStream.class));
 
         ApiException ex = assertThrows(ApiException.class, () -> spyService.generarPazYSalvo(idCasa));
 
         assertThat(ex.getMessage()).contains("Error al generar el PDF");
         assertThat(ex.getStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
-        verify(pdfService).generarPdf(anyString(), eq(idCasa), anyString());
+        verify(pdfService).generarPdf(anyString(), eq(idCasa), anyString(), any(OutputStream.class));
         verifyNoInteractions(emailService);
     }
 
@@ -248,16 +279,16 @@ class ObligacionServiceTest {
         ObligacionService spyService = Mockito.spy(obligacionService);
         doReturn(true).when(spyService).estaAlDia(idCasa);
         when(personaService.obtenerSolicitantePorCasa(idCasa)).thenReturn(persona);
-        when(pdfService.generarPdf(anyString(), eq(idCasa), anyString())).thenReturn(fakePdf);
+        escribirPdf(idCasa, fakePdf);
         doThrow(new MessagingException("SMTP error")).when(emailService)
-                .enviarPazYSalvo(eq("fail@mail.com"), eq(fakePdf), anyString());
+                .enviarPazYSalvo(eq("fail@mail.com"), any(Path.class), anyString());
 
-        ResponseEntity<?> response = spyService.generarPazYSalvo(idCasa);
+        ResponseEntity<StreamingResponseBody> response = spyService.generarPazYSalvo(idCasa);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat((byte[]) response.getBody()).isEqualTo(fakePdf);
+        assertThat(cuerpo(response)).isEqualTo(fakePdf);
 
-        verify(emailService).enviarPazYSalvo(eq("fail@mail.com"), eq(fakePdf), anyString());
+        verify(emailService).enviarPazYSalvo(eq("fail@mail.com"), any(Path.class), anyString());
     }
     @Test
     void save_DebeGuardarMultaCuandoCasaExiste() {
@@ -378,60 +409,11 @@ class ObligacionServiceTest {
     }
 
     @Test
-    void generarObligacionesMensuales_deberiaCrearObligacionesParaCasasConPropietario() throws MessagingException {
-        // Datos de prueba
-        CargoAdministracion cargoAdmin = new CargoAdministracion();
-        cargoAdmin.setNuevoValor(50000);
-
-        TasaDeInteres tasaInteres = new TasaDeInteres();
-        tasaInteres.setNuevoValor(0.02);
-
-        Casa casaConPropietario = new Casa();
-        casaConPropietario.setId(1L);
-        casaConPropietario.setNumeroCasa(1);
-
-        UserEntity usuario = new UserEntity();
-        usuario.setEmail("propietario@mail.com");
-
-        Persona propietario = new Persona();
-        propietario.setUser(usuario);
-        propietario.setCasa(casaConPropietario);
-
-        // Mocks
-        when(cargoAdministracionRepository.findAll()).thenReturn(List.of(cargoAdmin));
-        when(tasaDeInteresRepository.findAll()).thenReturn(List.of(tasaInteres));
-        when(personaRepository.findAllPropietariosConCasa()).thenReturn(List.of(propietario));
-
-        // Ejecutar
+    void generarObligacionesMensuales_deberiaDelegarEnFacturacionMensual() {
         obligacionService.generarObligacionesMensuales();
 
-        // Verificar que se llamó a saveAll con una lista válida
-        verify(obligacionRepository, times(1)).saveAll(argThat(iterable -> {
-            if (iterable == null) return false;
-
-            List<Obligacion> lista = new ArrayList<>();
-            iterable.forEach(lista::add);
-
-            if (lista.size() != 1) return false;
-            Obligacion o = lista.get(0);
-
-            return o.getMonto() == 50000
-                    && o.getTasaInteres() == 0.02
-                    && o.getCasa().equals(casaConPropietario)
-                    && o.getTipoPago() == TipoPago.DINERO
-                    && o.getTipoObligacion() == TipoObligacion.ADMINISTRACION
-                    && o.getEstadoPago() == EstadoPago.PENDIENTE;
-        }));
-
-
-        // Verificar envío de correo
-        verify(emailService, times(1)).enviarObligacionMensual(
-                eq("propietario@mail.com"),
-                any(MostrarObligacionDTO.class)
-        );
-
-        // Verificar que no hubo llamadas adicionales inesperadas
-        verifyNoMoreInteractions(obligacionRepository, emailService);
+        verify(facturacionMensualService, times(1)).facturar(any(LocalDate.class));
+        verifyNoInteractions(obligacionRepository, emailService);
     }
     @Test
     void estadoCuentaCasa_CasaNoExiste() {
@@ -443,4 +425,17 @@ class ObligacionServiceTest {
         assertThrows(ApiException.class,
                 () -> obligacionService.estadoDeCuentaCasaSinFiltro(idCasa));
     }
+
+    private void escribirPdf(Long idCasa, byte[] pdf) throws IOException {
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(3).write(pdf);
+            return null;
+        }).when(pdfService).generarPdf(anyString(), eq(idCasa), anyString(), any(OutputStream.class));
+    }
+
+    private static byte[] cuerpo(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
 }
@@ -0,0 +1,110 @@
+package com.condominio;
+
+import com.condominio.dto.response.OcupantesCasaDTO;
+import com.condominio.persistence.repository.OcupanteCasaRepository;
+import com.condominio.service.implementation.OcupanteCasaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.*;
+
+class OcupanteCasaServiceTest {
+
+    @Mock
+    private OcupanteCasaRepository ocupanteCasaRepository;
+
+    @InjectMocks
+    private OcupanteCasaService ocupanteCasaService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void actualizar_deberiaRecalcularSoloEsaCasa() {
+        ocupanteCasaService.actualizar(1L);
+
+        verify(ocupanteCasaRepository).recalcular(List.of(1L));
+        verifyNoMoreInteractions(ocupanteCasaRepository);
+    }
+
+    @Test
+    void obtener_deberiaLeerLaTablaSoloLaPrimeraVez() {
+        when(ocupanteCasaRepository.findOcupantes(1L)).thenReturn(Optional.of(new OcupantesCasaDTO(10L, 20L)));
+
+        ocupanteCasaService.obtener(1L);
+        OcupantesCasaDTO ocupantes = ocupanteCasaService.obtener(1L);
+
+        assertThat(ocupantes.getPropietarioId()).isEqualTo(10L);
+        assertThat(ocupantes.getArrendatarioId()).isEqualTo(20L);
+        verify(ocupanteCasaRepository, times(1)).findOcupantes(1L);
+        verify(ocupanteCasaRepository, never()).calcularOcupantes(any());
+    }
+
+    @Test
+    void obtener_casaSinFila_deberiaCalcularlaSinEscribir() {
+        when(ocupanteCasaRepository.findOcupantes(1L)).thenReturn(Optional.empty());
+        when(ocupanteCasaRepository.calcularOcupantes(1L)).thenReturn(new OcupantesCasaDTO(10L, null));
+
+        assertThat(ocupanteCasaService.obtener(1L).getPropietarioId()).isEqualTo(10L);
+        verify(ocupanteCasaRepository, never()).recalcular(anyCollection());
+        verify(ocupanteCasaRepository, never()).recalcularFaltantes();
+    }
+
+    @Test
+    void actualizar_enTransaccion_deberiaInvalidarLaCasaAlTerminar() {
+        when(ocupanteCasaRepository.findOcupantes(1L))
+                .thenReturn(Optional.of(new OcupantesCasaDTO(10L, null)))
+                .thenReturn(Optional.of(new OcupantesCasaDTO(11L, null)));
+        ocupanteCasaService.obtener(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ocupanteCasaService.actualizar(1L);
+            assertThat(ocupanteCasaService.obtener(1L).getPropietarioId()).isEqualTo(10L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sincronizacion -> sincronizacion.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ocupanteCasaService.obtener(1L).getPropietarioId()).isEqualTo(11L);
+    }
+
+    @Test
+    void completarFaltantes_deberiaCalcularLasCasasSinFila() {
+        when(ocupanteCasaRepository.recalcularFaltantes()).thenReturn(4);
+
+        ocupanteCasaService.completarFaltantes();
+
+        verify(ocupanteCasaRepository).recalcularFaltantes();
+        verify(ocupanteCasaRepository, never()).recalcular(anyCollection());
+    }
+
+    @Test
+    void completarFaltantes_siFalla_noDeberiaImpedirElArranque() {
+        when(ocupanteCasaRepository.recalcularFaltantes()).thenThrow(new IllegalStateException("sin conexión"));
+
+        assertThatCode(() -> ocupanteCasaService.completarFaltantes()).doesNotThrowAnyException();
+    }
+}
@@ -6,6 +6,7 @@ import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
 import com.condominio.service.implementation.PagoService;
+import com.condominio.service.implementation.SaldoCasaService;
 import com.condominio.util.events.CreatedPagoEvent;
 import com.condominio.util.exception.ApiException;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +46,9 @@ class PagoServiceTest {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private SaldoCasaService saldoCasaService;
+
     @InjectMocks
     private PagoService pagoService;
 
@@ -91,6 +95,7 @@ class PagoServiceTest {
         verify(pagoRepository, times(1)).save(any(Pago.class));
         verify(pagoDetalleRepository, times(1)).save(any(PagoDetalle.class));
         verify(obligacionRepository, times(1)).save(obligacion);
+        verify(saldoCasaService, times(1)).recalcular(1L);
 
         // Verificación de evento
         verify(eventPublisher, times(1)).publishEvent(any(CreatedPagoEvent.class));
@@ -108,7 +113,7 @@ class PagoServiceTest {
         assertEquals("El valor ingresado supera la deuda actual.", ex.getMessage());
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
 
-        verifyNoInteractions(pagoRepository, pagoDetalleRepository, eventPublisher);
+        verifyNoInteractions(pagoRepository, pagoDetalleRepository, eventPublisher, saldoCasaService);
     }
 
     //Caso 3: Monto menor a la deuda — lanza excepción
@@ -0,0 +1,185 @@
+package com.condominio;
+
+import com.condominio.dto.response.ResidenteCasaDTO;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.service.implementation.CacheCertificadoService;
+import com.condominio.service.implementation.EmailService;
+import com.condominio.service.implementation.PazYSalvoMasivoService;
+import com.condominio.service.interfaces.IPdfService;
+import com.condominio.util.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PazYSalvoMasivoServiceTest {
+
+    @Mock
+    private PersonaRepository personaRepository;
+
+    @Mock
+    private IPdfService pdfService;
+
+    @Mock
+    private EmailService emailService;
+
+    private ThreadPoolTaskExecutor pdfTaskExecutor;
+
+    private PazYSalvoMasivoService pazYSalvoMasivoService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        closeable = MockitoAnnotations.openMocks(this);
+        pdfTaskExecutor = new ThreadPoolTaskExecutor();
+        pdfTaskExecutor.setCorePoolSize(2);
+        pdfTaskExecutor.setMaxPoolSize(2);
+        pdfTaskExecutor.initialize();
+        pazYSalvoMasivoService = new PazYSalvoMasivoService(personaRepository, pdfService,
+                new CacheCertificadoService(10), emailService, pdfTaskExecutor);
+        when(pdfService.generarPdf(anyString(), anyLong(), anyString()))
+                .thenAnswer(inv -> ("pdf " + inv.getArgument(0)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pdfTaskExecutor.shutdown();
+        closeable.close();
+    }
+
+    @Test
+    void generar_deberiaEscribirUnCertificadoPorCasaEnOrdenYPreferirAlArrendatario() throws Exception {
+        when(personaRepository.findSolicitantesDeCasasAlDia()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Ana"),
+                residente(1L, RoleEnum.ARRENDATARIO, "Luis"),
+                residente(2L, RoleEnum.PROPIETARIO, "Eva"),
+                residente(3L, RoleEnum.ARRENDATARIO, "Juan"),
+                residente(3L, RoleEnum.PROPIETARIO, "Sara")));
+
+        Map<String, String> entradas = leerZip(pazYSalvoMasivoService.generar(false)::writeTo);
+
+        assertThat(entradas).containsExactly(
+                Map.entry("paz_y_salvo_casa_1.pdf", "pdf Luis"),
+                Map.entry("paz_y_salvo_casa_2.pdf", "pdf Eva"),
+                Map.entry("paz_y_salvo_casa_3.pdf", "pdf Juan"));
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void generar_siUnCertificadoSeDemora_noDeberiaAdelantarMasDeDosPorHilo() throws Exception {
+        List<ResidenteCasaDTO> residentes = new ArrayList<>();
+        for (long casa = 1; casa <= 30; casa++) {
+            residentes.add(residente(casa, RoleEnum.PROPIETARIO, "Casa" + casa));
+        }
+        when(personaRepository.findSolicitantesDeCasasAlDia()).thenReturn(residentes);
+        CountDownLatch primeraCasa = new CountDownLatch(1);
+        AtomicInteger iniciados = new AtomicInteger();
+        when(pdfService.generarPdf(anyString(), anyLong(), anyString())).thenAnswer(inv -> {
+            iniciados.incrementAndGet();
+            if (inv.<Long>getArgument(1) == 1L) {
+                primeraCasa.await(10, TimeUnit.SECONDS);
+            }
+            return new byte[]{1};
+        });
+
+        StreamingResponseBody zip = pazYSalvoMasivoService.generar(false);
+        CompletableFuture<Void> escritura = CompletableFuture.runAsync(() -> {
+            try {
+                zip.writeTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        Thread.sleep(300);
+        assertThat(iniciados).hasValue(4);
+        primeraCasa.countDown();
+        escritura.get(10, TimeUnit.SECONDS);
+        assertThat(iniciados).hasValue(30);
+    }
+
+    @Test
+    void generar_conCorreo_deberiaEncolarCadaCertificado() throws Exception {
+        when(personaRepository.findSolicitantesDeCasasAlDia()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Ana"),
+                residente(2L, RoleEnum.PROPIETARIO, "Eva")));
+
+        leerZip(pazYSalvoMasivoService.generar(true)::writeTo);
+
+        verify(emailService).enviarPazYSalvo(eq("ana@mail.com"), any(byte[].class), eq("paz_y_salvo_casa_1.pdf"));
+        verify(emailService).enviarPazYSalvo(eq("eva@mail.com"), any(byte[].class), eq("paz_y_salvo_casa_2.pdf"));
+    }
+
+    @Test
+    void generar_siFallaUnCertificado_deberiaSeguirYReportarloEnElZip() throws Exception {
+        when(personaRepository.findSolicitantesDeCasasAlDia()).thenReturn(List.of(
+                residente(1L, RoleEnum.PROPIETARIO, "Ana"),
+                residente(2L, RoleEnum.PROPIETARIO, "Eva")));
+        when(pdfService.generarPdf(eq("Ana"), eq(1L), anyString())).thenThrow(new IOException("plantilla rota"));
+
+        Map<String, String> entradas = leerZip(pazYSalvoMasivoService.generar(true)::writeTo);
+
+        assertThat(entradas).containsOnlyKeys("paz_y_salvo_casa_2.pdf", "errores.txt");
+        assertThat(entradas.get("errores.txt")).contains("Casa 1", "plantilla rota");
+        verify(emailService, times(1)).enviarPazYSalvo(any(), any(byte[].class), any());
+    }
+
+    @Test
+    void generar_sinCasasAlDia_deberiaLanzarExcepcion() {
+        when(personaRepository.findSolicitantesDeCasasAlDia()).thenReturn(List.of());
+
+        assertThatThrownBy(() -> pazYSalvoMasivoService.generar(false))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("No hay casas al día");
+        verifyNoInteractions(pdfService);
+    }
+
+    private static ResidenteCasaDTO residente(Long casaId, RoleEnum rol, String nombre) {
+        return new ResidenteCasaDTO(casaId, rol, nombre, null, null, null, 3000000000L,
+                nombre.toLowerCase() + "@mail.com");
+    }
+
+    private interface Escritura {
+        void escribir(OutputStream out) throws IOException;
+    }
+
+    private static Map<String, String> leerZip(Escritura escritura) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        escritura.escribir(out);
+        Map<String, String> entradas = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entrada;
+            while ((entrada = zip.getNextEntry()) != null) {
+                entradas.put(entrada.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entradas;
+    }
+}
@@ -1,14 +1,23 @@
 package com.condominio;
 
+import com.condominio.dto.response.MovimientoEstadoCuentaDTO;
 import com.condominio.service.implementation.PdfService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -77,13 +86,64 @@ class PdfServiceTest {
         assertTrue(pdfBytes.length > 0);
     }
     @Test
-    void convertirLogoABase64_CuandoIOExceptionDevuelveNull() {
+    void leerRecurso_SiNoExisteDevuelveNull() {
 
         Object result = ReflectionTestUtils.invokeMethod(pdfService,
-                "convertirLogoABase64", "ruta/inexistente.png");
+                "leerRecurso", "ruta/inexistente.png");
 
         assertNull(result);
     }
+
+    @Test
+    void generarPdf_DeberiaTomarElLogoPrecargadoSinBase64() throws IOException {
+        ArgumentCaptor<Context> context = ArgumentCaptor.forClass(Context.class);
+        when(templateEngine.process(anyString(), context.capture()))
+                .thenReturn("<html><body><img src=\"recurso:logo.png\" style=\"height:60px;\" /></body></html>");
+
+        byte[] resultado = pdfService.generarPdf("Miguel", 44L, "2025-10-20");
+
+        assertEquals("recurso:logo.png", context.getValue().getVariable("logoSrc"));
+        assertNull(context.getValue().getVariable("logoBase64"));
+        assertTrue(new String(resultado, StandardCharsets.ISO_8859_1).contains("/Subtype /Image"),
+                "El logo debería quedar incrustado en el PDF");
+    }
+
+    @Test
+    void generarPdf_EnUnOutputStream_EscribeElMismoDocumento() throws IOException {
+        when(templateEngine.process(anyString(), any(Context.class)))
+                .thenReturn("<html><body><p>PDF Test</p></body></html>");
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+
+        pdfService.generarPdf("Miguel", 44L, "2025-10-20", destino);
+
+        assertTrue(new String(destino.toByteArray(), 0, 5, StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+    }
+    @Test
+    void renderizar_PlantillaDeEstadoDeCuenta_GeneraElPdf() throws IOException {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine motorReal = new SpringTemplateEngine();
+        motorReal.setTemplateResolver(resolver);
+        PdfService servicio = new PdfService(motorReal);
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+
+        servicio.renderizar("EstadoCuentaPDF/estado-cuenta", Map.of(
+                "nombre", "Ana Gómez",
+                "casa", "Casa 7",
+                "periodo", "septiembre 2025",
+                "fecha", "01/10/2025",
+                "cargos", List.of(new MovimientoEstadoCuentaDTO(7L, LocalDate.of(2025, 9, 1), "Administración", 50000)),
+                "abonos", List.of(),
+                "totalCargos", 50000L,
+                "totalAbonos", 0L,
+                "saldoPendiente", 50000L,
+                "saldoVencido", 0L), destino);
+
+        assertTrue(new String(destino.toByteArray(), 0, 5, StandardCharsets.ISO_8859_1).startsWith("%PDF-"));
+    }
     @Test
     void generarPdf_CuandoThymeleafFalla_LanzaIOException() {
 
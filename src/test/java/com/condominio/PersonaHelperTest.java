@@ -0,0 +1,68 @@
+package com.condominio;
+
+import com.condominio.dto.response.PersonaSimpleDTO;
+import com.condominio.dto.response.ResidenteCasaDTO;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.helper.PersonaHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonaHelperTest {
+
+    @Mock
+    private PersonaRepository personaRepository;
+
+    @InjectMocks
+    private PersonaHelper personaHelper;
+
+    @Test
+    void obtenerSolicitantesPorCasa_debePreferirArrendatarioYUsarPropietarioComoRespaldo() {
+        Set<Long> casaIds = Set.of(1L, 2L);
+        when(personaRepository.findPropietariosYArrendatariosPorCasas(casaIds)).thenReturn(List.of(
+                new ResidenteCasaDTO(1L, RoleEnum.PROPIETARIO, "Ana", null, "Lopez", null, 111L, "ana@mail.com"),
+                new ResidenteCasaDTO(1L, RoleEnum.ARRENDATARIO, "Luis", "Carlos", "Gomez", null, 222L, "luis@mail.com"),
+                new ResidenteCasaDTO(2L, RoleEnum.PROPIETARIO, "Marta", null, "Ruiz", "Diaz", 333L, "marta@mail.com")
+        ));
+
+        Map<Long, PersonaSimpleDTO> solicitantes = personaHelper.obtenerSolicitantesPorCasa(casaIds);
+
+        assertThat(solicitantes).hasSize(2);
+        assertThat(solicitantes.get(1L).getCorreo()).isEqualTo("luis@mail.com");
+        assertThat(solicitantes.get(1L).getNombreCompleto()).isEqualTo("Luis Carlos Gomez");
+        assertThat(solicitantes.get(2L).getCorreo()).isEqualTo("marta@mail.com");
+        assertThat(solicitantes.get(2L).getTelefono()).isEqualTo(333L);
+        verify(personaRepository, times(1)).findPropietariosYArrendatariosPorCasas(casaIds);
+        verify(personaRepository, never()).findArrendatarioByCasaId(any());
+        verify(personaRepository, never()).findPropietarioByCasaId(any());
+    }
+
+    @Test
+    void obtenerSolicitantesPorCasa_debeLanzarExcepcionSiUnaCasaNoTieneSolicitante() {
+        Set<Long> casaIds = Set.of(5L);
+        when(personaRepository.findPropietariosYArrendatariosPorCasas(casaIds)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> personaHelper.obtenerSolicitantesPorCasa(casaIds))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("No se encontró un solicitante (arrendatario o propietario) para la casa con ID 5");
+    }
+
+    @Test
+    void obtenerSolicitantesPorCasa_sinCasas_noDebeConsultar() {
+        assertThat(personaHelper.obtenerSolicitantesPorCasa(Set.of())).isEmpty();
+        verifyNoInteractions(personaRepository);
+    }
+}
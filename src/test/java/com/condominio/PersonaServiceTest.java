@@ -6,6 +6,8 @@ import com.condominio.dto.response.PersonaSimpleRolDTO;
 import com.condominio.dto.response.SuccessResult;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.service.implementation.InvalidacionTokenService;
+import com.condominio.service.implementation.OcupanteCasaService;
 import com.condominio.service.implementation.PersonaService;
 import com.condominio.service.interfaces.ICasaService;
 import com.condominio.service.interfaces.IUserService;
@@ -53,6 +55,12 @@ class PersonaServiceTest {
     @Mock
     private com.condominio.persistence.repository.UserRepository userRepository;
 
+    @Mock
+    private OcupanteCasaService ocupanteCasaService;
+
+    @Mock
+    private InvalidacionTokenService invalidacionTokenService;
+
     private AutoCloseable closeable;
 
     @BeforeEach
@@ -109,6 +117,7 @@ class PersonaServiceTest {
         verify(personaRepository).findByNumeroDocumento(dto.getNumeroDocumento());
         verify(casaService).findById(dto.getIdCasa());
         verify(personaRepository).save(mappedPersona);
+        verify(ocupanteCasaService).actualizar(dto.getIdCasa());
     }
 
     @Test
@@ -0,0 +1,79 @@
+package com.condominio;
+
+import com.condominio.service.implementation.PlantillaCorreoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PlantillaCorreoServiceTest {
+
+    private static final String PLANTILLA = "email/obligacion-mensual";
+
+    private SpringTemplateEngine templateEngine;
+
+    private PlantillaCorreoService plantillaCorreoService;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = spy(new SpringTemplateEngine());
+        templateEngine.setTemplateResolver(resolver);
+        plantillaCorreoService = new PlantillaCorreoService(templateEngine, 2);
+    }
+
+    @Test
+    void compartir_deberiaDarElMismoHtmlQueRenderizarCadaDestinatario() {
+        Map<String, Object> comunes = Map.of(
+                "titulo", "Administración octubre 2025",
+                "motivo", "Cobro <de> administración & \"mora\"",
+                "monto", 50000);
+
+        PlantillaCorreoService.PlantillaCompartida compartida =
+                plantillaCorreoService.compartir(PLANTILLA, comunes, Set.of("casa"));
+
+        for (Object casa : new Object[]{101, 7, "12<b>", null}) {
+            Map<String, Object> variables = new HashMap<>(comunes);
+            variables.put("casa", casa);
+            Context context = new Context();
+            context.setVariables(variables);
+            String esperado = templateEngine.process(PLANTILLA, context);
+
+            Map<String, Object> valores = new HashMap<>();
+            valores.put("casa", casa);
+            assertThat(compartida.para(valores)).isEqualTo(esperado);
+        }
+    }
+
+    @Test
+    void renderizar_deberiaRecordarLasUltimasCombinaciones() {
+        Map<String, Object> octubre = Map.of("titulo", "Octubre", "motivo", "Cobro", "casa", 1, "monto", 1000);
+        Map<String, Object> noviembre = Map.of("titulo", "Noviembre", "motivo", "Cobro", "casa", 1, "monto", 1000);
+        Map<String, Object> diciembre = Map.of("titulo", "Diciembre", "motivo", "Cobro", "casa", 1, "monto", 1000);
+
+        String primero = plantillaCorreoService.renderizar(PLANTILLA, octubre);
+        assertThat(plantillaCorreoService.renderizar(PLANTILLA, new HashMap<>(octubre))).isSameAs(primero);
+        verify(templateEngine, times(1)).process(eq(PLANTILLA), any(Context.class));
+
+        plantillaCorreoService.renderizar(PLANTILLA, noviembre);
+        plantillaCorreoService.renderizar(PLANTILLA, diciembre);
+        plantillaCorreoService.renderizar(PLANTILLA, octubre);
+
+        // Solo caben dos: octubre salió al entrar diciembre.
+        verify(templateEngine, times(4)).process(eq(PLANTILLA), any(Context.class));
+    }
+}
@@ -10,10 +10,12 @@ import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.service.implementation.PqrsService;
 import com.condominio.util.exception.ApiException;
 import com.condominio.util.helper.PersonaHelper;
+import com.condominio.util.security.ResidenteActual;
+import com.condominio.util.security.UsuarioToken;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,7 +27,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -46,9 +50,13 @@ public class PqrsServiceTest {
     @Mock
     private PersonaRepository personaRepository;
 
-    @InjectMocks
     private PqrsService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new PqrsService(pqrsRepository, modelMapper, personaHelper, new ResidenteActual(personaRepository));
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
@@ -67,19 +75,12 @@ public class PqrsServiceTest {
 
         PqrsDTO dto = new PqrsDTO();
 
-        Persona persona = new Persona();
-        persona.setPrimerNombre("Ana");
-        persona.setPrimerApellido("Lopez");
-        UserEntity user = new UserEntity(); user.setEmail("ana@example.com");
-        persona.setUser(user);
-
         when(pqrsRepository.findByEstadoPqrs(estado)).thenReturn(List.of(entity));
         when(modelMapper.map(entity, PqrsDTO.class)).thenReturn(dto);
-        when(personaHelper.obtenerSolicitantePorCasa(casaId)).thenReturn(persona);
-        when(personaHelper.toPersonaSimpleDTO(persona)).thenReturn(
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(casaId))).thenReturn(Map.of(casaId,
                 com.condominio.dto.response.PersonaSimpleDTO.builder()
                         .nombreCompleto("Ana Lopez").correo("ana@example.com").telefono(null).build()
-        );
+        ));
 
         SuccessResult<List<PqrsDTO>> res = service.findByEstado(estado);
 
@@ -89,8 +90,9 @@ public class PqrsServiceTest {
 
         verify(pqrsRepository).findByEstadoPqrs(estado);
         verify(modelMapper).map(entity, PqrsDTO.class);
-        verify(personaHelper).obtenerSolicitantePorCasa(casaId);
-        verify(personaHelper).toPersonaSimpleDTO(persona);
+        verify(personaHelper).obtenerSolicitantesPorCasa(Set.of(casaId));
+        verify(personaHelper, never()).obtenerSolicitantePorCasa(any());
+        assertThat(res.data().getFirst().getSolicitante().getCorreo()).isEqualTo("ana@example.com");
     }
 
     @Test
@@ -433,6 +435,24 @@ public class PqrsServiceTest {
         assertThat(ex.getMessage()).contains("No autorizado");
     }
 
+    @Test
+    void verificarUsuarioAndPqrs_conClaimsDelToken_noDeberiaConsultarLaPersona() {
+        UsuarioToken usuario = new UsuarioToken("owner@example.com", 3L, 200L, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities())
+        );
+
+        Long id = 41L;
+        Casa casa = new Casa(); casa.setId(200L);
+        PqrsEntity entity = new PqrsEntity();
+        entity.setId(id);
+        entity.setCasa(casa);
+        when(pqrsRepository.findById(id)).thenReturn(Optional.of(entity));
+
+        assertThat(service.verificarUsuarioAndPqrs(id)).isSameAs(entity);
+        verifyNoInteractions(personaRepository);
+    }
+
     @Test
     void verificarUsuarioAndPqrs_shouldThrowNotFound_whenPqrsMissing() {
         String username = "ownerX@example.com";
@@ -7,6 +7,7 @@ import com.condominio.persistence.model.DisponibilidadRecurso;
 import com.condominio.persistence.model.RecursoComun;
 import com.condominio.persistence.model.TipoRecursoComun;
 import com.condominio.persistence.repository.RecursoComunRepository;
+import com.condominio.service.implementation.DisponibilidadReservaService;
 import com.condominio.service.implementation.RecursoComunService;
 import com.condominio.util.exception.ApiException;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,9 @@ class RecursoComunServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private DisponibilidadReservaService disponibilidadReservaService;
+
     @InjectMocks
     private RecursoComunService recursoComunService;
 
@@ -265,6 +269,7 @@ class RecursoComunServiceTest {
         verify(recursoComunRepository).findById(id);
         verify(recursoComunRepository).save(recurso);
         assertThat(recurso.getDisponibilidadRecurso()).isEqualTo(DisponibilidadRecurso.DISPONIBLE);
+        verify(disponibilidadReservaService).invalidar(id);
     }
 
     @Test
@@ -4,7 +4,6 @@ import com.condominio.dto.response.PersonaSimpleDTO;
 import com.condominio.dto.response.ReparacionLocativaDTO;
 import com.condominio.dto.response.SolicitudReparacionLocativaDTO;
 import com.condominio.persistence.model.Casa;
-import com.condominio.persistence.model.Persona;
 import com.condominio.persistence.model.ReparacionLocativa;
 import com.condominio.persistence.model.SolicitudReparacionLocativa;
 import com.condominio.persistence.repository.ReparacionLocativaRepository;
@@ -21,9 +20,12 @@ import org.springframework.http.HttpStatus;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,18 +66,13 @@ public class ReparacionLocativaServiceTest {
         when(modelMapper.map(entity, ReparacionLocativaDTO.class)).thenReturn(reparacionDto);
 
         // Persona helper stubs
-        Persona persona = new Persona();
-        persona.setPrimerNombre("Ana");
-        persona.setPrimerApellido("Lopez");
-
         PersonaSimpleDTO personaSimple = PersonaSimpleDTO.builder()
                 .nombreCompleto("Ana Lopez")
                 .telefono(null)
                 .correo("ana@example.com")
                 .build();
 
-        when(personaHelper.obtenerSolicitantePorCasa(casaId)).thenReturn(persona);
-        when(personaHelper.toPersonaSimpleDTO(persona)).thenReturn(personaSimple);
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(casaId))).thenReturn(Map.of(casaId, personaSimple));
 
         // Act
         List<ReparacionLocativaDTO> results = reparacionLocativaService.findAll();
@@ -91,8 +88,8 @@ public class ReparacionLocativaServiceTest {
 
         verify(reparacionLocativaRepository, times(1)).findAll();
         verify(modelMapper, times(1)).map(entity, ReparacionLocativaDTO.class);
-        verify(personaHelper, times(1)).obtenerSolicitantePorCasa(casaId);
-        verify(personaHelper, times(1)).toPersonaSimpleDTO(persona);
+        verify(personaHelper, times(1)).obtenerSolicitantesPorCasa(Set.of(casaId));
+        verify(personaHelper, never()).obtenerSolicitantePorCasa(any());
     }
 
     @Test
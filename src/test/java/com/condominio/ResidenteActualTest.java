@@ -0,0 +1,96 @@
+package com.condominio;
+
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.ResidenteActual;
+import com.condominio.util.security.UsuarioToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ResidenteActualTest {
+
+    @Mock
+    private PersonaRepository personaRepository;
+
+    private ResidenteActual residenteActual;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        residenteActual = new ResidenteActual(personaRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        closeable.close();
+    }
+
+    @Test
+    void conClaimsDelToken_deberiaDarLosIdsSinConsultarYCargarLaPersonaUnaVez() {
+        autenticar(new UsuarioToken("ana@mail.com", 12L, 7L, List.of()));
+        Persona persona = new Persona();
+        persona.setId(12L);
+        when(personaRepository.findById(12L)).thenReturn(Optional.of(persona));
+
+        assertThat(residenteActual.getEmail()).isEqualTo("ana@mail.com");
+        assertThat(residenteActual.requerirIdCasa()).isEqualTo(7L);
+        verifyNoInteractions(personaRepository);
+
+        assertThat(residenteActual.getPersona()).isSameAs(persona);
+        assertThat(residenteActual.getPersona()).isSameAs(persona);
+        verify(personaRepository, times(1)).findById(12L);
+    }
+
+    @Test
+    void conPrincipalSinIds_deberiaBuscarLaPersonaPorCorreoUnaSolaVez() {
+        autenticar("ana@mail.com");
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setCasa(Casa.builder().id(7L).build());
+        when(personaRepository.findByUserEmail("ana@mail.com")).thenReturn(Optional.of(persona));
+
+        assertThat(residenteActual.getIdCasa()).isEqualTo(7L);
+        assertThat(residenteActual.getIdPersona()).isEqualTo(12L);
+        assertThat(residenteActual.getPersona()).isSameAs(persona);
+        verify(personaRepository, times(1)).findByUserEmail("ana@mail.com");
+        verify(personaRepository, never()).findById(any());
+    }
+
+    @Test
+    void requerirIdCasa_sinCasaAsignada_deberiaResponderNoEncontrado() {
+        autenticar(new UsuarioToken("ana@mail.com", 12L, null, List.of()));
+
+        assertThatThrownBy(() -> residenteActual.requerirIdCasa())
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void sinAutenticacion_deberiaResponderNoAutenticado() {
+        assertThatThrownBy(() -> residenteActual.getIdCasa())
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+    }
+
+    private static void autenticar(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,130 @@
+package com.condominio;
+
+import com.condominio.dto.response.ReconstruccionSaldosDTO;
+import com.condominio.dto.response.SuccessResult;
+import com.condominio.persistence.model.EstadoFinancieroCasa;
+import com.condominio.persistence.model.SaldoCasa;
+import com.condominio.persistence.repository.SaldoCasaRepository;
+import com.condominio.service.implementation.CacheCertificadoService;
+import com.condominio.service.implementation.SaldoCasaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SaldoCasaServiceTest {
+
+    @Mock
+    private SaldoCasaRepository saldoCasaRepository;
+
+    @Mock
+    private CacheCertificadoService cacheCertificadoService;
+
+    @InjectMocks
+    private SaldoCasaService saldoCasaService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void obtener_conFilaExistente_noDeberiaRecalcular() {
+        SaldoCasa saldo = SaldoCasa.builder().casaId(1L).saldoPendiente(120000).build();
+        when(saldoCasaRepository.findById(1L)).thenReturn(Optional.of(saldo));
+
+        SaldoCasa resultado = saldoCasaService.obtener(1L);
+
+        assertThat(resultado).isSameAs(saldo);
+        verify(saldoCasaRepository, never()).recalcular(anyCollection(), any());
+    }
+
+    @Test
+    void obtener_sinFila_deberiaCalcularlaYLeerla() {
+        SaldoCasa saldo = SaldoCasa.builder().casaId(1L).saldoPendiente(80000).build();
+        when(saldoCasaRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(saldo));
+
+        SaldoCasa resultado = saldoCasaService.obtener(1L);
+
+        assertThat(resultado.getSaldoPendiente()).isEqualTo(80000);
+        verify(saldoCasaRepository).recalcular(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void obtenerTodos_deberiaCalcularSoloLasCasasSinFila() {
+        when(saldoCasaRepository.findAll()).thenReturn(List.of(
+                SaldoCasa.builder().casaId(1L).estadoFinanciero(EstadoFinancieroCasa.AL_DIA).build()));
+        when(saldoCasaRepository.findAllById(List.of(2L))).thenReturn(List.of(
+                SaldoCasa.builder().casaId(2L).estadoFinanciero(EstadoFinancieroCasa.EN_MORA).build()));
+
+        Map<Long, SaldoCasa> saldos = saldoCasaService.obtenerTodos(List.of(1L, 2L));
+
+        assertThat(saldos.get(2L).getEstadoFinanciero()).isEqualTo(EstadoFinancieroCasa.EN_MORA);
+        verify(saldoCasaRepository).recalcular(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void completarFaltantes_deberiaCalcularLasCasasSinFilaAlArrancar() {
+        when(saldoCasaRepository.recalcularFaltantes(any())).thenReturn(3);
+
+        saldoCasaService.completarFaltantes();
+
+        verify(saldoCasaRepository).recalcularFaltantes(any());
+        verify(saldoCasaRepository).actualizarEstados();
+        verify(saldoCasaRepository, never()).recalcularTodas(any());
+    }
+
+    @Test
+    void recalcular_deberiaDescartarLosCertificadosDeEsasCasas() {
+        saldoCasaService.recalcular(List.of(1L, 2L));
+
+        verify(saldoCasaRepository).recalcular(eq(List.of(1L, 2L)), any());
+        verify(cacheCertificadoService).invalidar(List.of(1L, 2L));
+    }
+
+    @Test
+    void recalcular_sinCasas_noDeberiaHacerNada() {
+        saldoCasaService.recalcular(List.of());
+
+        verifyNoInteractions(saldoCasaRepository, cacheCertificadoService);
+    }
+
+    @Test
+    void reconstruir_deberiaReportarCasasConSaldoDistinto() {
+        SaldoCasa igual = SaldoCasa.builder().casaId(1L).saldoPendiente(50000).build();
+        SaldoCasa desviada = SaldoCasa.builder().casaId(2L).saldoPendiente(10000).build();
+        SaldoCasa igualNueva = SaldoCasa.builder().casaId(1L).saldoPendiente(50000).build();
+        SaldoCasa corregida = SaldoCasa.builder().casaId(2L).saldoPendiente(60000).saldoVencido(60000)
+                .estadoFinanciero(EstadoFinancieroCasa.EN_MORA).build();
+        SaldoCasa nueva = SaldoCasa.builder().casaId(3L).saldoPendiente(0).build();
+        when(saldoCasaRepository.findAll())
+                .thenReturn(List.of(igual, desviada), List.of(igualNueva, corregida, nueva));
+
+        SuccessResult<ReconstruccionSaldosDTO> result = saldoCasaService.reconstruir();
+
+        verify(saldoCasaRepository).recalcularTodas(any());
+        assertThat(result.data().getCasasRecalculadas()).isEqualTo(3);
+        assertThat(result.data().getCasasConDiferencias()).isEqualTo(2);
+        assertThat(result.data().getDiferencias().get(0).getCasaId()).isEqualTo(2L);
+        assertThat(result.data().getDiferencias().get(0).getSaldoPendienteAnterior()).isEqualTo(10000L);
+        assertThat(result.data().getDiferencias().get(0).getSaldoPendienteCalculado()).isEqualTo(60000);
+        assertThat(result.data().getDiferencias().get(1).getSaldoPendienteAnterior()).isNull();
+    }
+}
@@ -11,11 +11,12 @@ import com.condominio.persistence.repository.SolicitudReparacionLocativaReposito
 import com.condominio.service.implementation.SolicitudReparacionLocativaService;
 import com.condominio.util.exception.ApiException;
 import com.condominio.util.helper.PersonaHelper;
+import com.condominio.util.security.ResidenteActual;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,7 +28,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -50,9 +53,14 @@ public class SolicitudReparacionLocativaTest {
     @Mock
     private ReparacionLocativaRepository reparacionLocativaRepository;
 
-    @InjectMocks
     private SolicitudReparacionLocativaService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new SolicitudReparacionLocativaService(solicitudRepo, modelMapper, personaHelper,
+                reparacionLocativaRepository, new ResidenteActual(personaRepository));
+    }
+
     @AfterEach
     void tearDown() {
         SecurityContextHolder.clearContext();
@@ -75,22 +83,15 @@ public class SolicitudReparacionLocativaTest {
 
         SolicitudReparacionLocativaDTO dto = new SolicitudReparacionLocativaDTO();
 
-        Persona persona = new Persona();
-        persona.setPrimerNombre("Ana");
-        persona.setPrimerApellido("Lopez");
-        UserEntity u = new UserEntity(); u.setEmail("ana@example.com");
-        persona.setUser(u);
-
         when(solicitudRepo.findByEstadoSolicitud(estado)).thenReturn(List.of(entity));
         when(modelMapper.map(entity, SolicitudReparacionLocativaDTO.class)).thenReturn(dto);
-        when(personaHelper.obtenerSolicitantePorCasa(casaId)).thenReturn(persona);
 
         var personaSimple = com.condominio.dto.response.PersonaSimpleDTO.builder()
                 .nombreCompleto("Ana Lopez")
                 .telefono(null)
                 .correo("ana@example.com")
                 .build();
-        when(personaHelper.toPersonaSimpleDTO(persona)).thenReturn(personaSimple);
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(casaId))).thenReturn(Map.of(casaId, personaSimple));
 
         SuccessResult<List<SolicitudReparacionLocativaDTO>> result = service.findByEstado(estado);
 
@@ -102,8 +103,8 @@ public class SolicitudReparacionLocativaTest {
 
         verify(solicitudRepo, times(1)).findByEstadoSolicitud(estado);
         verify(modelMapper, times(1)).map(entity, SolicitudReparacionLocativaDTO.class);
-        verify(personaHelper, times(1)).obtenerSolicitantePorCasa(casaId);
-        verify(personaHelper, times(1)).toPersonaSimpleDTO(persona);
+        verify(personaHelper, times(1)).obtenerSolicitantesPorCasa(Set.of(casaId));
+        verify(personaHelper, never()).obtenerSolicitantePorCasa(any());
     }
 
     @Test
@@ -131,20 +132,16 @@ public class SolicitudReparacionLocativaTest {
         entity.setId(2L);
         entity.setCasa(casa);
 
-        SolicitudReparacionLocativaDTO dto = new SolicitudReparacionLocativaDTO();
-
         when(solicitudRepo.findByEstadoSolicitud(estado)).thenReturn(List.of(entity));
-        when(modelMapper.map(entity, SolicitudReparacionLocativaDTO.class)).thenReturn(dto);
-        when(personaHelper.obtenerSolicitantePorCasa(casaId))
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(casaId)))
                 .thenThrow(new ApiException("No se encontró solicitante", HttpStatus.BAD_REQUEST));
 
         ApiException ex = assertThrows(ApiException.class, () -> service.findByEstado(estado));
         assertThat(ex.getMessage()).contains("No se encontró solicitante");
 
         verify(solicitudRepo).findByEstadoSolicitud(estado);
-        verify(modelMapper).map(entity, SolicitudReparacionLocativaDTO.class);
-        verify(personaHelper).obtenerSolicitantePorCasa(casaId);
-        verify(personaHelper, never()).toPersonaSimpleDTO(any());
+        verify(personaHelper).obtenerSolicitantesPorCasa(Set.of(casaId));
+        verifyNoInteractions(modelMapper);
     }
 
     @Test
@@ -490,7 +487,7 @@ public class SolicitudReparacionLocativaTest {
         SolicitudReparacionLocativa saved = captor.getValue();
         assertThat(saved.getMotivo()).isEqualTo(dto.getMotivo());
         assertThat(saved.getResponsable()).isEqualTo(dto.getResponsable());
-        assertThat(saved.getCasa()).isEqualTo(casa);
+        assertThat(saved.getCasa().getId()).isEqualTo(casa.getId());
         assertThat(saved.getEstadoSolicitud()).isEqualTo(EstadoSolicitud.PENDIENTE);
     }
 
@@ -5,6 +5,8 @@ import com.condominio.dto.request.SolicitudReservaUpdateDTO;
 import com.condominio.dto.response.*;
 import com.condominio.persistence.model.*;
 import com.condominio.persistence.repository.*;
+import com.condominio.service.implementation.AgendaRecursoService;
+import com.condominio.service.implementation.DisponibilidadReservaService;
 import com.condominio.service.implementation.SolicitudReservaRecursoService;
 import com.condominio.util.events.RepliedSolicitudEvent;
 import com.condominio.util.exception.ApiException;
@@ -25,7 +27,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,6 +62,12 @@ class SolicitudReservaRecursoServiceTest {
     @Mock
     private CasaRepository casaRepository;
 
+    @Mock
+    private AgendaRecursoService agendaRecursoService;
+
+    @Mock
+    private DisponibilidadReservaService disponibilidadReservaService;
+
     @Spy
     @InjectMocks
     private SolicitudReservaRecursoService solicitudReservaRecursoService;
@@ -82,7 +92,8 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.PENDIENTE))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.of(persona));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenReturn(Map.of(1L, solicitante(persona)));
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(new SolicitudReservaRecursoDTO());
 
@@ -116,14 +127,13 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.PENDIENTE))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(personaRepository.findPropietarioByCasaId(2L)).thenReturn(Optional.empty());
-        when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
-                .thenReturn(new SolicitudReservaRecursoDTO());
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(2L)))
+                .thenThrow(new ApiException("No se encontró un solicitante (arrendatario o propietario) para la casa con ID "
+                        + 2L, HttpStatus.BAD_REQUEST));
 
         assertThatThrownBy(() -> solicitudReservaRecursoService.findByEstado(EstadoSolicitud.PENDIENTE))
                 .isInstanceOf(ApiException.class)
-                .hasMessageContaining("No se encontro un solicitante");
+                .hasMessageContaining("No se encontró un solicitante");
     }
 
     @Test
@@ -146,7 +156,8 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.APROBADA))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.of(persona));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenReturn(Map.of(1L, solicitante(persona)));
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(new SolicitudReservaRecursoDTO());
 
@@ -180,7 +191,8 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.RECHAZADA))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.of(persona));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenReturn(Map.of(1L, solicitante(persona)));
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(new SolicitudReservaRecursoDTO());
 
@@ -213,14 +225,13 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.PENDIENTE))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.empty());
-        when(personaRepository.findPropietarioByCasaId(1L)).thenReturn(Optional.empty());
-        when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
-                .thenReturn(new SolicitudReservaRecursoDTO());
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenThrow(new ApiException("No se encontró un solicitante (arrendatario o propietario) para la casa con ID "
+                        + 1L, HttpStatus.BAD_REQUEST));
 
         assertThatThrownBy(() -> solicitudReservaRecursoService.findByEstado(EstadoSolicitud.PENDIENTE))
                 .isInstanceOf(ApiException.class)
-                .hasMessageContaining("No se encontro un solicitante (arrendatario o propietario)");
+                .hasMessageContaining("No se encontró un solicitante (arrendatario o propietario)");
     }
 
     @Test
@@ -241,8 +252,8 @@ class SolicitudReservaRecursoServiceTest {
 
         when(solicitudReservaRecursoRepository.findByEstadoSolicitud(EstadoSolicitud.PENDIENTE))
                 .thenReturn(List.of(solicitud));
-        when(personaRepository.findArrendatarioByCasaId(1L)).thenReturn(Optional.empty());
-        when(personaRepository.findPropietarioByCasaId(1L)).thenReturn(Optional.of(propietario));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenReturn(Map.of(1L, solicitante(propietario)));
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(new SolicitudReservaRecursoDTO());
 
@@ -412,6 +423,7 @@ class SolicitudReservaRecursoServiceTest {
         ArgumentCaptor<RepliedSolicitudEvent> evtCap = ArgumentCaptor.forClass(RepliedSolicitudEvent.class);
         verify(eventPublisher).publishEvent(evtCap.capture());
         assertThat(evtCap.getValue().getEmailPropietario()).isEqualTo("usuario@example.com");
+        verify(agendaRecursoService).liberar(solicitud);
     }
 
     @Test
@@ -476,6 +488,7 @@ class SolicitudReservaRecursoServiceTest {
         assertThat(result.message()).isEqualTo("Reserva cancelada exitosamente");
         verify(solicitudReservaRecursoRepository).findById(1L);
         verify(solicitudReservaRecursoRepository).delete(solicitud);
+        verify(agendaRecursoService).liberar(solicitud);
     }
 
     @Test
@@ -525,6 +538,8 @@ class SolicitudReservaRecursoServiceTest {
         saved.setHoraFin(dto.getHoraFin());
         saved.setNumeroInvitados(dto.getNumeroInvitados());
 
+        when(agendaRecursoService.mover(existing, dto.getFechaSolicitud(), dto.getHoraInicio(), dto.getHoraFin()))
+                .thenReturn(Optional.of(mock(AgendaRecursoService.Ocupacion.class)));
         when(solicitudReservaRecursoRepository.save(any(SolicitudReservaRecurso.class))).thenReturn(saved);
         when(modelMapper.map(saved, SolicitudReservaUpdateDTO.class)).thenReturn(dto);
 
@@ -623,14 +638,49 @@ class SolicitudReservaRecursoServiceTest {
 
         when(recursoComunRepository.findById(1L)).thenReturn(Optional.of(recurso));
         when(personaRepository.findById(2L)).thenReturn(Optional.of(persona));
-        when(solicitudReservaRecursoRepository.findByRecursoComunAndFechaSolicitud(recurso, solicitudDTO.getFechaSolicitud()))
-                .thenReturn(Collections.emptyList());
+        AgendaRecursoService.Ocupacion ocupacion = mock(AgendaRecursoService.Ocupacion.class);
+        when(agendaRecursoService.reclamar(1L, solicitudDTO.getFechaSolicitud(), solicitudDTO.getHoraInicio(), solicitudDTO.getHoraFin()))
+                .thenReturn(Optional.of(ocupacion));
 
         SuccessResult<SolicitudRecursoPropiDTO> resultado = solicitudReservaRecursoService.crearSolicitud(solicitudDTO);
 
         assertNotNull(resultado);
         assertEquals("Reserva creada exitosamente, Pendiente de aprobación por el administrador.", resultado.message());
         verify(solicitudReservaRecursoRepository, times(1)).save(any(SolicitudReservaRecurso.class));
+        verify(ocupacion).confirmar(any());
+        verify(agendaRecursoService, never()).liberar(any(AgendaRecursoService.Ocupacion.class));
+    }
+
+    @Test
+    void crearSolicitud_siFallaElGuardado_liberaElHorario() {
+        RecursoComun recurso = new RecursoComun();
+        recurso.setId(1L);
+        recurso.setDisponibilidadRecurso(DisponibilidadRecurso.DISPONIBLE);
+
+        Persona persona = new Persona();
+        persona.setId(2L);
+        persona.setCasa(new Casa(1L, 101));
+
+        SolicitudRecursoPropiDTO solicitudDTO = SolicitudRecursoPropiDTO.builder()
+                .idRecurso(1L)
+                .idSolicitante(2L)
+                .fechaSolicitud(LocalDate.of(2025, 10, 28))
+                .horaInicio(LocalTime.of(14, 0))
+                .horaFin(LocalTime.of(15, 0))
+                .build();
+
+        when(recursoComunRepository.findById(1L)).thenReturn(Optional.of(recurso));
+        when(personaRepository.findById(2L)).thenReturn(Optional.of(persona));
+        AgendaRecursoService.Ocupacion ocupacion = mock(AgendaRecursoService.Ocupacion.class);
+        when(agendaRecursoService.reclamar(1L, solicitudDTO.getFechaSolicitud(), solicitudDTO.getHoraInicio(), solicitudDTO.getHoraFin()))
+                .thenReturn(Optional.of(ocupacion));
+        when(solicitudReservaRecursoRepository.save(any(SolicitudReservaRecurso.class)))
+                .thenThrow(new IllegalStateException("db caída"));
+
+        assertThrows(IllegalStateException.class, () -> solicitudReservaRecursoService.crearSolicitud(solicitudDTO));
+
+        verify(agendaRecursoService).liberar(ocupacion);
+        verify(ocupacion, never()).confirmar(any());
     }
 
     @Test
@@ -660,13 +710,8 @@ class SolicitudReservaRecursoServiceTest {
         when(recursoComunRepository.findById(1L)).thenReturn(Optional.of(recurso));
         when(personaRepository.findById(2L)).thenReturn(Optional.of(persona));
 
-        SolicitudReservaRecurso reservaExistente = SolicitudReservaRecurso.builder()
-                .horaInicio(LocalTime.of(14, 30))
-                .horaFin(LocalTime.of(15, 30))
-                .build();
-
-        when(solicitudReservaRecursoRepository.findByRecursoComunAndFechaSolicitud(recurso, solicitudDTO.getFechaSolicitud()))
-                .thenReturn(List.of(reservaExistente));
+        when(agendaRecursoService.reclamar(1L, solicitudDTO.getFechaSolicitud(), solicitudDTO.getHoraInicio(), solicitudDTO.getHoraFin()))
+                .thenReturn(Optional.empty());
 
         ApiException ex = assertThrows(ApiException.class, () -> solicitudReservaRecursoService.crearSolicitud(solicitudDTO));
 
@@ -812,6 +857,7 @@ class SolicitudReservaRecursoServiceTest {
         SuccessResult<Void> result = solicitudReservaRecursoService.deleteSolicitud(1L);
 
         verify(solicitudReservaRecursoRepository, times(1)).deleteById(1L);
+        verify(agendaRecursoService).liberar(reserva);
         assertEquals("Solicitud eliminada correctamente", result.message());
     }
 
@@ -840,8 +886,8 @@ class SolicitudReservaRecursoServiceTest {
         // Given
         when(solicitudReservaRecursoRepository.findById(1L)).thenReturn(Optional.of(solicitud));
         // No hay conflicto de horario
-        doReturn(false).when(solicitudReservaRecursoService).validarFechaSolicitud(
-                any(), any(), any(), any(), anyLong());
+        when(agendaRecursoService.mover(solicitud, updateDTO.getFechaSolicitud(), updateDTO.getHoraInicio(), updateDTO.getHoraFin()))
+                .thenReturn(Optional.of(mock(AgendaRecursoService.Ocupacion.class)));
 
         // When
         SuccessResult<SolicitudRecursoPropiDTO> result = solicitudReservaRecursoService.actualizarSolicitud(updateDTO);
@@ -915,8 +961,8 @@ class SolicitudReservaRecursoServiceTest {
         updateDTO.setNumeroInvitados(8);
         // Given
         when(solicitudReservaRecursoRepository.findById(1L)).thenReturn(Optional.of(solicitud));
-        doReturn(true).when(solicitudReservaRecursoService).validarFechaSolicitud(
-                any(), any(), any(), any(), anyLong());
+        when(agendaRecursoService.mover(solicitud, updateDTO.getFechaSolicitud(), updateDTO.getHoraInicio(), updateDTO.getHoraFin()))
+                .thenReturn(Optional.empty());
 
         // When & Then
         ApiException exception = assertThrows(ApiException.class, () -> solicitudReservaRecursoService.actualizarSolicitud(updateDTO));
@@ -948,8 +994,8 @@ class SolicitudReservaRecursoServiceTest {
         when(solicitudReservaRecursoRepository.findAll())
                 .thenReturn(List.of(solicitud));
 
-        when(personaRepository.findArrendatarioByCasaId(1L))
-                .thenReturn(Optional.of(persona));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(1L)))
+                .thenReturn(Map.of(1L, solicitante(persona)));
 
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(dtoMock);
@@ -999,11 +1045,8 @@ class SolicitudReservaRecursoServiceTest {
         when(solicitudReservaRecursoRepository.findAll())
                 .thenReturn(List.of(solicitud));
 
-        when(personaRepository.findArrendatarioByCasaId(2L))
-                .thenReturn(Optional.empty());
-
-        when(personaRepository.findPropietarioByCasaId(2L))
-                .thenReturn(Optional.of(propietario));
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(2L)))
+                .thenReturn(Map.of(2L, solicitante(propietario)));
 
         when(modelMapper.map(any(SolicitudReservaRecurso.class), eq(SolicitudReservaRecursoDTO.class)))
                 .thenReturn(dtoMock);
@@ -1028,16 +1071,20 @@ class SolicitudReservaRecursoServiceTest {
         when(solicitudReservaRecursoRepository.findAll())
                 .thenReturn(List.of(solicitud));
 
-        when(personaRepository.findArrendatarioByCasaId(3L))
-                .thenReturn(Optional.empty());
-
-        when(personaRepository.findPropietarioByCasaId(3L))
-                .thenReturn(Optional.empty());
+        when(personaHelper.obtenerSolicitantesPorCasa(Set.of(3L)))
+                .thenThrow(new ApiException("No se encontró un solicitante (arrendatario o propietario) para la casa con ID "
+                        + 3L, HttpStatus.BAD_REQUEST));
 
         assertThatThrownBy(() -> solicitudReservaRecursoService.findAll())
                 .isInstanceOf(ApiException.class)
                 .hasMessageContaining("No se encontró un solicitante");
     }
 
+    private PersonaSimpleDTO solicitante(Persona persona) {
+        return PersonaSimpleDTO.builder()
+                .nombreCompleto(persona.getNombreCompleto())
+                .telefono(persona.getTelefono())
+                .correo(persona.getUser().getEmail())
+                .build();
+    }
 }
-
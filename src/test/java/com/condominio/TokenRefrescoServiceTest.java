@@ -0,0 +1,127 @@
+package com.condominio;
+
+import com.condominio.dto.response.RefreshResponse;
+import com.condominio.persistence.model.TokenRefresco;
+import com.condominio.persistence.repository.TokenRefrescoRepository;
+import com.condominio.service.implementation.InvalidacionTokenService;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.service.implementation.TokenRefrescoService;
+import com.condominio.util.exception.ApiException;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import com.condominio.util.security.UsuarioToken;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRefrescoServiceTest {
+
+    @Mock
+    private TokenRefrescoRepository tokenRefrescoRepository;
+    @Mock
+    private InvalidacionTokenService invalidacionTokenService;
+    @Mock
+    private JwtProperties jwtProperties;
+    @Mock
+    private PersonaService personaService;
+
+    private JwtUtil jwtUtil;
+    private TokenRefrescoService tokenRefrescoService;
+    private UsuarioToken usuario;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(jwtProperties.getSecret()).thenReturn("clave-de-prueba-de-al-menos-treinta-y-dos-bytes");
+        when(jwtProperties.getExpiration()).thenReturn(1L);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(24L);
+        jwtUtil = new JwtUtil(jwtProperties, personaService);
+        tokenRefrescoService = new TokenRefrescoService(tokenRefrescoRepository, jwtUtil, invalidacionTokenService);
+        usuario = new UsuarioToken("ana@mail.com", 12L, 7L,
+                List.<GrantedAuthority>of(new SimpleGrantedAuthority("ROLE_PROPIETARIO")));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void emitir_deberiaRegistrarSoloElHashDelIdentificador() {
+        String token = tokenRefrescoService.emitir(usuario);
+
+        Claims claims = jwtUtil.leerRefreshToken(token);
+        ArgumentCaptor<TokenRefresco> registrado = ArgumentCaptor.forClass(TokenRefresco.class);
+        verify(tokenRefrescoRepository).save(registrado.capture());
+        assertThat(registrado.getValue().getHash()).hasSize(64).isNotEqualTo(claims.getId());
+        assertThat(registrado.getValue().getFamilia()).isEqualTo(claims.get("familia", String.class));
+        assertThat(registrado.getValue().getEmail()).isEqualTo("ana@mail.com");
+    }
+
+    @Test
+    void refrescar_deberiaRotarDentroDeLaMismaFamiliaYEmitirAccesoConLosClaims() {
+        String token = tokenRefrescoService.emitir(usuario);
+        when(tokenRefrescoRepository.consumir(anyString())).thenReturn(1);
+
+        RefreshResponse respuesta = tokenRefrescoService.refrescar(token);
+
+        Claims acceso = jwtUtil.leerAccessToken(respuesta.token());
+        assertThat(acceso.getSubject()).isEqualTo("ana@mail.com");
+        assertThat(acceso.get("idCasa", Long.class)).isEqualTo(7L);
+        assertThat(acceso.get("rol", List.class)).containsExactly("ROLE_PROPIETARIO");
+        Claims anterior = jwtUtil.leerRefreshToken(token);
+        Claims nuevo = jwtUtil.leerRefreshToken(respuesta.refreshToken());
+        assertThat(nuevo.getId()).isNotEqualTo(anterior.getId());
+        assertThat(nuevo.get("familia")).isEqualTo(anterior.get("familia"));
+        verify(tokenRefrescoRepository, times(2)).save(any());
+        verifyNoInteractions(personaService);
+    }
+
+    @Test
+    void refrescar_tokenYaUsado_deberiaRevocarLaFamilia() {
+        String token = tokenRefrescoService.emitir(usuario);
+        when(tokenRefrescoRepository.consumir(anyString())).thenReturn(0);
+        when(tokenRefrescoRepository.existsByHash(anyString())).thenReturn(true);
+
+        assertThatThrownBy(() -> tokenRefrescoService.refrescar(token))
+                .isInstanceOf(ApiException.class)
+                .satisfies(ex -> assertThat(((ApiException) ex).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        verify(tokenRefrescoRepository).revocarFamilia(jwtUtil.leerRefreshToken(token).get("familia", String.class));
+    }
+
+    @Test
+    void refrescar_tokenSinRegistro_deberiaRechazarseSinRevocar() {
+        String token = jwtUtil.generateRefreshToken(usuario, "familia", "desconocido");
+
+        assertThatThrownBy(() -> tokenRefrescoService.refrescar(token)).isInstanceOf(ApiException.class);
+        verify(tokenRefrescoRepository, never()).revocarFamilia(any());
+    }
+
+    @Test
+    void refrescar_tokenDeAccesoOUsuarioInvalidado_deberiaRechazarse() {
+        assertThatThrownBy(() -> tokenRefrescoService.refrescar(jwtUtil.generateAccessToken(usuario)))
+                .isInstanceOf(ApiException.class);
+
+        String token = tokenRefrescoService.emitir(usuario);
+        when(invalidacionTokenService.estaInvalidado(eq("ana@mail.com"), any())).thenReturn(true);
+        assertThatThrownBy(() -> tokenRefrescoService.refrescar(token)).isInstanceOf(ApiException.class);
+        verify(tokenRefrescoRepository, never()).consumir(any());
+    }
+}
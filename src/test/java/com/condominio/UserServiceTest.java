@@ -10,6 +10,7 @@ import com.condominio.persistence.repository.PersonaRepository;
 import com.condominio.persistence.repository.RoleRepository;
 import com.condominio.persistence.repository.UserRepository;
 import com.condominio.service.implementation.EmailService;
+import com.condominio.service.implementation.InvalidacionTokenService;
 import com.condominio.service.implementation.UserService;
 import com.condominio.util.exception.ApiException;
 import org.junit.jupiter.api.AfterEach;
@@ -48,6 +49,9 @@ class UserServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private InvalidacionTokenService invalidacionTokenService;
+
     private AutoCloseable closeable;
 
     @BeforeEach
@@ -276,6 +280,7 @@ class UserServiceTest {
         dto.setConfirmPassword("newPass");
 
         UserEntity userEntity = new UserEntity();
+        userEntity.setEmail("test@gmail.com");
         userEntity.setContrasenia("encodedOldPass");
 
         when(userRepository.findUserEntityByEmail("test@gmail.com")).thenReturn(userEntity);
@@ -290,6 +295,7 @@ class UserServiceTest {
         verify(passwordEncoder).matches("oldPass", "encodedOldPass");
         verify(passwordEncoder).encode("newPass");
         verify(userRepository).save(userEntity);
+        verify(invalidacionTokenService).invalidar("test@gmail.com");
         assertEquals("encodedNewPass", userEntity.getContrasenia());
     }
 
@@ -364,6 +370,7 @@ class UserServiceTest {
         verify(userRepository).findByEmail(email);
         verify(passwordEncoder).encode(anyString());
         verify(userRepository).save(user);
+        verify(invalidacionTokenService).invalidar(email);
         verify(personaRepository).findByUser_Id(1L);
 
         verify(emailService).enviarPasswordOlvidada(
@@ -0,0 +1,104 @@
+package com.condominio.benchmark;
+
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import com.condominio.util.security.UsuarioToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Costo de autenticar una petición a partir del token, sin contar la base de datos.
+ * <ul>
+ *     <li>{@code comoAntes}: lo que hacía el filtro, {@code validateToken} y luego
+ *     {@code extractUsername}, cada uno con su propio parser: dos verificaciones de firma.</li>
+ *     <li>{@code parserUnico}: {@link JwtUtil#leerAccessToken} con el parser compartido y el cache
+ *     desactivado, una verificación por petición.</li>
+ *     <li>{@code conCache}: {@link JwtUtil#leerAccessToken} con el token ya verificado en el cache.</li>
+ * </ul>
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase, que activa el
+ * perfilador de GC de JMH para reportar {@code gc.alloc.rate.norm} (bytes por petición).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutenticacionJwtBenchmark {
+
+    private static final String SECRETO = "clave-de-benchmark-de-al-menos-treinta-y-dos-bytes";
+
+    private Key key;
+    private JwtUtil sinCache;
+    private JwtUtil conCache;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        key = Keys.hmacShaKeyFor(SECRETO.getBytes());
+        PersonaService personaService = Mockito.mock(PersonaService.class);
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setCasa(Casa.builder().id(7L).build());
+        when(personaService.getPersonaFromUserDetails(any())).thenReturn(persona);
+
+        sinCache = new JwtUtil(propiedades(0), personaService);
+        conCache = new JwtUtil(propiedades(10_000), personaService);
+        token = sinCache.generateAccessToken(User.withUsername("ana@mail.com").password("x").roles("PROPIETARIO").build());
+        conCache.leerAccessToken(token);
+    }
+
+    private static JwtProperties propiedades(int maxClaimsEnCache) {
+        JwtProperties propiedades = Mockito.mock(JwtProperties.class);
+        when(propiedades.getSecret()).thenReturn(SECRETO);
+        when(propiedades.getExpiration()).thenReturn(1L);
+        when(propiedades.getRefreshExpiration()).thenReturn(24L);
+        when(propiedades.getMaxClaimsEnCache()).thenReturn(maxClaimsEnCache);
+        return propiedades;
+    }
+
+    @Benchmark
+    public String comoAntes() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public UsuarioToken parserUnico() {
+        return autenticar(sinCache);
+    }
+
+    @Benchmark
+    public UsuarioToken conCache() {
+        return autenticar(conCache);
+    }
+
+    private UsuarioToken autenticar(JwtUtil jwtUtil) {
+        Claims claims = jwtUtil.leerAccessToken(token);
+        return UsuarioToken.desdeClaims(claims);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AutenticacionJwtBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
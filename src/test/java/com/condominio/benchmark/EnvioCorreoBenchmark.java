@@ -0,0 +1,176 @@
+package com.condominio.benchmark;
+
+import com.condominio.service.implementation.DespachoCorreoService;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mensajes por segundo enviados a un servidor SMTP de prueba que corre en el mismo proceso.
+ * <ul>
+ *     <li>{@code conexionPorMensaje}: lo que hacía cada método de {@code EmailService},
+ *     un {@code send(mimeMessage)} que abre y cierra su propia conexión.</li>
+ *     <li>{@code conexionPorBloque}: {@link DespachoCorreoService}, un
+ *     {@code send(MimeMessage...)} por bloque de {@code MENSAJES_POR_CONEXION} mensajes.</li>
+ * </ul>
+ * El servidor de prueba responde al instante; {@code latenciaConexionMillis} retrasa el saludo
+ * para simular lo que cuesta abrir la conexión con smtp.gmail.com (TCP, STARTTLS y AUTH).
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(EnvioCorreoBenchmark.MENSAJES)
+public class EnvioCorreoBenchmark {
+
+    static final int MENSAJES = 100;
+    private static final int MENSAJES_POR_CONEXION = 20;
+
+    @Param({"0", "30"})
+    private long latenciaConexionMillis;
+
+    private ServidorSmtpSimulado servidor;
+    private JavaMailSenderImpl mailSender;
+    private MimeMessage[] mensajes;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException, MessagingException {
+        servidor = new ServidorSmtpSimulado(latenciaConexionMillis);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(servidor.puerto());
+        Properties propiedades = new Properties();
+        propiedades.put("mail.smtp.from", "administracion@condominio.test");
+        mailSender.setJavaMailProperties(propiedades);
+
+        mensajes = new MimeMessage[MENSAJES];
+        for (int i = 0; i < MENSAJES; i++) {
+            mensajes[i] = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mensajes[i], true, "UTF-8");
+            helper.setTo("casa" + i + "@condominio.test");
+            helper.setSubject("Se ha generado tu mensualidad por administración de Octubre");
+            helper.setText("<html><body><p>Casa " + i + ": administración octubre 2025, $50.000</p></body></html>", true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        servidor.close();
+    }
+
+    @Benchmark
+    public long conexionPorMensaje() {
+        for (MimeMessage mensaje : mensajes) {
+            mailSender.send(mensaje);
+        }
+        return servidor.recibidos();
+    }
+
+    @Benchmark
+    public long conexionPorBloque() {
+        for (int i = 0; i < MENSAJES; i += MENSAJES_POR_CONEXION) {
+            mailSender.send(Arrays.copyOfRange(mensajes, i, Math.min(i + MENSAJES_POR_CONEXION, MENSAJES)));
+        }
+        return servidor.recibidos();
+    }
+
+    /** Lo justo de SMTP para que JavaMail entregue mensajes: acepta todo y descarta el contenido. */
+    static final class ServidorSmtpSimulado implements Closeable {
+        private final ServerSocket serverSocket;
+        private final long latenciaConexionMillis;
+        private final AtomicLong recibidos = new AtomicLong();
+
+        ServidorSmtpSimulado(long latenciaConexionMillis) throws IOException {
+            this.latenciaConexionMillis = latenciaConexionMillis;
+            this.serverSocket = new ServerSocket(0);
+            Thread.ofPlatform().daemon().name("smtp-simulado").start(this::aceptar);
+        }
+
+        int puerto() {
+            return serverSocket.getLocalPort();
+        }
+
+        long recibidos() {
+            return recibidos.get();
+        }
+
+        private void aceptar() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread.ofVirtual().start(() -> atender(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void atender(Socket socket) {
+            try (socket;
+                 BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                 Writer salida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.ISO_8859_1))) {
+                Thread.sleep(latenciaConexionMillis);
+                responder(salida, "220 localhost ESMTP");
+                String linea;
+                while ((linea = entrada.readLine()) != null) {
+                    String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                    switch (comando) {
+                        case "EHLO", "HELO" -> responder(salida, "250 localhost");
+                        case "DATA" -> {
+                            responder(salida, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((linea = entrada.readLine()) != null && !linea.equals(".")) {
+                                // el contenido no interesa
+                            }
+                            recibidos.incrementAndGet();
+                            responder(salida, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            responder(salida, "221 Bye");
+                            return;
+                        }
+                        default -> responder(salida, "250 OK");
+                    }
+                }
+            } catch (SocketException e) {
+                // el cliente cerró la conexión
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static void responder(Writer salida, String respuesta) throws IOException {
+            salida.write(respuesta);
+            salida.write("\r\n");
+            salida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EnvioCorreoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,195 @@
+package com.condominio.benchmark;
+
+import com.condominio.persistence.model.*;
+import com.condominio.persistence.repository.ObligacionLoteRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Facturación de administración para 10.000 casas sobre H2 en memoria.
+ * <ul>
+ *     <li>{@code insercionFilaAFila}: lo que hacía {@code saveAll} con ids IDENTITY,
+ *     un INSERT con recuperación de llave por casa en una sola transacción.</li>
+ *     <li>{@code insercionPorLotes}: {@link ObligacionLoteRepositoryImpl} con lotes de 500
+ *     casas, consulta de casas ya facturadas y commit por lote.</li>
+ * </ul>
+ * H2 en memoria no tiene latencia de red; {@code latenciaMicros} simula el viaje de ida y
+ * vuelta a MySQL en cada ejecución de sentencia y en cada commit.
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FacturacionMensualBenchmark {
+
+    private static final int CASAS = 10_000;
+    private static final int TAMANO_LOTE = 500;
+    private static final String PERIODO = "2025-10";
+
+    @Param({"0", "250"})
+    private long latenciaMicros;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ObligacionLoteRepositoryImpl loteRepository;
+
+    @Setup(Level.Trial)
+    public void crearEsquema() throws SQLException {
+        Connection conexion = DriverManager.getConnection("jdbc:h2:mem:facturacion;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource = new SingleConnectionDataSource(conLatencia(conexion, Connection.class), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        loteRepository = new ObligacionLoteRepositoryImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE casa (id BIGINT AUTO_INCREMENT PRIMARY KEY, numero_casa INT)");
+        jdbcTemplate.execute("""
+                CREATE TABLE obligacion (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    fecha_generada DATE, fecha_limite DATE, monto INT, tasa_interes DOUBLE,
+                    interes INT, mora INT, monto_pagado INT, motivo VARCHAR(255), titulo VARCHAR(255),
+                    valor_total INT, valor_pendiente INT, casa_id BIGINT NOT NULL,
+                    tipo_pago VARCHAR(20), tipo_obligacion VARCHAR(20), estado_pago VARCHAR(20),
+                    periodo VARCHAR(7),
+                    CONSTRAINT uk_obligacion_casa_periodo UNIQUE (casa_id, periodo))
+                """);
+        List<Object[]> casas = new ArrayList<>(CASAS);
+        for (int i = 1; i <= CASAS; i++) {
+            casas.add(new Object[]{i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO casa (numero_casa) VALUES (?)", casas);
+    }
+
+    @Setup(Level.Invocation)
+    public void limpiar() {
+        jdbcTemplate.execute("TRUNCATE TABLE obligacion");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int insercionFilaAFila() {
+        return transactionTemplate.execute(status -> {
+            int insertadas = 0;
+            for (long idCasa = 1; idCasa <= CASAS; idCasa++) {
+                Obligacion o = obligacion(idCasa);
+                GeneratedKeyHolder llave = new GeneratedKeyHolder();
+                insertadas += jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement("""
+                            INSERT INTO obligacion (fecha_generada, fecha_limite, monto, tasa_interes, interes, mora,
+                                                    monto_pagado, motivo, titulo, valor_total, valor_pendiente,
+                                                    casa_id, tipo_pago, tipo_obligacion, estado_pago)
+                            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                            """, Statement.RETURN_GENERATED_KEYS);
+                    ps.setDate(1, Date.valueOf(o.getFechaGenerada()));
+                    ps.setDate(2, Date.valueOf(o.getFechaLimite()));
+                    ps.setInt(3, o.getMonto());
+                    ps.setDouble(4, o.getTasaInteres());
+                    ps.setInt(5, 0);
+                    ps.setInt(6, 0);
+                    ps.setInt(7, 0);
+                    ps.setString(8, o.getMotivo());
+                    ps.setString(9, o.getTitulo());
+                    ps.setInt(10, o.getMonto());
+                    ps.setInt(11, o.getMonto());
+                    ps.setLong(12, o.getCasa().getId());
+                    ps.setString(13, o.getTipoPago().name());
+                    ps.setString(14, o.getTipoObligacion().name());
+                    ps.setString(15, o.getEstadoPago().name());
+                    return ps;
+                }, llave);
+            }
+            return insertadas;
+        });
+    }
+
+    @Benchmark
+    public int insercionPorLotes() {
+        int insertadas = 0;
+        for (long desde = 0; desde < CASAS; desde += TAMANO_LOTE) {
+            long inicio = desde;
+            insertadas += transactionTemplate.execute(status -> {
+                List<Long> facturadas = jdbcTemplate.queryForList(
+                        "SELECT casa_id FROM obligacion WHERE periodo = ? AND casa_id > ? AND casa_id <= ?",
+                        Long.class, PERIODO, inicio, inicio + TAMANO_LOTE);
+                List<Obligacion> lote = new ArrayList<>(TAMANO_LOTE);
+                for (long idCasa = inicio + 1; idCasa <= inicio + TAMANO_LOTE; idCasa++) {
+                    if (!facturadas.contains(idCasa)) {
+                        lote.add(obligacion(idCasa));
+                    }
+                }
+                return loteRepository.insertarEnLote(lote);
+            });
+        }
+        return insertadas;
+    }
+
+    /** Agrega {@code latenciaMicros} a cada llamada que en MySQL sería un viaje por la red. */
+    private <T> T conLatencia(T destino, Class<T> tipo) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("execute") || nombre.equals("commit")) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latenciaMicros));
+            }
+            try {
+                Object resultado = metodo.invoke(destino, args);
+                if (resultado instanceof PreparedStatement ps) {
+                    return conLatencia(ps, PreparedStatement.class);
+                }
+                if (resultado instanceof Statement st) {
+                    return conLatencia(st, Statement.class);
+                }
+                return resultado;
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }));
+    }
+
+    private static Obligacion obligacion(long idCasa) {
+        LocalDate hoy = LocalDate.of(2025, 10, 1);
+        return Obligacion.builder()
+                .fechaGenerada(hoy)
+                .fechaLimite(hoy.plusDays(10))
+                .monto(50000)
+                .tasaInteres(0.02)
+                .motivo("Cobro correspondiente a la administración de octubre 2025")
+                .titulo("Administración octubre 2025")
+                .periodo(PERIODO)
+                .tipoPago(TipoPago.DINERO)
+                .tipoObligacion(TipoObligacion.ADMINISTRACION)
+                .estadoPago(EstadoPago.PENDIENTE)
+                .casa(Casa.builder().id(idCasa).build())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FacturacionMensualBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
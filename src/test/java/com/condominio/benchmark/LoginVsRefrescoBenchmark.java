@@ -0,0 +1,128 @@
+package com.condominio.benchmark;
+
+import com.condominio.dto.response.AuthResponse;
+import com.condominio.dto.response.RefreshResponse;
+import com.condominio.persistence.model.Casa;
+import com.condominio.persistence.model.Persona;
+import com.condominio.persistence.model.RoleEntity;
+import com.condominio.persistence.model.RoleEnum;
+import com.condominio.persistence.model.UserEntity;
+import com.condominio.persistence.repository.PersonaRepository;
+import com.condominio.persistence.repository.TokenRefrescoRepository;
+import com.condominio.service.implementation.InvalidacionTokenService;
+import com.condominio.service.implementation.LoginService;
+import com.condominio.service.implementation.PersonaService;
+import com.condominio.service.implementation.TokenRefrescoService;
+import com.condominio.util.security.JwtProperties;
+import com.condominio.util.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Costo de CPU de obtener un token de acceso nuevo, sin contar la base de datos.
+ * <ul>
+ *     <li>{@code login}: {@link LoginService} con BCrypt de fuerza 10 en su pool, más los dos tokens.</li>
+ *     <li>{@code refresco}: {@link TokenRefrescoService#refrescar} con un token de refresco vigente:
+ *     verifica la firma, rota el token y emite el de acceso.</li>
+ * </ul>
+ * En base de datos el login hace una consulta y un insert; el refresco, un update y un insert.
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase, que activa el
+ * perfilador de GC de JMH para reportar {@code gc.alloc.rate.norm} (bytes por operación).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginVsRefrescoBenchmark {
+
+    private static final String SECRETO = "clave-de-benchmark-de-al-menos-treinta-y-dos-bytes";
+
+    private ThreadPoolTaskExecutor bcryptTaskExecutor;
+    private LoginService loginService;
+    private TokenRefrescoService tokenRefrescoService;
+    private String refreshToken;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        JwtProperties propiedades = mock(JwtProperties.class);
+        when(propiedades.getSecret()).thenReturn(SECRETO);
+        when(propiedades.getExpiration()).thenReturn(1L);
+        when(propiedades.getRefreshExpiration()).thenReturn(24L);
+        JwtUtil jwtUtil = new JwtUtil(propiedades, mock(PersonaService.class));
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+        PersonaRepository personaRepository = mock(PersonaRepository.class, withSettings().stubOnly());
+        when(personaRepository.findParaLogin(anyString())).thenReturn(Optional.of(persona(passwordEncoder.encode("secreta"))));
+        TokenRefrescoRepository tokenRefrescoRepository = mock(TokenRefrescoRepository.class, withSettings().stubOnly());
+        when(tokenRefrescoRepository.consumir(anyString())).thenReturn(1);
+        InvalidacionTokenService invalidacionTokenService = mock(InvalidacionTokenService.class, withSettings().stubOnly());
+        when(invalidacionTokenService.estaInvalidado(anyString(), any())).thenReturn(false);
+
+        bcryptTaskExecutor = new ThreadPoolTaskExecutor();
+        bcryptTaskExecutor.setCorePoolSize(1);
+        bcryptTaskExecutor.setMaxPoolSize(1);
+        bcryptTaskExecutor.initialize();
+        tokenRefrescoService = new TokenRefrescoService(tokenRefrescoRepository, jwtUtil, invalidacionTokenService);
+        loginService = new LoginService(personaRepository, passwordEncoder, jwtUtil, tokenRefrescoService, bcryptTaskExecutor);
+        refreshToken = loginService.login("ana@mail.com", "secreta").join().refreshToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        bcryptTaskExecutor.shutdown();
+    }
+
+    @Benchmark
+    public AuthResponse login() {
+        return loginService.login("ana@mail.com", "secreta").join();
+    }
+
+    /** El repositorio simulado acepta siempre el mismo token, así que se puede refrescar en bucle. */
+    @Benchmark
+    public RefreshResponse refresco() {
+        return tokenRefrescoService.refrescar(refreshToken);
+    }
+
+    private static Persona persona(String hash) {
+        UserEntity user = UserEntity.builder()
+                .email("ana@mail.com")
+                .contrasenia(hash)
+                .isEnabled(true)
+                .accountNoExpired(true)
+                .accountNoLocked(true)
+                .credentialNoExpired(true)
+                .roles(Set.of(RoleEntity.builder().roleEnum(RoleEnum.PROPIETARIO).build()))
+                .build();
+        Persona persona = new Persona();
+        persona.setId(12L);
+        persona.setPrimerNombre("Ana");
+        persona.setPrimerApellido("Gómez");
+        persona.setUser(user);
+        persona.setCasa(Casa.builder().id(7L).build());
+        return persona;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginVsRefrescoBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.condominio.benchmark;
+
+import com.condominio.service.implementation.CacheCertificadoService;
+import com.condominio.service.implementation.PdfService;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia y memoria asignada por certificado de paz y salvo con la plantilla real.
+ * <ul>
+ *     <li>{@code comoAntes}: lo que hacía {@link PdfService}, leer el logo del classpath y
+ *     pasarlo a Base64 en cada llamada para incrustarlo en el HTML.</li>
+ *     <li>{@code precargado}: {@link PdfService} con el logo en memoria, servido por {@code recurso:}.</li>
+ *     <li>{@code enCache}: {@link CacheCertificadoService} con el certificado ya emitido hoy.</li>
+ * </ul>
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase, que activa el
+ * perfilador de GC de JMH para reportar {@code gc.alloc.rate.norm} (bytes por certificado).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PazYSalvoPdfBenchmark {
+
+    private static final String NOMBRE = "Ana María Gómez Rodríguez";
+    private static final long CASA = 44L;
+    private static final LocalDate FECHA = LocalDate.of(2025, 10, 20);
+
+    private SpringTemplateEngine templateEngine;
+    private PdfService pdfService;
+    private CacheCertificadoService cacheCertificadoService;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        pdfService = new PdfService(templateEngine);
+        cacheCertificadoService = new CacheCertificadoService(100);
+        cacheCertificadoService.obtener(CASA, FECHA, NOMBRE, () -> pdfService.generarPdf(NOMBRE, CASA, "20/10/2025"));
+    }
+
+    @Benchmark
+    public byte[] comoAntes() throws IOException {
+        Context context = new Context();
+        context.setVariable("nombre", NOMBRE);
+        context.setVariable("casa", "Casa " + CASA);
+        context.setVariable("fecha", "20/10/2025");
+        context.setVariable("estado", "al_dia");
+        context.setVariable("condominioNombre", "Condominio Flor del  campo");
+        try (InputStream logo = getClass().getClassLoader().getResourceAsStream("static/images/logo.png")) {
+            context.setVariable("logoPresent", true);
+            context.setVariable("logoSrc", "data:image/png;base64," + Base64.getEncoder().encodeToString(logo.readAllBytes()));
+        }
+        context.setVariable("firmaPresent", false);
+        context.setVariable("firmaNombre", "Administración Condominio");
+        String html = templateEngine.process("UpToDatePDF/uptodate", context);
+
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.withHtmlContent(html, null);
+            builder.toStream(os);
+            builder.run();
+            return os.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public byte[] precargado() throws IOException {
+        return pdfService.generarPdf(NOMBRE, CASA, "20/10/2025");
+    }
+
+    @Benchmark
+    public byte[] enCache() throws IOException {
+        return cacheCertificadoService.obtener(CASA, FECHA, NOMBRE, () -> pdfService.generarPdf(NOMBRE, CASA, "20/10/2025"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PazYSalvoPdfBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.condominio.benchmark;
+
+import com.condominio.service.implementation.PlantillaCorreoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de renderizar el aviso de mensualidad ({@code email/obligacion-mensual}) por destinatario.
+ * <ul>
+ *     <li>{@code thymeleafPorDestinatario}: lo que se hacía antes, un {@code Context} nuevo y el
+ *     recorrido completo de la plantilla (ya parseada y en caché) por cada casa.</li>
+ *     <li>{@code cuerpoCompartido}: {@link PlantillaCorreoService#compartir} una vez y
+ *     {@code para(casa)} por destinatario.</li>
+ *     <li>{@code memorizado}: {@link PlantillaCorreoService#renderizar} con las mismas variables,
+ *     el caso de la invitación a asamblea, igual para todos.</li>
+ * </ul>
+ * Se ejecuta con {@code mvn test-compile} y el {@code main} de esta clase.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderizadoCorreoBenchmark {
+
+    private static final String PLANTILLA = "email/obligacion-mensual";
+    private static final int CASAS = 500;
+
+    private SpringTemplateEngine templateEngine;
+    private PlantillaCorreoService plantillaCorreoService;
+    private PlantillaCorreoService.PlantillaCompartida compartida;
+    private Map<String, Object> comunes;
+    private int casa;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        plantillaCorreoService = new PlantillaCorreoService(templateEngine, 256);
+
+        comunes = Map.of(
+                "titulo", "Administración octubre 2025",
+                "motivo", "Cobro correspondiente a la administración de octubre 2025",
+                "monto", 50000);
+        compartida = plantillaCorreoService.compartir(PLANTILLA, comunes, Set.of("casa"));
+    }
+
+    @Benchmark
+    public String thymeleafPorDestinatario() {
+        Context context = new Context();
+        context.setVariables(comunes);
+        context.setVariable("casa", siguienteCasa());
+        return templateEngine.process(PLANTILLA, context);
+    }
+
+    @Benchmark
+    public String cuerpoCompartido() {
+        return compartida.para(Map.of("casa", siguienteCasa()));
+    }
+
+    @Benchmark
+    public String memorizado() {
+        Map<String, Object> variables = new HashMap<>(comunes);
+        variables.put("casa", 1);
+        return plantillaCorreoService.renderizar(PLANTILLA, variables);
+    }
+
+    private int siguienteCasa() {
+        casa = casa % CASAS + 1;
+        return casa;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RenderizadoCorreoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}